@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.address;
+
+import de.hybris.platform.commercefacades.address.AddressVerificationFacade;
+
+
+/**
+ * {@link AddressVerificationFacade} that keeps verification results per normalized address, so an address submitted
+ * again, for example while the user edits other fields, is not sent to the verification service again.
+ */
+public interface CachingAddressVerificationFacade extends AddressVerificationFacade
+{
+	/**
+	 * Drops all verification results.
+	 */
+	void invalidateAll();
+
+	/**
+	 * @return number of verifications answered from the cache since startup
+	 */
+	long getHitCount();
+
+	/**
+	 * @return number of verifications passed to the verification service since startup
+	 */
+	long getMissCount();
+}
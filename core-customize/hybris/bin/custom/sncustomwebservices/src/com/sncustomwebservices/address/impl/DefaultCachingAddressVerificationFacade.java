@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.address.impl;
+
+import de.hybris.platform.commercefacades.address.AddressVerificationFacade;
+import de.hybris.platform.commercefacades.address.data.AddressVerificationResult;
+import de.hybris.platform.commercefacades.user.data.AddressData;
+import de.hybris.platform.commerceservices.address.AddressVerificationDecision;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.servicelayer.i18n.CommonI18NService;
+import com.sncustomwebservices.address.CachingAddressVerificationFacade;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link CachingAddressVerificationFacade}. Results are keyed by a fingerprint of the fields
+ * the verification looks at: country, region, postal code, town and both address lines, compared case insensitively
+ * and with whitespace collapsed, plus the session language of the suggested addresses. Names, phone numbers and other
+ * fields do not change the fingerprint. Results expire after {@link #getTimeToLive()} seconds, the cache is cleared
+ * when it holds more than {@link #getMaxEntries()} results.
+ * <p>
+ * Only the decision, the field errors and the address fields of the suggestions are cached. Every caller gets a new
+ * result whose suggestions take names, phone numbers, email and all other fields from the address it passed, so no
+ * personal data of the customer who verified an address first is returned to another one.
+ */
+public class DefaultCachingAddressVerificationFacade implements CachingAddressVerificationFacade
+{
+	private static final Logger LOG = Logger.getLogger(DefaultCachingAddressVerificationFacade.class);
+	private static final char SEPARATOR = '\u001f';
+
+	private final ConcurrentMap<String, CachedResult> results = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private AddressVerificationFacade addressVerificationFacade;
+	private CommonI18NService commonI18NService;
+	private boolean enabled = true;
+	private long timeToLive;
+	private int maxEntries;
+
+	@Override
+	public AddressVerificationResult<AddressVerificationDecision> verifyAddressData(final AddressData addressData)
+	{
+		if (!isEnabled())
+		{
+			return getAddressVerificationFacade().verifyAddressData(addressData);
+		}
+
+		final String fingerprint = getFingerprint(addressData);
+		final long now = System.currentTimeMillis();
+		final CachedResult cached = results.get(fingerprint);
+		if (cached != null && cached.getExpiresAt() > now)
+		{
+			hits.increment();
+			return createResult(cached.getResult(), addressData);
+		}
+
+		misses.increment();
+		final AddressVerificationResult<AddressVerificationDecision> result = getAddressVerificationFacade()
+				.verifyAddressData(addressData);
+		if (result != null && result.getDecision() != null)
+		{
+			if (getMaxEntries() > 0 && results.size() >= getMaxEntries())
+			{
+				LOG.info("Address verification cache reached " + getMaxEntries() + " results, clearing it");
+				invalidateAll();
+			}
+			results.put(fingerprint,
+					new CachedResult(createCachedResult(result), now + TimeUnit.SECONDS.toMillis(getTimeToLive())));
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isCustomerAllowedToIgnoreSuggestions()
+	{
+		return getAddressVerificationFacade().isCustomerAllowedToIgnoreSuggestions();
+	}
+
+	@Override
+	public void invalidateAll()
+	{
+		results.clear();
+	}
+
+	@Override
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	@Override
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	protected String getFingerprint(final AddressData addressData)
+	{
+		final LanguageModel language = getCommonI18NService().getCurrentLanguage();
+		return new StringBuilder()
+				.append(addressData.getCountry() == null ? "" : normalize(addressData.getCountry().getIsocode())).append(SEPARATOR)
+				.append(addressData.getRegion() == null ? "" : normalize(addressData.getRegion().getIsocode())).append(SEPARATOR)
+				.append(StringUtils.deleteWhitespace(normalize(addressData.getPostalCode()))).append(SEPARATOR)
+				.append(normalize(addressData.getTown())).append(SEPARATOR)
+				.append(normalize(addressData.getLine1())).append(SEPARATOR)
+				.append(normalize(addressData.getLine2())).append(SEPARATOR)
+				.append(language == null ? "" : language.getIsocode()).toString();
+	}
+
+	/**
+	 * Copies the decision and errors of the result, keeping only the verified address fields of the suggestions.
+	 */
+	protected AddressVerificationResult<AddressVerificationDecision> createCachedResult(
+			final AddressVerificationResult<AddressVerificationDecision> result)
+	{
+		final List<AddressData> suggestions = new ArrayList<>();
+		if (result.getSuggestedAddresses() != null)
+		{
+			for (final AddressData suggestion : result.getSuggestedAddresses())
+			{
+				final AddressData verified = new AddressData();
+				copyVerifiedFields(suggestion, verified);
+				suggestions.add(verified);
+			}
+		}
+		final AddressVerificationResult<AddressVerificationDecision> cachedResult = new AddressVerificationResult<>();
+		cachedResult.setDecision(result.getDecision());
+		cachedResult.setErrors(result.getErrors());
+		cachedResult.setSuggestedAddresses(suggestions);
+		return cachedResult;
+	}
+
+	/**
+	 * Creates the result for the given address from a cached result, suggestions are the given address with the verified
+	 * fields of the cached suggestions.
+	 */
+	protected AddressVerificationResult<AddressVerificationDecision> createResult(
+			final AddressVerificationResult<AddressVerificationDecision> cachedResult, final AddressData addressData)
+	{
+		final List<AddressData> suggestions = new ArrayList<>(cachedResult.getSuggestedAddresses().size());
+		for (final AddressData verified : cachedResult.getSuggestedAddresses())
+		{
+			final AddressData suggestion = new AddressData();
+			BeanUtils.copyProperties(addressData, suggestion);
+			copyVerifiedFields(verified, suggestion);
+			suggestions.add(suggestion);
+		}
+		final AddressVerificationResult<AddressVerificationDecision> result = new AddressVerificationResult<>();
+		result.setDecision(cachedResult.getDecision());
+		result.setErrors(cachedResult.getErrors() == null ? null : new LinkedHashMap<>(cachedResult.getErrors()));
+		result.setSuggestedAddresses(suggestions);
+		return result;
+	}
+
+	protected void copyVerifiedFields(final AddressData source, final AddressData target)
+	{
+		target.setCountry(source.getCountry());
+		target.setRegion(source.getRegion());
+		target.setDistrict(source.getDistrict());
+		target.setPostalCode(source.getPostalCode());
+		target.setTown(source.getTown());
+		target.setLine1(source.getLine1());
+		target.setLine2(source.getLine2());
+	}
+
+	protected String normalize(final String value)
+	{
+		return StringUtils.normalizeSpace(StringUtils.defaultString(value)).toLowerCase(Locale.ROOT);
+	}
+
+	protected AddressVerificationFacade getAddressVerificationFacade()
+	{
+		return addressVerificationFacade;
+	}
+
+	@Required
+	public void setAddressVerificationFacade(final AddressVerificationFacade addressVerificationFacade)
+	{
+		this.addressVerificationFacade = addressVerificationFacade;
+	}
+
+	protected CommonI18NService getCommonI18NService()
+	{
+		return commonI18NService;
+	}
+
+	@Required
+	public void setCommonI18NService(final CommonI18NService commonI18NService)
+	{
+		this.commonI18NService = commonI18NService;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @param enabled
+	 * 		false to pass every verification to the verification service
+	 */
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a verification result is reused
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		number of results after which the cache is cleared, 0 or less for no limit
+	 */
+	public void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+
+	protected static class CachedResult
+	{
+		private final AddressVerificationResult<AddressVerificationDecision> result;
+		private final long expiresAt;
+
+		protected CachedResult(final AddressVerificationResult<AddressVerificationDecision> result, final long expiresAt)
+		{
+			this.result = result;
+			this.expiresAt = expiresAt;
+		}
+
+		public AddressVerificationResult<AddressVerificationDecision> getResult()
+		{
+			return result;
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.address.impl;
+
+import de.hybris.platform.commercefacades.address.AddressVerificationFacade;
+import de.hybris.platform.commercefacades.address.data.AddressVerificationErrorField;
+import de.hybris.platform.commercefacades.address.data.AddressVerificationResult;
+import de.hybris.platform.commercefacades.user.data.AddressData;
+import de.hybris.platform.commerceservices.address.AddressVerificationDecision;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Stub {@link AddressVerificationFacade} for local development and tests without an address verification service.
+ * Rejects addresses without country, town, first line or postal code and accepts all others. Enable it with
+ * {@code sncustomwebservices.address.verification.delegate=localAddressVerificationFacade}.
+ */
+public class LocalAddressVerificationFacade implements AddressVerificationFacade
+{
+	private final AtomicLong verificationCount = new AtomicLong();
+
+	@Override
+	public AddressVerificationResult<AddressVerificationDecision> verifyAddressData(final AddressData addressData)
+	{
+		verificationCount.incrementAndGet();
+
+		final Map<String, AddressVerificationErrorField> errors = new LinkedHashMap<>();
+		addMissingError(errors, "country", addressData.getCountry() == null ? null : addressData.getCountry().getIsocode());
+		addMissingError(errors, "town", addressData.getTown());
+		addMissingError(errors, "line1", addressData.getLine1());
+		addMissingError(errors, "postalCode", addressData.getPostalCode());
+
+		final AddressVerificationResult<AddressVerificationDecision> result = new AddressVerificationResult<>();
+		result.setDecision(errors.isEmpty() ? AddressVerificationDecision.ACCEPT : AddressVerificationDecision.REJECT);
+		result.setErrors(errors);
+		result.setSuggestedAddresses(Collections.emptyList());
+		return result;
+	}
+
+	@Override
+	public boolean isCustomerAllowedToIgnoreSuggestions()
+	{
+		return true;
+	}
+
+	/**
+	 * @return number of addresses verified since startup
+	 */
+	public long getVerificationCount()
+	{
+		return verificationCount.get();
+	}
+
+	protected void addMissingError(final Map<String, AddressVerificationErrorField> errors, final String field,
+			final String value)
+	{
+		if (StringUtils.isBlank(value))
+		{
+			final AddressVerificationErrorField error = new AddressVerificationErrorField();
+			error.setName(field);
+			error.setMissing(true);
+			errors.put(field, error);
+		}
+	}
+}
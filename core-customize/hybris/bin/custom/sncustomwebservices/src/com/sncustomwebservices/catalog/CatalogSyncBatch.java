@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+import de.hybris.platform.core.PK;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Items waiting to be synchronized by one catalog synchronization job. Items are added while the batch is open, the
+ * batch is then synchronized at once by the worker of the {@link CatalogSyncCoalescer}, which updates its status.
+ */
+public class CatalogSyncBatch
+{
+	private final String batchId;
+	private final PK syncJobPk;
+	private final String syncJobCode;
+	private final long createdAt = System.currentTimeMillis();
+	private final Set<PK> items = new LinkedHashSet<>();
+	private final Set<PK> products = new HashSet<>();
+	private volatile CatalogSyncBatchStatus status = CatalogSyncBatchStatus.OPEN;
+	private volatile int itemCount;
+	private volatile int productCount;
+	private volatile String cronJobCode;
+	private volatile String errorType;
+	private volatile long finishedAt;
+
+	public CatalogSyncBatch(final String batchId, final PK syncJobPk, final String syncJobCode)
+	{
+		this.batchId = batchId;
+		this.syncJobPk = syncJobPk;
+		this.syncJobCode = syncJobCode;
+	}
+
+	/**
+	 * Adds items to the open batch, items already in the batch are synchronized once.
+	 *
+	 * @param pks
+	 * 		items to be synchronized, including the products
+	 * @param productPks
+	 * 		the products among the items
+	 */
+	protected void addItems(final Collection<PK> pks, final Collection<PK> productPks)
+	{
+		items.addAll(pks);
+		products.addAll(productPks);
+		itemCount = items.size();
+		productCount = products.size();
+	}
+
+	/**
+	 * @return the items of the batch, to be called once the batch is no longer open
+	 */
+	protected List<PK> getItems()
+	{
+		return new ArrayList<>(items);
+	}
+
+	protected void queue()
+	{
+		status = CatalogSyncBatchStatus.QUEUED;
+	}
+
+	protected void start()
+	{
+		status = CatalogSyncBatchStatus.RUNNING;
+	}
+
+	protected void complete(final String cronJobCode)
+	{
+		this.cronJobCode = cronJobCode;
+		finish(CatalogSyncBatchStatus.COMPLETED);
+	}
+
+	protected void fail(final String cronJobCode, final String errorType)
+	{
+		this.cronJobCode = cronJobCode;
+		this.errorType = errorType;
+		finish(CatalogSyncBatchStatus.FAILED);
+	}
+
+	protected void finish(final CatalogSyncBatchStatus finalStatus)
+	{
+		finishedAt = System.currentTimeMillis();
+		status = finalStatus;
+	}
+
+	public boolean isFinished()
+	{
+		return finishedAt > 0;
+	}
+
+	public String getBatchId()
+	{
+		return batchId;
+	}
+
+	public PK getSyncJobPk()
+	{
+		return syncJobPk;
+	}
+
+	public String getSyncJobCode()
+	{
+		return syncJobCode;
+	}
+
+	public long getCreatedAt()
+	{
+		return createdAt;
+	}
+
+	public CatalogSyncBatchStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * @return number of distinct items in the batch, like products and their medias
+	 */
+	public int getItemCount()
+	{
+		return itemCount;
+	}
+
+	/**
+	 * @return number of distinct products in the batch
+	 */
+	public int getProductCount()
+	{
+		return productCount;
+	}
+
+	/**
+	 * @return code of the synchronization cron job, known once the batch was synchronized
+	 */
+	public String getCronJobCode()
+	{
+		return cronJobCode;
+	}
+
+	public String getErrorType()
+	{
+		return errorType;
+	}
+
+	public long getFinishedAt()
+	{
+		return finishedAt;
+	}
+}
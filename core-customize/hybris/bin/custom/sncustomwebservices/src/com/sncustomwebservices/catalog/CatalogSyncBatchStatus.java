@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+/**
+ * Status of a {@link CatalogSyncBatch}.
+ */
+public enum CatalogSyncBatchStatus
+{
+	OPEN, QUEUED, RUNNING, COMPLETED, FAILED
+}
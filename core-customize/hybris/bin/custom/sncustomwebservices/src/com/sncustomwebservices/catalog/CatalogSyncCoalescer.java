@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+import de.hybris.platform.catalog.model.SyncItemJobModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.ItemModel;
+
+import java.util.Collection;
+
+
+/**
+ * Collects items changed one by one, like products getting a new image, and synchronizes them in batches instead of
+ * starting a synchronization job per change.
+ */
+public interface CatalogSyncCoalescer
+{
+	/**
+	 * Adds items to the open batch of the synchronization job, opening a new batch if there is none. The batch is
+	 * synchronized once it is full or has been open for the batch window.
+	 *
+	 * @param syncJob
+	 * 		job synchronizing the catalog version of the items
+	 * @param items
+	 * 		saved items to be synchronized
+	 * @return the batch the items were added to
+	 */
+	CatalogSyncBatch enqueue(SyncItemJobModel syncJob, Collection<? extends ItemModel> items);
+
+	/**
+	 * @param batchId
+	 * 		batch identifier
+	 * @return the batch if it was opened on this node and did not expire, null otherwise
+	 */
+	CatalogSyncBatch getBatch(String batchId);
+
+	/**
+	 * @param item
+	 * 		primary key of an item
+	 * @return the last batch the item was added to on this node if it did not expire, null otherwise
+	 */
+	CatalogSyncBatch getLatestBatch(PK item);
+}
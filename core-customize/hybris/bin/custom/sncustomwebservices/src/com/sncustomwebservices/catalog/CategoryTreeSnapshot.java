@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+import de.hybris.platform.commercefacades.catalog.data.CategoryHierarchyData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Immutable, array-backed copy of the category hierarchy of one catalog version. Categories are stored in breadth-first
+ * order, so the children of a category occupy the contiguous index range
+ * {@code [firstChild, firstChild + childCount)} and the root categories occupy {@code [0, rootCount)}. The height of
+ * every subtree is computed once, so the recursion level of a response is known without walking the tree.
+ */
+public class CategoryTreeSnapshot
+{
+	public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+	public static final int NOT_FOUND = -1;
+
+	private static final int NO_PARENT = -1;
+
+	private final String[] ids;
+	private final String[] names;
+	private final String[] urls;
+	private final Date[] lastModified;
+	private final int[] parents;
+	private final int[] firstChildren;
+	private final int[] childCounts;
+	private final int[] heights;
+	private final int rootCount;
+	private final Map<String, Integer> indexes;
+
+	protected CategoryTreeSnapshot(final List<CategoryHierarchyData> nodes, final List<Integer> parentList, final int rootCount)
+	{
+		final int size = nodes.size();
+		this.ids = new String[size];
+		this.names = new String[size];
+		this.urls = new String[size];
+		this.lastModified = new Date[size];
+		this.parents = new int[size];
+		this.firstChildren = new int[size];
+		this.childCounts = new int[size];
+		this.heights = new int[size];
+		this.rootCount = rootCount;
+		this.indexes = new HashMap<>(size * 4 / 3 + 1);
+
+		int nextChild = rootCount;
+		for (int i = 0; i < size; i++)
+		{
+			final CategoryHierarchyData node = nodes.get(i);
+			ids[i] = node.getId();
+			names[i] = node.getName();
+			urls[i] = node.getUrl();
+			lastModified[i] = node.getLastModified();
+			parents[i] = parentList.get(i).intValue();
+			firstChildren[i] = nextChild;
+			childCounts[i] = node.getSubcategories() == null ? 0 : node.getSubcategories().size();
+			nextChild += childCounts[i];
+			indexes.putIfAbsent(ids[i], Integer.valueOf(i));
+		}
+
+		// children always have a higher index than their parent
+		for (int i = size - 1; i >= 0; i--)
+		{
+			int height = 0;
+			for (int child = firstChildren[i]; child < firstChildren[i] + childCounts[i]; child++)
+			{
+				height = Math.max(height, heights[child]);
+			}
+			heights[i] = height + 1;
+		}
+	}
+
+	/**
+	 * Flattens the given category hierarchy. A category which has several super categories is stored once per
+	 * occurrence; {@link #indexOf(String)} returns its first occurrence.
+	 *
+	 * @param roots
+	 * 		root categories of the catalog version, with their subcategories populated
+	 * @return the snapshot
+	 */
+	public static CategoryTreeSnapshot create(final List<CategoryHierarchyData> roots)
+	{
+		final List<CategoryHierarchyData> nodes = new ArrayList<>(roots == null ? Collections.emptyList() : roots);
+		final List<Integer> parentList = new ArrayList<>(Collections.nCopies(nodes.size(), Integer.valueOf(NO_PARENT)));
+		final int rootCount = nodes.size();
+
+		// the node list doubles as the breadth-first queue
+		for (int i = 0; i < nodes.size(); i++)
+		{
+			final List<CategoryHierarchyData> subcategories = nodes.get(i).getSubcategories();
+			if (subcategories != null)
+			{
+				for (final CategoryHierarchyData subcategory : subcategories)
+				{
+					nodes.add(subcategory);
+					parentList.add(Integer.valueOf(i));
+				}
+			}
+		}
+		return new CategoryTreeSnapshot(nodes, parentList, rootCount);
+	}
+
+	public int size()
+	{
+		return ids.length;
+	}
+
+	public int getRootCount()
+	{
+		return rootCount;
+	}
+
+	/**
+	 * @return index of the first occurrence of the category or {@link #NOT_FOUND}
+	 */
+	public int indexOf(final String categoryId)
+	{
+		final Integer index = indexes.get(categoryId);
+		return index == null ? NOT_FOUND : index.intValue();
+	}
+
+	public String getId(final int index)
+	{
+		return ids[index];
+	}
+
+	/**
+	 * @return index of the parent category or {@link #NOT_FOUND} for root categories
+	 */
+	public int getParent(final int index)
+	{
+		return parents[index] == NO_PARENT ? NOT_FOUND : parents[index];
+	}
+
+	/**
+	 * @return number of category levels of the subtree starting at the given category, including the category itself
+	 */
+	public int getHeight(final int index)
+	{
+		return heights[index];
+	}
+
+	/**
+	 * Returns the recursion level needed to render the category with the given number of subcategory levels. The value
+	 * is the same as counting the levels of the rendered hierarchy, starting at 1 for the enclosing element.
+	 */
+	public int getRecurrencyLevel(final int index, final int depth)
+	{
+		return 1 + renderedHeight(index, depth);
+	}
+
+	/**
+	 * Returns the recursion level needed to render all root categories with the given number of subcategory levels.
+	 */
+	public int getRootsRecurrencyLevel(final int depth)
+	{
+		int recurrencyLevel = 1;
+		for (int root = 0; root < rootCount; root++)
+		{
+			recurrencyLevel = Math.max(recurrencyLevel, getRecurrencyLevel(root, depth));
+		}
+		return recurrencyLevel;
+	}
+
+	/**
+	 * Renders the root categories.
+	 *
+	 * @param depth
+	 * 		number of subcategory levels rendered below each root category, {@link #UNLIMITED_DEPTH} for all
+	 */
+	public List<CategoryHierarchyData> renderRoots(final int depth)
+	{
+		final List<CategoryHierarchyData> roots = new ArrayList<>(rootCount);
+		for (int root = 0; root < rootCount; root++)
+		{
+			roots.add(render(root, depth));
+		}
+		return roots;
+	}
+
+	/**
+	 * Renders the subtree of one category. Only the categories within the requested depth are visited.
+	 *
+	 * @param index
+	 * 		index of the category, see {@link #indexOf(String)}
+	 * @param depth
+	 * 		number of subcategory levels rendered below the category, {@link #UNLIMITED_DEPTH} for all
+	 */
+	public CategoryHierarchyData render(final int index, final int depth)
+	{
+		final CategoryHierarchyData root = createData(index, depth > 0);
+		final Deque<CategoryHierarchyData> pendingData = new ArrayDeque<>();
+		final Deque<int[]> pendingNodes = new ArrayDeque<>();
+		pendingData.add(root);
+		pendingNodes.add(new int[] { index, 0 });
+
+		while (!pendingNodes.isEmpty())
+		{
+			final CategoryHierarchyData data = pendingData.poll();
+			final int[] node = pendingNodes.poll();
+			final int level = node[1] + 1;
+			if (level > depth)
+			{
+				continue;
+			}
+
+			final int first = firstChildren[node[0]];
+			for (int child = first; child < first + childCounts[node[0]]; child++)
+			{
+				final CategoryHierarchyData childData = createData(child, level < depth);
+				data.getSubcategories().add(childData);
+				pendingData.add(childData);
+				pendingNodes.add(new int[] { child, level });
+			}
+		}
+		return root;
+	}
+
+	protected CategoryHierarchyData createData(final int index, final boolean withSubcategories)
+	{
+		final CategoryHierarchyData data = new CategoryHierarchyData();
+		data.setId(ids[index]);
+		data.setName(names[index]);
+		data.setUrl(urls[index]);
+		data.setLastModified(lastModified[index]);
+		data.setSubcategories(withSubcategories ? new ArrayList<>(childCounts[index]) : new ArrayList<>(0));
+		return data;
+	}
+
+	protected int renderedHeight(final int index, final int depth)
+	{
+		return depth >= heights[index] ? heights[index] : depth + 1;
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+/**
+ * Keeps {@link CategoryTreeSnapshot}s of product catalog versions, so that category hierarchy requests do not rebuild
+ * the whole tree through the catalog facade.
+ */
+public interface CategoryTreeSnapshotService
+{
+	/**
+	 * Returns the category tree of the catalog version as seen by the current base site and language. The snapshot is
+	 * built on first use and reused until the catalog version is invalidated or the snapshot expires.
+	 *
+	 * @param catalogId
+	 * 		catalog identifier
+	 * @param catalogVersionId
+	 * 		catalog version identifier
+	 * @return the snapshot
+	 */
+	CategoryTreeSnapshot getSnapshot(String catalogId, String catalogVersionId);
+
+	/**
+	 * Drops all snapshots of the catalog version, e.g. after it was synchronized. They are rebuilt on next use.
+	 *
+	 * @param catalogId
+	 * 		catalog identifier
+	 * @param catalogVersionId
+	 * 		catalog version identifier
+	 */
+	void invalidate(String catalogId, String catalogVersionId);
+}
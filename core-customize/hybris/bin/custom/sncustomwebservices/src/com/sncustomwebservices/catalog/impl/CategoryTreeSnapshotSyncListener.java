@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog.impl;
+
+import de.hybris.platform.catalog.model.CatalogVersionModel;
+import de.hybris.platform.catalog.model.SyncItemJobModel;
+import de.hybris.platform.servicelayer.event.events.AfterCronJobFinishedEvent;
+import de.hybris.platform.servicelayer.event.impl.AbstractEventListener;
+import de.hybris.platform.servicelayer.model.ModelService;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshotService;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Invalidates the category tree snapshots of a catalog version when a synchronization into it has finished.
+ */
+public class CategoryTreeSnapshotSyncListener extends AbstractEventListener<AfterCronJobFinishedEvent>
+{
+	private ModelService modelService;
+	private CategoryTreeSnapshotService categoryTreeSnapshotService;
+
+	@Override
+	protected void onEvent(final AfterCronJobFinishedEvent event)
+	{
+		if (event.getJobPK() == null)
+		{
+			return;
+		}
+
+		final Object job = getModelService().get(event.getJobPK());
+		if (job instanceof SyncItemJobModel)
+		{
+			final CatalogVersionModel targetVersion = ((SyncItemJobModel) job).getTargetVersion();
+			getCategoryTreeSnapshotService().invalidate(targetVersion.getCatalog().getId(), targetVersion.getVersion());
+		}
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected CategoryTreeSnapshotService getCategoryTreeSnapshotService()
+	{
+		return categoryTreeSnapshotService;
+	}
+
+	@Required
+	public void setCategoryTreeSnapshotService(final CategoryTreeSnapshotService categoryTreeSnapshotService)
+	{
+		this.categoryTreeSnapshotService = categoryTreeSnapshotService;
+	}
+}
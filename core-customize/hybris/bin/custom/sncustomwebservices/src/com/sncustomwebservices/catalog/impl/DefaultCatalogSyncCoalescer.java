@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog.impl;
+
+import de.hybris.platform.catalog.model.SyncItemJobModel;
+import de.hybris.platform.catalog.synchronization.CatalogSynchronizationService;
+import de.hybris.platform.catalog.synchronization.SyncConfig;
+import de.hybris.platform.catalog.synchronization.SyncResult;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.cronjob.enums.JobLogLevel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.user.UserService;
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+import com.sncustomwebservices.catalog.CatalogSyncCoalescer;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link CatalogSyncCoalescer}. There is at most one open batch per synchronization job. A
+ * batch is closed when it holds {@link #getBatchSize()} products, other items like medias not counting, or
+ * {@link #getBatchWindow()} milliseconds after it was opened, whichever comes first. Closed batches are synchronized
+ * one after the other on a single worker, each by one synchronous synchronization job run as the admin user, so uploads
+ * never wait for the synchronization and at most one synchronization started by this node runs at a time. A finished
+ * batch, and the latest batch of each item it held, can be looked up for {@link #getTimeToLive()} seconds, which lets
+ * the uploader see whether its product already reached the online catalog. Only the node that opened a batch knows it.
+ */
+public class DefaultCatalogSyncCoalescer implements CatalogSyncCoalescer, InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultCatalogSyncCoalescer.class);
+
+	// open batches by synchronization job, guarded by this
+	private final Map<PK, CatalogSyncBatch> openBatches = new HashMap<>();
+	private final ConcurrentMap<String, CatalogSyncBatch> batches = new ConcurrentHashMap<>();
+	private final ConcurrentMap<PK, CatalogSyncBatch> latestBatches = new ConcurrentHashMap<>();
+	private final AtomicLong nextPurge = new AtomicLong();
+	private ScheduledThreadPoolExecutor executor;
+
+	private CatalogSynchronizationService catalogSynchronizationService;
+	private ModelService modelService;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private int batchSize;
+	private long batchWindow;
+	private long timeToLive;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		executor = createExecutor();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException
+	{
+		executor.shutdown();
+		if (!executor.awaitTermination(getBatchWindow() + TimeUnit.SECONDS.toMillis(30), TimeUnit.MILLISECONDS))
+		{
+			LOG.warn(executor.getQueue().size() + " catalog synchronization batches were not processed before shutdown");
+		}
+	}
+
+	@Override
+	public CatalogSyncBatch enqueue(final SyncItemJobModel syncJob, final Collection<? extends ItemModel> items)
+	{
+		purgeExpired();
+
+		final List<PK> pks = new ArrayList<>(items.size());
+		final List<PK> productPks = new ArrayList<>();
+		for (final ItemModel item : items)
+		{
+			pks.add(item.getPk());
+			if (item instanceof ProductModel)
+			{
+				productPks.add(item.getPk());
+			}
+		}
+		final CatalogSyncBatch batch;
+		final boolean full;
+		synchronized (this)
+		{
+			CatalogSyncBatch openBatch = openBatches.get(syncJob.getPk());
+			if (openBatch == null)
+			{
+				openBatch = open(syncJob);
+			}
+			openBatch.addItems(pks, productPks);
+			full = openBatch.getProductCount() >= getBatchSize();
+			if (full)
+			{
+				openBatches.remove(syncJob.getPk());
+				openBatch.queue();
+			}
+			batch = openBatch;
+		}
+		for (final PK pk : pks)
+		{
+			latestBatches.put(pk, batch);
+		}
+		if (full)
+		{
+			executor.execute(() -> runInSession(batch));
+		}
+		return batch;
+	}
+
+	@Override
+	public CatalogSyncBatch getBatch(final String batchId)
+	{
+		return batches.get(batchId);
+	}
+
+	@Override
+	public CatalogSyncBatch getLatestBatch(final PK item)
+	{
+		return latestBatches.get(item);
+	}
+
+	protected ScheduledThreadPoolExecutor createExecutor()
+	{
+		return new ScheduledThreadPoolExecutor(1, getWorkerSessionService().createThreadFactory());
+	}
+
+	/**
+	 * Opens a batch for the synchronization job and schedules its closing, to be called holding the lock.
+	 */
+	protected CatalogSyncBatch open(final SyncItemJobModel syncJob)
+	{
+		final CatalogSyncBatch batch = new CatalogSyncBatch(UUID.randomUUID().toString(), syncJob.getPk(), syncJob.getCode());
+		openBatches.put(syncJob.getPk(), batch);
+		batches.put(batch.getBatchId(), batch);
+		executor.schedule(() -> close(batch), getBatchWindow(), TimeUnit.MILLISECONDS);
+		return batch;
+	}
+
+	/**
+	 * Synchronizes the batch when its window elapsed, unless it was already closed because it was full.
+	 */
+	protected void close(final CatalogSyncBatch batch)
+	{
+		synchronized (this)
+		{
+			if (!openBatches.remove(batch.getSyncJobPk(), batch))
+			{
+				return;
+			}
+			batch.queue();
+		}
+		runInSession(batch);
+	}
+
+	protected void runInSession(final CatalogSyncBatch batch)
+	{
+		getWorkerSessionService().runInNewSession(getUserService().getAdminUser(), () -> run(batch));
+	}
+
+	protected void run(final CatalogSyncBatch batch)
+	{
+		batch.start();
+		try
+		{
+			final SyncItemJobModel syncJob = getModelService().get(batch.getSyncJobPk());
+			final List<ItemModel> items = new ArrayList<>();
+			for (final PK pk : batch.getItems())
+			{
+				items.add(getModelService().get(pk));
+			}
+			final SyncResult result = getCatalogSynchronizationService().performSynchronization(items, syncJob,
+					createSyncConfig());
+			final String cronJobCode = result.getCronJob() == null ? null : result.getCronJob().getCode();
+			if (result.isSuccessful())
+			{
+				batch.complete(cronJobCode);
+			}
+			else
+			{
+				LOG.warn("Catalog synchronization " + cronJobCode + " of batch " + batch.getBatchId() + " did not succeed");
+				batch.fail(cronJobCode, "SynchronizationError");
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			LOG.warn("Catalog synchronization batch " + batch.getBatchId() + " of job " + batch.getSyncJobCode() + " failed", e);
+			batch.fail(null, StringUtils.removeEnd(e.getClass().getSimpleName(), "Exception") + "Error");
+		}
+	}
+
+	protected SyncConfig createSyncConfig()
+	{
+		final SyncConfig syncConfig = new SyncConfig();
+		syncConfig.setSynchronous(true);
+		syncConfig.setCreateSavedValues(false);
+		syncConfig.setForceUpdate(false);
+		syncConfig.setLogLevelDatabase(JobLogLevel.WARNING);
+		syncConfig.setLogLevelFile(JobLogLevel.INFO);
+		syncConfig.setLogToDatabase(false);
+		syncConfig.setLogToFile(true);
+		return syncConfig;
+	}
+
+	/**
+	 * Drops finished batches older than the time to live, at most once per minute.
+	 */
+	protected void purgeExpired()
+	{
+		final long now = System.currentTimeMillis();
+		final long scheduled = nextPurge.get();
+		if (now < scheduled || !nextPurge.compareAndSet(scheduled, now + TimeUnit.MINUTES.toMillis(1)))
+		{
+			return;
+		}
+		final long expiredBefore = now - TimeUnit.SECONDS.toMillis(getTimeToLive());
+		batches.values().removeIf(batch -> batch.isFinished() && batch.getFinishedAt() < expiredBefore);
+		latestBatches.values().removeIf(batch -> batch.isFinished() && batch.getFinishedAt() < expiredBefore);
+	}
+
+	protected CatalogSynchronizationService getCatalogSynchronizationService()
+	{
+		return catalogSynchronizationService;
+	}
+
+	@Required
+	public void setCatalogSynchronizationService(final CatalogSynchronizationService catalogSynchronizationService)
+	{
+		this.catalogSynchronizationService = catalogSynchronizationService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected int getBatchSize()
+	{
+		return Math.max(1, batchSize);
+	}
+
+	/**
+	 * @param batchSize
+	 * 		number of distinct products closing a batch, medias synchronized along do not count
+	 */
+	public void setBatchSize(final int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	protected long getBatchWindow()
+	{
+		return Math.max(0, batchWindow);
+	}
+
+	/**
+	 * @param batchWindow
+	 * 		milliseconds a batch stays open for further items
+	 */
+	public void setBatchWindow(final long batchWindow)
+	{
+		this.batchWindow = batchWindow;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a finished batch can be looked up
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+}
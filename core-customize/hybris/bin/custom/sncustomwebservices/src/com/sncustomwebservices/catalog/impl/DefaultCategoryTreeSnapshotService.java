@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog.impl;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.catalog.CatalogFacade;
+import de.hybris.platform.commercefacades.catalog.CatalogOption;
+import de.hybris.platform.commercefacades.catalog.data.CatalogVersionData;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.servicelayer.i18n.CommonI18NService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshot;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshotService;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link CategoryTreeSnapshotService}. Snapshots are kept per base site, language, user groups
+ * of the current user and catalog version, because category names and urls depend on the site and language and the
+ * visible categories on the search restrictions of the groups. Categories restricted to single users instead of groups
+ * are therefore not supported. The first request for a key builds its snapshot outside of the map, later requests for
+ * the same key wait for it. Invalidating a catalog version increments its generation, so only the snapshots of that
+ * version are rebuilt, and a snapshot which was being built during the invalidation is not used. Snapshots also expire
+ * after {@link #getTimeToLive()} seconds to pick up changes made without synchronization.
+ */
+public class DefaultCategoryTreeSnapshotService implements CategoryTreeSnapshotService
+{
+	private static final Logger LOG = Logger.getLogger(DefaultCategoryTreeSnapshotService.class);
+	private static final Set<CatalogOption> OPTIONS = EnumSet.of(CatalogOption.BASIC, CatalogOption.CATEGORIES,
+			CatalogOption.SUBCATEGORIES);
+	private static final String SEPARATOR = ":";
+	private static final String NONE = "-";
+
+	private final ConcurrentMap<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	private CatalogFacade catalogFacade;
+	private BaseSiteService baseSiteService;
+	private CommonI18NService commonI18NService;
+	private UserService userService;
+	private long timeToLive;
+
+	@Override
+	public CategoryTreeSnapshot getSnapshot(final String catalogId, final String catalogVersionId)
+	{
+		final String versionKey = catalogId + SEPARATOR + catalogVersionId;
+		final long generation = getGeneration(versionKey).get();
+		final String key = createKey(versionKey);
+
+		final CachedSnapshot cached = snapshots.get(key);
+		if (isValid(cached, generation))
+		{
+			return cached.getSnapshot();
+		}
+
+		// one thread builds the snapshot of a key, the others wait for it
+		final CachedSnapshot created = new CachedSnapshot(versionKey, generation,
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()));
+		final CachedSnapshot current = snapshots.compute(key, (k, entry) -> isValid(entry, generation) ? entry : created);
+		if (current == created)
+		{
+			try
+			{
+				created.complete(buildSnapshot(versionKey, catalogId, catalogVersionId));
+			}
+			catch (final RuntimeException e)
+			{
+				snapshots.remove(key, created);
+				created.fail(e);
+				throw e;
+			}
+		}
+		return current.getSnapshot();
+	}
+
+	@Override
+	public void invalidate(final String catalogId, final String catalogVersionId)
+	{
+		final String versionKey = catalogId + SEPARATOR + catalogVersionId;
+		getGeneration(versionKey).incrementAndGet();
+		snapshots.values().removeIf(cached -> versionKey.equals(cached.getVersionKey()));
+		LOG.debug("Invalidated category tree snapshots of catalog version " + versionKey);
+	}
+
+	protected CategoryTreeSnapshot buildSnapshot(final String versionKey, final String catalogId,
+			final String catalogVersionId)
+	{
+		final long start = System.currentTimeMillis();
+		final CatalogVersionData catalogVersionData = getCatalogFacade().getProductCatalogVersionForTheCurrentSite(catalogId,
+				catalogVersionId, OPTIONS);
+		final CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.create(catalogVersionData.getCategoriesHierarchyData());
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Built category tree snapshot of catalog version " + versionKey + " with " + snapshot.size()
+					+ " categories in " + (System.currentTimeMillis() - start) + " ms");
+		}
+		return snapshot;
+	}
+
+	protected boolean isValid(final CachedSnapshot cached, final long generation)
+	{
+		return cached != null && cached.getGeneration() == generation
+				&& (getTimeToLive() <= 0 || cached.getExpiresAt() > System.currentTimeMillis());
+	}
+
+	protected String createKey(final String versionKey)
+	{
+		final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+		final LanguageModel language = getCommonI18NService().getCurrentLanguage();
+		return (baseSite == null ? NONE : baseSite.getUid()) + SEPARATOR + (language == null ? NONE : language.getIsocode())
+				+ SEPARATOR + getUserGroupsKey() + SEPARATOR + versionKey;
+	}
+
+	/**
+	 * @return the sorted uids of all groups of the current user, which decide the categories the search restrictions let
+	 * the user see
+	 */
+	protected String getUserGroupsKey()
+	{
+		final Set<String> uids = new TreeSet<>();
+		for (final UserGroupModel userGroup : getUserService().getAllUserGroupsForUser(getUserService().getCurrentUser()))
+		{
+			uids.add(userGroup.getUid());
+		}
+		return String.join(",", uids);
+	}
+
+	protected AtomicLong getGeneration(final String versionKey)
+	{
+		return generations.computeIfAbsent(versionKey, k -> new AtomicLong());
+	}
+
+	protected CatalogFacade getCatalogFacade()
+	{
+		return catalogFacade;
+	}
+
+	@Required
+	public void setCatalogFacade(final CatalogFacade catalogFacade)
+	{
+		this.catalogFacade = catalogFacade;
+	}
+
+	protected BaseSiteService getBaseSiteService()
+	{
+		return baseSiteService;
+	}
+
+	@Required
+	public void setBaseSiteService(final BaseSiteService baseSiteService)
+	{
+		this.baseSiteService = baseSiteService;
+	}
+
+	protected CommonI18NService getCommonI18NService()
+	{
+		return commonI18NService;
+	}
+
+	@Required
+	public void setCommonI18NService(final CommonI18NService commonI18NService)
+	{
+		this.commonI18NService = commonI18NService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which a snapshot is rebuilt even without synchronization, 0 or less to keep it until invalidated
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected static class CachedSnapshot
+	{
+		private final CompletableFuture<CategoryTreeSnapshot> snapshot = new CompletableFuture<>();
+		private final String versionKey;
+		private final long generation;
+		private final long expiresAt;
+
+		protected CachedSnapshot(final String versionKey, final long generation, final long expiresAt)
+		{
+			this.versionKey = versionKey;
+			this.generation = generation;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * @return the snapshot, waiting for it while it is built
+		 */
+		public CategoryTreeSnapshot getSnapshot()
+		{
+			try
+			{
+				return snapshot.join();
+			}
+			catch (final CompletionException e)
+			{
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+		}
+
+		public void complete(final CategoryTreeSnapshot result)
+		{
+			snapshot.complete(result);
+		}
+
+		public void fail(final RuntimeException cause)
+		{
+			snapshot.completeExceptionally(cause);
+		}
+
+		public String getVersionKey()
+		{
+			return versionKey;
+		}
+
+		public long getGeneration()
+		{
+			return generation;
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup;
+
+import de.hybris.platform.core.PK;
+
+import java.util.Collections;
+import java.util.Set;
+
+
+/**
+ * Users to add to and to remove from a customer group to get from its current to a new list of members.
+ */
+public class CustomerGroupMembershipDiff
+{
+	private final String groupUid;
+	private final Set<PK> usersToAdd;
+	private final Set<PK> usersToRemove;
+
+	public CustomerGroupMembershipDiff(final String groupUid, final Set<PK> usersToAdd, final Set<PK> usersToRemove)
+	{
+		this.groupUid = groupUid;
+		this.usersToAdd = Collections.unmodifiableSet(usersToAdd);
+		this.usersToRemove = Collections.unmodifiableSet(usersToRemove);
+	}
+
+	public String getGroupUid()
+	{
+		return groupUid;
+	}
+
+	public Set<PK> getUsersToAdd()
+	{
+		return usersToAdd;
+	}
+
+	public Set<PK> getUsersToRemove()
+	{
+		return usersToRemove;
+	}
+
+	/**
+	 * @return number of users whose membership changes
+	 */
+	public int size()
+	{
+		return usersToAdd.size() + usersToRemove.size();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup;
+
+/**
+ * State of an asynchronous replacement of customer group members. It is updated by the worker applying the changes and
+ * read by status requests.
+ */
+public class CustomerGroupMembershipJob
+{
+	private final String jobId;
+	private final String groupUid;
+	private final String ownerUid;
+	private volatile CustomerGroupMembershipJobStatus status = CustomerGroupMembershipJobStatus.QUEUED;
+	private volatile int usersToAdd;
+	private volatile int usersToRemove;
+	private volatile int processed;
+	private volatile String errorType;
+	private volatile long finishedAt;
+
+	public CustomerGroupMembershipJob(final String jobId, final String groupUid, final String ownerUid)
+	{
+		this.jobId = jobId;
+		this.groupUid = groupUid;
+		this.ownerUid = ownerUid;
+	}
+
+	protected void start(final CustomerGroupMembershipDiff diff)
+	{
+		usersToAdd = diff.getUsersToAdd().size();
+		usersToRemove = diff.getUsersToRemove().size();
+		status = CustomerGroupMembershipJobStatus.RUNNING;
+	}
+
+	protected void progress(final int processed)
+	{
+		this.processed = processed;
+	}
+
+	protected void complete()
+	{
+		finish(CustomerGroupMembershipJobStatus.COMPLETED);
+	}
+
+	protected void fail(final String errorType)
+	{
+		this.errorType = errorType;
+		finish(CustomerGroupMembershipJobStatus.FAILED);
+	}
+
+	protected void finish(final CustomerGroupMembershipJobStatus finalStatus)
+	{
+		finishedAt = System.currentTimeMillis();
+		status = finalStatus;
+	}
+
+	public boolean isFinished()
+	{
+		return finishedAt > 0;
+	}
+
+	public String getJobId()
+	{
+		return jobId;
+	}
+
+	public String getGroupUid()
+	{
+		return groupUid;
+	}
+
+	public String getOwnerUid()
+	{
+		return ownerUid;
+	}
+
+	public CustomerGroupMembershipJobStatus getStatus()
+	{
+		return status;
+	}
+
+	public int getUsersToAdd()
+	{
+		return usersToAdd;
+	}
+
+	public int getUsersToRemove()
+	{
+		return usersToRemove;
+	}
+
+	/**
+	 * @return number of users whose membership changes, known once the job is running
+	 */
+	public int getTotal()
+	{
+		return usersToAdd + usersToRemove;
+	}
+
+	/**
+	 * @return number of users updated so far
+	 */
+	public int getProcessed()
+	{
+		return processed;
+	}
+
+	public String getErrorType()
+	{
+		return errorType;
+	}
+
+	public long getFinishedAt()
+	{
+		return finishedAt;
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup;
+
+import de.hybris.platform.core.PK;
+
+import java.util.Collection;
+import java.util.concurrent.RejectedExecutionException;
+
+
+/**
+ * Replaces the members of customer groups in the background, for member lists too large to be applied within a request.
+ */
+public interface CustomerGroupMembershipJobService
+{
+	/**
+	 * Queues the replacement of the members of a group. The changes are computed when the job starts, so jobs for the same
+	 * group queued one after the other leave the members of the last one.
+	 *
+	 * @param groupUid
+	 * 		uid of the group
+	 * @param members
+	 * 		primary keys of all users that should be members of the group
+	 * @return the queued job
+	 * @throws RejectedExecutionException
+	 * 		if the queue is full
+	 */
+	CustomerGroupMembershipJob submit(String groupUid, Collection<PK> members);
+
+	/**
+	 * @param jobId
+	 * 		job identifier
+	 * @return the job if it was submitted by the current user on this node and did not expire, null otherwise
+	 */
+	CustomerGroupMembershipJob getJob(String jobId);
+
+	/**
+	 * @param groupUid
+	 * 		uid of the group
+	 * @return true if a job for the group is queued or running on this node
+	 */
+	boolean hasUnfinishedJob(String groupUid);
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup;
+
+/**
+ * Status of a {@link CustomerGroupMembershipJob}.
+ */
+public enum CustomerGroupMembershipJobStatus
+{
+	QUEUED, RUNNING, COMPLETED, FAILED
+}
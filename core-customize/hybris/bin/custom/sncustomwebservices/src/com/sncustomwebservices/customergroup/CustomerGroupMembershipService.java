@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup;
+
+import de.hybris.platform.core.PK;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+
+/**
+ * Replaces the members of customer groups with many users, resolving and updating users in batches instead of one by one.
+ */
+public interface CustomerGroupMembershipService
+{
+	/**
+	 * Resolves user uids.
+	 *
+	 * @param uids
+	 * 		user uids
+	 * @return primary keys by uid, uids of users that do not exist are missing
+	 */
+	Map<String, PK> findUsers(Collection<String> uids);
+
+	/**
+	 * Compares the current user members of a group with a new list of members.
+	 *
+	 * @param groupUid
+	 * 		uid of the group
+	 * @param members
+	 * 		primary keys of all users that should be members of the group
+	 * @return users to add and to remove
+	 */
+	CustomerGroupMembershipDiff computeDiff(String groupUid, Collection<PK> members);
+
+	/**
+	 * Adds and removes the users of a diff in batches, each batch in its own transaction.
+	 *
+	 * @param diff
+	 * 		users to add and to remove
+	 * @param progress
+	 * 		called after each batch with the number of users updated so far
+	 */
+	void applyDiff(CustomerGroupMembershipDiff diff, IntConsumer progress);
+
+	/**
+	 * Replaces the user members of a group. Replacements of the same group run one after the other on this node, so the
+	 * changes are always computed from the members left by the previous replacement.
+	 *
+	 * @param groupUid
+	 * 		uid of the group
+	 * @param members
+	 * 		primary keys of all users that should be members of the group
+	 * @param applicable
+	 * 		decides from the computed changes whether they are applied
+	 * @param progress
+	 * 		called after each batch with the number of users updated so far
+	 * @return users to add and to remove, which were applied if accepted by applicable
+	 */
+	CustomerGroupMembershipDiff replaceMembers(String groupUid, Collection<PK> members,
+			Predicate<CustomerGroupMembershipDiff> applicable, IntConsumer progress);
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.user.UserService;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipJob;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipJobService;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipService;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link CustomerGroupMembershipJobService}. Jobs run one after the other on a single worker
+ * and replace the members through {@link CustomerGroupMembershipService#replaceMembers}, so neither two jobs nor a job
+ * and a request change the members of a group at the same time. Each job runs in its own session as the user who
+ * submitted it, so the membership changes are audited as that user. Only the submitter can look a job up, until
+ * {@link #getTimeToLive()} seconds after it finished. Jobs are not persisted, a node that did not accept a job reports it
+ * as not found.
+ */
+public class DefaultCustomerGroupMembershipJobService
+		implements CustomerGroupMembershipJobService, InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultCustomerGroupMembershipJobService.class);
+
+	private final ConcurrentMap<String, CustomerGroupMembershipJob> jobs = new ConcurrentHashMap<>();
+	private final AtomicLong nextPurge = new AtomicLong();
+	private ThreadPoolExecutor executor;
+
+	private CustomerGroupMembershipService customerGroupMembershipService;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private int queueSize;
+	private long timeToLive;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		executor = createExecutor();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException
+	{
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+		{
+			LOG.warn(executor.getQueue().size() + " queued customer group membership jobs were not processed before shutdown");
+		}
+	}
+
+	@Override
+	public CustomerGroupMembershipJob submit(final String groupUid, final Collection<PK> members)
+	{
+		purgeExpired();
+
+		final UserModel user = getUserService().getCurrentUser();
+		final CustomerGroupMembershipJob job = new CustomerGroupMembershipJob(UUID.randomUUID().toString(), groupUid,
+				user.getUid());
+		final List<PK> jobMembers = new ArrayList<>(members);
+		jobs.put(job.getJobId(), job);
+		try
+		{
+			executor.execute(() -> runInSession(job, jobMembers, user));
+		}
+		catch (final RejectedExecutionException e)
+		{
+			jobs.remove(job.getJobId());
+			throw e;
+		}
+		return job;
+	}
+
+	@Override
+	public CustomerGroupMembershipJob getJob(final String jobId)
+	{
+		final CustomerGroupMembershipJob job = jobs.get(jobId);
+		return job != null && job.getOwnerUid().equals(getUserService().getCurrentUser().getUid()) ? job : null;
+	}
+
+	@Override
+	public boolean hasUnfinishedJob(final String groupUid)
+	{
+		return jobs.values().stream().anyMatch(job -> !job.isFinished() && job.getGroupUid().equals(groupUid));
+	}
+
+	protected ThreadPoolExecutor createExecutor()
+	{
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(getQueueSize()), getWorkerSessionService().createThreadFactory());
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+
+	protected void runInSession(final CustomerGroupMembershipJob job, final Collection<PK> members, final UserModel user)
+	{
+		getWorkerSessionService().runInNewSession(user, () -> run(job, members));
+	}
+
+	protected void run(final CustomerGroupMembershipJob job, final Collection<PK> members)
+	{
+		try
+		{
+			getCustomerGroupMembershipService().replaceMembers(job.getGroupUid(), members, diff -> {
+				job.start(diff);
+				return true;
+			}, job::progress);
+			job.complete();
+		}
+		catch (final RuntimeException e)
+		{
+			LOG.warn("Customer group membership job " + job.getJobId() + " for group " + job.getGroupUid() + " failed", e);
+			job.fail(StringUtils.removeEnd(e.getClass().getSimpleName(), "Exception") + "Error");
+		}
+	}
+
+	/**
+	 * Drops finished jobs older than the time to live, at most once per minute.
+	 */
+	protected void purgeExpired()
+	{
+		final long now = System.currentTimeMillis();
+		final long scheduled = nextPurge.get();
+		if (now < scheduled || !nextPurge.compareAndSet(scheduled, now + TimeUnit.MINUTES.toMillis(1)))
+		{
+			return;
+		}
+		final long expiredBefore = now - TimeUnit.SECONDS.toMillis(getTimeToLive());
+		jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < expiredBefore);
+	}
+
+	protected CustomerGroupMembershipService getCustomerGroupMembershipService()
+	{
+		return customerGroupMembershipService;
+	}
+
+	@Required
+	public void setCustomerGroupMembershipService(final CustomerGroupMembershipService customerGroupMembershipService)
+	{
+		this.customerGroupMembershipService = customerGroupMembershipService;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected int getQueueSize()
+	{
+		return Math.max(1, queueSize);
+	}
+
+	/**
+	 * @param queueSize
+	 * 		number of jobs waiting for the worker before submissions are rejected
+	 */
+	public void setQueueSize(final int queueSize)
+	{
+		this.queueSize = queueSize;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a finished job can be looked up
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.security.PrincipalGroupModel;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.user.UserService;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipDiff;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipService;
+import com.sncustomwebservices.dao.CustomerGroupMembershipDao;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Striped;
+
+
+/**
+ * Default implementation of {@link CustomerGroupMembershipService}. Users are resolved and loaded with chunked IN
+ * queries, the current members are read in one query. Changed users are saved in batches of {@link #getBatchSize()},
+ * each batch in its own transaction, so a failure keeps the batches saved before and a retry only applies the rest.
+ * Replacements of the same group, from requests or background jobs, hold a lock per group uid.
+ */
+public class DefaultCustomerGroupMembershipService implements CustomerGroupMembershipService
+{
+	private final Striped<Lock> groupLocks = Striped.lock(64);
+
+	private CustomerGroupMembershipDao customerGroupMembershipDao;
+	private UserService userService;
+	private ModelService modelService;
+	private TransactionTemplate transactionTemplate;
+	private int batchSize;
+
+	@Override
+	public Map<String, PK> findUsers(final Collection<String> uids)
+	{
+		return getCustomerGroupMembershipDao().findUserPks(uids);
+	}
+
+	@Override
+	public CustomerGroupMembershipDiff computeDiff(final String groupUid, final Collection<PK> members)
+	{
+		final UserGroupModel group = getUserService().getUserGroupForUID(groupUid);
+		final Set<PK> currentMembers = getCustomerGroupMembershipDao().findMemberPks(group);
+
+		final Set<PK> usersToAdd = new HashSet<>(members);
+		usersToAdd.removeAll(currentMembers);
+		final Set<PK> usersToRemove = new HashSet<>(currentMembers);
+		usersToRemove.removeAll(members);
+		return new CustomerGroupMembershipDiff(groupUid, usersToAdd, usersToRemove);
+	}
+
+	@Override
+	public void applyDiff(final CustomerGroupMembershipDiff diff, final IntConsumer progress)
+	{
+		final UserGroupModel group = getUserService().getUserGroupForUID(diff.getGroupUid());
+		int updated = 0;
+		for (final List<PK> batch : Iterables.partition(diff.getUsersToRemove(), getBatchSize()))
+		{
+			updateBatch(group, batch, false);
+			updated += batch.size();
+			progress.accept(updated);
+		}
+		for (final List<PK> batch : Iterables.partition(diff.getUsersToAdd(), getBatchSize()))
+		{
+			updateBatch(group, batch, true);
+			updated += batch.size();
+			progress.accept(updated);
+		}
+	}
+
+	@Override
+	public CustomerGroupMembershipDiff replaceMembers(final String groupUid, final Collection<PK> members,
+			final Predicate<CustomerGroupMembershipDiff> applicable, final IntConsumer progress)
+	{
+		final Lock lock = groupLocks.get(groupUid);
+		lock.lock();
+		try
+		{
+			final CustomerGroupMembershipDiff diff = computeDiff(groupUid, members);
+			if (applicable.test(diff))
+			{
+				applyDiff(diff, progress);
+			}
+			return diff;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	protected void updateBatch(final UserGroupModel group, final List<PK> batch, final boolean add)
+	{
+		getTransactionTemplate().executeWithoutResult(status -> {
+			final List<UserModel> users = getCustomerGroupMembershipDao().findUsers(batch);
+			for (final UserModel user : users)
+			{
+				final Set<PrincipalGroupModel> groups = new HashSet<>(user.getGroups());
+				if (add ? groups.add(group) : groups.remove(group))
+				{
+					user.setGroups(groups);
+				}
+			}
+			getModelService().saveAll(users);
+			// saved users are not needed anymore, do not keep thousands of them in the model context
+			users.forEach(getModelService()::detach);
+		});
+	}
+
+	protected CustomerGroupMembershipDao getCustomerGroupMembershipDao()
+	{
+		return customerGroupMembershipDao;
+	}
+
+	@Required
+	public void setCustomerGroupMembershipDao(final CustomerGroupMembershipDao customerGroupMembershipDao)
+	{
+		this.customerGroupMembershipDao = customerGroupMembershipDao;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected TransactionTemplate getTransactionTemplate()
+	{
+		return transactionTemplate;
+	}
+
+	@Required
+	public void setTransactionTemplate(final TransactionTemplate transactionTemplate)
+	{
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	protected int getBatchSize()
+	{
+		return Math.max(1, batchSize);
+	}
+
+	/**
+	 * @param batchSize
+	 * 		number of users saved in one transaction
+	 */
+	@Required
+	public void setBatchSize(final int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao;
+
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Loads stock levels and points of service for many products or stores at once.
+ */
+public interface BatchStockLevelDao
+{
+	/**
+	 * Finds the stock levels of all given products in all given warehouses.
+	 *
+	 * @param productCodes
+	 * 		product codes
+	 * @param warehouses
+	 * 		warehouses
+	 * @return stock levels, in no particular order
+	 */
+	List<StockLevelModel> findStockLevels(Collection<String> productCodes, Collection<WarehouseModel> warehouses);
+
+	/**
+	 * Finds the points of service with the given names.
+	 *
+	 * @param names
+	 * 		point of service names
+	 * @return points of service, in no particular order
+	 */
+	List<PointOfServiceModel> findPointsOfService(Collection<String> names);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.core.model.user.UserModel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Reads users and group memberships for many users at once.
+ */
+public interface CustomerGroupMembershipDao
+{
+	/**
+	 * Finds the primary keys of the users with the given uids.
+	 *
+	 * @param uids
+	 * 		user uids
+	 * @return primary keys by uid, uids of users that do not exist are missing
+	 */
+	Map<String, PK> findUserPks(Collection<String> uids);
+
+	/**
+	 * Finds the primary keys of the users that are direct members of a group. Groups that are members of the group are not
+	 * included.
+	 *
+	 * @param group
+	 * 		user group
+	 * @return primary keys of the member users
+	 */
+	Set<PK> findMemberPks(UserGroupModel group);
+
+	/**
+	 * Finds the users with the given primary keys.
+	 *
+	 * @param pks
+	 * 		primary keys of users
+	 * @return users, in no particular order
+	 */
+	List<UserModel> findUsers(Collection<PK> pks);
+}
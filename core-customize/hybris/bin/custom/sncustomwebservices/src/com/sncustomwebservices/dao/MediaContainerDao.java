@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao;
+
+import de.hybris.platform.catalog.model.CatalogVersionModel;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+
+
+/**
+ * Looks up media containers of a catalog version.
+ */
+public interface MediaContainerDao
+{
+	/**
+	 * Finds a media container by its qualifier.
+	 *
+	 * @param catalogVersion
+	 * 		catalog version of the container
+	 * @param qualifier
+	 * 		qualifier of the container
+	 * @return the container, null if there is none
+	 */
+	MediaContainerModel findMediaContainer(CatalogVersionModel catalogVersion, String qualifier);
+}
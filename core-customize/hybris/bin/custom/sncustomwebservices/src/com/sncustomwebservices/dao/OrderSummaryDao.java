@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.enums.OrderStatus;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.store.BaseStoreModel;
+import com.sncustomwebservices.order.OrderSummary;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * Reads the order history of a user as summaries, newest placed orders first.
+ */
+public interface OrderSummaryDao
+{
+	/**
+	 * Finds the orders placed before the given position. The position is the placement date and pk of the last order of
+	 * the previous page, so every page is read with the same index range scan regardless of its depth.
+	 *
+	 * @param user
+	 * 		user who placed the orders
+	 * @param store
+	 * 		base store the orders were placed in
+	 * @param statuses
+	 * 		order statuses to include, empty for all
+	 * @param afterDate
+	 * 		placement date of the last order of the previous page, null for the first page
+	 * @param afterPk
+	 * 		pk of the last order of the previous page, null for the first page
+	 * @param count
+	 * 		maximum number of orders
+	 * @return order summaries ordered by placement date and pk, both descending
+	 */
+	List<OrderSummary> findOrderSummaries(UserModel user, BaseStoreModel store, Collection<OrderStatus> statuses,
+			Date afterDate, PK afterPk, int count);
+
+	/**
+	 * Counts the orders of a user without reading them.
+	 *
+	 * @param user
+	 * 		user who placed the orders
+	 * @param store
+	 * 		base store the orders were placed in
+	 * @param statuses
+	 * 		order statuses to include, empty for all
+	 * @return number of orders
+	 */
+	long countOrders(UserModel user, BaseStoreModel store, Collection<OrderStatus> statuses);
+}
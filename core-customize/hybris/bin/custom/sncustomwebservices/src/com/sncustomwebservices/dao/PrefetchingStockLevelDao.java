@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao;
+
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+
+/**
+ * Stock level DAO that can load the stock levels of many products and warehouses up front. Lookups of the stock service
+ * made while a prefetch is active are answered from the prefetched stock levels when they ask for a prefetched product in
+ * prefetched warehouses only, so the commerce stock service calculates stock as usual with one query for all of them.
+ */
+public interface PrefetchingStockLevelDao
+{
+	/**
+	 * Loads the stock levels of all given products in all given warehouses and runs the body on the current thread with
+	 * them.
+	 *
+	 * @param productCodes
+	 * 		product codes
+	 * @param warehouses
+	 * 		warehouses
+	 * @param body
+	 * 		stock lookups to answer from the prefetched stock levels
+	 * @return the result of the body
+	 */
+	<T> T executeWithPrefetch(Collection<String> productCodes, Collection<WarehouseModel> warehouses, Supplier<T> body);
+}
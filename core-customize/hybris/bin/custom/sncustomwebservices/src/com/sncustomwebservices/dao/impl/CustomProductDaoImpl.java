@@ -14,6 +14,7 @@ import de.hybris.platform.catalog.synchronization.CatalogSynchronizationService;
 import de.hybris.platform.catalog.synchronization.SyncConfig;
 import de.hybris.platform.cmsfacades.data.MediaData;
 import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.core.model.media.MediaContainerModel;
 import de.hybris.platform.core.model.media.MediaModel;
 import de.hybris.platform.core.model.product.ProductModel;
 import de.hybris.platform.cronjob.enums.JobLogLevel;
@@ -28,7 +29,10 @@ import de.hybris.platform.servicelayer.util.ServicesUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+import com.sncustomwebservices.catalog.CatalogSyncCoalescer;
 import com.sncustomwebservices.dao.CustomProductDao;
 
 /**
@@ -39,6 +43,8 @@ public class CustomProductDaoImpl implements CustomProductDao {
 
 	private static final String OFFLINE_VERSION = "Staged";
 	private static final String ONLINE_VERSION = "Online";
+	// containers of uploaded images are qualified by the SHA-256 hash of the original
+	private static final Pattern UPLOADED_IMAGE_QUALIFIER = Pattern.compile("[0-9a-f]{64}");
 
 	private FlexibleSearchService flexibleSearchService;
 	private ModelService modelService;
@@ -49,6 +55,7 @@ public class CustomProductDaoImpl implements CustomProductDao {
 	private CatalogVersionService catalogVersionService;
 	private SessionService sessionService;
 	private SearchRestrictionService searchRestrictionService;
+	private CatalogSyncCoalescer catalogSyncCoalescer;
 
 	@Override
 	public List<ProductModel> getProductsByName(final String productName) {
@@ -63,7 +70,7 @@ public class CustomProductDaoImpl implements CustomProductDao {
 	}
 
 	@Override
-	public void updateImageForProduct(final String productCode, final MediaData mediaData)	{
+	public CatalogSyncBatch updateImageForProduct(final String productCode, final MediaData mediaData)	{
 
 		ServicesUtil.validateParameterNotNull(productCode, "Empty Product Code");
 		ServicesUtil.validateParameterNotNull(mediaData.getCode(), "Empty ImageCode");
@@ -82,7 +89,70 @@ public class CustomProductDaoImpl implements CustomProductDao {
 			saveProductInStagedVersion(product);
 		}
 
-		syncProductModel(productModel, source, target);
+		return syncProductModel(productModel, source, target);
+	}
+
+	@Override
+	public boolean updateRenditionsForProduct(final String productCode, final MediaContainerModel mediaContainer,
+			final MediaModel picture, final MediaModel thumbnail)	{
+
+		ServicesUtil.validateParameterNotNull(productCode, "Empty Product Code");
+		ServicesUtil.validateParameterNotNull(mediaContainer, "Empty MediaContainer");
+
+		final CatalogVersionModel source = mediaContainer.getCatalogVersion();
+		final CatalogVersionModel target = getCatalogVersionService().getCatalogVersion(source.getCatalog().getId(),
+				ONLINE_VERSION);
+		final List<ProductModel> productModel = getStagedProductModel(source, productCode);
+
+		validateIfSingleResult(productModel, format("Product with code '%s' not found!", productCode),
+				format("Product code '%s' is not unique, %d products found!", productCode, Integer.valueOf(productModel.size())));
+
+		final List<ItemModel> givenItem = new ArrayList<ItemModel>(mediaContainer.getMedias());
+		givenItem.add(mediaContainer);
+		for (final ProductModel product : productModel)	{
+
+			// a newer upload replaced the picture meanwhile, its own renditions update the product
+			if (product.getPicture() == null || !mediaContainer.equals(product.getPicture().getMediaContainer())){
+				return false;
+			}
+			product.setGalleryImages(replaceUploadedImage(product.getGalleryImages(), mediaContainer));
+			if (picture != null){
+				product.setPicture(picture);
+			}
+			if (thumbnail != null){
+				product.setThumbnail(thumbnail);
+			}
+			saveProductInStagedVersion(product);
+			givenItem.add(product);
+		}
+
+		syncItems(givenItem, source, target);
+		return true;
+	}
+
+	/**
+	 * @return the gallery images with the container in place of the previously uploaded image, or first if there is none
+	 */
+	protected List<MediaContainerModel> replaceUploadedImage(final List<MediaContainerModel> galleryImages,
+			final MediaContainerModel mediaContainer){
+
+		final List<MediaContainerModel> replaced = new ArrayList<MediaContainerModel>();
+		int position = -1;
+		if (galleryImages != null){
+			for (final MediaContainerModel galleryImage : galleryImages){
+				if (galleryImage.equals(mediaContainer) || isUploadedImage(galleryImage)){
+					position = position < 0 ? replaced.size() : position;
+				}else{
+					replaced.add(galleryImage);
+				}
+			}
+		}
+		replaced.add(Math.max(0, position), mediaContainer);
+		return replaced;
+	}
+
+	protected boolean isUploadedImage(final MediaContainerModel mediaContainer){
+		return mediaContainer.getQualifier() != null && UPLOADED_IMAGE_QUALIFIER.matcher(mediaContainer.getQualifier()).matches();
 	}
 
 	protected String createJobIdentifier(final String catalogId){
@@ -133,13 +203,25 @@ public class CustomProductDaoImpl implements CustomProductDao {
 		});
 	}
 
-	protected void syncProductModel(final List<ProductModel> listProductModel, final CatalogVersionModel source,
+	protected CatalogSyncBatch syncProductModel(final List<ProductModel> listProductModel,
+			final CatalogVersionModel source, final CatalogVersionModel target){
+		return syncItems(listProductModel, source, target);
+	}
+
+	/**
+	 * @return the batch the items were added to, null if their synchronization was started right away
+	 */
+	protected CatalogSyncBatch syncItems(final List<? extends ItemModel> items, final CatalogVersionModel source,
 			final CatalogVersionModel target){
 
-		final List<ItemModel> givenItem = new ArrayList<ItemModel>();
-		givenItem.addAll(listProductModel);
 		final SyncItemJobModel syncItemJobModel = getService().getSyncJob(source, target,
 				createJobIdentifier(source.getCatalog().getId()));
+		if (getCatalogSyncCoalescer() != null){
+			return getCatalogSyncCoalescer().enqueue(syncItemJobModel, items);
+		}
+
+		final List<ItemModel> givenItem = new ArrayList<ItemModel>();
+		givenItem.addAll(items);
 		final SyncConfig syncConfig = new SyncConfig();
 		syncConfig.setSynchronous(false);
 		syncConfig.setCreateSavedValues(false);
@@ -150,6 +232,7 @@ public class CustomProductDaoImpl implements CustomProductDao {
 		syncConfig.setLogToFile(true);
 
 		getService().performSynchronization(givenItem, syncItemJobModel, syncConfig);
+		return null;
 	}
 
 	/**
@@ -287,6 +370,22 @@ public class CustomProductDaoImpl implements CustomProductDao {
 		this.searchRestrictionService = searchRestrictionService;
 	}
 
+	/**
+	 * @return the catalogSyncCoalescer
+	 */
+	public CatalogSyncCoalescer getCatalogSyncCoalescer(){
+		return catalogSyncCoalescer;
+	}
+
+	/**
+	 * @param catalogSyncCoalescer
+	 *           the catalogSyncCoalescer batching the synchronization of updated products, products are synchronized
+	 *           one upload at a time if not set
+	 */
+	public void setCatalogSyncCoalescer(final CatalogSyncCoalescer catalogSyncCoalescer){
+		this.catalogSyncCoalescer = catalogSyncCoalescer;
+	}
+
 
 
 }
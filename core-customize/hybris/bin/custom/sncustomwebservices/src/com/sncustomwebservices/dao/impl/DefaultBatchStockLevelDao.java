@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao.impl;
+
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.FlexibleSearchService;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import com.sncustomwebservices.dao.BatchStockLevelDao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Required;
+
+import com.google.common.collect.Iterables;
+
+
+/**
+ * Default implementation of {@link BatchStockLevelDao}. Every lookup is a single query, unless a parameter list is
+ * longer than {@link #getMaxParameters()}; then it is split into chunks to stay within database IN list limits.
+ */
+public class DefaultBatchStockLevelDao implements BatchStockLevelDao
+{
+	protected static final int DEFAULT_MAX_PARAMETERS = 1000;
+
+	private static final String FIND_STOCK_LEVELS_QUERY = "SELECT {" + StockLevelModel.PK + "} FROM {" + StockLevelModel._TYPECODE
+			+ "} WHERE {" + StockLevelModel.PRODUCTCODE + "} IN (?productCodes) AND {" + StockLevelModel.WAREHOUSE
+			+ "} IN (?warehouses)";
+	private static final String FIND_POINTS_OF_SERVICE_QUERY = "SELECT {" + PointOfServiceModel.PK + "} FROM {"
+			+ PointOfServiceModel._TYPECODE + "} WHERE {" + PointOfServiceModel.NAME + "} IN (?names)";
+
+	private FlexibleSearchService flexibleSearchService;
+	private int maxParameters = DEFAULT_MAX_PARAMETERS;
+
+	@Override
+	public List<StockLevelModel> findStockLevels(final Collection<String> productCodes,
+			final Collection<WarehouseModel> warehouses)
+	{
+		if (productCodes.isEmpty() || warehouses.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		final List<StockLevelModel> stockLevels = new ArrayList<>();
+		for (final List<String> productCodesChunk : Iterables.partition(productCodes, getMaxParameters()))
+		{
+			for (final List<WarehouseModel> warehousesChunk : Iterables.partition(warehouses, getMaxParameters()))
+			{
+				final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_STOCK_LEVELS_QUERY);
+				query.addQueryParameter("productCodes", productCodesChunk);
+				query.addQueryParameter("warehouses", warehousesChunk);
+				stockLevels.addAll(getFlexibleSearchService().<StockLevelModel> search(query).getResult());
+			}
+		}
+		return stockLevels;
+	}
+
+	@Override
+	public List<PointOfServiceModel> findPointsOfService(final Collection<String> names)
+	{
+		if (names.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		final List<PointOfServiceModel> pointsOfService = new ArrayList<>();
+		for (final List<String> namesChunk : Iterables.partition(names, getMaxParameters()))
+		{
+			final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_POINTS_OF_SERVICE_QUERY);
+			query.addQueryParameter("names", namesChunk);
+			pointsOfService.addAll(getFlexibleSearchService().<PointOfServiceModel> search(query).getResult());
+		}
+		return pointsOfService;
+	}
+
+	protected FlexibleSearchService getFlexibleSearchService()
+	{
+		return flexibleSearchService;
+	}
+
+	@Required
+	public void setFlexibleSearchService(final FlexibleSearchService flexibleSearchService)
+	{
+		this.flexibleSearchService = flexibleSearchService;
+	}
+
+	protected int getMaxParameters()
+	{
+		return maxParameters;
+	}
+
+	public void setMaxParameters(final int maxParameters)
+	{
+		this.maxParameters = maxParameters;
+	}
+}
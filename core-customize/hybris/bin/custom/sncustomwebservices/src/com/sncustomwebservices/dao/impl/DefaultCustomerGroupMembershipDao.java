@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.FlexibleSearchService;
+import com.sncustomwebservices.dao.CustomerGroupMembershipDao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Required;
+
+import com.google.common.collect.Iterables;
+
+
+/**
+ * Default implementation of {@link CustomerGroupMembershipDao}. Lookups by uid or primary key are split into chunks of
+ * {@link #getMaxParameters()} to stay within database IN list limits. Members are read from the PrincipalGroupRelation
+ * link table in one query, without loading the group members.
+ */
+public class DefaultCustomerGroupMembershipDao implements CustomerGroupMembershipDao
+{
+	protected static final int DEFAULT_MAX_PARAMETERS = 1000;
+
+	private static final String FIND_USER_PKS_QUERY = "SELECT {" + UserModel.UID + "}, {" + UserModel.PK + "} FROM {"
+			+ UserModel._TYPECODE + "} WHERE {" + UserModel.UID + "} IN (?uids)";
+	private static final String FIND_MEMBER_PKS_QUERY = "SELECT {u." + UserModel.PK + "} FROM {" + UserModel._TYPECODE
+			+ " AS u JOIN PrincipalGroupRelation AS r ON {r.source} = {u." + UserModel.PK + "}} WHERE {r.target} = ?group";
+	private static final String FIND_USERS_QUERY = "SELECT {" + UserModel.PK + "} FROM {" + UserModel._TYPECODE + "} WHERE {"
+			+ UserModel.PK + "} IN (?pks)";
+
+	private FlexibleSearchService flexibleSearchService;
+	private int maxParameters = DEFAULT_MAX_PARAMETERS;
+
+	@Override
+	public Map<String, PK> findUserPks(final Collection<String> uids)
+	{
+		if (uids.isEmpty())
+		{
+			return Collections.emptyMap();
+		}
+
+		final Map<String, PK> userPks = new HashMap<>(uids.size());
+		for (final List<String> uidsChunk : Iterables.partition(uids, getMaxParameters()))
+		{
+			final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_USER_PKS_QUERY);
+			query.addQueryParameter("uids", uidsChunk);
+			query.setResultClassList(Arrays.asList(String.class, PK.class));
+			for (final List<Object> row : getFlexibleSearchService().<List<Object>> search(query).getResult())
+			{
+				userPks.put((String) row.get(0), (PK) row.get(1));
+			}
+		}
+		return userPks;
+	}
+
+	@Override
+	public Set<PK> findMemberPks(final UserGroupModel group)
+	{
+		final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_MEMBER_PKS_QUERY);
+		query.addQueryParameter("group", group);
+		query.setResultClassList(Collections.singletonList(PK.class));
+		return new HashSet<>(getFlexibleSearchService().<PK> search(query).getResult());
+	}
+
+	@Override
+	public List<UserModel> findUsers(final Collection<PK> pks)
+	{
+		if (pks.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		final List<UserModel> users = new ArrayList<>(pks.size());
+		for (final List<PK> pksChunk : Iterables.partition(pks, getMaxParameters()))
+		{
+			final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_USERS_QUERY);
+			query.addQueryParameter("pks", pksChunk);
+			users.addAll(getFlexibleSearchService().<UserModel> search(query).getResult());
+		}
+		return users;
+	}
+
+	protected FlexibleSearchService getFlexibleSearchService()
+	{
+		return flexibleSearchService;
+	}
+
+	@Required
+	public void setFlexibleSearchService(final FlexibleSearchService flexibleSearchService)
+	{
+		this.flexibleSearchService = flexibleSearchService;
+	}
+
+	protected int getMaxParameters()
+	{
+		return maxParameters;
+	}
+
+	public void setMaxParameters(final int maxParameters)
+	{
+		this.maxParameters = maxParameters;
+	}
+}
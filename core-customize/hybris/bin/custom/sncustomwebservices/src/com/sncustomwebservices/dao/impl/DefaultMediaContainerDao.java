@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao.impl;
+
+import de.hybris.platform.catalog.model.CatalogVersionModel;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.FlexibleSearchService;
+import com.sncustomwebservices.dao.MediaContainerDao;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link MediaContainerDao}.
+ */
+public class DefaultMediaContainerDao implements MediaContainerDao
+{
+	private static final String FIND_MEDIA_CONTAINER_QUERY = "SELECT {" + MediaContainerModel.PK + "} FROM {"
+			+ MediaContainerModel._TYPECODE + "} WHERE {" + MediaContainerModel.QUALIFIER + "} = ?qualifier AND {"
+			+ MediaContainerModel.CATALOGVERSION + "} = ?catalogVersion";
+
+	private FlexibleSearchService flexibleSearchService;
+
+	@Override
+	public MediaContainerModel findMediaContainer(final CatalogVersionModel catalogVersion, final String qualifier)
+	{
+		final FlexibleSearchQuery query = new FlexibleSearchQuery(FIND_MEDIA_CONTAINER_QUERY);
+		query.addQueryParameter("qualifier", qualifier);
+		query.addQueryParameter("catalogVersion", catalogVersion);
+		query.setCount(1);
+		final List<MediaContainerModel> result = getFlexibleSearchService().<MediaContainerModel> search(query).getResult();
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	protected FlexibleSearchService getFlexibleSearchService()
+	{
+		return flexibleSearchService;
+	}
+
+	@Required
+	public void setFlexibleSearchService(final FlexibleSearchService flexibleSearchService)
+	{
+		this.flexibleSearchService = flexibleSearchService;
+	}
+}
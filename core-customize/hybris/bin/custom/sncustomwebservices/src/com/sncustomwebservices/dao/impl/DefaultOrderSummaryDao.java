@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.enums.OrderStatus;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.order.OrderModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.enumeration.EnumerationValueModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.FlexibleSearchService;
+import de.hybris.platform.store.BaseStoreModel;
+import com.sncustomwebservices.dao.OrderSummaryDao;
+import com.sncustomwebservices.order.OrderSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link OrderSummaryDao}. Only the listed columns are selected, the currency and status
+ * codes are joined in, so no order model is loaded. The total number of results is never queried.
+ */
+public class DefaultOrderSummaryDao implements OrderSummaryDao
+{
+	private static final String SELECT_SUMMARIES = "SELECT {o." + OrderModel.PK + "}, {o." + OrderModel.CODE + "}, {o."
+			+ OrderModel.GUID + "}, {s." + EnumerationValueModel.CODE + "}, {o." + OrderModel.TOTALPRICE + "}, {c."
+			+ CurrencyModel.ISOCODE + "}, {o." + OrderModel.DATE + "} FROM {" + OrderModel._TYPECODE + " AS o JOIN "
+			+ CurrencyModel._TYPECODE + " AS c ON {o." + OrderModel.CURRENCY + "} = {c." + CurrencyModel.PK + "} LEFT JOIN "
+			+ OrderStatus._TYPECODE + " AS s ON {o." + OrderModel.STATUS + "} = {s." + EnumerationValueModel.PK + "}}";
+	private static final String SELECT_COUNT = "SELECT COUNT({o." + OrderModel.PK + "}) FROM {" + OrderModel._TYPECODE
+			+ " AS o}";
+	private static final String WHERE_USER_ORDERS = " WHERE {o." + OrderModel.USER + "} = ?user AND {o." + OrderModel.STORE
+			+ "} = ?store AND {o." + OrderModel.VERSIONID + "} IS NULL AND {o." + OrderModel.DATE + "} IS NOT NULL";
+	private static final String AND_STATUSES = " AND {o." + OrderModel.STATUS + "} IN (?statuses)";
+	private static final String AND_AFTER = " AND ({o." + OrderModel.DATE + "} < ?afterDate OR ({o." + OrderModel.DATE
+			+ "} = ?afterDate AND {o." + OrderModel.PK + "} < ?afterPk))";
+	private static final String ORDER_BY_DATE = " ORDER BY {o." + OrderModel.DATE + "} DESC, {o." + OrderModel.PK + "} DESC";
+
+	private FlexibleSearchService flexibleSearchService;
+
+	@Override
+	public List<OrderSummary> findOrderSummaries(final UserModel user, final BaseStoreModel store,
+			final Collection<OrderStatus> statuses, final Date afterDate, final PK afterPk, final int count)
+	{
+		final StringBuilder queryString = new StringBuilder(SELECT_SUMMARIES).append(WHERE_USER_ORDERS);
+		if (!statuses.isEmpty())
+		{
+			queryString.append(AND_STATUSES);
+		}
+		if (afterDate != null && afterPk != null)
+		{
+			queryString.append(AND_AFTER);
+		}
+		queryString.append(ORDER_BY_DATE);
+
+		final FlexibleSearchQuery query = createQuery(queryString.toString(), user, store, statuses);
+		if (afterDate != null && afterPk != null)
+		{
+			query.addQueryParameter("afterDate", afterDate);
+			query.addQueryParameter("afterPk", afterPk);
+		}
+		query.setResultClassList(
+				Arrays.asList(PK.class, String.class, String.class, String.class, Double.class, String.class, Date.class));
+		query.setCount(count);
+		query.setNeedTotal(false);
+
+		final List<List<Object>> rows = getFlexibleSearchService().<List<Object>> search(query).getResult();
+		final List<OrderSummary> summaries = new ArrayList<>(rows.size());
+		for (final List<Object> row : rows)
+		{
+			summaries.add(new OrderSummary((PK) row.get(0), (String) row.get(1), (String) row.get(2), (String) row.get(3),
+					(Double) row.get(4), (String) row.get(5), (Date) row.get(6)));
+		}
+		return summaries;
+	}
+
+	@Override
+	public long countOrders(final UserModel user, final BaseStoreModel store, final Collection<OrderStatus> statuses)
+	{
+		final String queryString = SELECT_COUNT + WHERE_USER_ORDERS + (statuses.isEmpty() ? "" : AND_STATUSES);
+		final FlexibleSearchQuery query = createQuery(queryString, user, store, statuses);
+		query.setResultClassList(Collections.singletonList(Long.class));
+		query.setNeedTotal(false);
+
+		final List<Long> result = getFlexibleSearchService().<Long> search(query).getResult();
+		return result.isEmpty() || result.get(0) == null ? 0 : result.get(0).longValue();
+	}
+
+	protected FlexibleSearchQuery createQuery(final String queryString, final UserModel user, final BaseStoreModel store,
+			final Collection<OrderStatus> statuses)
+	{
+		final FlexibleSearchQuery query = new FlexibleSearchQuery(queryString);
+		query.addQueryParameter("user", user);
+		query.addQueryParameter("store", store);
+		if (!statuses.isEmpty())
+		{
+			query.addQueryParameter("statuses", statuses);
+		}
+		return query;
+	}
+
+	protected FlexibleSearchService getFlexibleSearchService()
+	{
+		return flexibleSearchService;
+	}
+
+	@Required
+	public void setFlexibleSearchService(final FlexibleSearchService flexibleSearchService)
+	{
+		this.flexibleSearchService = flexibleSearchService;
+	}
+}
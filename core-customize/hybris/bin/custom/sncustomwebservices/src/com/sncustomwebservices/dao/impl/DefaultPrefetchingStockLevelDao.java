@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.dao.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.stock.impl.DefaultStockLevelDao;
+import com.sncustomwebservices.dao.BatchStockLevelDao;
+import com.sncustomwebservices.dao.PrefetchingStockLevelDao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link PrefetchingStockLevelDao}, replacing the platform stock level DAO. The prefetched
+ * stock levels are bound to the thread running the body; every other lookup, and every lookup for a product or warehouse
+ * that was not prefetched, queries the database as before.
+ */
+public class DefaultPrefetchingStockLevelDao extends DefaultStockLevelDao implements PrefetchingStockLevelDao
+{
+	private final ThreadLocal<Prefetch> prefetch = new ThreadLocal<>();
+
+	private BatchStockLevelDao batchStockLevelDao;
+
+	@Override
+	public <T> T executeWithPrefetch(final Collection<String> productCodes, final Collection<WarehouseModel> warehouses,
+			final Supplier<T> body)
+	{
+		final Prefetch previous = prefetch.get();
+		prefetch.set(new Prefetch(productCodes, warehouses, getBatchStockLevelDao().findStockLevels(productCodes, warehouses)));
+		try
+		{
+			return body.get();
+		}
+		finally
+		{
+			if (previous == null)
+			{
+				prefetch.remove();
+			}
+			else
+			{
+				prefetch.set(previous);
+			}
+		}
+	}
+
+	@Override
+	public Collection<StockLevelModel> findStockLevels(final String productCode, final Collection<WarehouseModel> warehouses)
+	{
+		final Prefetch current = prefetch.get();
+		if (current == null || !current.covers(productCode, warehouses))
+		{
+			return loadStockLevels(productCode, warehouses);
+		}
+		return current.getStockLevels(productCode, warehouses);
+	}
+
+	protected Collection<StockLevelModel> loadStockLevels(final String productCode, final Collection<WarehouseModel> warehouses)
+	{
+		return super.findStockLevels(productCode, warehouses);
+	}
+
+	protected BatchStockLevelDao getBatchStockLevelDao()
+	{
+		return batchStockLevelDao;
+	}
+
+	@Required
+	public void setBatchStockLevelDao(final BatchStockLevelDao batchStockLevelDao)
+	{
+		this.batchStockLevelDao = batchStockLevelDao;
+	}
+
+	protected static class Prefetch
+	{
+		private final Set<String> productCodes;
+		private final Set<PK> warehousePks = new HashSet<>();
+		private final Map<String, List<StockLevelModel>> stockLevelsByProduct = new HashMap<>();
+
+		protected Prefetch(final Collection<String> productCodes, final Collection<WarehouseModel> warehouses,
+				final Collection<StockLevelModel> stockLevels)
+		{
+			this.productCodes = new HashSet<>(productCodes);
+			for (final WarehouseModel warehouse : warehouses)
+			{
+				warehousePks.add(warehouse.getPk());
+			}
+			for (final StockLevelModel stockLevel : stockLevels)
+			{
+				stockLevelsByProduct.computeIfAbsent(stockLevel.getProductCode(), k -> new ArrayList<>()).add(stockLevel);
+			}
+		}
+
+		public boolean covers(final String productCode, final Collection<WarehouseModel> warehouses)
+		{
+			if (!productCodes.contains(productCode))
+			{
+				return false;
+			}
+			for (final WarehouseModel warehouse : warehouses)
+			{
+				if (!warehousePks.contains(warehouse.getPk()))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public List<StockLevelModel> getStockLevels(final String productCode, final Collection<WarehouseModel> warehouses)
+		{
+			final Set<PK> requested = new HashSet<>();
+			for (final WarehouseModel warehouse : warehouses)
+			{
+				requested.add(warehouse.getPk());
+			}
+			final List<StockLevelModel> stockLevels = new ArrayList<>();
+			for (final StockLevelModel stockLevel : stockLevelsByProduct.getOrDefault(productCode, Collections.emptyList()))
+			{
+				if (requested.contains(stockLevel.getWarehouse().getPk()))
+				{
+					stockLevels.add(stockLevel);
+				}
+			}
+			return stockLevels;
+		}
+	}
+}
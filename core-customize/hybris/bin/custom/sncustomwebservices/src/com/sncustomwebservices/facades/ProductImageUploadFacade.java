@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.facades;
+
+import de.hybris.platform.cmsfacades.data.MediaData;
+import de.hybris.platform.cmsfacades.dto.MediaFileDto;
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+import com.sncustomwebservices.media.data.ProductImageUploadData;
+
+
+/**
+ * Stores uploaded product images once per content and links them to products.
+ */
+public interface ProductImageUploadFacade
+{
+	/**
+	 * Stores the uploaded image, unless an image with the same content is already stored in the catalog version of the
+	 * media, and makes it the picture of the product. Scaled renditions of the image replace it as picture, thumbnail and
+	 * gallery image of the product once they are created in the background. The product is synchronized to the online
+	 * catalog in a batch, the renditions in a later one.
+	 *
+	 * @param productCode
+	 * 		code of the product in the catalog version of the media
+	 * @param mediaData
+	 * 		media to be created
+	 * @param mediaFile
+	 * 		uploaded file
+	 * @return the created media, or the media already holding the same content, whose code differs from the code of the
+	 * given media data, and the identifier of the batch synchronizing the product if it was batched
+	 */
+	ProductImageUploadData uploadImage(String productCode, MediaData mediaData, MediaFileDto mediaFile);
+
+	/**
+	 * @param batchId
+	 * 		identifier of the batch synchronizing a product, as returned by the upload
+	 * @return the batch if it was opened on this node and did not expire, null otherwise
+	 */
+	CatalogSyncBatch getCatalogSyncBatch(String batchId);
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.facades.impl;
+
+import de.hybris.platform.catalog.CatalogVersionService;
+import de.hybris.platform.catalog.model.CatalogVersionModel;
+import de.hybris.platform.cmsfacades.data.MediaData;
+import de.hybris.platform.cmsfacades.dto.MediaFileDto;
+import de.hybris.platform.cmsfacades.media.MediaFacade;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.servicelayer.media.MediaService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+import com.sncustomwebservices.catalog.CatalogSyncCoalescer;
+import com.sncustomwebservices.dao.MediaContainerDao;
+import com.sncustomwebservices.facades.ProductImageUploadFacade;
+import com.sncustomwebservices.media.data.ProductImageUploadData;
+import com.sncustomwebservices.media.ProductImageRenditionService;
+import com.sncustomwebservices.service.CustomProductService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+import com.google.common.util.concurrent.Striped;
+
+
+/**
+ * Default implementation of {@link ProductImageUploadFacade}. The upload is copied to
+ * {@code <spoolDirectory>/upload*.tmp} while its SHA-256 hash is computed. The original image is stored in a media
+ * container whose qualifier is the hash, so a later upload of the same content in the same catalog version reuses the
+ * stored media instead of storing it again. Uploads of the same content are serialized on this node; concurrent uploads
+ * on other nodes may still store it twice.
+ */
+public class DefaultProductImageUploadFacade implements ProductImageUploadFacade, InitializingBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultProductImageUploadFacade.class);
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private final Striped<Lock> contentLocks = Striped.lock(64);
+	private final LongAdder stored = new LongAdder();
+	private final LongAdder deduplicated = new LongAdder();
+
+	private CatalogSyncCoalescer catalogSyncCoalescer;
+	private CatalogVersionService catalogVersionService;
+	private CustomProductService customProductService;
+	private MediaContainerDao mediaContainerDao;
+	private MediaFacade mediaFacade;
+	private MediaService mediaService;
+	private ModelService modelService;
+	private ProductImageRenditionService productImageRenditionService;
+	private String spoolDirectory;
+
+	@Override
+	public void afterPropertiesSet() throws IOException
+	{
+		final Path root = getRoot();
+		Files.createDirectories(root);
+		try (final Stream<Path> files = Files.list(root))
+		{
+			files.filter(file -> file.toString().endsWith(TEMP_SUFFIX)).forEach(this::deleteQuietly);
+		}
+	}
+
+	@Override
+	public ProductImageUploadData uploadImage(final String productCode, final MediaData mediaData,
+			final MediaFileDto mediaFile)
+	{
+		Path temp = null;
+		try
+		{
+			final MessageDigest digest = createDigest();
+			temp = Files.createTempFile(getRoot(), "upload", TEMP_SUFFIX);
+			try (final DigestInputStream in = new DigestInputStream(mediaFile.getInputStream(), digest);
+					final OutputStream out = Files.newOutputStream(temp))
+			{
+				IOUtils.copyLarge(in, out);
+			}
+			final String hash = Hex.encodeHexString(digest.digest());
+
+			final CatalogVersionModel catalogVersion = getCatalogVersionService().getCatalogVersion(mediaData.getCatalogId(),
+					mediaData.getCatalogVersion());
+			final MediaData media;
+			final MediaContainerModel mediaContainer;
+			final Lock lock = contentLocks.get(hash);
+			lock.lock();
+			try
+			{
+				final MediaContainerModel existingContainer = getMediaContainerDao().findMediaContainer(catalogVersion, hash);
+				final MediaModel existingOriginal = existingContainer == null ? null : getOriginal(existingContainer);
+				if (existingOriginal != null)
+				{
+					deduplicated.increment();
+					LOG.debug("Image " + mediaData.getCode() + " has the same content as " + existingOriginal.getCode());
+					media = getMediaFacade().getMediaByCode(existingOriginal.getCode());
+					mediaContainer = existingContainer;
+				}
+				else
+				{
+					try (final InputStream in = Files.newInputStream(temp))
+					{
+						mediaFile.setInputStream(in);
+						media = getMediaFacade().addMedia(mediaData, mediaFile);
+					}
+					mediaContainer = existingContainer == null ? createMediaContainer(catalogVersion, hash) : existingContainer;
+					final MediaModel original = getMediaService().getMedia(catalogVersion, media.getCode());
+					original.setMediaContainer(mediaContainer);
+					getModelService().save(original);
+					stored.increment();
+				}
+			}
+			finally
+			{
+				lock.unlock();
+			}
+
+			final CatalogSyncBatch batch = getCustomProductService().updateImageForProduct(productCode, media);
+			getProductImageRenditionService().submit(mediaContainer, productCode);
+
+			final ProductImageUploadData upload = new ProductImageUploadData();
+			upload.setMedia(media);
+			upload.setCatalogSyncBatchId(batch == null ? null : batch.getBatchId());
+			return upload;
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			if (temp != null)
+			{
+				deleteQuietly(temp);
+			}
+		}
+	}
+
+	@Override
+	public CatalogSyncBatch getCatalogSyncBatch(final String batchId)
+	{
+		return getCatalogSyncCoalescer().getBatch(batchId);
+	}
+
+	/**
+	 * @return the media of the container without media format, null if there is none
+	 */
+	protected MediaModel getOriginal(final MediaContainerModel mediaContainer)
+	{
+		for (final MediaModel media : mediaContainer.getMedias())
+		{
+			if (media.getMediaFormat() == null)
+			{
+				return media;
+			}
+		}
+		return null;
+	}
+
+	protected MediaContainerModel createMediaContainer(final CatalogVersionModel catalogVersion, final String hash)
+	{
+		final MediaContainerModel mediaContainer = getModelService().create(MediaContainerModel.class);
+		mediaContainer.setQualifier(hash);
+		mediaContainer.setCatalogVersion(catalogVersion);
+		getModelService().save(mediaContainer);
+		return mediaContainer;
+	}
+
+	protected MessageDigest createDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		}
+		catch (final NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+		}
+	}
+
+	protected Path getRoot()
+	{
+		return Paths.get(getSpoolDirectory());
+	}
+
+	protected void deleteQuietly(final Path file)
+	{
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException e)
+		{
+			LOG.warn("Could not delete " + file, e);
+		}
+	}
+
+	/**
+	 * @return number of uploads stored as new media
+	 */
+	public long getStoredCount()
+	{
+		return stored.sum();
+	}
+
+	/**
+	 * @return number of uploads that reused a media with the same content
+	 */
+	public long getDeduplicatedCount()
+	{
+		return deduplicated.sum();
+	}
+
+	protected CatalogSyncCoalescer getCatalogSyncCoalescer()
+	{
+		return catalogSyncCoalescer;
+	}
+
+	@Required
+	public void setCatalogSyncCoalescer(final CatalogSyncCoalescer catalogSyncCoalescer)
+	{
+		this.catalogSyncCoalescer = catalogSyncCoalescer;
+	}
+
+	protected CatalogVersionService getCatalogVersionService()
+	{
+		return catalogVersionService;
+	}
+
+	@Required
+	public void setCatalogVersionService(final CatalogVersionService catalogVersionService)
+	{
+		this.catalogVersionService = catalogVersionService;
+	}
+
+	protected CustomProductService getCustomProductService()
+	{
+		return customProductService;
+	}
+
+	@Required
+	public void setCustomProductService(final CustomProductService customProductService)
+	{
+		this.customProductService = customProductService;
+	}
+
+	protected MediaContainerDao getMediaContainerDao()
+	{
+		return mediaContainerDao;
+	}
+
+	@Required
+	public void setMediaContainerDao(final MediaContainerDao mediaContainerDao)
+	{
+		this.mediaContainerDao = mediaContainerDao;
+	}
+
+	protected MediaFacade getMediaFacade()
+	{
+		return mediaFacade;
+	}
+
+	@Required
+	public void setMediaFacade(final MediaFacade mediaFacade)
+	{
+		this.mediaFacade = mediaFacade;
+	}
+
+	protected MediaService getMediaService()
+	{
+		return mediaService;
+	}
+
+	@Required
+	public void setMediaService(final MediaService mediaService)
+	{
+		this.mediaService = mediaService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected ProductImageRenditionService getProductImageRenditionService()
+	{
+		return productImageRenditionService;
+	}
+
+	@Required
+	public void setProductImageRenditionService(final ProductImageRenditionService productImageRenditionService)
+	{
+		this.productImageRenditionService = productImageRenditionService;
+	}
+
+	protected String getSpoolDirectory()
+	{
+		return spoolDirectory;
+	}
+
+	/**
+	 * @param spoolDirectory
+	 * 		directory uploads are copied to while they are hashed
+	 */
+	@Required
+	public void setSpoolDirectory(final String spoolDirectory)
+	{
+		this.spoolDirectory = spoolDirectory;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * An invoice document stored in a local file, opened for reading. The file stays readable while the document is open,
+ * even if the cache evicts it in the meantime.
+ */
+public class InvoiceDocument implements Closeable
+{
+	private final FileChannel channel;
+	private final long length;
+	private final String contentHash;
+	private final Path deleteOnClose;
+
+	public InvoiceDocument(final FileChannel channel, final long length, final String contentHash, final Path deleteOnClose)
+	{
+		this.channel = channel;
+		this.length = length;
+		this.contentHash = contentHash;
+		this.deleteOnClose = deleteOnClose;
+	}
+
+	/**
+	 * Transfers a part of the document with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which lets
+	 * the operating system copy the file content when the target is a socket.
+	 *
+	 * @param position
+	 * 		first byte to transfer
+	 * @param count
+	 * 		number of bytes to transfer
+	 * @param target
+	 * 		target channel
+	 * @throws IOException
+	 * 		when the document can not be read or the target can not be written
+	 */
+	public void transferTo(final long position, final long count, final WritableByteChannel target) throws IOException
+	{
+		long transferred = 0;
+		while (transferred < count)
+		{
+			final long written = channel.transferTo(position + transferred, count - transferred, target);
+			if (written <= 0 && position + transferred >= channel.size())
+			{
+				throw new IOException("Invoice document ended after " + (position + transferred) + " of " + length + " bytes");
+			}
+			transferred += written;
+		}
+	}
+
+	public long getLength()
+	{
+		return length;
+	}
+
+	/**
+	 * @return SHA-256 of the document content, in hex
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			channel.close();
+		}
+		finally
+		{
+			if (deleteOnClose != null)
+			{
+				Files.deleteIfExists(deleteOnClose);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Size bounded local file cache of invoice documents. Files are named by the hash of their content, so the same
+ * document requested under several keys is stored once. Keys expire, so reissued documents are picked up.
+ */
+public interface InvoiceFileCache
+{
+	/**
+	 * Returns the cached document of a key, or stores the document opened by the loader first.
+	 *
+	 * @param key
+	 * 		cache key, it has to identify the user the invoice belongs to
+	 * @param loader
+	 * 		opens the document when it is not cached, returns null when there is no document
+	 * @return open document the caller has to close, or null when the loader did not return a document
+	 * @throws IOException
+	 * 		when the document can not be loaded or stored
+	 */
+	InvoiceDocument getDocument(String key, InvoiceLoader loader) throws IOException;
+
+	/**
+	 * Drops all cached documents.
+	 */
+	void clear();
+
+	/**
+	 * Opens an invoice document that is not cached yet.
+	 */
+	@FunctionalInterface
+	interface InvoiceLoader
+	{
+		InputStream open() throws IOException;
+	}
+}
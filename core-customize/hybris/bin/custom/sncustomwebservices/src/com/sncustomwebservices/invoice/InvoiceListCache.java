@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice;
+
+import de.hybris.platform.commercefacades.invoice.data.SAPInvoiceData;
+import de.hybris.platform.core.servicelayer.data.SearchPageData;
+
+
+/**
+ * Caches the invoices of an order of the current user. All invoices of an order are fetched once, pages and sorts are
+ * then served from memory.
+ */
+public interface InvoiceListCache
+{
+	/**
+	 * @return false when invoices should be fetched from the invoice facade for every request
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Returns a page of the invoices of an order of the current user.
+	 *
+	 * @param orderCode
+	 * 		order code
+	 * @param searchPageData
+	 * 		requested page and sorts, sort codes are invoice data property names
+	 * @return page of invoices
+	 */
+	SearchPageData<SAPInvoiceData> getInvoices(String orderCode, SearchPageData<SAPInvoiceData> searchPageData);
+
+	/**
+	 * Starts fetching the invoices of an order of the current user in the background, unless they are cached already.
+	 *
+	 * @param orderCode
+	 * 		order code
+	 */
+	void prefetch(String orderCode);
+
+	/**
+	 * Drops the cached invoices of an order for all users.
+	 *
+	 * @param orderCode
+	 * 		order code
+	 */
+	void invalidate(String orderCode);
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Provides the document of an invoice as a stream, so it can be passed on without holding it in memory.
+ */
+public interface StreamingInvoiceFacade
+{
+	/**
+	 * Opens the document of an invoice of an order of the current user. The caller closes the stream.
+	 *
+	 * @param orderCode
+	 * 		order code
+	 * @param invoiceId
+	 * 		invoice id
+	 * @param externalSystemId
+	 * 		external system the invoice resides in, may be null
+	 * @return invoice document, or null when the invoice does not have any data
+	 * @throws IOException
+	 * 		when the document can not be read
+	 */
+	InputStream getInvoiceStream(String orderCode, String invoiceId, String externalSystemId) throws IOException;
+}
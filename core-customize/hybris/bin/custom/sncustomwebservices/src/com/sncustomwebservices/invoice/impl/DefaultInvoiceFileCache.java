@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import com.sncustomwebservices.invoice.InvoiceDocument;
+import com.sncustomwebservices.invoice.InvoiceFileCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link InvoiceFileCache}. Documents are written to a temporary file while their hash is
+ * computed and then moved to {@code <directory>/<first two hash characters>/<hash>.pdf}. The least recently used keys
+ * are dropped when the files exceed {@link #getMaxBytes()}, a file is deleted when no key refers to it anymore. Documents
+ * larger than the limit are served from a temporary file that is deleted when the document is closed.
+ * <p>
+ * A key is loaded again {@link #getTimeToLive()} seconds after it was stored, so a document the backend reissued under
+ * the same invoice id replaces the cached one. Unchanged content keeps its file.
+ * <p>
+ * The key index is kept in memory, so files left over from a previous run are deleted on startup.
+ */
+public class DefaultInvoiceFileCache implements InvoiceFileCache, InitializingBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultInvoiceFileCache.class);
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final String DOCUMENT_SUFFIX = ".pdf";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	// access ordered, guarded by this
+	private final LinkedHashMap<String, CachedKey> keys = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, CachedFile> filesByHash = new HashMap<>();
+	private long totalBytes;
+
+	private String directory;
+	private long maxBytes;
+	private long timeToLive;
+
+	@Override
+	public void afterPropertiesSet() throws IOException
+	{
+		final Path root = getRoot();
+		Files.createDirectories(root);
+		try (final Stream<Path> files = Files.walk(root, 2))
+		{
+			files.filter(Files::isRegularFile)
+					.filter(file -> file.toString().endsWith(DOCUMENT_SUFFIX) || file.toString().endsWith(TEMP_SUFFIX))
+					.forEach(this::deleteQuietly);
+		}
+	}
+
+	@Override
+	public InvoiceDocument getDocument(final String key, final InvoiceLoader loader) throws IOException
+	{
+		synchronized (this)
+		{
+			final CachedKey cached = keys.get(key);
+			if (cached != null)
+			{
+				final InvoiceDocument document = cached.getExpiresAt() > System.currentTimeMillis() ? open(cached.getHash())
+						: null;
+				if (document != null)
+				{
+					return document;
+				}
+				removeKey(key);
+			}
+		}
+
+		final Path temp;
+		final long length;
+		final String hash;
+		try (final InputStream source = loader.open())
+		{
+			if (source == null)
+			{
+				return null;
+			}
+			final MessageDigest digest = createDigest();
+			temp = Files.createTempFile(getRoot(), "invoice", TEMP_SUFFIX);
+			try (final DigestInputStream in = new DigestInputStream(source, digest);
+					final OutputStream out = Files.newOutputStream(temp))
+			{
+				length = IOUtils.copyLarge(in, out);
+			}
+			catch (final IOException | RuntimeException e)
+			{
+				deleteQuietly(temp);
+				throw e;
+			}
+			hash = Hex.encodeHexString(digest.digest());
+		}
+
+		if (length == 0)
+		{
+			deleteQuietly(temp);
+			return null;
+		}
+		if (length > getMaxBytes())
+		{
+			LOG.debug("Invoice document of " + length + " bytes exceeds the cache size, it is not cached");
+			return new InvoiceDocument(FileChannel.open(temp, StandardOpenOption.READ), length, hash, temp);
+		}
+		return store(key, hash, length, temp);
+	}
+
+	@Override
+	public synchronized void clear()
+	{
+		keys.clear();
+		for (final String hash : filesByHash.keySet())
+		{
+			deleteQuietly(getPath(hash));
+		}
+		filesByHash.clear();
+		totalBytes = 0;
+	}
+
+	protected synchronized InvoiceDocument store(final String key, final String hash, final long length, final Path temp)
+			throws IOException
+	{
+		CachedFile file = filesByHash.get(hash);
+		if (file == null)
+		{
+			final Path target = getPath(hash);
+			Files.createDirectories(target.getParent());
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			file = new CachedFile(length);
+			filesByHash.put(hash, file);
+			totalBytes += length;
+		}
+		else
+		{
+			// same content already cached under another key
+			deleteQuietly(temp);
+		}
+
+		final CachedKey previous = keys.put(key,
+				new CachedKey(hash, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive())));
+		if (previous == null || !hash.equals(previous.getHash()))
+		{
+			file.references++;
+			if (previous != null)
+			{
+				release(previous.getHash());
+			}
+		}
+		evict(key);
+		return open(hash);
+	}
+
+	protected void evict(final String keep)
+	{
+		final Iterator<Map.Entry<String, CachedKey>> eldest = keys.entrySet().iterator();
+		while (totalBytes > getMaxBytes() && eldest.hasNext())
+		{
+			final Map.Entry<String, CachedKey> entry = eldest.next();
+			if (!entry.getKey().equals(keep))
+			{
+				eldest.remove();
+				release(entry.getValue().getHash());
+			}
+		}
+	}
+
+	protected void removeKey(final String key)
+	{
+		final CachedKey cached = keys.remove(key);
+		if (cached != null)
+		{
+			release(cached.getHash());
+		}
+	}
+
+	protected void release(final String hash)
+	{
+		final CachedFile file = filesByHash.get(hash);
+		if (file != null && --file.references <= 0)
+		{
+			filesByHash.remove(hash);
+			totalBytes -= file.length;
+			deleteQuietly(getPath(hash));
+		}
+	}
+
+	protected InvoiceDocument open(final String hash) throws IOException
+	{
+		final CachedFile file = filesByHash.get(hash);
+		if (file == null)
+		{
+			return null;
+		}
+		try
+		{
+			return new InvoiceDocument(FileChannel.open(getPath(hash), StandardOpenOption.READ), file.length, hash, null);
+		}
+		catch (final NoSuchFileException e)
+		{
+			LOG.warn("Cached invoice document " + hash + " was deleted outside of the cache");
+			filesByHash.remove(hash);
+			totalBytes -= file.length;
+			keys.values().removeIf(cached -> cached.getHash().equals(hash));
+			return null;
+		}
+	}
+
+	protected MessageDigest createDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		}
+		catch (final NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+		}
+	}
+
+	protected Path getPath(final String hash)
+	{
+		return getRoot().resolve(hash.substring(0, 2)).resolve(hash + DOCUMENT_SUFFIX);
+	}
+
+	protected Path getRoot()
+	{
+		return Paths.get(getDirectory());
+	}
+
+	protected void deleteQuietly(final Path file)
+	{
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException e)
+		{
+			LOG.warn("Could not delete invoice document " + file, e);
+		}
+	}
+
+	protected String getDirectory()
+	{
+		return directory;
+	}
+
+	/**
+	 * @param directory
+	 * 		directory the documents are stored in
+	 */
+	@Required
+	public void setDirectory(final String directory)
+	{
+		this.directory = directory;
+	}
+
+	protected long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * @param maxBytes
+	 * 		total size of the cached documents
+	 */
+	@Required
+	public void setMaxBytes(final long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a key is served from the cache before its document is loaded again
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected static class CachedKey
+	{
+		private final String hash;
+		private final long expiresAt;
+
+		protected CachedKey(final String hash, final long expiresAt)
+		{
+			this.hash = hash;
+			this.expiresAt = expiresAt;
+		}
+
+		public String getHash()
+		{
+			return hash;
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+
+	protected static class CachedFile
+	{
+		private final long length;
+		private int references;
+
+		protected CachedFile(final long length)
+		{
+			this.length = length;
+		}
+	}
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.invoice.InvoiceFacade;
+import de.hybris.platform.commercefacades.invoice.data.SAPInvoiceData;
+import de.hybris.platform.commercefacades.product.data.PriceData;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.core.servicelayer.data.PaginationData;
+import de.hybris.platform.core.servicelayer.data.SearchPageData;
+import de.hybris.platform.core.servicelayer.data.SortData;
+import de.hybris.platform.servicelayer.i18n.CommonI18NService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.invoice.InvoiceListCache;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Default implementation of {@link InvoiceListCache}. Invoices are kept per order code and per base site and user, so an
+ * order status update drops the invoices of the order for everyone. A request that finds a fetch in progress, for
+ * example a prefetch started by the order details, waits for it instead of calling the backend again. Entries also
+ * expire after {@link #getTimeToLive()} seconds, so updates received by other cluster nodes are picked up. At most
+ * {@link #getMaxOrders()} orders are kept, the least recently used ones are dropped first, and an order is dropped
+ * together with all its entries once its first entry expired.
+ */
+public class DefaultInvoiceListCache implements InvoiceListCache, InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultInvoiceListCache.class);
+
+	private Cache<String, ConcurrentMap<String, CachedInvoices>> invoicesByOrder;
+	private ThreadPoolExecutor executor;
+
+	private InvoiceFacade invoiceFacade;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private BaseSiteService baseSiteService;
+	private CommonI18NService commonI18NService;
+	private boolean enabled = true;
+	private boolean prefetchEnabled = true;
+	private long timeToLive;
+	private long maxOrders;
+	private long waitTimeout;
+	private int fetchSize;
+	private String fetchFields;
+	private int poolSize;
+	private int queueSize;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		invoicesByOrder = createCache();
+		executor = createExecutor();
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void destroy()
+	{
+		executor.shutdownNow();
+	}
+
+	@Override
+	public SearchPageData<SAPInvoiceData> getInvoices(final String orderCode,
+			final SearchPageData<SAPInvoiceData> searchPageData)
+	{
+		return createPage(getAllInvoices(orderCode), searchPageData);
+	}
+
+	@Override
+	public void prefetch(final String orderCode)
+	{
+		if (!isEnabled() || !isPrefetchEnabled())
+		{
+			return;
+		}
+		final ConcurrentMap<String, CachedInvoices> entries = getEntries(orderCode);
+		final String userKey = getUserKey();
+		final CachedInvoices created = new CachedInvoices(getExpiresAt());
+		if (entries.compute(userKey, (key, current) -> isValid(current) ? current : created) != created)
+		{
+			return;
+		}
+
+		final UserModel user = getUserService().getCurrentUser();
+		final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+		final LanguageModel language = getCommonI18NService().getCurrentLanguage();
+		final CurrencyModel currency = getCommonI18NService().getCurrentCurrency();
+		try
+		{
+			executor.execute(() -> {
+				try
+				{
+					created.complete(fetchInSession(orderCode, user, baseSite, language, currency));
+				}
+				catch (final RuntimeException e)
+				{
+					LOG.debug("Prefetching invoices of order " + orderCode + " failed", e);
+					entries.remove(userKey, created);
+					created.fail(e);
+				}
+			});
+		}
+		catch (final RejectedExecutionException e)
+		{
+			LOG.debug("Prefetch queue is full, invoices of order " + orderCode + " are fetched on request");
+			entries.remove(userKey, created);
+			created.fail(e);
+		}
+	}
+
+	@Override
+	public void invalidate(final String orderCode)
+	{
+		if (invoicesByOrder.asMap().remove(orderCode) != null && LOG.isDebugEnabled())
+		{
+			LOG.debug("Invalidated cached invoices of order " + orderCode);
+		}
+	}
+
+	protected Cache<String, ConcurrentMap<String, CachedInvoices>> createCache()
+	{
+		final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(getMaxOrders());
+		if (getTimeToLive() > 0)
+		{
+			builder.expireAfterWrite(getTimeToLive(), TimeUnit.SECONDS);
+		}
+		return builder.build();
+	}
+
+	protected ThreadPoolExecutor createExecutor()
+	{
+		return new ThreadPoolExecutor(getPoolSize(), getPoolSize(), 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(getQueueSize()), getWorkerSessionService().createThreadFactory());
+	}
+
+	protected List<SAPInvoiceData> getAllInvoices(final String orderCode)
+	{
+		final ConcurrentMap<String, CachedInvoices> entries = getEntries(orderCode);
+		final String userKey = getUserKey();
+		final CachedInvoices created = new CachedInvoices(getExpiresAt());
+		final CachedInvoices cached = entries.compute(userKey, (key, current) -> isValid(current) ? current : created);
+		if (cached == created)
+		{
+			try
+			{
+				created.complete(fetch(orderCode));
+			}
+			catch (final RuntimeException e)
+			{
+				entries.remove(userKey, created);
+				created.fail(e);
+				throw e;
+			}
+		}
+
+		try
+		{
+			return cached.get(getWaitTimeout());
+		}
+		catch (final ExecutionException | TimeoutException e)
+		{
+			// the prefetch failed or hangs, fetch in this request so errors are reported as before
+			LOG.debug("Cached invoices of order " + orderCode + " are not available", e);
+			entries.remove(userKey, cached);
+			return fetch(orderCode);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return fetch(orderCode);
+		}
+	}
+
+	protected List<SAPInvoiceData> fetchInSession(final String orderCode, final UserModel user, final BaseSiteModel baseSite,
+			final LanguageModel language, final CurrencyModel currency)
+	{
+		return getWorkerSessionService().callInNewSession(user, () -> {
+			getBaseSiteService().setCurrentBaseSite(baseSite, false);
+			getCommonI18NService().setCurrentLanguage(language);
+			getCommonI18NService().setCurrentCurrency(currency);
+			return fetch(orderCode);
+		});
+	}
+
+	protected List<SAPInvoiceData> fetch(final String orderCode)
+	{
+		final PaginationData pagination = new PaginationData();
+		pagination.setCurrentPage(0);
+		pagination.setPageSize(getFetchSize());
+		pagination.setNeedsTotal(true);
+		final SearchPageData<SAPInvoiceData> searchPageData = new SearchPageData<>();
+		searchPageData.setPagination(pagination);
+		searchPageData.setSorts(Collections.emptyList());
+
+		final SearchPageData<SAPInvoiceData> result = getInvoiceFacade().getInvoices(orderCode, searchPageData,
+				getFetchFields());
+		final List<SAPInvoiceData> invoices = result.getResults() == null ? Collections.emptyList() : result.getResults();
+		if (result.getPagination() != null && result.getPagination().getTotalNumberOfResults() > invoices.size())
+		{
+			LOG.warn("Order " + orderCode + " has " + result.getPagination().getTotalNumberOfResults()
+					+ " invoices, only the first " + invoices.size() + " are listed");
+		}
+		return Collections.unmodifiableList(new ArrayList<>(invoices));
+	}
+
+	protected SearchPageData<SAPInvoiceData> createPage(final List<SAPInvoiceData> invoices,
+			final SearchPageData<SAPInvoiceData> searchPageData)
+	{
+		final List<SortData> sorts = searchPageData.getSorts() == null ? Collections.emptyList() : searchPageData.getSorts();
+		final List<SAPInvoiceData> sorted = new ArrayList<>(invoices);
+		if (!sorts.isEmpty())
+		{
+			sorted.sort(createComparator(sorts));
+		}
+
+		final PaginationData requested = searchPageData.getPagination();
+		final int pageSize = Math.max(1, requested.getPageSize());
+		final int currentPage = Math.max(0, requested.getCurrentPage());
+		final int first = (int) Math.min(sorted.size(), (long) currentPage * pageSize);
+		final int last = Math.min(sorted.size(), first + pageSize);
+
+		final PaginationData pagination = new PaginationData();
+		pagination.setCurrentPage(currentPage);
+		pagination.setPageSize(pageSize);
+		pagination.setNeedsTotal(requested.isNeedsTotal());
+		pagination.setTotalNumberOfResults(sorted.size());
+		pagination.setNumberOfPages((sorted.size() + pageSize - 1) / pageSize);
+		pagination.setHasNext(Boolean.valueOf(last < sorted.size()));
+		pagination.setHasPrevious(Boolean.valueOf(currentPage > 0));
+
+		final SearchPageData<SAPInvoiceData> page = new SearchPageData<>();
+		page.setResults(new ArrayList<>(sorted.subList(first, last)));
+		page.setPagination(pagination);
+		page.setSorts(sorts);
+		return page;
+	}
+
+	protected Comparator<SAPInvoiceData> createComparator(final List<SortData> sorts)
+	{
+		Comparator<SAPInvoiceData> comparator = null;
+		for (final SortData sort : sorts)
+		{
+			final Comparator<Comparable> direction = sort.isAsc() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+			final Comparator<SAPInvoiceData> byCode = Comparator.comparing(invoice -> getSortValue(invoice, sort.getCode()),
+					Comparator.nullsLast(direction));
+			comparator = comparator == null ? byCode : comparator.thenComparing(byCode);
+		}
+		return comparator;
+	}
+
+	/**
+	 * @return value of the invoice data property named by the sort code, prices are compared by their value. Unknown
+	 * properties are null, which keeps the backend order.
+	 */
+	protected Comparable getSortValue(final SAPInvoiceData invoice, final String code)
+	{
+		final BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(invoice);
+		if (code == null || !wrapper.isReadableProperty(code))
+		{
+			return null;
+		}
+		final Object value = wrapper.getPropertyValue(code);
+		if (value instanceof PriceData)
+		{
+			return ((PriceData) value).getValue();
+		}
+		return value instanceof Comparable ? (Comparable) value : null;
+	}
+
+	protected ConcurrentMap<String, CachedInvoices> getEntries(final String orderCode)
+	{
+		return invoicesByOrder.asMap().computeIfAbsent(orderCode, code -> new ConcurrentHashMap<>());
+	}
+
+	protected String getUserKey()
+	{
+		final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+		return (baseSite == null ? "" : baseSite.getUid()) + "|" + getUserService().getCurrentUser().getUid();
+	}
+
+	protected boolean isValid(final CachedInvoices cached)
+	{
+		return cached != null && (getTimeToLive() <= 0 || cached.getExpiresAt() > System.currentTimeMillis());
+	}
+
+	protected long getExpiresAt()
+	{
+		return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive());
+	}
+
+	protected InvoiceFacade getInvoiceFacade()
+	{
+		return invoiceFacade;
+	}
+
+	@Required
+	public void setInvoiceFacade(final InvoiceFacade invoiceFacade)
+	{
+		this.invoiceFacade = invoiceFacade;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected BaseSiteService getBaseSiteService()
+	{
+		return baseSiteService;
+	}
+
+	@Required
+	public void setBaseSiteService(final BaseSiteService baseSiteService)
+	{
+		this.baseSiteService = baseSiteService;
+	}
+
+	protected CommonI18NService getCommonI18NService()
+	{
+		return commonI18NService;
+	}
+
+	@Required
+	public void setCommonI18NService(final CommonI18NService commonI18NService)
+	{
+		this.commonI18NService = commonI18NService;
+	}
+
+	@Override
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @param enabled
+	 * 		false to fetch invoices from the invoice facade for every request
+	 */
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected boolean isPrefetchEnabled()
+	{
+		return prefetchEnabled;
+	}
+
+	/**
+	 * @param prefetchEnabled
+	 * 		false to fetch invoices only when they are listed
+	 */
+	public void setPrefetchEnabled(final boolean prefetchEnabled)
+	{
+		this.prefetchEnabled = prefetchEnabled;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which the invoices of an order are fetched again, 0 or less to keep them until the order is updated
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected long getMaxOrders()
+	{
+		return Math.max(1, maxOrders);
+	}
+
+	/**
+	 * @param maxOrders
+	 * 		maximum number of orders whose invoices are kept
+	 */
+	@Required
+	public void setMaxOrders(final long maxOrders)
+	{
+		this.maxOrders = maxOrders;
+	}
+
+	protected long getWaitTimeout()
+	{
+		return waitTimeout;
+	}
+
+	/**
+	 * @param waitTimeout
+	 * 		seconds a request waits for a fetch in progress before fetching itself
+	 */
+	public void setWaitTimeout(final long waitTimeout)
+	{
+		this.waitTimeout = waitTimeout;
+	}
+
+	protected int getFetchSize()
+	{
+		return fetchSize;
+	}
+
+	/**
+	 * @param fetchSize
+	 * 		maximum number of invoices fetched per order
+	 */
+	@Required
+	public void setFetchSize(final int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
+	protected String getFetchFields()
+	{
+		return fetchFields;
+	}
+
+	/**
+	 * @param fetchFields
+	 * 		field set passed to the invoice facade, it has to cover all fields that can be requested
+	 */
+	@Required
+	public void setFetchFields(final String fetchFields)
+	{
+		this.fetchFields = fetchFields;
+	}
+
+	protected int getPoolSize()
+	{
+		return Math.max(1, poolSize);
+	}
+
+	public void setPoolSize(final int poolSize)
+	{
+		this.poolSize = poolSize;
+	}
+
+	protected int getQueueSize()
+	{
+		return Math.max(1, queueSize);
+	}
+
+	public void setQueueSize(final int queueSize)
+	{
+		this.queueSize = queueSize;
+	}
+
+	protected static class CachedInvoices
+	{
+		private final CompletableFuture<List<SAPInvoiceData>> invoices = new CompletableFuture<>();
+		private final long expiresAt;
+
+		protected CachedInvoices(final long expiresAt)
+		{
+			this.expiresAt = expiresAt;
+		}
+
+		public List<SAPInvoiceData> get(final long timeoutSeconds)
+				throws InterruptedException, ExecutionException, TimeoutException
+		{
+			return invoices.get(timeoutSeconds, TimeUnit.SECONDS);
+		}
+
+		public void complete(final List<SAPInvoiceData> result)
+		{
+			invoices.complete(result);
+		}
+
+		public void fail(final Throwable cause)
+		{
+			invoices.completeExceptionally(cause);
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import de.hybris.platform.commercefacades.invoice.InvoiceFacade;
+import com.sncustomwebservices.invoice.StreamingInvoiceFacade;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Streams the invoice documents of the {@link InvoiceFacade}. The facade only returns complete documents, so they are
+ * wrapped without another copy; a backend that can stream should replace this bean.
+ */
+public class DefaultStreamingInvoiceFacade implements StreamingInvoiceFacade
+{
+	private InvoiceFacade invoiceFacade;
+
+	@Override
+	public InputStream getInvoiceStream(final String orderCode, final String invoiceId, final String externalSystemId)
+	{
+		final byte[] document = getInvoiceFacade().getInvoiceBinary(orderCode, invoiceId, externalSystemId);
+		return document == null || document.length == 0 ? null : new ByteArrayInputStream(document);
+	}
+
+	protected InvoiceFacade getInvoiceFacade()
+	{
+		return invoiceFacade;
+	}
+
+	@Required
+	public void setInvoiceFacade(final InvoiceFacade invoiceFacade)
+	{
+		this.invoiceFacade = invoiceFacade;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import com.sncustomwebservices.invoice.StreamingInvoiceFacade;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Stub {@link StreamingInvoiceFacade} for local development and tests without an ERP backend. Serves
+ * {@code <directory>/<invoiceId>.pdf} for any order. Enable it with
+ * {@code sncustomwebservices.invoice.facade=localStreamingInvoiceFacade}.
+ */
+public class LocalStreamingInvoiceFacade implements StreamingInvoiceFacade
+{
+	private String directory;
+
+	@Override
+	public InputStream getInvoiceStream(final String orderCode, final String invoiceId, final String externalSystemId)
+			throws IOException
+	{
+		final Path root = Paths.get(getDirectory()).toAbsolutePath().normalize();
+		final Path document = root.resolve(invoiceId + ".pdf").normalize();
+		if (!document.startsWith(root) || !Files.isRegularFile(document))
+		{
+			return null;
+		}
+		return Files.newInputStream(document);
+	}
+
+	protected String getDirectory()
+	{
+		return directory;
+	}
+
+	/**
+	 * @param directory
+	 * 		directory holding the invoice documents
+	 */
+	@Required
+	public void setDirectory(final String directory)
+	{
+		this.directory = directory;
+	}
+}
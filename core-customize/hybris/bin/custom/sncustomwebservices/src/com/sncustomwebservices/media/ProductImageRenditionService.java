@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.media;
+
+import de.hybris.platform.core.model.media.MediaContainerModel;
+
+
+/**
+ * Creates scaled renditions of uploaded product images in the background and links them to the products.
+ */
+public interface ProductImageRenditionService
+{
+	/**
+	 * Queues the creation of the missing renditions of the original image in the container. Once they exist, they become
+	 * the picture, thumbnail and gallery images of the product. If the queue is full, the product keeps the original
+	 * image.
+	 *
+	 * @param mediaContainer
+	 * 		container holding the original image, without media format
+	 * @param productCode
+	 * 		code of the product in the catalog version of the container
+	 * @return true if the renditions were queued
+	 */
+	boolean submit(MediaContainerModel mediaContainer, String productCode);
+}
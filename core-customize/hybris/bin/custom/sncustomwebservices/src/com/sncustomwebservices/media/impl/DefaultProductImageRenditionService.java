@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.media.impl;
+
+import de.hybris.platform.commercefacades.product.ImageFormatMapping;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.core.model.media.MediaFormatModel;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.servicelayer.media.MediaService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.user.UserService;
+import com.sncustomwebservices.media.ProductImageRenditionService;
+import com.sncustomwebservices.service.CustomProductService;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+import com.google.common.util.concurrent.Striped;
+
+
+/**
+ * Default implementation of {@link ProductImageRenditionService}. Renditions are created on a pool of
+ * {@link #getPoolSize()} threads taking up to {@link #getQueueSize()} waiting containers, each in its own session as the
+ * admin user. Every image format of {@link #getRenditionSizes()} gets a rendition fitting into a square of the given
+ * number of pixels, stored with the media format the {@link ImageFormatMapping} resolves for the image format, so the
+ * product image populators find them in the gallery container. Images are scaled down only, renditions already in the
+ * container are reused, so an image uploaded for several products is scaled once. Originals with more than
+ * {@link #getMaxPixels()} pixels are not decoded, the product keeps the original image.
+ */
+public class DefaultProductImageRenditionService implements ProductImageRenditionService, InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(DefaultProductImageRenditionService.class);
+
+	protected static final String PICTURE_FORMAT = "product";
+	protected static final String THUMBNAIL_FORMAT = "thumbnail";
+
+	private final Striped<Lock> containerLocks = Striped.lock(64);
+	private final LongAdder created = new LongAdder();
+	private final LongAdder reused = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private ThreadPoolExecutor executor;
+
+	private CustomProductService customProductService;
+	private ImageFormatMapping imageFormatMapping;
+	private MediaService mediaService;
+	private ModelService modelService;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private Map<String, Integer> renditionSizes = new LinkedHashMap<>();
+	private long maxPixels;
+	private int poolSize;
+	private int queueSize;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		executor = createExecutor();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException
+	{
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+		{
+			LOG.warn(executor.getQueue().size() + " queued product image renditions were not created before shutdown");
+		}
+	}
+
+	@Override
+	public boolean submit(final MediaContainerModel mediaContainer, final String productCode)
+	{
+		final PK mediaContainerPk = mediaContainer.getPk();
+		try
+		{
+			executor.execute(() -> runInSession(mediaContainerPk, productCode));
+			return true;
+		}
+		catch (final RejectedExecutionException e)
+		{
+			rejected.increment();
+			LOG.warn("Renditions of " + mediaContainer.getQualifier() + " for product " + productCode
+					+ " were not queued, the product keeps the original image");
+			return false;
+		}
+	}
+
+	protected ThreadPoolExecutor createExecutor()
+	{
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(getPoolSize(), getPoolSize(), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(getQueueSize()), getWorkerSessionService().createThreadFactory());
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+
+	protected void runInSession(final PK mediaContainerPk, final String productCode)
+	{
+		getWorkerSessionService().runInNewSession(getUserService().getAdminUser(), () -> run(mediaContainerPk, productCode));
+	}
+
+	protected void run(final PK mediaContainerPk, final String productCode)
+	{
+		try
+		{
+			final MediaContainerModel mediaContainer = getModelService().get(mediaContainerPk);
+			final Map<String, MediaModel> renditions;
+			final Lock lock = containerLocks.get(mediaContainerPk);
+			lock.lock();
+			try
+			{
+				renditions = createRenditions(mediaContainer);
+			}
+			finally
+			{
+				lock.unlock();
+			}
+			if (!getCustomProductService().updateRenditionsForProduct(productCode, mediaContainer,
+					renditions.get(PICTURE_FORMAT), renditions.get(THUMBNAIL_FORMAT)))
+			{
+				LOG.debug("Product " + productCode + " has a newer picture than " + mediaContainer.getQualifier()
+						+ ", its renditions were not linked");
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			LOG.warn("Renditions of media container " + mediaContainerPk + " for product " + productCode + " failed", e);
+		}
+	}
+
+	/**
+	 * Creates the renditions missing in the container.
+	 *
+	 * @return renditions by image format, empty if the original image cannot be read
+	 */
+	protected Map<String, MediaModel> createRenditions(final MediaContainerModel mediaContainer)
+	{
+		MediaModel original = null;
+		final Map<String, MediaModel> existing = new HashMap<>();
+		for (final MediaModel media : mediaContainer.getMedias())
+		{
+			if (media.getMediaFormat() == null)
+			{
+				original = media;
+			}
+			else
+			{
+				existing.put(media.getMediaFormat().getQualifier(), media);
+			}
+		}
+
+		final Map<String, MediaModel> renditions = new HashMap<>();
+		BufferedImage image = null;
+		for (final Map.Entry<String, Integer> renditionSize : getRenditionSizes().entrySet())
+		{
+			final String formatQualifier = getImageFormatMapping().getMediaFormatQualifierForImageFormat(renditionSize.getKey());
+			MediaModel rendition = existing.get(formatQualifier);
+			if (rendition != null)
+			{
+				reused.increment();
+			}
+			else
+			{
+				if (image == null)
+				{
+					image = original == null ? null : read(original);
+					if (image == null)
+					{
+						LOG.warn("Media container " + mediaContainer.getQualifier() + " has no readable original image");
+						return renditions;
+					}
+				}
+				rendition = createRendition(mediaContainer, original, getMediaService().getFormat(formatQualifier),
+						scale(image, renditionSize.getValue().intValue()));
+				created.increment();
+			}
+			renditions.put(renditionSize.getKey(), rendition);
+		}
+		return renditions;
+	}
+
+	/**
+	 * Reads the dimensions of the image before decoding it.
+	 *
+	 * @return the decoded image, null if its format is unknown or it has more than {@link #getMaxPixels()} pixels
+	 */
+	protected BufferedImage read(final MediaModel original)
+	{
+		try (final InputStream stream = getMediaService().getStreamFromMedia(original);
+				final ImageInputStream in = ImageIO.createImageInputStream(stream))
+		{
+			final Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+			if (readers == null || !readers.hasNext())
+			{
+				return null;
+			}
+			final ImageReader reader = readers.next();
+			try
+			{
+				reader.setInput(in, true, true);
+				final long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+				if (pixels > getMaxPixels())
+				{
+					LOG.warn("Image " + original.getCode() + " has " + pixels + " pixels, more than " + getMaxPixels()
+							+ " are not scaled");
+					return null;
+				}
+				return reader.read(0);
+			}
+			finally
+			{
+				reader.dispose();
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected MediaModel createRendition(final MediaContainerModel mediaContainer, final MediaModel original,
+			final MediaFormatModel mediaFormat, final BufferedImage image)
+	{
+		final boolean png = image.getColorModel().hasAlpha();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try
+		{
+			ImageIO.write(image, png ? "png" : "jpg", out);
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		final String code = mediaContainer.getQualifier() + "_" + mediaFormat.getQualifier();
+		final MediaModel rendition = getModelService().create(MediaModel.class);
+		rendition.setCode(code);
+		rendition.setCatalogVersion(mediaContainer.getCatalogVersion());
+		rendition.setMediaFormat(mediaFormat);
+		rendition.setMediaContainer(mediaContainer);
+		rendition.setMime(png ? "image/png" : "image/jpeg");
+		rendition.setRealFileName(code + (png ? ".png" : ".jpg"));
+		rendition.setAltText(original.getAltText());
+		getModelService().save(rendition);
+		getMediaService().setDataForMedia(rendition, out.toByteArray());
+		return rendition;
+	}
+
+	/**
+	 * Scales the image down to fit into a square of the given size, halving it step by step first to keep the quality of
+	 * bilinear scaling for large reductions.
+	 */
+	protected BufferedImage scale(final BufferedImage image, final int size)
+	{
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final double ratio = Math.min(1d, (double) size / Math.max(width, height));
+		final int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+		final int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+		final int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+		BufferedImage scaled = image;
+		int currentWidth = width;
+		int currentHeight = height;
+		do
+		{
+			currentWidth = Math.max(targetWidth, currentWidth / 2);
+			currentHeight = Math.max(targetHeight, currentHeight / 2);
+			scaled = draw(scaled, currentWidth, currentHeight, type);
+		}
+		while (currentWidth != targetWidth || currentHeight != targetHeight);
+		return scaled;
+	}
+
+	private static BufferedImage draw(final BufferedImage image, final int width, final int height, final int type)
+	{
+		final BufferedImage target = new BufferedImage(width, height, type);
+		final Graphics2D graphics = target.createGraphics();
+		try
+		{
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+		return target;
+	}
+
+	/**
+	 * @return number of renditions created
+	 */
+	public long getCreatedCount()
+	{
+		return created.sum();
+	}
+
+	/**
+	 * @return number of renditions found in the container
+	 */
+	public long getReusedCount()
+	{
+		return reused.sum();
+	}
+
+	/**
+	 * @return number of containers not queued because the queue was full
+	 */
+	public long getRejectedCount()
+	{
+		return rejected.sum();
+	}
+
+	protected CustomProductService getCustomProductService()
+	{
+		return customProductService;
+	}
+
+	@Required
+	public void setCustomProductService(final CustomProductService customProductService)
+	{
+		this.customProductService = customProductService;
+	}
+
+	protected ImageFormatMapping getImageFormatMapping()
+	{
+		return imageFormatMapping;
+	}
+
+	@Required
+	public void setImageFormatMapping(final ImageFormatMapping imageFormatMapping)
+	{
+		this.imageFormatMapping = imageFormatMapping;
+	}
+
+	protected MediaService getMediaService()
+	{
+		return mediaService;
+	}
+
+	@Required
+	public void setMediaService(final MediaService mediaService)
+	{
+		this.mediaService = mediaService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected Map<String, Integer> getRenditionSizes()
+	{
+		return renditionSizes;
+	}
+
+	/**
+	 * @param renditionSizes
+	 * 		size in pixels of the longer side of the rendition by image format, like thumbnail, product or zoom
+	 */
+	public void setRenditionSizes(final Map<String, Integer> renditionSizes)
+	{
+		this.renditionSizes = renditionSizes;
+	}
+
+	protected long getMaxPixels()
+	{
+		return maxPixels;
+	}
+
+	/**
+	 * @param maxPixels
+	 * 		maximum number of pixels of an original image that is scaled
+	 */
+	@Required
+	public void setMaxPixels(final long maxPixels)
+	{
+		this.maxPixels = maxPixels;
+	}
+
+	protected int getPoolSize()
+	{
+		return Math.max(1, poolSize);
+	}
+
+	/**
+	 * @param poolSize
+	 * 		number of threads creating renditions
+	 */
+	public void setPoolSize(final int poolSize)
+	{
+		this.poolSize = poolSize;
+	}
+
+	protected int getQueueSize()
+	{
+		return Math.max(1, queueSize);
+	}
+
+	/**
+	 * @param queueSize
+	 * 		number of containers waiting for a thread before submissions are rejected
+	 */
+	public void setQueueSize(final int queueSize)
+	{
+		this.queueSize = queueSize;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.order;
+
+import de.hybris.platform.core.PK;
+
+import java.util.Date;
+
+
+/**
+ * Columns of an order needed to list it in the order history, read without loading the order or its entries.
+ */
+public class OrderSummary
+{
+	private final PK pk;
+	private final String code;
+	private final String guid;
+	private final String statusCode;
+	private final Double totalPrice;
+	private final String currencyIsocode;
+	private final Date date;
+
+	public OrderSummary(final PK pk, final String code, final String guid, final String statusCode, final Double totalPrice,
+			final String currencyIsocode, final Date date)
+	{
+		this.pk = pk;
+		this.code = code;
+		this.guid = guid;
+		this.statusCode = statusCode;
+		this.totalPrice = totalPrice;
+		this.currencyIsocode = currencyIsocode;
+		this.date = date;
+	}
+
+	public PK getPk()
+	{
+		return pk;
+	}
+
+	public String getCode()
+	{
+		return code;
+	}
+
+	public String getGuid()
+	{
+		return guid;
+	}
+
+	public String getStatusCode()
+	{
+		return statusCode;
+	}
+
+	public Double getTotalPrice()
+	{
+		return totalPrice;
+	}
+
+	public String getCurrencyIsocode()
+	{
+		return currencyIsocode;
+	}
+
+	public Date getDate()
+	{
+		return date;
+	}
+}
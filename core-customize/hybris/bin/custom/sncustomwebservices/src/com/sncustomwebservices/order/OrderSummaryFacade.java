@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.order;
+
+import de.hybris.platform.core.enums.OrderStatus;
+import com.sncustomwebservices.order.data.OrderSummaryPageData;
+
+import java.util.Collection;
+
+
+/**
+ * Lists the order history of the current customer in the current base store without converting orders. Pages are
+ * addressed by an opaque token pointing behind the last order of the previous page instead of a page number, so deep
+ * pages cost as much as the first one. The orders are always sorted by placement date, newest first.
+ */
+public interface OrderSummaryFacade
+{
+	/**
+	 * Returns a page of order summaries. The orders contain code, guid, status, total and placement date only.
+	 *
+	 * @param statuses
+	 * 		order statuses to include, empty for all
+	 * @param pageToken
+	 * 		token of the page, as returned with the previous page, blank for the first page
+	 * @param pageSize
+	 * 		number of orders per page
+	 * @return page of orders, with the token of the next page if there is one
+	 * @throws IllegalArgumentException
+	 * 		if the page token is malformed
+	 */
+	OrderSummaryPageData getOrderSummaries(Collection<OrderStatus> statuses, String pageToken, int pageSize);
+
+	/**
+	 * Counts the orders with a single count query.
+	 *
+	 * @param statuses
+	 * 		order statuses to include, empty for all
+	 * @return number of orders
+	 */
+	long countOrders(Collection<OrderStatus> statuses);
+}
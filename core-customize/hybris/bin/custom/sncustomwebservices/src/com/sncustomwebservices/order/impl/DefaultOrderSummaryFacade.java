@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.order.impl;
+
+import de.hybris.platform.commercefacades.order.data.OrderHistoryData;
+import de.hybris.platform.commercefacades.product.PriceDataFactory;
+import de.hybris.platform.commercefacades.product.data.PriceDataType;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.enums.OrderStatus;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.enumeration.EnumerationService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.dao.OrderSummaryDao;
+import com.sncustomwebservices.order.OrderSummary;
+import com.sncustomwebservices.order.OrderSummaryFacade;
+import com.sncustomwebservices.order.data.OrderSummaryPageData;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link OrderSummaryFacade}. One order more than the page size is read to find out whether
+ * there is a next page. The page token is the placement date and pk of the last order of the page, URL safe encoded.
+ */
+public class DefaultOrderSummaryFacade implements OrderSummaryFacade
+{
+	private static final char TOKEN_SEPARATOR = ':';
+
+	private OrderSummaryDao orderSummaryDao;
+	private UserService userService;
+	private BaseStoreService baseStoreService;
+	private PriceDataFactory priceDataFactory;
+	private EnumerationService enumerationService;
+	private int maxPageSize;
+
+	@Override
+	public OrderSummaryPageData getOrderSummaries(final Collection<OrderStatus> statuses, final String pageToken,
+			final int pageSize)
+	{
+		final int size = Math.max(1, Math.min(pageSize, getMaxPageSize()));
+		Date afterDate = null;
+		PK afterPk = null;
+		if (StringUtils.isNotBlank(pageToken))
+		{
+			final String[] position = decodeToken(pageToken);
+			afterDate = new Date(Long.parseLong(position[0]));
+			afterPk = PK.fromLong(Long.parseLong(position[1]));
+		}
+
+		final List<OrderSummary> summaries = getOrderSummaryDao().findOrderSummaries(getCurrentUser(), getCurrentBaseStore(),
+				statuses, afterDate, afterPk, size + 1);
+		final boolean hasNext = summaries.size() > size;
+		final List<OrderSummary> page = hasNext ? summaries.subList(0, size) : summaries;
+
+		final List<OrderHistoryData> orders = new ArrayList<>(page.size());
+		for (final OrderSummary summary : page)
+		{
+			orders.add(convert(summary));
+		}
+
+		final OrderSummaryPageData pageData = new OrderSummaryPageData();
+		pageData.setOrders(orders);
+		pageData.setPageSize(size);
+		if (hasNext)
+		{
+			pageData.setNextPageToken(encodeToken(page.get(page.size() - 1)));
+		}
+		return pageData;
+	}
+
+	@Override
+	public long countOrders(final Collection<OrderStatus> statuses)
+	{
+		return getOrderSummaryDao().countOrders(getCurrentUser(), getCurrentBaseStore(), statuses);
+	}
+
+	protected OrderHistoryData convert(final OrderSummary summary)
+	{
+		final OrderHistoryData order = new OrderHistoryData();
+		order.setCode(summary.getCode());
+		order.setGuid(summary.getGuid());
+		order.setPlaced(summary.getDate());
+		if (summary.getStatusCode() != null)
+		{
+			final OrderStatus status = OrderStatus.valueOf(summary.getStatusCode());
+			order.setStatus(status);
+			order.setStatusDisplay(getEnumerationService().getEnumerationName(status));
+		}
+		if (summary.getTotalPrice() != null)
+		{
+			order.setTotal(getPriceDataFactory().create(PriceDataType.BUY, BigDecimal.valueOf(summary.getTotalPrice().doubleValue()),
+					summary.getCurrencyIsocode()));
+		}
+		return order;
+	}
+
+	protected String encodeToken(final OrderSummary summary)
+	{
+		final String position = summary.getDate().getTime() + String.valueOf(TOKEN_SEPARATOR) + summary.getPk().getLongValue();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	protected String[] decodeToken(final String pageToken)
+	{
+		final String position = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.US_ASCII);
+		final String[] parts = StringUtils.split(position, TOKEN_SEPARATOR);
+		if (parts.length != 2 || !StringUtils.isNumeric(parts[0]) || !StringUtils.isNumeric(parts[1]))
+		{
+			throw new IllegalArgumentException("Malformed page token");
+		}
+		return parts;
+	}
+
+	protected UserModel getCurrentUser()
+	{
+		return getUserService().getCurrentUser();
+	}
+
+	protected BaseStoreModel getCurrentBaseStore()
+	{
+		return getBaseStoreService().getCurrentBaseStore();
+	}
+
+	protected OrderSummaryDao getOrderSummaryDao()
+	{
+		return orderSummaryDao;
+	}
+
+	@Required
+	public void setOrderSummaryDao(final OrderSummaryDao orderSummaryDao)
+	{
+		this.orderSummaryDao = orderSummaryDao;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected BaseStoreService getBaseStoreService()
+	{
+		return baseStoreService;
+	}
+
+	@Required
+	public void setBaseStoreService(final BaseStoreService baseStoreService)
+	{
+		this.baseStoreService = baseStoreService;
+	}
+
+	protected PriceDataFactory getPriceDataFactory()
+	{
+		return priceDataFactory;
+	}
+
+	@Required
+	public void setPriceDataFactory(final PriceDataFactory priceDataFactory)
+	{
+		this.priceDataFactory = priceDataFactory;
+	}
+
+	protected EnumerationService getEnumerationService()
+	{
+		return enumerationService;
+	}
+
+	@Required
+	public void setEnumerationService(final EnumerationService enumerationService)
+	{
+		this.enumerationService = enumerationService;
+	}
+
+	protected int getMaxPageSize()
+	{
+		return maxPageSize;
+	}
+
+	/**
+	 * @param maxPageSize
+	 * 		upper limit of the requested page size
+	 */
+	@Required
+	public void setMaxPageSize(final int maxPageSize)
+	{
+		this.maxPageSize = maxPageSize;
+	}
+}
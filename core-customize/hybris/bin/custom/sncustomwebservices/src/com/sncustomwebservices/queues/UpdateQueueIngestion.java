@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues;
+
+/**
+ * Takes update elements from the publishing threads and writes them to an {@link UpdateQueue} in the background
+ */
+public interface UpdateQueueIngestion<T>
+{
+	/**
+	 * What happens to an element submitted while the buffer is full
+	 */
+	enum OverflowPolicy
+	{
+		/**
+		 * the publishing thread waits until there is space in the buffer
+		 */
+		BLOCK,
+		/**
+		 * the oldest buffered element is dropped
+		 */
+		DROP_OLDEST,
+		/**
+		 * the element is written to disk and read back once the buffer is drained
+		 */
+		SPILL_TO_DISK
+	}
+
+	/**
+	 * Submits an element to be added to the queue
+	 *
+	 * @param item
+	 * 		element to be stored
+	 */
+	void submit(T item);
+
+	/**
+	 * Returns the number of elements submitted but not yet written to the queue
+	 *
+	 * @return number of buffered and spilled elements
+	 */
+	long getPendingCount();
+
+	/**
+	 * Returns how long the oldest pending element waits to be written to the queue
+	 *
+	 * @return age of the oldest pending element in milliseconds, 0 if there is none
+	 */
+	long getLag();
+}
@@ -5,7 +5,9 @@ package com.sncustomwebservices.queues.channel;
 
 import de.hybris.platform.core.model.order.OrderModel;
 import de.hybris.platform.servicelayer.dto.converter.Converter;
+import com.sncustomwebservices.invoice.InvoiceListCache;
 import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.UpdateQueueIngestion;
 import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
 
 import org.apache.log4j.Logger;
@@ -17,12 +19,23 @@ public class OrderStatusUpdateChannelListener
 	private static final Logger LOG = Logger.getLogger(OrderStatusUpdateChannelListener.class);
 	private UpdateQueue<OrderStatusUpdateElementData> orderStatusUpdateQueue;
 	private Converter<OrderModel, OrderStatusUpdateElementData> orderStatusUpdateElementConverter;
+	private InvoiceListCache invoiceListCache;
+	private UpdateQueueIngestion<OrderStatusUpdateElementData> orderStatusUpdateIngestion;
 
 	public void onMessage(final OrderModel order)
 	{
 		LOG.debug("OrderStatusUpdateChannelListener got new status for order with code " + order.getCode());
 		final OrderStatusUpdateElementData orderStatusUpdateElementData = getOrderStatusUpdateElementConverter().convert(order);
-		getOrderStatusUpdateQueue().addItem(orderStatusUpdateElementData);
+		if (getOrderStatusUpdateIngestion() != null)
+		{
+			getOrderStatusUpdateIngestion().submit(orderStatusUpdateElementData);
+		}
+		else
+		{
+			getOrderStatusUpdateQueue().addItem(orderStatusUpdateElementData);
+		}
+		// invoices are created and cleared through order status changes
+		getInvoiceListCache().invalidate(order.getCode());
 	}
 
 	public UpdateQueue<OrderStatusUpdateElementData> getOrderStatusUpdateQueue()
@@ -48,4 +61,29 @@ public class OrderStatusUpdateChannelListener
 		this.orderStatusUpdateElementConverter = orderStatusUpdateElementConverter;
 	}
 
+	public InvoiceListCache getInvoiceListCache()
+	{
+		return invoiceListCache;
+	}
+
+	@Required
+	public void setInvoiceListCache(final InvoiceListCache invoiceListCache)
+	{
+		this.invoiceListCache = invoiceListCache;
+	}
+
+	public UpdateQueueIngestion<OrderStatusUpdateElementData> getOrderStatusUpdateIngestion()
+	{
+		return orderStatusUpdateIngestion;
+	}
+
+	/**
+	 * @param orderStatusUpdateIngestion
+	 * 		ingestion writing the elements to the queue in the background, they are written on the publishing thread without it
+	 */
+	public void setOrderStatusUpdateIngestion(
+			final UpdateQueueIngestion<OrderStatusUpdateElementData> orderStatusUpdateIngestion)
+	{
+		this.orderStatusUpdateIngestion = orderStatusUpdateIngestion;
+	}
 }
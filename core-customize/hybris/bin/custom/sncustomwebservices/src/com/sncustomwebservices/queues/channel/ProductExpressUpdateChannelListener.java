@@ -6,6 +6,7 @@ package com.sncustomwebservices.queues.channel;
 import de.hybris.platform.core.model.product.ProductModel;
 import de.hybris.platform.servicelayer.dto.converter.Converter;
 import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.UpdateQueueIngestion;
 import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
 import com.sncustomwebservices.queues.util.ProductExpressUpdateElementPredicate;
 
@@ -21,12 +22,18 @@ public class ProductExpressUpdateChannelListener
 	private final ProductExpressUpdateElementPredicate productExpressUpdateElementPredicate = new ProductExpressUpdateElementPredicate();
 	private UpdateQueue<ProductExpressUpdateElementData> productExpressUpdateQueue;
 	private Converter<ProductModel, ProductExpressUpdateElementData> productExpressUpdateElementConverter;
+	private UpdateQueueIngestion<ProductExpressUpdateElementData> productExpressUpdateIngestion;
 
 	public void onMessage(final ProductModel product)
 	{
 		LOG.debug("ProductExpressUpdateChannelListener got product with code " + product.getCode());
 		final ProductExpressUpdateElementData productExpressUpdateElementData = getProductExpressUpdateElementConverter()
 				.convert(product);
+		if (getProductExpressUpdateIngestion() != null)
+		{
+			getProductExpressUpdateIngestion().submit(productExpressUpdateElementData);
+			return;
+		}
 		getProductExpressUpdateQueue().removeItems(getPredicate(productExpressUpdateElementData));
 		getProductExpressUpdateQueue().addItem(productExpressUpdateElementData);
 	}
@@ -70,4 +77,19 @@ public class ProductExpressUpdateChannelListener
 		this.productExpressUpdateElementConverter = productExpressUpdateElementConverter;
 	}
 
+	public UpdateQueueIngestion<ProductExpressUpdateElementData> getProductExpressUpdateIngestion()
+	{
+		return productExpressUpdateIngestion;
+	}
+
+	/**
+	 * @param productExpressUpdateIngestion
+	 * 		ingestion writing the elements to the queue in the background, they are written on the publishing thread without it
+	 */
+	public void setProductExpressUpdateIngestion(
+			final UpdateQueueIngestion<ProductExpressUpdateElementData> productExpressUpdateIngestion)
+	{
+		this.productExpressUpdateIngestion = productExpressUpdateIngestion;
+	}
+
 }
@@ -8,17 +8,18 @@ import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
 import de.hybris.platform.servicelayer.cronjob.AbstractJobPerformable;
 import de.hybris.platform.servicelayer.cronjob.PerformResult;
-import com.sncustomwebservices.queues.impl.OrderStatusUpdateQueue;
+import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
 
 import java.util.Date;
 
 
 /**
- * A Cron Job for cleaning up {@link com.sncustomwebservices.queues.impl.OrderStatusUpdateQueue}.
+ * A Cron Job for cleaning up the order status {@link UpdateQueue}.
  */
 public class OrderStatusUpdateCleanerJob extends AbstractJobPerformable<OrderStatusUpdateCleanerCronJobModel>
 {
-	private OrderStatusUpdateQueue orderStatusUpdateQueue;
+	private UpdateQueue<OrderStatusUpdateElementData> orderStatusUpdateQueue;
 
 	@Override
 	public PerformResult perform(final OrderStatusUpdateCleanerCronJobModel cronJob)
@@ -28,12 +29,12 @@ public class OrderStatusUpdateCleanerJob extends AbstractJobPerformable<OrderSta
 		return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
 	}
 
-	protected OrderStatusUpdateQueue getOrderStatusUpdateQueue()
+	protected UpdateQueue<OrderStatusUpdateElementData> getOrderStatusUpdateQueue()
 	{
 		return orderStatusUpdateQueue;
 	}
 
-	public void setOrderStatusUpdateQueue(final OrderStatusUpdateQueue orderStatusUpdateQueue)
+	public void setOrderStatusUpdateQueue(final UpdateQueue<OrderStatusUpdateElementData> orderStatusUpdateQueue)
 	{
 		this.orderStatusUpdateQueue = orderStatusUpdateQueue;
 	}
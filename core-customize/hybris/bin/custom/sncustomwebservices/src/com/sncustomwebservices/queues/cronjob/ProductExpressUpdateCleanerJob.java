@@ -8,17 +8,18 @@ import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
 import de.hybris.platform.servicelayer.cronjob.AbstractJobPerformable;
 import de.hybris.platform.servicelayer.cronjob.PerformResult;
+import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
 
-import com.sncustomwebservices.queues.impl.ProductExpressUpdateQueue;
 import java.util.Date;
 
 
 /**
- * A Cron Job for cleaning up {@link ProductExpressUpdateQueue}.
+ * A Cron Job for cleaning up the product express update {@link UpdateQueue}.
  */
 public class ProductExpressUpdateCleanerJob extends AbstractJobPerformable<ProductExpressUpdateCleanerCronJobModel>
 {
-	private ProductExpressUpdateQueue productExpressUpdateQueue;
+	private UpdateQueue<ProductExpressUpdateElementData> productExpressUpdateQueue;
 
 	@Override
 	public PerformResult perform(final ProductExpressUpdateCleanerCronJobModel cronJob)
@@ -28,7 +29,7 @@ public class ProductExpressUpdateCleanerJob extends AbstractJobPerformable<Produ
 		return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
 	}
 
-	public void setProductExpressUpdateQueue(final ProductExpressUpdateQueue productExpressUpdateQueue)
+	public void setProductExpressUpdateQueue(final UpdateQueue<ProductExpressUpdateElementData> productExpressUpdateQueue)
 	{
 		this.productExpressUpdateQueue = productExpressUpdateQueue;
 	}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import com.sncustomwebservices.queues.UpdateQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import com.google.common.base.Predicate;
+
+
+/**
+ * Implementation of {@link com.sncustomwebservices.queues.UpdateQueue} storing the elements column by column in
+ * primitive and string arrays instead of as objects in a {@link java.util.TreeMap}. Time keys are kept as primitive
+ * longs, values with few distinct values, like catalogs or statuses, are stored as indexes into a dictionary of their
+ * distinct values. Elements are only created when they are read.
+ * <p>
+ * Elements are ordered by time key like in {@link AbstractUpdateQueue}, elements added with the same time key are moved
+ * to the next free key. Appending newer elements and removing older elements do not move the stored elements. All
+ * methods are synchronized, the queue may be read while it is written. Elements returned by the queue are copies,
+ * changing them does not change the queue.
+ */
+public abstract class AbstractCompactUpdateQueue<T> implements UpdateQueue<T>
+{
+	protected static final int DEFAULT_MAX_CAPACITY = 1000;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final List<Column<T>> columns;
+	// rows [head, head + size) of all columns are in use, ordered by time key
+	private long[] timeKeys = new long[0];
+	private int head;
+	private int size;
+	private int maxCapacity = DEFAULT_MAX_CAPACITY;
+
+	protected AbstractCompactUpdateQueue(final List<Column<T>> columns)
+	{
+		this.columns = columns;
+	}
+
+	/**
+	 * @return a new, empty element to be populated from the columns
+	 */
+	protected abstract T createItem();
+
+	@Override
+	public synchronized List<T> getItems()
+	{
+		return materialize(head, head + size);
+	}
+
+	@Override
+	public synchronized List<T> getItems(final Date newerThan)
+	{
+		return materialize(findRow(newerThan.getTime()), head + size);
+	}
+
+	@Override
+	public synchronized void addItem(final T item)
+	{
+		if (size >= maxCapacity)
+		{
+			return;
+		}
+		long timeKey = getTimeKey(item).longValue();
+		int row = findRow(timeKey);
+		while (row < head + size && timeKeys[row] == timeKey)
+		{
+			timeKey++;
+			row++;
+		}
+		final int position = row - head;
+		ensureCapacity();
+		row = head + position;
+		if (position < size)
+		{
+			// an element older than the newest one, only possible with custom time keys
+			moveRows(row, row + 1, size - position);
+		}
+		timeKeys[row] = timeKey;
+		for (final Column<T> column : columns)
+		{
+			column.write(row, item);
+		}
+		size++;
+	}
+
+	@Override
+	public synchronized void addItems(final List<T> items)
+	{
+		for (final T item : items)
+		{
+			addItem(item);
+		}
+	}
+
+	@Override
+	public synchronized void removeItems(final Date olderThan)
+	{
+		final int end = findRow(olderThan.getTime());
+		clearRows(head, end);
+		size -= end - head;
+		head = size == 0 ? 0 : end;
+	}
+
+	@Override
+	public synchronized void removeItems()
+	{
+		clearRows(head, head + size);
+		head = 0;
+		size = 0;
+		for (final Column<T> column : columns)
+		{
+			column.clearDictionary();
+		}
+	}
+
+	@Override
+	public synchronized T getLastItem()
+	{
+		return size == 0 ? null : materialize(head + size - 1);
+	}
+
+	@Override
+	public synchronized void removeItems(final Predicate<T> predicate)
+	{
+		removeRows(row -> predicate.apply(materialize(row)));
+	}
+
+	/**
+	 * Removes the elements whose leading columns hold one of the given keys. The stored column values are compared
+	 * without creating the elements, unlike {@link #removeItems(Predicate)}.
+	 *
+	 * @param keys
+	 * 		values of the leading columns, in column order, of the elements to remove
+	 */
+	public synchronized void removeItemsByKey(final Collection<? extends List<String>> keys)
+	{
+		if (keys.isEmpty() || size == 0)
+		{
+			return;
+		}
+		// the first column is compared first, the other ones only for rows with a matching first value
+		final Map<String, List<List<String>>> keysByFirstValue = new HashMap<>();
+		for (final List<String> key : keys)
+		{
+			keysByFirstValue.computeIfAbsent(key.get(0), value -> new ArrayList<>()).add(key);
+		}
+		final Column<T> firstColumn = columns.get(0);
+		removeRows(row -> {
+			final List<List<String>> candidates = keysByFirstValue.get(firstColumn.get(row));
+			return candidates != null && candidates.stream().anyMatch(key -> matches(row, key));
+		});
+	}
+
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	private boolean matches(final int row, final List<String> key)
+	{
+		for (int i = 1; i < key.size(); i++)
+		{
+			if (!Objects.equals(columns.get(i).get(row), key.get(i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the rows matching the given predicate, keeping the order of the other rows
+	 */
+	private void removeRows(final IntPredicate predicate)
+	{
+		final int end = head + size;
+		int target = head;
+		for (int row = head; row < end; row++)
+		{
+			if (!predicate.test(row))
+			{
+				if (target != row)
+				{
+					moveRows(row, target, 1);
+				}
+				target++;
+			}
+		}
+		clearRows(target, end);
+		size = target - head;
+		if (size == 0)
+		{
+			head = 0;
+		}
+	}
+
+	/**
+	 * @return first row with a time key equal to or greater than the given one
+	 */
+	private int findRow(final long timeKey)
+	{
+		int low = head;
+		int high = head + size;
+		while (low < high)
+		{
+			final int middle = (low + high) >>> 1;
+			if (timeKeys[middle] < timeKey)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Makes room for one more row after the last one, compacting or growing the columns.
+	 */
+	private void ensureCapacity()
+	{
+		if (head + size < timeKeys.length)
+		{
+			return;
+		}
+		if (head > 0 && size < timeKeys.length / 2)
+		{
+			moveRows(head, 0, size);
+			clearRows(size, head + size);
+			head = 0;
+			return;
+		}
+		final int capacity = Math.min(Math.max(INITIAL_CAPACITY, size + (size >> 1)), Math.max(maxCapacity, size + 1));
+		final long[] grownTimeKeys = new long[capacity];
+		System.arraycopy(timeKeys, head, grownTimeKeys, 0, size);
+		timeKeys = grownTimeKeys;
+		for (final Column<T> column : columns)
+		{
+			column.resize(head, size, capacity);
+		}
+		head = 0;
+	}
+
+	private void moveRows(final int from, final int to, final int length)
+	{
+		System.arraycopy(timeKeys, from, timeKeys, to, length);
+		for (final Column<T> column : columns)
+		{
+			column.move(from, to, length);
+		}
+	}
+
+	private void clearRows(final int from, final int to)
+	{
+		if (from < to)
+		{
+			for (final Column<T> column : columns)
+			{
+				column.clear(from, to);
+			}
+		}
+	}
+
+	private List<T> materialize(final int from, final int to)
+	{
+		final List<T> items = new ArrayList<>(to - from);
+		for (int row = from; row < to; row++)
+		{
+			items.add(materialize(row));
+		}
+		return items;
+	}
+
+	private T materialize(final int row)
+	{
+		final T item = createItem();
+		for (final Column<T> column : columns)
+		{
+			column.read(row, item);
+		}
+		return item;
+	}
+
+	public int getMaxCapacity()
+	{
+		return maxCapacity;
+	}
+
+	public void setMaxCapacity(final int maxCapacity)
+	{
+		this.maxCapacity = maxCapacity;
+	}
+
+	protected Long getTimeKey(final T item)
+	{
+		return Long.valueOf(System.currentTimeMillis());
+	}
+
+	/**
+	 * Creates a column storing the string values as they are, for values that are mostly distinct like codes.
+	 */
+	protected static <T> Column<T> valueColumn(final Function<T, String> getter, final BiConsumer<T, String> setter)
+	{
+		return new ValueColumn<>(getter, setter);
+	}
+
+	/**
+	 * Creates a column storing each distinct string value once, for values that repeat like catalogs or statuses.
+	 */
+	protected static <T> Column<T> dictionaryColumn(final Function<T, String> getter, final BiConsumer<T, String> setter)
+	{
+		return new DictionaryColumn<>(getter, setter);
+	}
+
+	/**
+	 * A string attribute of the elements stored in an array indexed by row
+	 */
+	protected abstract static class Column<T>
+	{
+		private final Function<T, String> getter;
+		private final BiConsumer<T, String> setter;
+
+		protected Column(final Function<T, String> getter, final BiConsumer<T, String> setter)
+		{
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		void write(final int row, final T item)
+		{
+			set(row, getter.apply(item));
+		}
+
+		void read(final int row, final T item)
+		{
+			setter.accept(item, get(row));
+		}
+
+		void clearDictionary()
+		{
+			// no dictionary by default
+		}
+
+		abstract void set(int row, String value);
+
+		abstract String get(int row);
+
+		abstract void resize(int head, int size, int capacity);
+
+		abstract void move(int from, int to, int length);
+
+		abstract void clear(int from, int to);
+	}
+
+	private static class ValueColumn<T> extends Column<T>
+	{
+		private String[] values = new String[0];
+
+		ValueColumn(final Function<T, String> getter, final BiConsumer<T, String> setter)
+		{
+			super(getter, setter);
+		}
+
+		@Override
+		void set(final int row, final String value)
+		{
+			values[row] = value;
+		}
+
+		@Override
+		String get(final int row)
+		{
+			return values[row];
+		}
+
+		@Override
+		void resize(final int head, final int size, final int capacity)
+		{
+			final String[] resized = new String[capacity];
+			System.arraycopy(values, head, resized, 0, size);
+			values = resized;
+		}
+
+		@Override
+		void move(final int from, final int to, final int length)
+		{
+			System.arraycopy(values, from, values, to, length);
+		}
+
+		@Override
+		void clear(final int from, final int to)
+		{
+			Arrays.fill(values, from, to, null);
+		}
+	}
+
+	private static class DictionaryColumn<T> extends Column<T>
+	{
+		private static final int NULL = -1;
+
+		private final Map<String, Integer> indexes = new HashMap<>();
+		private final List<String> dictionary = new ArrayList<>();
+		private int[] values = new int[0];
+
+		DictionaryColumn(final Function<T, String> getter, final BiConsumer<T, String> setter)
+		{
+			super(getter, setter);
+		}
+
+		@Override
+		void set(final int row, final String value)
+		{
+			if (value == null)
+			{
+				values[row] = NULL;
+				return;
+			}
+			Integer index = indexes.get(value);
+			if (index == null)
+			{
+				index = Integer.valueOf(dictionary.size());
+				dictionary.add(value);
+				indexes.put(value, index);
+			}
+			values[row] = index.intValue();
+		}
+
+		@Override
+		String get(final int row)
+		{
+			return values[row] == NULL ? null : dictionary.get(values[row]);
+		}
+
+		@Override
+		void resize(final int head, final int size, final int capacity)
+		{
+			final int[] resized = new int[capacity];
+			System.arraycopy(values, head, resized, 0, size);
+			values = resized;
+		}
+
+		@Override
+		void move(final int from, final int to, final int length)
+		{
+			System.arraycopy(values, from, values, to, length);
+		}
+
+		@Override
+		void clear(final int from, final int to)
+		{
+			// indexes do not hold references
+		}
+
+		@Override
+		void clearDictionary()
+		{
+			indexes.clear();
+			dictionary.clear();
+		}
+	}
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.UpdateQueueIngestion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Abstract implementation of {@link UpdateQueueIngestion}. Submitted elements are buffered in a bounded queue that is
+ * drained by a single consumer thread. The consumer collects elements for up to {@link #getBatchWindow()} milliseconds
+ * or {@link #getBatchSize()} elements, keeps only the last element per {@link #getCoalescingKey(Object)} and writes the
+ * batch to the update queue at once, so the update queue has a single writer.
+ * <p>
+ * Once elements are spilled to disk, further elements are spilled as well until the consumer read them back, so the
+ * elements are written in the order they were submitted. When the ingestion is disabled, elements are written to the
+ * update queue on the submitting thread.
+ * <p>
+ * On shutdown the consumer finishes its current batch, then the buffered and spilled elements are written on the
+ * shutting down thread. Elements submitted after that are written on the submitting thread.
+ */
+public abstract class AbstractUpdateQueueIngestion<T> implements UpdateQueueIngestion<T>, InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(AbstractUpdateQueueIngestion.class);
+	private static final long IDLE_WAIT = 1000;
+
+	private final Object writeLock = new Object();
+	private final Object spillLock = new Object();
+	private final LongAdder received = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder spilled = new LongAdder();
+
+	private BlockingQueue<Entry<T>> buffer;
+	private Thread consumer;
+	private volatile boolean running;
+	private volatile boolean stopped;
+	private volatile boolean spilling;
+	private volatile long lastBatchLag;
+	// guarded by spillLock
+	private ObjectOutputStream spillOutput;
+	private long spilledPending;
+	private long oldestSpilledAt;
+
+	private UpdateQueue<T> updateQueue;
+	private boolean enabled = true;
+	private int batchSize;
+	private long batchWindow;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+	private String spillDirectory;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		running = true;
+		consumer = new TenantAwareThreadFactory(Registry.getCurrentTenant()).newThread(this::consume);
+		consumer.setName(getClass().getSimpleName());
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException
+	{
+		running = false;
+		if (consumer != null)
+		{
+			consumer.join(IDLE_WAIT + getBatchWindow() + TimeUnit.SECONDS.toMillis(10));
+			if (consumer.isAlive())
+			{
+				consumer.interrupt();
+				consumer.join(TimeUnit.SECONDS.toMillis(10));
+			}
+		}
+		stopped = true;
+		try
+		{
+			processPending();
+		}
+		catch (final RuntimeException e)
+		{
+			LOG.error("Writing update elements to the queue failed on shutdown, " + getPendingCount() + " elements are lost", e);
+		}
+	}
+
+	@Override
+	public void submit(final T item)
+	{
+		received.increment();
+		final Entry<T> entry = new Entry<>(item, System.currentTimeMillis());
+		if (!isEnabled() || stopped)
+		{
+			write(Collections.singletonList(entry));
+			return;
+		}
+		if (spilling || !buffer.offer(entry))
+		{
+			overflow(entry);
+		}
+	}
+
+	protected void overflow(final Entry<T> entry)
+	{
+		switch (getOverflowPolicy())
+		{
+			case DROP_OLDEST:
+				while (!buffer.offer(entry))
+				{
+					if (buffer.poll() != null)
+					{
+						dropped.increment();
+					}
+				}
+				break;
+			case SPILL_TO_DISK:
+				spill(entry);
+				break;
+			default:
+				try
+				{
+					buffer.put(entry);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					LOG.warn("Interrupted while waiting for space in the buffer, dropped update element " + entry.item);
+					dropped.increment();
+				}
+		}
+	}
+
+	protected void spill(final Entry<T> entry)
+	{
+		synchronized (spillLock)
+		{
+			if (!spilling && buffer.offer(entry))
+			{
+				// the consumer made space meanwhile
+				return;
+			}
+			try
+			{
+				if (spillOutput == null)
+				{
+					final File spillFile = getSpillFile();
+					spillFile.getParentFile().mkdirs();
+					spillOutput = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+					oldestSpilledAt = entry.enqueuedAt;
+					LOG.info("Buffer of " + getClass().getSimpleName() + " is full, spilling update elements to " + spillFile);
+				}
+				spillOutput.writeObject(entry);
+				// entries are read back as a whole, the stream does not have to keep references to them
+				spillOutput.reset();
+				spilledPending++;
+				spilled.increment();
+				spilling = true;
+			}
+			catch (final IOException e)
+			{
+				LOG.error("Could not spill update element " + entry.item + ", dropping it", e);
+				dropped.increment();
+			}
+		}
+	}
+
+	protected void consume()
+	{
+		while (running)
+		{
+			try
+			{
+				final List<Entry<T>> batch = awaitBatch();
+				if (batch.isEmpty())
+				{
+					processSpilled();
+				}
+				else
+				{
+					write(batch);
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (final RuntimeException e)
+			{
+				LOG.error("Writing update elements to the queue failed", e);
+			}
+		}
+	}
+
+	protected List<Entry<T>> awaitBatch() throws InterruptedException
+	{
+		final Entry<T> first = buffer.poll(spilling ? 0 : IDLE_WAIT, TimeUnit.MILLISECONDS);
+		if (first == null)
+		{
+			return Collections.emptyList();
+		}
+		final List<Entry<T>> batch = new ArrayList<>();
+		batch.add(first);
+		final long deadline = System.currentTimeMillis() + getBatchWindow();
+		while (batch.size() < getBatchSize())
+		{
+			buffer.drainTo(batch, getBatchSize() - batch.size());
+			final long remaining = deadline - System.currentTimeMillis();
+			if (batch.size() >= getBatchSize() || remaining <= 0)
+			{
+				break;
+			}
+			final Entry<T> next = buffer.poll(remaining, TimeUnit.MILLISECONDS);
+			if (next == null)
+			{
+				break;
+			}
+			batch.add(next);
+		}
+		return batch;
+	}
+
+	/**
+	 * Writes all buffered and spilled elements on the calling thread
+	 */
+	protected void processPending()
+	{
+		final List<Entry<T>> batch = new ArrayList<>();
+		while (buffer.drainTo(batch, getBatchSize()) > 0)
+		{
+			write(batch);
+			batch.clear();
+		}
+		processSpilled();
+	}
+
+	protected void processSpilled()
+	{
+		final File spillFile = getSpillFile();
+		final File readFile = new File(spillFile.getPath() + ".read");
+		synchronized (spillLock)
+		{
+			if (!spilling)
+			{
+				return;
+			}
+			closeSpillOutput();
+			if (!spillFile.renameTo(readFile))
+			{
+				LOG.error("Could not read spilled update elements from " + spillFile + ", dropping " + spilledPending);
+				dropped.add(spilledPending);
+				deleteSpillFile(spillFile);
+			}
+			spilledPending = 0;
+			// elements submitted from now on are newer than the spilled ones, which are written before the buffer is read again
+			spilling = false;
+		}
+
+		if (!readFile.exists())
+		{
+			return;
+		}
+		final List<Entry<T>> batch = new ArrayList<>();
+		try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(readFile))))
+		{
+			Entry<T> entry;
+			while ((entry = readEntry(input)) != null)
+			{
+				batch.add(entry);
+				if (batch.size() >= getBatchSize())
+				{
+					write(batch);
+					batch.clear();
+				}
+			}
+		}
+		catch (final IOException | ClassNotFoundException e)
+		{
+			LOG.error("Could not read spilled update elements from " + readFile, e);
+		}
+		finally
+		{
+			deleteSpillFile(readFile);
+		}
+		if (!batch.isEmpty())
+		{
+			write(batch);
+		}
+	}
+
+	/**
+	 * @return the next spilled entry, or null at the end of the file
+	 */
+	@SuppressWarnings("unchecked")
+	private Entry<T> readEntry(final ObjectInputStream input) throws IOException, ClassNotFoundException
+	{
+		try
+		{
+			return (Entry<T>) input.readObject();
+		}
+		catch (final EOFException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Keeps the last element per coalescing key and writes the batch to the queue
+	 */
+	protected void write(final List<Entry<T>> batch)
+	{
+		final Map<Object, Entry<T>> latest = new LinkedHashMap<>();
+		for (final Entry<T> entry : batch)
+		{
+			final Object key = getCoalescingKey(entry.item);
+			// the element is written at the position of its last occurrence
+			latest.remove(key);
+			latest.put(key, entry);
+		}
+		final List<T> items = new ArrayList<>(latest.size());
+		for (final Entry<T> entry : latest.values())
+		{
+			items.add(entry.item);
+		}
+
+		synchronized (writeLock)
+		{
+			if (isReplacingQueuedItems())
+			{
+				removeQueuedItems(latest.keySet());
+			}
+			getUpdateQueue().addItems(items);
+		}
+		coalesced.add(batch.size() - (long) items.size());
+		written.add(items.size());
+		lastBatchLag = System.currentTimeMillis() - batch.get(0).enqueuedAt;
+	}
+
+	/**
+	 * Returns the key by which elements of a batch are coalesced, only the last element per key is written
+	 *
+	 * @param item
+	 * 		submitted element
+	 * @return key of the element
+	 */
+	protected abstract Object getCoalescingKey(T item);
+
+	/**
+	 * @return true if elements already in the queue with the same coalescing key as a written element are removed
+	 */
+	protected boolean isReplacingQueuedItems()
+	{
+		return false;
+	}
+
+	/**
+	 * Removes the elements already in the queue with one of the given coalescing keys, called for every written batch if
+	 * {@link #isReplacingQueuedItems()}
+	 *
+	 * @param keys
+	 * 		coalescing keys of the written elements
+	 */
+	protected void removeQueuedItems(final Set<Object> keys)
+	{
+		getUpdateQueue().removeItems(item -> keys.contains(getCoalescingKey(item)));
+	}
+
+	private void closeSpillOutput()
+	{
+		if (spillOutput != null)
+		{
+			try
+			{
+				spillOutput.close();
+			}
+			catch (final IOException e)
+			{
+				LOG.warn("Could not close spill file " + getSpillFile(), e);
+			}
+			spillOutput = null;
+		}
+	}
+
+	private static void deleteSpillFile(final File file)
+	{
+		if (file.exists() && !file.delete())
+		{
+			LOG.warn("Could not delete spill file " + file);
+		}
+	}
+
+	protected File getSpillFile()
+	{
+		return new File(getSpillDirectory(), getClass().getSimpleName() + ".spill");
+	}
+
+	@Override
+	public long getPendingCount()
+	{
+		synchronized (spillLock)
+		{
+			return buffer.size() + spilledPending;
+		}
+	}
+
+	@Override
+	public long getLag()
+	{
+		final Entry<T> oldest = buffer.peek();
+		long enqueuedAt = oldest == null ? 0 : oldest.enqueuedAt;
+		synchronized (spillLock)
+		{
+			if (enqueuedAt == 0 && spilledPending > 0)
+			{
+				enqueuedAt = oldestSpilledAt;
+			}
+		}
+		return enqueuedAt == 0 ? 0 : Math.max(0, System.currentTimeMillis() - enqueuedAt);
+	}
+
+	/**
+	 * @return milliseconds the oldest element of the last written batch waited to be written
+	 */
+	public long getLastBatchLag()
+	{
+		return lastBatchLag;
+	}
+
+	public long getReceivedCount()
+	{
+		return received.sum();
+	}
+
+	public long getWrittenCount()
+	{
+		return written.sum();
+	}
+
+	/**
+	 * @return number of elements not written because a later element with the same key was written in the same batch
+	 */
+	public long getCoalescedCount()
+	{
+		return coalesced.sum();
+	}
+
+	public long getDroppedCount()
+	{
+		return dropped.sum();
+	}
+
+	public long getSpilledCount()
+	{
+		return spilled.sum();
+	}
+
+	protected UpdateQueue<T> getUpdateQueue()
+	{
+		return updateQueue;
+	}
+
+	@Required
+	public void setUpdateQueue(final UpdateQueue<T> updateQueue)
+	{
+		this.updateQueue = updateQueue;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @param capacity
+	 * 		number of elements buffered before the {@link #getOverflowPolicy()} applies
+	 */
+	@Required
+	public void setCapacity(final int capacity)
+	{
+		this.buffer = new ArrayBlockingQueue<>(capacity);
+	}
+
+	protected int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	@Required
+	public void setBatchSize(final int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	protected long getBatchWindow()
+	{
+		return batchWindow;
+	}
+
+	/**
+	 * @param batchWindow
+	 * 		milliseconds the consumer waits for further elements after the first element of a batch
+	 */
+	@Required
+	public void setBatchWindow(final long batchWindow)
+	{
+		this.batchWindow = batchWindow;
+	}
+
+	protected OverflowPolicy getOverflowPolicy()
+	{
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(final OverflowPolicy overflowPolicy)
+	{
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	protected String getSpillDirectory()
+	{
+		return spillDirectory;
+	}
+
+	/**
+	 * @param spillDirectory
+	 * 		directory elements are spilled to with {@link OverflowPolicy#SPILL_TO_DISK}
+	 */
+	public void setSpillDirectory(final String spillDirectory)
+	{
+		this.spillDirectory = spillDirectory;
+	}
+
+	protected static class Entry<T> implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final T item;
+		private final long enqueuedAt;
+
+		protected Entry(final T item, final long enqueuedAt)
+		{
+			this.item = item;
+			this.enqueuedAt = enqueuedAt;
+		}
+	}
+}
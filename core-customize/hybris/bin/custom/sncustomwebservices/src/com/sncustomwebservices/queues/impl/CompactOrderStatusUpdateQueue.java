@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
+
+import java.util.Arrays;
+
+
+/**
+ * Compact queue for {@link com.sncustomwebservices.queues.data.OrderStatusUpdateElementData}
+ */
+public class CompactOrderStatusUpdateQueue extends AbstractCompactUpdateQueue<OrderStatusUpdateElementData>
+{
+	public CompactOrderStatusUpdateQueue()
+	{
+		super(Arrays.asList( //
+				valueColumn(OrderStatusUpdateElementData::getCode, OrderStatusUpdateElementData::setCode), //
+				dictionaryColumn(OrderStatusUpdateElementData::getStatus, OrderStatusUpdateElementData::setStatus), //
+				dictionaryColumn(OrderStatusUpdateElementData::getBaseSiteId, OrderStatusUpdateElementData::setBaseSiteId)));
+	}
+
+	@Override
+	protected OrderStatusUpdateElementData createItem()
+	{
+		return new OrderStatusUpdateElementData();
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+
+import java.util.Arrays;
+
+
+/**
+ * Compact queue for {@link com.sncustomwebservices.queues.data.ProductExpressUpdateElementData}. The keys of
+ * {@link #removeItemsByKey(java.util.Collection)} list the code, catalog id and catalog version of the elements.
+ */
+public class CompactProductExpressUpdateQueue extends AbstractCompactUpdateQueue<ProductExpressUpdateElementData>
+{
+	public CompactProductExpressUpdateQueue()
+	{
+		super(Arrays.asList( //
+				valueColumn(ProductExpressUpdateElementData::getCode, ProductExpressUpdateElementData::setCode), //
+				dictionaryColumn(ProductExpressUpdateElementData::getCatalogId, ProductExpressUpdateElementData::setCatalogId), //
+				dictionaryColumn(ProductExpressUpdateElementData::getCatalogVersion,
+						ProductExpressUpdateElementData::setCatalogVersion)));
+	}
+
+	@Override
+	protected ProductExpressUpdateElementData createItem()
+	{
+		return new ProductExpressUpdateElementData();
+	}
+}
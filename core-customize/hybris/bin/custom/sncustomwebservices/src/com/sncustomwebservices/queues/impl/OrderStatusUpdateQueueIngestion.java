@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
+
+import java.util.Arrays;
+
+
+/**
+ * Ingestion for {@link OrderStatusUpdateElementData}. Only repeated updates to the same status of an order are
+ * coalesced, so every status an order went through stays in the queue.
+ */
+public class OrderStatusUpdateQueueIngestion extends AbstractUpdateQueueIngestion<OrderStatusUpdateElementData>
+{
+	@Override
+	protected Object getCoalescingKey(final OrderStatusUpdateElementData item)
+	{
+		return Arrays.asList(item.getCode(), item.getBaseSiteId(), item.getStatus());
+	}
+}
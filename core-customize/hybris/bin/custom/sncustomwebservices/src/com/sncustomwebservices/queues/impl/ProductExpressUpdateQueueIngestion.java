@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Ingestion for {@link ProductExpressUpdateElementData}. Elements are coalesced per product, catalog and catalog version,
+ * and replace the elements of the same product already in the queue. Replaced elements of a
+ * {@link CompactProductExpressUpdateQueue} are found by comparing its columns.
+ */
+public class ProductExpressUpdateQueueIngestion extends AbstractUpdateQueueIngestion<ProductExpressUpdateElementData>
+{
+	@Override
+	protected Object getCoalescingKey(final ProductExpressUpdateElementData item)
+	{
+		return Arrays.asList(item.getCode(), item.getCatalogId(), item.getCatalogVersion());
+	}
+
+	@Override
+	protected boolean isReplacingQueuedItems()
+	{
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void removeQueuedItems(final Set<Object> keys)
+	{
+		if (getUpdateQueue() instanceof CompactProductExpressUpdateQueue)
+		{
+			// the coalescing keys list the code, catalog and catalog version columns of the compact queue in order
+			final List<List<String>> columnKeys = new ArrayList<>(keys.size());
+			for (final Object key : keys)
+			{
+				columnKeys.add((List<String>) key);
+			}
+			((CompactProductExpressUpdateQueue) getUpdateQueue()).removeItemsByKey(columnKeys);
+		}
+		else
+		{
+			super.removeQueuedItems(keys);
+		}
+	}
+}
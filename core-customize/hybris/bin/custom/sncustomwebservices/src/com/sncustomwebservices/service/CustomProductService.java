@@ -4,10 +4,14 @@
 package com.sncustomwebservices.service;
 
 import de.hybris.platform.cmsfacades.data.MediaData;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.core.model.media.MediaModel;
 import de.hybris.platform.core.model.product.ProductModel;
 
 import java.util.List;
 
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+
 /**
  * @author Anand.Mund
  *
@@ -16,6 +20,16 @@ public interface CustomProductService {
 
 	List<ProductModel> getProductsByName(String productName);
 
-	void updateImageForProduct(String productCode, MediaData mediaData);
+	CatalogSyncBatch updateImageForProduct(String productCode, MediaData mediaData);
+
+	/**
+	 * Makes the renditions the picture and thumbnail of the product and the container its gallery image, replacing the
+	 * gallery image of a previously uploaded picture. Nothing is updated if the picture of the product is no longer the
+	 * original image of the container, because a newer image was uploaded meanwhile.
+	 *
+	 * @return true if the product was updated
+	 */
+	boolean updateRenditionsForProduct(String productCode, MediaContainerModel mediaContainer, MediaModel picture,
+			MediaModel thumbnail);
 
 }
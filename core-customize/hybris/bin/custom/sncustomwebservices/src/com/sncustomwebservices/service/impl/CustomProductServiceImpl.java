@@ -4,10 +4,13 @@
 package com.sncustomwebservices.service.impl;
 
 import de.hybris.platform.cmsfacades.data.MediaData;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.core.model.media.MediaModel;
 import de.hybris.platform.core.model.product.ProductModel;
 
 import java.util.List;
 
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
 import com.sncustomwebservices.dao.CustomProductDao;
 import com.sncustomwebservices.service.CustomProductService;
 
@@ -25,8 +28,14 @@ public class CustomProductServiceImpl implements CustomProductService {
 	}
 	
 	@Override
-	public void updateImageForProduct(final String productCode, final MediaData mediaData)	{
-		getCustomProductDao().updateImageForProduct(productCode, mediaData);
+	public CatalogSyncBatch updateImageForProduct(final String productCode, final MediaData mediaData)	{
+		return getCustomProductDao().updateImageForProduct(productCode, mediaData);
+	}
+
+	@Override
+	public boolean updateRenditionsForProduct(final String productCode, final MediaContainerModel mediaContainer,
+			final MediaModel picture, final MediaModel thumbnail)	{
+		return getCustomProductDao().updateRenditionsForProduct(productCode, mediaContainer, picture, thumbnail);
 	}
 
 	/**
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock;
+
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Resolves point of service and base store stock for many products or stores with a single stock level query. The
+ * stock levels are prefetched, and the configured
+ * {@link de.hybris.platform.commerceservices.stock.CommerceStockService} calculates the stock level status and the
+ * available amount from them, so the results are the ones it returns for a single product and location, whichever
+ * implementation is configured.
+ */
+public interface BatchStockService
+{
+	/**
+	 * Returns the stock of one product in every given point of service.
+	 *
+	 * @param product
+	 * 		product
+	 * @param pointsOfService
+	 * 		points of service
+	 * @return stock data by point of service name, in the order of {@code pointsOfService}
+	 */
+	Map<String, StockData> getStockDataForProductAndPointsOfService(ProductModel product,
+			Collection<PointOfServiceModel> pointsOfService);
+
+	/**
+	 * Returns the stock of every given product in one point of service.
+	 *
+	 * @param products
+	 * 		products
+	 * @param pointOfService
+	 * 		point of service
+	 * @return stock data by product code, in the order of {@code products}
+	 */
+	Map<String, StockData> getStockDataForProductsAndPointOfService(Collection<ProductModel> products,
+			PointOfServiceModel pointOfService);
+
+	/**
+	 * Returns the stock of every given product in the warehouses of a base store.
+	 *
+	 * @param products
+	 * 		products
+	 * @param baseStore
+	 * 		base store
+	 * @return stock data by product code, in the order of {@code products}
+	 */
+	Map<String, StockData> getStockDataForProductsAndBaseStore(Collection<ProductModel> products, BaseStoreModel baseStore);
+
+	/**
+	 * Loads the points of service with the given names with a single query.
+	 *
+	 * @param names
+	 * 		point of service names
+	 * @return points of service, in the order of {@code names}; unknown names are skipped
+	 */
+	List<PointOfServiceModel> getPointsOfServiceForNames(Collection<String> names);
+}
@@ -8,6 +8,9 @@ import de.hybris.platform.commercefacades.product.data.StockData;
 import de.hybris.platform.servicelayer.exceptions.AmbiguousIdentifierException;
 import de.hybris.platform.servicelayer.exceptions.UnknownIdentifierException;
 
+import java.util.Collection;
+import java.util.Map;
+
 
 /**
  * Commerce stock facade. Deals with methods related to stock of products in sites and points of service.
@@ -43,6 +46,25 @@ public interface CommerceStockFacade
 	StockData getStockDataForProductAndBaseSite(String productCode, String baseSiteId)
 			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException;
 
+	/**
+	 * Returns stock data for all given products in given base site, loading the products that are not cached yet with a
+	 * single stock level query
+	 *
+	 * @param productCodes
+	 * 		Product codes
+	 * @param baseSiteId
+	 * 		Base site ID
+	 * @return {@link StockData} information by product code, in the order of {@code productCodes}
+	 * @throws UnknownIdentifierException
+	 * 		the unknown identifier exception when no base site or product with given id was found
+	 * @throws IllegalArgumentException
+	 * 		the illegal argument exception when any one parameter is null
+	 * @throws AmbiguousIdentifierException
+	 * 		the ambiguous identifier exception when there is more than one product with given code
+	 */
+	Map<String, StockData> getStockData(Collection<String> productCodes, String baseSiteId)
+			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException;
+
 	/**
 	 * Returns stock data for given product and point of service (that also indicates warehouse)
 	 *
@@ -60,4 +82,40 @@ public interface CommerceStockFacade
 	 */
 	StockData getStockDataForProductAndPointOfService(String productCode, String storeName)
 			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException;
+
+	/**
+	 * Returns stock data for given product in all given points of service, resolved with a single stock level query
+	 *
+	 * @param productCode
+	 * 		Product code
+	 * @param storeNames
+	 * 		Store names
+	 * @return {@link StockData} information by store name, in the order of {@code storeNames}; unknown stores are skipped
+	 * @throws UnknownIdentifierException
+	 * 		the unknown identifier exception when no product with given code was found
+	 * @throws IllegalArgumentException
+	 * 		the illegal argument exception when any one parameter is null
+	 * @throws AmbiguousIdentifierException
+	 * 		the ambiguous identifier exception when there is more than one product with given code
+	 */
+	Map<String, StockData> getStockDataForProductAndPointsOfService(String productCode, Collection<String> storeNames)
+			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException;
+
+	/**
+	 * Returns stock data for all given products in given point of service, resolved with a single stock level query
+	 *
+	 * @param productCodes
+	 * 		Product codes
+	 * @param storeName
+	 * 		Store name
+	 * @return {@link StockData} information by product code, in the order of {@code productCodes}
+	 * @throws UnknownIdentifierException
+	 * 		the unknown identifier exception when no store or product with given id was found
+	 * @throws IllegalArgumentException
+	 * 		the illegal argument exception when any one parameter is null
+	 * @throws AmbiguousIdentifierException
+	 * 		the ambiguous identifier exception when there is more than one product with given code
+	 */
+	Map<String, StockData> getStockDataForProductsAndPointOfService(Collection<String> productCodes, String storeName)
+			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException;
 }
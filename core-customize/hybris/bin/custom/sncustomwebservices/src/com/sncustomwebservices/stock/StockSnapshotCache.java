@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock;
+
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * Caches the stock status and level the configured commerce stock service returns for a product in a base store or
+ * point of service as one snapshot. Missing snapshots are loaded together through the {@link BatchStockService}.
+ * Snapshots of a product are dropped when one of its stock levels changes.
+ */
+public interface StockSnapshotCache
+{
+	/**
+	 * Returns the stock of every given product in the warehouses of a base store.
+	 *
+	 * @param products
+	 * 		products
+	 * @param baseStore
+	 * 		base store
+	 * @return stock data by product code, in the order of {@code products}
+	 */
+	Map<String, StockData> getStockDataForProductsAndBaseStore(Collection<ProductModel> products, BaseStoreModel baseStore);
+
+	/**
+	 * Returns the stock of one product in every given point of service.
+	 *
+	 * @param product
+	 * 		product
+	 * @param pointsOfService
+	 * 		points of service
+	 * @return stock data by point of service name, in the order of {@code pointsOfService}
+	 */
+	Map<String, StockData> getStockDataForProductAndPointsOfService(ProductModel product,
+			Collection<PointOfServiceModel> pointsOfService);
+
+	/**
+	 * Returns the stock of every given product in one point of service.
+	 *
+	 * @param products
+	 * 		products
+	 * @param pointOfService
+	 * 		point of service
+	 * @return stock data by product code, in the order of {@code products}
+	 */
+	Map<String, StockData> getStockDataForProductsAndPointOfService(Collection<ProductModel> products,
+			PointOfServiceModel pointOfService);
+
+	/**
+	 * Drops all snapshots of a product.
+	 *
+	 * @param productCode
+	 * 		product code
+	 */
+	void invalidate(String productCode);
+
+	/**
+	 * Drops all snapshots.
+	 */
+	void invalidateAll();
+
+	/**
+	 * @return number of snapshots served from the cache since startup
+	 */
+	long getHitCount();
+
+	/**
+	 * @return number of snapshots that had to be loaded since startup
+	 */
+	long getMissCount();
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock.impl;
+
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.commerceservices.stock.CommerceStockService;
+import de.hybris.platform.commerceservices.stock.strategies.WarehouseSelectionStrategy;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import com.sncustomwebservices.dao.BatchStockLevelDao;
+import com.sncustomwebservices.dao.PrefetchingStockLevelDao;
+import com.sncustomwebservices.stock.BatchStockService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link BatchStockService}. The stock levels of all requested products and warehouses are
+ * prefetched by the {@link PrefetchingStockLevelDao}, then the configured {@link CommerceStockService} is asked for
+ * every product and location.
+ */
+public class DefaultBatchStockService implements BatchStockService
+{
+	private BatchStockLevelDao batchStockLevelDao;
+	private PrefetchingStockLevelDao prefetchingStockLevelDao;
+	private CommerceStockService commerceStockService;
+	private WarehouseSelectionStrategy warehouseSelectionStrategy;
+
+	@Override
+	public Map<String, StockData> getStockDataForProductAndPointsOfService(final ProductModel product,
+			final Collection<PointOfServiceModel> pointsOfService)
+	{
+		final Set<WarehouseModel> warehouses = new LinkedHashSet<>();
+		for (final PointOfServiceModel pointOfService : pointsOfService)
+		{
+			warehouses.addAll(getWarehouses(pointOfService));
+		}
+
+		return getPrefetchingStockLevelDao().executeWithPrefetch(Collections.singleton(product.getCode()), warehouses, () -> {
+			final Map<String, StockData> stockData = new LinkedHashMap<>();
+			for (final PointOfServiceModel pointOfService : pointsOfService)
+			{
+				stockData.put(pointOfService.getName(), createStockData(product, pointOfService));
+			}
+			return stockData;
+		});
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductsAndPointOfService(final Collection<ProductModel> products,
+			final PointOfServiceModel pointOfService)
+	{
+		return getPrefetchingStockLevelDao().executeWithPrefetch(getProductCodes(products), getWarehouses(pointOfService),
+				() -> {
+					final Map<String, StockData> stockData = new LinkedHashMap<>();
+					for (final ProductModel product : products)
+					{
+						stockData.put(product.getCode(), createStockData(product, pointOfService));
+					}
+					return stockData;
+				});
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductsAndBaseStore(final Collection<ProductModel> products,
+			final BaseStoreModel baseStore)
+	{
+		return getPrefetchingStockLevelDao().executeWithPrefetch(getProductCodes(products),
+				getWarehouseSelectionStrategy().getWarehousesForBaseStore(baseStore), () -> {
+					final Map<String, StockData> stockData = new LinkedHashMap<>();
+					for (final ProductModel product : products)
+					{
+						stockData.put(product.getCode(), createStockData(product, baseStore));
+					}
+					return stockData;
+				});
+	}
+
+	@Override
+	public List<PointOfServiceModel> getPointsOfServiceForNames(final Collection<String> names)
+	{
+		final Map<String, PointOfServiceModel> pointsOfServiceByName = new HashMap<>();
+		for (final PointOfServiceModel pointOfService : getBatchStockLevelDao().findPointsOfService(
+				new LinkedHashSet<>(names)))
+		{
+			pointsOfServiceByName.put(pointOfService.getName(), pointOfService);
+		}
+
+		final List<PointOfServiceModel> pointsOfService = new ArrayList<>(pointsOfServiceByName.size());
+		for (final String name : names)
+		{
+			final PointOfServiceModel pointOfService = pointsOfServiceByName.remove(name);
+			if (pointOfService != null)
+			{
+				pointsOfService.add(pointOfService);
+			}
+		}
+		return pointsOfService;
+	}
+
+	protected Set<String> getProductCodes(final Collection<ProductModel> products)
+	{
+		final Set<String> productCodes = new LinkedHashSet<>();
+		for (final ProductModel product : products)
+		{
+			productCodes.add(product.getCode());
+		}
+		return productCodes;
+	}
+
+	protected Collection<WarehouseModel> getWarehouses(final PointOfServiceModel pointOfService)
+	{
+		return pointOfService.getWarehouses() == null ? Collections.emptyList() : pointOfService.getWarehouses();
+	}
+
+	protected StockData createStockData(final ProductModel product, final PointOfServiceModel pointOfService)
+	{
+		final StockData stockData = new StockData();
+		stockData.setStockLevelStatus(
+				getCommerceStockService().getStockLevelStatusForProductAndPointOfService(product, pointOfService));
+		stockData.setStockLevel(getCommerceStockService().getStockLevelForProductAndPointOfService(product, pointOfService));
+		return stockData;
+	}
+
+	protected StockData createStockData(final ProductModel product, final BaseStoreModel baseStore)
+	{
+		final StockData stockData = new StockData();
+		stockData.setStockLevelStatus(getCommerceStockService().getStockLevelStatusForProductAndBaseStore(product, baseStore));
+		stockData.setStockLevel(getCommerceStockService().getStockLevelForProductAndBaseStore(product, baseStore));
+		return stockData;
+	}
+
+	protected BatchStockLevelDao getBatchStockLevelDao()
+	{
+		return batchStockLevelDao;
+	}
+
+	@Required
+	public void setBatchStockLevelDao(final BatchStockLevelDao batchStockLevelDao)
+	{
+		this.batchStockLevelDao = batchStockLevelDao;
+	}
+
+	protected PrefetchingStockLevelDao getPrefetchingStockLevelDao()
+	{
+		return prefetchingStockLevelDao;
+	}
+
+	@Required
+	public void setPrefetchingStockLevelDao(final PrefetchingStockLevelDao prefetchingStockLevelDao)
+	{
+		this.prefetchingStockLevelDao = prefetchingStockLevelDao;
+	}
+
+	protected CommerceStockService getCommerceStockService()
+	{
+		return commerceStockService;
+	}
+
+	@Required
+	public void setCommerceStockService(final CommerceStockService commerceStockService)
+	{
+		this.commerceStockService = commerceStockService;
+	}
+
+	protected WarehouseSelectionStrategy getWarehouseSelectionStrategy()
+	{
+		return warehouseSelectionStrategy;
+	}
+
+	@Required
+	public void setWarehouseSelectionStrategy(final WarehouseSelectionStrategy warehouseSelectionStrategy)
+	{
+		this.warehouseSelectionStrategy = warehouseSelectionStrategy;
+	}
+}
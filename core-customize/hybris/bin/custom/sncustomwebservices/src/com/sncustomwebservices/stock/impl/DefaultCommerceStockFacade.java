@@ -3,7 +3,6 @@
  */
 package com.sncustomwebservices.stock.impl;
 
-import de.hybris.platform.basecommerce.enums.StockLevelStatus;
 import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
 import de.hybris.platform.commercefacades.product.data.StockData;
 import de.hybris.platform.commerceservices.stock.CommerceStockService;
@@ -13,20 +12,30 @@ import de.hybris.platform.servicelayer.exceptions.AmbiguousIdentifierException;
 import de.hybris.platform.servicelayer.exceptions.UnknownIdentifierException;
 import de.hybris.platform.servicelayer.util.ServicesUtil;
 import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.store.BaseStoreModel;
 import de.hybris.platform.storelocator.model.PointOfServiceModel;
 import de.hybris.platform.storelocator.pos.PointOfServiceService;
 import de.hybris.platform.util.Sanitizer;
+import com.sncustomwebservices.stock.BatchStockService;
 import com.sncustomwebservices.stock.CommerceStockFacade;
+import com.sncustomwebservices.stock.StockSnapshotCache;
 import com.sncustomwebservices.strategies.BaseStoreForSiteSelectorStrategy;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Required;
 
 
 /**
- * Default implementation of {@link com.sncustomwebservices.stock.CommerceStockFacade}<br/>
+ * Default implementation of {@link com.sncustomwebservices.stock.CommerceStockFacade}. Stock is served by the
+ * {@link StockSnapshotCache}, which keeps the results of the configured {@link CommerceStockService} and looks up
+ * missing ones in batches.<br/>
  * TODO: when moving to commercelayer:<br/>
  * TODO: please add validation to the default implementation of BaseSiteService and throw exceptions from there</br>
- * TODO: ideally get rid of createStockData()
  */
 public class DefaultCommerceStockFacade implements CommerceStockFacade
 {
@@ -35,6 +44,8 @@ public class DefaultCommerceStockFacade implements CommerceStockFacade
 	private ProductService productService;
 	private PointOfServiceService pointOfServiceService;
 	private BaseStoreForSiteSelectorStrategy baseStoreForSiteSelectorStrategy;
+	private BatchStockService batchStockService;
+	private StockSnapshotCache stockSnapshotCache;
 
 	@Override
 	public boolean isStockSystemEnabled(final String baseSiteId) throws UnknownIdentifierException
@@ -54,20 +65,22 @@ public class DefaultCommerceStockFacade implements CommerceStockFacade
 	public StockData getStockDataForProductAndBaseSite(final String productCode, final String baseSiteId)
 			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException
 	{
-		// it's not checked in the service layer (!) :
-		ServicesUtil.validateParameterNotNull(baseSiteId, "Parameter baseSiteId must not be null");
-		final BaseSiteModel baseSiteModel = getBaseSiteService().getBaseSiteForUID(baseSiteId);
-		if (baseSiteModel == null)
-		{
-			throw new UnknownIdentifierException("Base site with uid '" + Sanitizer.sanitize(baseSiteId) + "' not found!");
-		}
-
+		final BaseStoreModel baseStoreModel = getBaseStoreForSiteId(baseSiteId);
 		final ProductModel productModel = getProductService().getProductForCode(productCode);
 
-		return createStockData(getCommerceStockService().getStockLevelStatusForProductAndBaseStore(productModel,
-				getBaseStoreForSiteSelectorStrategy().getBaseStore(baseSiteModel)), getCommerceStockService()
-				.getStockLevelForProductAndBaseStore(productModel,
-						getBaseStoreForSiteSelectorStrategy().getBaseStore(baseSiteModel)));
+		// status and level are kept together in one snapshot
+		return getStockSnapshotCache()
+				.getStockDataForProductsAndBaseStore(Collections.singletonList(productModel), baseStoreModel)
+				.get(productModel.getCode());
+	}
+
+	@Override
+	public Map<String, StockData> getStockData(final Collection<String> productCodes, final String baseSiteId)
+			throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException
+	{
+		ServicesUtil.validateParameterNotNull(productCodes, "Parameter productCodes must not be null");
+		final BaseStoreModel baseStoreModel = getBaseStoreForSiteId(baseSiteId);
+		return getStockSnapshotCache().getStockDataForProductsAndBaseStore(getProducts(productCodes), baseStoreModel);
 	}
 
 	@Override
@@ -77,28 +90,53 @@ public class DefaultCommerceStockFacade implements CommerceStockFacade
 		final ProductModel productModel = getProductService().getProductForCode(productCode);
 		final PointOfServiceModel pointOfServiceModel = getPointOfServiceService().getPointOfServiceForName(storeName);
 
-		return createStockData(
-				getCommerceStockService().getStockLevelStatusForProductAndPointOfService(productModel, pointOfServiceModel),
-				getCommerceStockService().getStockLevelForProductAndPointOfService(productModel, pointOfServiceModel));
+		// status and level are kept together in one snapshot
+		return getStockSnapshotCache()
+				.getStockDataForProductAndPointsOfService(productModel, Collections.singletonList(pointOfServiceModel))
+				.get(pointOfServiceModel.getName());
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductAndPointsOfService(final String productCode,
+			final Collection<String> storeNames) throws UnknownIdentifierException, IllegalArgumentException,
+			AmbiguousIdentifierException
+	{
+		ServicesUtil.validateParameterNotNull(storeNames, "Parameter storeNames must not be null");
+		final ProductModel productModel = getProductService().getProductForCode(productCode);
+		final List<PointOfServiceModel> pointsOfService = getBatchStockService().getPointsOfServiceForNames(storeNames);
+		return getStockSnapshotCache().getStockDataForProductAndPointsOfService(productModel, pointsOfService);
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductsAndPointOfService(final Collection<String> productCodes,
+			final String storeName) throws UnknownIdentifierException, IllegalArgumentException, AmbiguousIdentifierException
+	{
+		ServicesUtil.validateParameterNotNull(productCodes, "Parameter productCodes must not be null");
+		final PointOfServiceModel pointOfServiceModel = getPointOfServiceService().getPointOfServiceForName(storeName);
+		return getStockSnapshotCache().getStockDataForProductsAndPointOfService(getProducts(productCodes),
+				pointOfServiceModel);
+	}
+
+	protected BaseStoreModel getBaseStoreForSiteId(final String baseSiteId)
+	{
+		// it's not checked in the service layer (!) :
+		ServicesUtil.validateParameterNotNull(baseSiteId, "Parameter baseSiteId must not be null");
+		final BaseSiteModel baseSiteModel = getBaseSiteService().getBaseSiteForUID(baseSiteId);
+		if (baseSiteModel == null)
+		{
+			throw new UnknownIdentifierException("Base site with uid '" + Sanitizer.sanitize(baseSiteId) + "' not found!");
+		}
+		return getBaseStoreForSiteSelectorStrategy().getBaseStore(baseSiteModel);
 	}
 
-	/**
-	 * This method is used here instead of regular populator beacause {@link CommerceStockService} returns all values
-	 * separately.<br/>
-	 * Ideally would be to improve it someday by returning StockLevelModel.
-	 *
-	 * @param stockLevelStatus
-	 * 		stock level status
-	 * @param stockLevel
-	 * 		stock level
-	 * @return stockData
-	 */
-	protected StockData createStockData(final StockLevelStatus stockLevelStatus, final Long stockLevel)
+	protected List<ProductModel> getProducts(final Collection<String> productCodes)
 	{
-		final StockData stockData = new StockData();
-		stockData.setStockLevelStatus(stockLevelStatus);
-		stockData.setStockLevel(stockLevel);
-		return stockData;
+		final List<ProductModel> productModels = new ArrayList<>(productCodes.size());
+		for (final String productCode : productCodes)
+		{
+			productModels.add(getProductService().getProductForCode(productCode));
+		}
+		return productModels;
 	}
 
 	public CommerceStockService getCommerceStockService()
@@ -145,6 +183,28 @@ public class DefaultCommerceStockFacade implements CommerceStockFacade
 		this.productService = productService;
 	}
 
+	public BatchStockService getBatchStockService()
+	{
+		return batchStockService;
+	}
+
+	@Required
+	public void setBatchStockService(final BatchStockService batchStockService)
+	{
+		this.batchStockService = batchStockService;
+	}
+
+	public StockSnapshotCache getStockSnapshotCache()
+	{
+		return stockSnapshotCache;
+	}
+
+	@Required
+	public void setStockSnapshotCache(final StockSnapshotCache stockSnapshotCache)
+	{
+		this.stockSnapshotCache = stockSnapshotCache;
+	}
+
 	public PointOfServiceService getPointOfServiceService()
 	{
 		return pointOfServiceService;
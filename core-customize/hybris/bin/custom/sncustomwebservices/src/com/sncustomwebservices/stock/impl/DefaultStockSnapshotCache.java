@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock.impl;
+
+import de.hybris.platform.basecommerce.enums.StockLevelStatus;
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.jalo.type.TypeManager;
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.servicelayer.exceptions.ModelLoadingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.util.ServicesUtil;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import de.hybris.platform.tx.AfterSaveEvent;
+import de.hybris.platform.tx.AfterSaveListener;
+import com.sncustomwebservices.stock.BatchStockService;
+import com.sncustomwebservices.stock.StockSnapshotCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link StockSnapshotCache}. Snapshots are grouped by product code, so a saved or created
+ * stock level drops the snapshots of its product in every location. A removed stock level can not be loaded anymore and
+ * drops all snapshots. Snapshots also expire after {@link #getTimeToLive()} seconds, so changes made on other cluster
+ * nodes are picked up.
+ */
+public class DefaultStockSnapshotCache implements StockSnapshotCache, AfterSaveListener
+{
+	private static final Logger LOG = Logger.getLogger(DefaultStockSnapshotCache.class);
+	private static final int UNKNOWN_TYPE_CODE = -1;
+	private static final String BASE_STORE_PREFIX = "store:";
+	private static final String POINT_OF_SERVICE_PREFIX = "pos:";
+
+	private final ConcurrentMap<String, ConcurrentMap<String, Snapshot>> snapshots = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile int stockLevelTypeCode = UNKNOWN_TYPE_CODE;
+
+	private BatchStockService batchStockService;
+	private ModelService modelService;
+	private boolean enabled = true;
+	private long timeToLive;
+	private int maxProducts;
+
+	@Override
+	public Map<String, StockData> getStockDataForProductsAndBaseStore(final Collection<ProductModel> products,
+			final BaseStoreModel baseStore)
+	{
+		ServicesUtil.validateParameterNotNull(baseStore, "Parameter baseStore must not be null");
+		return getStockDataForProducts(products, BASE_STORE_PREFIX + baseStore.getUid(),
+				missing -> getBatchStockService().getStockDataForProductsAndBaseStore(missing, baseStore));
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductsAndPointOfService(final Collection<ProductModel> products,
+			final PointOfServiceModel pointOfService)
+	{
+		return getStockDataForProducts(products, POINT_OF_SERVICE_PREFIX + pointOfService.getName(),
+				missing -> getBatchStockService().getStockDataForProductsAndPointOfService(missing, pointOfService));
+	}
+
+	@Override
+	public Map<String, StockData> getStockDataForProductAndPointsOfService(final ProductModel product,
+			final Collection<PointOfServiceModel> pointsOfService)
+	{
+		if (!isEnabled())
+		{
+			return getBatchStockService().getStockDataForProductAndPointsOfService(product, pointsOfService);
+		}
+
+		final long loadGeneration = generation.get();
+		final Map<String, StockData> stockData = new LinkedHashMap<>();
+		final List<PointOfServiceModel> missing = new ArrayList<>();
+		for (final PointOfServiceModel pointOfService : pointsOfService)
+		{
+			final Snapshot snapshot = getSnapshot(product.getCode(), POINT_OF_SERVICE_PREFIX + pointOfService.getName());
+			stockData.put(pointOfService.getName(), snapshot == null ? null : snapshot.toStockData());
+			if (snapshot == null)
+			{
+				missing.add(pointOfService);
+			}
+		}
+		count(pointsOfService.size(), missing.size());
+
+		if (!missing.isEmpty())
+		{
+			for (final Map.Entry<String, StockData> loaded : getBatchStockService()
+					.getStockDataForProductAndPointsOfService(product, missing).entrySet())
+			{
+				putSnapshot(product.getCode(), POINT_OF_SERVICE_PREFIX + loaded.getKey(), loaded.getValue(), loadGeneration);
+				stockData.put(loaded.getKey(), loaded.getValue());
+			}
+		}
+		return stockData;
+	}
+
+	@Override
+	public void invalidate(final String productCode)
+	{
+		generation.incrementAndGet();
+		snapshots.remove(productCode);
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Invalidated stock snapshots of product " + productCode);
+		}
+	}
+
+	@Override
+	public void invalidateAll()
+	{
+		generation.incrementAndGet();
+		snapshots.clear();
+		LOG.debug("Invalidated all stock snapshots");
+	}
+
+	@Override
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	@Override
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	@Override
+	public void afterSave(final Collection<AfterSaveEvent> events)
+	{
+		if (snapshots.isEmpty())
+		{
+			return;
+		}
+		final int typeCode = getStockLevelTypeCode();
+		for (final AfterSaveEvent event : events)
+		{
+			if (event.getPk().getTypeCode() == typeCode)
+			{
+				if (event.getType() == AfterSaveEvent.REMOVE)
+				{
+					invalidateAll();
+					return;
+				}
+				invalidate(event.getPk());
+			}
+		}
+	}
+
+	protected void invalidate(final PK stockLevelPk)
+	{
+		try
+		{
+			final StockLevelModel stockLevel = getModelService().get(stockLevelPk);
+			invalidate(stockLevel.getProductCode());
+		}
+		catch (final ModelLoadingException e)
+		{
+			LOG.debug("Changed stock level " + stockLevelPk + " could not be loaded", e);
+			invalidateAll();
+		}
+	}
+
+	protected Map<String, StockData> getStockDataForProducts(final Collection<ProductModel> products,
+			final String locationKey, final StockLoader loader)
+	{
+		if (!isEnabled())
+		{
+			return loader.load(products);
+		}
+
+		final long loadGeneration = generation.get();
+		final Map<String, StockData> stockData = new LinkedHashMap<>();
+		final List<ProductModel> missing = new ArrayList<>();
+		for (final ProductModel product : products)
+		{
+			final Snapshot snapshot = getSnapshot(product.getCode(), locationKey);
+			stockData.put(product.getCode(), snapshot == null ? null : snapshot.toStockData());
+			if (snapshot == null)
+			{
+				missing.add(product);
+			}
+		}
+		count(products.size(), missing.size());
+
+		if (!missing.isEmpty())
+		{
+			for (final Map.Entry<String, StockData> loaded : loader.load(missing).entrySet())
+			{
+				putSnapshot(loaded.getKey(), locationKey, loaded.getValue(), loadGeneration);
+				stockData.put(loaded.getKey(), loaded.getValue());
+			}
+		}
+		return stockData;
+	}
+
+	protected Snapshot getSnapshot(final String productCode, final String locationKey)
+	{
+		final Map<String, Snapshot> productSnapshots = snapshots.get(productCode);
+		final Snapshot snapshot = productSnapshots == null ? null : productSnapshots.get(locationKey);
+		return snapshot != null && (getTimeToLive() <= 0 || snapshot.getExpiresAt() > System.currentTimeMillis()) ? snapshot
+				: null;
+	}
+
+	protected void putSnapshot(final String productCode, final String locationKey, final StockData stockData,
+			final long loadGeneration)
+	{
+		if (stockData == null)
+		{
+			return;
+		}
+		if (getMaxProducts() > 0 && snapshots.size() >= getMaxProducts() && !snapshots.containsKey(productCode))
+		{
+			LOG.info("Stock snapshot cache reached " + getMaxProducts() + " products, clearing it");
+			invalidateAll();
+			return;
+		}
+
+		final Snapshot snapshot = new Snapshot(stockData.getStockLevelStatus(), stockData.getStockLevel(),
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()));
+		snapshots.computeIfAbsent(productCode, k -> new ConcurrentHashMap<>()).put(locationKey, snapshot);
+		// a stock level changed while loading, the loaded snapshot may already be stale
+		if (generation.get() != loadGeneration)
+		{
+			snapshots.remove(productCode);
+		}
+	}
+
+	protected void count(final int requested, final int missing)
+	{
+		hits.add(requested - missing);
+		misses.add(missing);
+	}
+
+	protected int getStockLevelTypeCode()
+	{
+		if (stockLevelTypeCode == UNKNOWN_TYPE_CODE)
+		{
+			stockLevelTypeCode = TypeManager.getInstance().getComposedType(StockLevelModel._TYPECODE).getItemTypeCode();
+		}
+		return stockLevelTypeCode;
+	}
+
+	protected BatchStockService getBatchStockService()
+	{
+		return batchStockService;
+	}
+
+	@Required
+	public void setBatchStockService(final BatchStockService batchStockService)
+	{
+		this.batchStockService = batchStockService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @param enabled
+	 * 		false to load every request through the {@link BatchStockService}
+	 */
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which a snapshot is reloaded, 0 or less to keep it until a stock level of the product changes
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxProducts()
+	{
+		return maxProducts;
+	}
+
+	/**
+	 * @param maxProducts
+	 * 		number of products after which the cache is cleared, 0 or less for no limit
+	 */
+	public void setMaxProducts(final int maxProducts)
+	{
+		this.maxProducts = maxProducts;
+	}
+
+	protected interface StockLoader
+	{
+		Map<String, StockData> load(Collection<ProductModel> products);
+	}
+
+	protected static class Snapshot
+	{
+		private final StockLevelStatus status;
+		private final Long level;
+		private final long expiresAt;
+
+		protected Snapshot(final StockLevelStatus status, final Long level, final long expiresAt)
+		{
+			this.status = status;
+			this.level = level;
+			this.expiresAt = expiresAt;
+		}
+
+		public StockData toStockData()
+		{
+			final StockData stockData = new StockData();
+			stockData.setStockLevelStatus(status);
+			stockData.setStockLevel(level);
+			return stockData;
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+}
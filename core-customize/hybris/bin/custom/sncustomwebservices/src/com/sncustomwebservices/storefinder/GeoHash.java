@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder;
+
+/**
+ * Geohash encoding of positions. A geohash of precision {@code p} identifies a cell of {@code 5p} bits, alternating
+ * longitude and latitude bits, so that positions sharing a prefix are close to each other.
+ */
+public final class GeoHash
+{
+	public static final int MAX_PRECISION = 12;
+
+	private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+	private static final int BITS_PER_CHAR = 5;
+	private static final double MAX_LATITUDE = 90.0;
+	private static final double MAX_LONGITUDE = 180.0;
+
+	private GeoHash()
+	{
+		//empty
+	}
+
+	/**
+	 * @param precision
+	 * 		number of characters, between 1 and {@link #MAX_PRECISION}
+	 * @return geohash of the cell containing the position
+	 */
+	public static String encode(final double latitude, final double longitude, final int precision)
+	{
+		if (precision < 1 || precision > MAX_PRECISION)
+		{
+			throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+		}
+
+		double minLatitude = -MAX_LATITUDE;
+		double maxLatitude = MAX_LATITUDE;
+		double minLongitude = -MAX_LONGITUDE;
+		double maxLongitude = MAX_LONGITUDE;
+		final char[] hash = new char[precision];
+		boolean longitudeBit = true;
+		for (int i = 0; i < precision; i++)
+		{
+			int value = 0;
+			for (int bit = 0; bit < BITS_PER_CHAR; bit++)
+			{
+				value <<= 1;
+				if (longitudeBit)
+				{
+					final double middle = (minLongitude + maxLongitude) / 2;
+					if (longitude >= middle)
+					{
+						value |= 1;
+						minLongitude = middle;
+					}
+					else
+					{
+						maxLongitude = middle;
+					}
+				}
+				else
+				{
+					final double middle = (minLatitude + maxLatitude) / 2;
+					if (latitude >= middle)
+					{
+						value |= 1;
+						minLatitude = middle;
+					}
+					else
+					{
+						maxLatitude = middle;
+					}
+				}
+				longitudeBit = !longitudeBit;
+			}
+			hash[i] = BASE32[value];
+		}
+		return new String(hash);
+	}
+
+	/**
+	 * @return {@code [latitude, longitude]} of the center of the cell identified by the geohash
+	 */
+	public static double[] decodeCenter(final String geoHash)
+	{
+		double minLatitude = -MAX_LATITUDE;
+		double maxLatitude = MAX_LATITUDE;
+		double minLongitude = -MAX_LONGITUDE;
+		double maxLongitude = MAX_LONGITUDE;
+		boolean longitudeBit = true;
+		for (int i = 0; i < geoHash.length(); i++)
+		{
+			final int value = indexOf(geoHash.charAt(i));
+			for (int bit = BITS_PER_CHAR - 1; bit >= 0; bit--)
+			{
+				final boolean set = ((value >> bit) & 1) == 1;
+				if (longitudeBit)
+				{
+					final double middle = (minLongitude + maxLongitude) / 2;
+					if (set)
+					{
+						minLongitude = middle;
+					}
+					else
+					{
+						maxLongitude = middle;
+					}
+				}
+				else
+				{
+					final double middle = (minLatitude + maxLatitude) / 2;
+					if (set)
+					{
+						minLatitude = middle;
+					}
+					else
+					{
+						maxLatitude = middle;
+					}
+				}
+				longitudeBit = !longitudeBit;
+			}
+		}
+		return new double[] { (minLatitude + maxLatitude) / 2, (minLongitude + maxLongitude) / 2 };
+	}
+
+	/**
+	 * @return height in degrees of latitude of a cell of the given precision
+	 */
+	public static double getCellHeight(final int precision)
+	{
+		return 2 * MAX_LATITUDE / (1L << (precision * BITS_PER_CHAR / 2));
+	}
+
+	/**
+	 * @return width in degrees of longitude of a cell of the given precision
+	 */
+	public static double getCellWidth(final int precision)
+	{
+		return 2 * MAX_LONGITUDE / (1L << (precision * BITS_PER_CHAR - precision * BITS_PER_CHAR / 2));
+	}
+
+	private static int indexOf(final char character)
+	{
+		for (int i = 0; i < BASE32.length; i++)
+		{
+			if (BASE32[i] == character)
+			{
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Invalid geohash character: " + character);
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder;
+
+import de.hybris.platform.core.PK;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Immutable in-memory spatial index over the geocoded points of service of one base store. Positions are kept in
+ * parallel arrays and grouped into geohash buckets, so a radius search only measures the distance to the points of
+ * service in the buckets overlapping the search area.
+ */
+public class PointOfServiceIndex
+{
+	public static final double EARTH_RADIUS_KM = 6371.0;
+
+	private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+	private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+	private static final Comparator<Hit> BY_DISTANCE = Comparator.comparingDouble(Hit::getDistanceKm);
+
+	private final PK[] pks;
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final int bucketPrecision;
+	private final Map<String, int[]> buckets;
+
+	/**
+	 * @param pks
+	 * 		primary keys of the points of service
+	 * @param latitudes
+	 * 		latitudes, in the order of {@code pks}
+	 * @param longitudes
+	 * 		longitudes, in the order of {@code pks}
+	 * @param bucketPrecision
+	 * 		geohash precision of the buckets
+	 */
+	public PointOfServiceIndex(final PK[] pks, final double[] latitudes, final double[] longitudes, final int bucketPrecision)
+	{
+		this.pks = pks.clone();
+		this.latitudes = latitudes.clone();
+		this.longitudes = longitudes.clone();
+		this.bucketPrecision = bucketPrecision;
+
+		final Map<String, List<Integer>> members = new HashMap<>();
+		for (int i = 0; i < pks.length; i++)
+		{
+			members.computeIfAbsent(GeoHash.encode(latitudes[i], longitudes[i], bucketPrecision), k -> new ArrayList<>())
+					.add(Integer.valueOf(i));
+		}
+		this.buckets = new HashMap<>(members.size() * 4 / 3 + 1);
+		members.forEach((hash, indexes) -> buckets.put(hash, indexes.stream().mapToInt(Integer::intValue).toArray()));
+	}
+
+	public int size()
+	{
+		return pks.length;
+	}
+
+	/**
+	 * Finds the points of service within the radius, nearest first.
+	 */
+	public List<Hit> findWithinRadius(final double latitude, final double longitude, final double radiusKm)
+	{
+		final List<Hit> hits = new ArrayList<>();
+		final double latitudeDelta = radiusKm / KM_PER_DEGREE;
+		final double cosLatitude = Math.cos(Math.toRadians(Math.min(90.0, Math.abs(latitude) + latitudeDelta)));
+		final double longitudeDelta = cosLatitude > 0 ? radiusKm / (KM_PER_DEGREE * cosLatitude) : Double.MAX_VALUE;
+
+		final double minLatitude = Math.max(-90.0, latitude - latitudeDelta);
+		final double maxLatitude = Math.min(90.0, latitude + latitudeDelta);
+		final double minLongitude = longitude - longitudeDelta;
+		final double maxLongitude = longitude + longitudeDelta;
+
+		final double cellHeight = GeoHash.getCellHeight(bucketPrecision);
+		final double cellWidth = GeoHash.getCellWidth(bucketPrecision);
+		final long firstLatitudeCell = (long) Math.floor((minLatitude + 90.0) / cellHeight);
+		final long lastLatitudeCell = Math.min((long) Math.floor((maxLatitude + 90.0) / cellHeight),
+				Math.round(180.0 / cellHeight) - 1);
+		final long firstLongitudeCell = (long) Math.floor((minLongitude + 180.0) / cellWidth);
+		final long lastLongitudeCell = (long) Math.floor((maxLongitude + 180.0) / cellWidth);
+		final long cells = (lastLatitudeCell - firstLatitudeCell + 1) * (lastLongitudeCell - firstLongitudeCell + 1);
+
+		if (minLongitude < -180.0 || maxLongitude >= 180.0 || cells > buckets.size())
+		{
+			// visiting the cells would cost more than measuring every point of service
+			for (int i = 0; i < pks.length; i++)
+			{
+				addIfWithinRadius(hits, i, latitude, longitude, radiusKm);
+			}
+		}
+		else
+		{
+			for (long latitudeCell = firstLatitudeCell; latitudeCell <= lastLatitudeCell; latitudeCell++)
+			{
+				final double cellLatitude = -90.0 + (latitudeCell + 0.5) * cellHeight;
+				for (long longitudeCell = firstLongitudeCell; longitudeCell <= lastLongitudeCell; longitudeCell++)
+				{
+					final double cellLongitude = -180.0 + (longitudeCell + 0.5) * cellWidth;
+					final int[] bucket = buckets.get(GeoHash.encode(cellLatitude, cellLongitude, bucketPrecision));
+					if (bucket != null)
+					{
+						for (final int i : bucket)
+						{
+							addIfWithinRadius(hits, i, latitude, longitude, radiusKm);
+						}
+					}
+				}
+			}
+		}
+		hits.sort(BY_DISTANCE);
+		return hits;
+	}
+
+	/**
+	 * Finds the {@code count} nearest points of service, nearest first. The search radius is doubled until enough points
+	 * of service are found.
+	 */
+	public List<Hit> findNearest(final double latitude, final double longitude, final int count)
+	{
+		double radiusKm = Math.max(1.0, GeoHash.getCellHeight(bucketPrecision) * KM_PER_DEGREE);
+		List<Hit> hits = findWithinRadius(latitude, longitude, radiusKm);
+		while (hits.size() < count && hits.size() < pks.length && radiusKm < MAX_DISTANCE_KM)
+		{
+			radiusKm = Math.min(radiusKm * 2, MAX_DISTANCE_KM);
+			hits = findWithinRadius(latitude, longitude, radiusKm);
+		}
+		return hits.size() > count ? new ArrayList<>(hits.subList(0, count)) : hits;
+	}
+
+	/**
+	 * @return great-circle distance between two positions in kilometres
+	 */
+	public static double distanceKm(final double latitude1, final double longitude1, final double latitude2,
+			final double longitude2)
+	{
+		final double latitudeDistance = Math.toRadians(latitude2 - latitude1);
+		final double longitudeDistance = Math.toRadians(longitude2 - longitude1);
+		final double a = Math.sin(latitudeDistance / 2) * Math.sin(latitudeDistance / 2)
+				+ Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.sin(longitudeDistance / 2)
+				* Math.sin(longitudeDistance / 2);
+		return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+	}
+
+	protected void addIfWithinRadius(final List<Hit> hits, final int index, final double latitude, final double longitude,
+			final double radiusKm)
+	{
+		final double distance = distanceKm(latitude, longitude, latitudes[index], longitudes[index]);
+		if (distance <= radiusKm)
+		{
+			hits.add(new Hit(pks[index], latitudes[index], longitudes[index], distance));
+		}
+	}
+
+	/**
+	 * A point of service found by a search.
+	 */
+	public static class Hit
+	{
+		private final PK pk;
+		private final double latitude;
+		private final double longitude;
+		private final double distanceKm;
+
+		public Hit(final PK pk, final double latitude, final double longitude, final double distanceKm)
+		{
+			this.pk = pk;
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.distanceKm = distanceKm;
+		}
+
+		public PK getPk()
+		{
+			return pk;
+		}
+
+		public double getLatitude()
+		{
+			return latitude;
+		}
+
+		public double getLongitude()
+		{
+			return longitude;
+		}
+
+		public double getDistanceKm()
+		{
+			return distanceKm;
+		}
+	}
+}
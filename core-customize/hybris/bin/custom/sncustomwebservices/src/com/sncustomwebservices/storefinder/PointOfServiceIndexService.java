@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder;
+
+import de.hybris.platform.commerceservices.search.pagedata.PageableData;
+import de.hybris.platform.commerceservices.store.data.GeoPoint;
+import de.hybris.platform.commerceservices.storefinder.data.PointOfServiceDistanceData;
+import de.hybris.platform.commerceservices.storefinder.data.StoreFinderSearchPageData;
+import de.hybris.platform.store.BaseStoreModel;
+
+
+/**
+ * Position searches over an in-memory {@link PointOfServiceIndex} of the points of service of a base store. The results
+ * have the same shape as the ones of the store finder service, so they can be converted by the store finder facade
+ * converters.
+ */
+public interface PointOfServiceIndexService
+{
+	/**
+	 * Finds the points of service of the base store within the radius, nearest first.
+	 *
+	 * @param baseStore
+	 * 		base store
+	 * @param geoPoint
+	 * 		search position
+	 * @param pageableData
+	 * 		requested page
+	 * @param maxRadiusKm
+	 * 		search radius in kilometres
+	 * @return requested page of results
+	 */
+	StoreFinderSearchPageData<PointOfServiceDistanceData> positionSearch(BaseStoreModel baseStore, GeoPoint geoPoint,
+			PageableData pageableData, double maxRadiusKm);
+
+	/**
+	 * Finds the points of service of the base store nearest to the position, without a radius limit. Only the points
+	 * of service up to the requested page are measured.
+	 *
+	 * @param baseStore
+	 * 		base store
+	 * @param geoPoint
+	 * 		search position
+	 * @param pageableData
+	 * 		requested page
+	 * @return requested page of results
+	 */
+	StoreFinderSearchPageData<PointOfServiceDistanceData> nearestSearch(BaseStoreModel baseStore, GeoPoint geoPoint,
+			PageableData pageableData);
+
+	/**
+	 * Drops all indexes. They are rebuilt on next use.
+	 */
+	void invalidate();
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder.impl;
+
+import de.hybris.platform.commerceservices.search.pagedata.PageableData;
+import de.hybris.platform.commerceservices.search.pagedata.PaginationData;
+import de.hybris.platform.commerceservices.store.data.GeoPoint;
+import de.hybris.platform.commerceservices.storefinder.data.PointOfServiceDistanceData;
+import de.hybris.platform.commerceservices.storefinder.data.StoreFinderSearchPageData;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import de.hybris.platform.tx.AfterSaveEvent;
+import de.hybris.platform.tx.AfterSaveListener;
+import com.sncustomwebservices.storefinder.PointOfServiceIndex;
+import com.sncustomwebservices.storefinder.PointOfServiceIndexService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link PointOfServiceIndexService}. An index is built per base store on first use and
+ * dropped when a point of service is saved on this node. Indexes also expire after {@link #getTimeToLive()} seconds, so
+ * changes made on other cluster nodes are picked up.
+ */
+public class DefaultPointOfServiceIndexService implements PointOfServiceIndexService, AfterSaveListener
+{
+	private static final Logger LOG = Logger.getLogger(DefaultPointOfServiceIndexService.class);
+	private static final int UNKNOWN_TYPE_CODE = -1;
+
+	private final ConcurrentMap<String, CachedIndex> indexes = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private volatile int pointOfServiceTypeCode = UNKNOWN_TYPE_CODE;
+
+	private ModelService modelService;
+	private int bucketPrecision;
+	private long timeToLive;
+
+	@Override
+	public StoreFinderSearchPageData<PointOfServiceDistanceData> positionSearch(final BaseStoreModel baseStore,
+			final GeoPoint geoPoint, final PageableData pageableData, final double maxRadiusKm)
+	{
+		final List<PointOfServiceIndex.Hit> hits = getIndex(baseStore).findWithinRadius(geoPoint.getLatitude(),
+				geoPoint.getLongitude(), maxRadiusKm);
+		return createSearchPageData(hits, hits.size(), geoPoint, pageableData);
+	}
+
+	@Override
+	public StoreFinderSearchPageData<PointOfServiceDistanceData> nearestSearch(final BaseStoreModel baseStore,
+			final GeoPoint geoPoint, final PageableData pageableData)
+	{
+		final PointOfServiceIndex index = getIndex(baseStore);
+		final int count = (pageableData.getCurrentPage() + 1) * pageableData.getPageSize();
+		final List<PointOfServiceIndex.Hit> hits = index.findNearest(geoPoint.getLatitude(), geoPoint.getLongitude(), count);
+		return createSearchPageData(hits, index.size(), geoPoint, pageableData);
+	}
+
+	@Override
+	public void invalidate()
+	{
+		generation.incrementAndGet();
+		indexes.clear();
+		LOG.debug("Invalidated point of service indexes");
+	}
+
+	@Override
+	public void afterSave(final Collection<AfterSaveEvent> events)
+	{
+		final int typeCode = pointOfServiceTypeCode;
+		if (typeCode == UNKNOWN_TYPE_CODE || indexes.isEmpty())
+		{
+			return;
+		}
+		for (final AfterSaveEvent event : events)
+		{
+			if (event.getPk().getTypeCode() == typeCode)
+			{
+				invalidate();
+				return;
+			}
+		}
+	}
+
+	protected PointOfServiceIndex getIndex(final BaseStoreModel baseStore)
+	{
+		final long currentGeneration = generation.get();
+		final CachedIndex cached = indexes.get(baseStore.getUid());
+		if (isValid(cached, currentGeneration))
+		{
+			return cached.getIndex();
+		}
+
+		// one thread builds the index of a base store outside of the map, the others wait for it
+		final CachedIndex created = new CachedIndex(currentGeneration,
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()));
+		final CachedIndex current = indexes.compute(baseStore.getUid(),
+				(uid, entry) -> isValid(entry, currentGeneration) ? entry : created);
+		if (current == created)
+		{
+			try
+			{
+				created.complete(buildIndex(baseStore));
+			}
+			catch (final RuntimeException e)
+			{
+				indexes.remove(baseStore.getUid(), created);
+				created.fail(e);
+				throw e;
+			}
+		}
+		return current.getIndex();
+	}
+
+	protected PointOfServiceIndex buildIndex(final BaseStoreModel baseStore)
+	{
+		final long start = System.currentTimeMillis();
+		final Collection<PointOfServiceModel> pointsOfService = baseStore.getPointsOfService() == null ? Collections.emptyList()
+				: baseStore.getPointsOfService();
+		final List<PointOfServiceModel> geocoded = new ArrayList<>(pointsOfService.size());
+		for (final PointOfServiceModel pointOfService : pointsOfService)
+		{
+			if (pointOfService.getLatitude() != null && pointOfService.getLongitude() != null)
+			{
+				geocoded.add(pointOfService);
+			}
+		}
+
+		final PK[] pks = new PK[geocoded.size()];
+		final double[] latitudes = new double[geocoded.size()];
+		final double[] longitudes = new double[geocoded.size()];
+		for (int i = 0; i < pks.length; i++)
+		{
+			final PointOfServiceModel pointOfService = geocoded.get(i);
+			pks[i] = pointOfService.getPk();
+			latitudes[i] = pointOfService.getLatitude().doubleValue();
+			longitudes[i] = pointOfService.getLongitude().doubleValue();
+		}
+		if (pks.length > 0)
+		{
+			pointOfServiceTypeCode = pks[0].getTypeCode();
+		}
+
+		final PointOfServiceIndex index = new PointOfServiceIndex(pks, latitudes, longitudes, getBucketPrecision());
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Built point of service index of base store " + baseStore.getUid() + " with " + index.size()
+					+ " points of service in " + (System.currentTimeMillis() - start) + " ms");
+		}
+		return index;
+	}
+
+	protected boolean isValid(final CachedIndex cached, final long currentGeneration)
+	{
+		return cached != null && cached.getGeneration() == currentGeneration
+				&& (getTimeToLive() <= 0 || cached.getExpiresAt() > System.currentTimeMillis());
+	}
+
+	protected StoreFinderSearchPageData<PointOfServiceDistanceData> createSearchPageData(
+			final List<PointOfServiceIndex.Hit> hits, final int totalResults, final GeoPoint geoPoint,
+			final PageableData pageableData)
+	{
+		final int pageSize = Math.max(1, pageableData.getPageSize());
+		final int first = Math.min(hits.size(), pageableData.getCurrentPage() * pageSize);
+		final int last = Math.min(hits.size(), first + pageSize);
+
+		double north = geoPoint.getLatitude();
+		double south = geoPoint.getLatitude();
+		double east = geoPoint.getLongitude();
+		double west = geoPoint.getLongitude();
+		final List<PointOfServiceDistanceData> results = new ArrayList<>(last - first);
+		for (final PointOfServiceIndex.Hit hit : hits.subList(first, last))
+		{
+			final PointOfServiceDistanceData result = new PointOfServiceDistanceData();
+			result.setPointOfService(getModelService().get(hit.getPk()));
+			result.setDistanceKm(hit.getDistanceKm());
+			results.add(result);
+
+			north = Math.max(north, hit.getLatitude());
+			south = Math.min(south, hit.getLatitude());
+			east = Math.max(east, hit.getLongitude());
+			west = Math.min(west, hit.getLongitude());
+		}
+
+		final PaginationData pagination = new PaginationData();
+		pagination.setCurrentPage(pageableData.getCurrentPage());
+		pagination.setPageSize(pageSize);
+		pagination.setSort(pageableData.getSort());
+		pagination.setTotalNumberOfResults(totalResults);
+		pagination.setNumberOfPages((totalResults + pageSize - 1) / pageSize);
+
+		final StoreFinderSearchPageData<PointOfServiceDistanceData> searchPageData = new StoreFinderSearchPageData<>();
+		searchPageData.setResults(results);
+		searchPageData.setPagination(pagination);
+		searchPageData.setSorts(Collections.emptyList());
+		searchPageData.setSourceLatitude(geoPoint.getLatitude());
+		searchPageData.setSourceLongitude(geoPoint.getLongitude());
+		searchPageData.setBoundNorthLatitude(north);
+		searchPageData.setBoundSouthLatitude(south);
+		searchPageData.setBoundEastLongitude(east);
+		searchPageData.setBoundWestLongitude(west);
+		return searchPageData;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected int getBucketPrecision()
+	{
+		return bucketPrecision;
+	}
+
+	/**
+	 * @param bucketPrecision
+	 * 		geohash precision of the index buckets
+	 */
+	@Required
+	public void setBucketPrecision(final int bucketPrecision)
+	{
+		this.bucketPrecision = bucketPrecision;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which an index is rebuilt, 0 or less to keep it until a point of service is saved
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected static class CachedIndex
+	{
+		private final CompletableFuture<PointOfServiceIndex> index = new CompletableFuture<>();
+		private final long generation;
+		private final long expiresAt;
+
+		protected CachedIndex(final long generation, final long expiresAt)
+		{
+			this.generation = generation;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * @return the index, waiting for it while it is built
+		 */
+		public PointOfServiceIndex getIndex()
+		{
+			try
+			{
+				return index.join();
+			}
+			catch (final CompletionException e)
+			{
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+		}
+
+		public void complete(final PointOfServiceIndex result)
+		{
+			index.complete(result);
+		}
+
+		public void fail(final RuntimeException cause)
+		{
+			index.completeExceptionally(cause);
+		}
+
+		public long getGeneration()
+		{
+			return generation;
+		}
+
+		public long getExpiresAt()
+		{
+			return expiresAt;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.user;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.UserModel;
+
+import java.util.function.Function;
+
+
+/**
+ * Caches the user an authenticated principal addresses with a property such as uid, email or customer id, so repeated
+ * requests of the same principal do not search for the user again. Only the PK of the user is cached, the user itself
+ * is loaded for every request. Entries of a user are dropped when the user is saved or removed.
+ */
+public interface UserResolutionCache
+{
+	/**
+	 * Returns the user the given property resolves to for the given principal.
+	 *
+	 * @param principal
+	 * 		name of the authenticated principal
+	 * @param property
+	 * 		uid, email, customer id or another property identifying the user
+	 * @param resolver
+	 * 		resolves the property to a user when it is not cached, its exceptions are not cached and passed to the caller
+	 * @return the user
+	 */
+	UserModel getUser(String principal, String property, Function<String, UserModel> resolver);
+
+	/**
+	 * Drops all entries resolving to a user.
+	 *
+	 * @param userPk
+	 * 		PK of the user
+	 */
+	void invalidate(PK userPk);
+
+	/**
+	 * Drops all entries.
+	 */
+	void invalidateAll();
+
+	/**
+	 * @return number of users served from the cache since startup
+	 */
+	long getHitCount();
+
+	/**
+	 * @return number of users that had to be resolved since startup
+	 */
+	long getMissCount();
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.user.impl;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.CustomerModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.jalo.type.TypeManager;
+import de.hybris.platform.servicelayer.exceptions.ModelLoadingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.tx.AfterSaveEvent;
+import de.hybris.platform.tx.AfterSaveListener;
+import com.sncustomwebservices.user.UserResolutionCache;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link UserResolutionCache}. Entries are dropped when their user is saved or removed on
+ * this node, which covers login changes and deactivation, and expire after {@link #getTimeToLive()} seconds, so changes
+ * made on other cluster nodes are picked up. A cached user that no longer carries the property it was resolved by, or
+ * that was deactivated meanwhile, is resolved again, so the caller sees the same users and exceptions as without the
+ * cache.
+ */
+public class DefaultUserResolutionCache implements UserResolutionCache, AfterSaveListener
+{
+	private static final Logger LOG = Logger.getLogger(DefaultUserResolutionCache.class);
+	private static final int UNKNOWN_TYPE_CODE = -1;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile int userTypeCode = UNKNOWN_TYPE_CODE;
+
+	private ModelService modelService;
+	private boolean enabled = true;
+	private long timeToLive;
+	private int maxEntries;
+
+	@Override
+	public UserModel getUser(final String principal, final String property, final Function<String, UserModel> resolver)
+	{
+		if (!isEnabled())
+		{
+			return resolver.apply(property);
+		}
+
+		final String key = principal + '|' + property;
+		final Entry entry = entries.get(key);
+		if (entry != null && entry.expiresAt > System.currentTimeMillis())
+		{
+			final UserModel user = load(entry.userPk);
+			if (user != null && isValid(user, property))
+			{
+				hits.increment();
+				return user;
+			}
+			entries.remove(key, entry);
+		}
+
+		misses.increment();
+		final long loadGeneration = generation.get();
+		final UserModel user = resolver.apply(property);
+		if (user != null && user.getPk() != null)
+		{
+			put(key, user.getPk(), loadGeneration);
+		}
+		return user;
+	}
+
+	@Override
+	public void invalidate(final PK userPk)
+	{
+		generation.incrementAndGet();
+		entries.values().removeIf(entry -> entry.userPk.equals(userPk));
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Invalidated resolved users of " + userPk);
+		}
+	}
+
+	@Override
+	public void invalidateAll()
+	{
+		generation.incrementAndGet();
+		entries.clear();
+		LOG.debug("Invalidated all resolved users");
+	}
+
+	@Override
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	@Override
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	@Override
+	public void afterSave(final Collection<AfterSaveEvent> events)
+	{
+		if (entries.isEmpty())
+		{
+			return;
+		}
+		final int typeCode = getUserTypeCode();
+		for (final AfterSaveEvent event : events)
+		{
+			if (event.getPk().getTypeCode() == typeCode)
+			{
+				invalidate(event.getPk());
+			}
+		}
+	}
+
+	protected UserModel load(final PK userPk)
+	{
+		try
+		{
+			return getModelService().get(userPk);
+		}
+		catch (final ModelLoadingException e)
+		{
+			LOG.debug("Cached user " + userPk + " could not be loaded", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Checks that a cached user is still active and still carries the property it was resolved by.
+	 */
+	protected boolean isValid(final UserModel user, final String property)
+	{
+		final Date deactivationDate = user.getDeactivationDate();
+		if (user.isLoginDisabled() || (deactivationDate != null && !deactivationDate.after(new Date())))
+		{
+			return false;
+		}
+		if (property.equalsIgnoreCase(user.getUid()))
+		{
+			return true;
+		}
+		if (user instanceof CustomerModel)
+		{
+			final CustomerModel customer = (CustomerModel) user;
+			return property.equals(customer.getCustomerID()) || property.equalsIgnoreCase(customer.getOriginalUid())
+					|| property.equalsIgnoreCase(customer.getContactEmail());
+		}
+		return false;
+	}
+
+	protected void put(final String key, final PK userPk, final long loadGeneration)
+	{
+		if (getMaxEntries() > 0 && entries.size() >= getMaxEntries() && !entries.containsKey(key))
+		{
+			LOG.info("User resolution cache reached " + getMaxEntries() + " entries, clearing it");
+			invalidateAll();
+			return;
+		}
+
+		final Entry entry = new Entry(userPk, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()));
+		entries.put(key, entry);
+		// a user changed while resolving, the resolved user may already be stale
+		if (generation.get() != loadGeneration)
+		{
+			entries.remove(key, entry);
+		}
+	}
+
+	protected int getUserTypeCode()
+	{
+		if (userTypeCode == UNKNOWN_TYPE_CODE)
+		{
+			userTypeCode = TypeManager.getInstance().getComposedType(UserModel._TYPECODE).getItemTypeCode();
+		}
+		return userTypeCode;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @param enabled
+	 * 		false to resolve the user of every request
+	 */
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which a user is resolved again
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		number of entries after which the cache is cleared, 0 or less for no limit
+	 */
+	public void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+
+	protected static class Entry
+	{
+		private final PK userPk;
+		private final long expiresAt;
+
+		protected Entry(final PK userPk, final long expiresAt)
+		{
+			this.userPk = userPk;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
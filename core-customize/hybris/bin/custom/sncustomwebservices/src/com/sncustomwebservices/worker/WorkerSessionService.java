@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.worker;
+
+import de.hybris.platform.core.model.user.UserModel;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+
+/**
+ * Runs work handed to background threads. Worker threads have no session of their own, and a session left on a pooled
+ * thread would leak the user, site and cart of one task into the next, so every task runs in a new session that is
+ * closed afterwards.
+ */
+public interface WorkerSessionService
+{
+	/**
+	 * @return a thread factory creating threads of the current tenant, to be used by the executors of background work
+	 */
+	ThreadFactory createThreadFactory();
+
+	/**
+	 * Runs the body in a new session as the given user. Session attributes like the base site or language are not taken
+	 * over from the calling thread, the body has to set them.
+	 *
+	 * @param user
+	 * 		user of the new session
+	 * @param body
+	 * 		work to run
+	 */
+	void runInNewSession(UserModel user, Runnable body);
+
+	/**
+	 * Runs the body in a new session as the given user and returns its result, see
+	 * {@link #runInNewSession(UserModel, Runnable)}.
+	 *
+	 * @param user
+	 * 		user of the new session
+	 * @param body
+	 * 		work to run
+	 * @return the result of the body
+	 */
+	<T> T callInNewSession(UserModel user, Supplier<T> body);
+}
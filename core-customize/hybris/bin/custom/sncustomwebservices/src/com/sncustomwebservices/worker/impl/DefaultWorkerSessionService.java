@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.worker.impl;
+
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionExecutionBody;
+import de.hybris.platform.servicelayer.session.SessionService;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link WorkerSessionService}, running the body in a local view of a new session of the
+ * {@link SessionService}.
+ */
+public class DefaultWorkerSessionService implements WorkerSessionService
+{
+	private SessionService sessionService;
+
+	@Override
+	public ThreadFactory createThreadFactory()
+	{
+		return new TenantAwareThreadFactory(Registry.getCurrentTenant());
+	}
+
+	@Override
+	public void runInNewSession(final UserModel user, final Runnable body)
+	{
+		callInNewSession(user, () -> {
+			body.run();
+			return null;
+		});
+	}
+
+	@Override
+	public <T> T callInNewSession(final UserModel user, final Supplier<T> body)
+	{
+		final Session session = getSessionService().createNewSession();
+		try
+		{
+			return getSessionService().executeInLocalView(new SessionExecutionBody()
+			{
+				@Override
+				public T execute()
+				{
+					return body.get();
+				}
+			}, user);
+		}
+		finally
+		{
+			getSessionService().closeSession(session);
+		}
+	}
+
+	protected SessionService getSessionService()
+	{
+		return sessionService;
+	}
+
+	@Required
+	public void setSessionService(final SessionService sessionService)
+	{
+		this.sessionService = sessionService;
+	}
+}
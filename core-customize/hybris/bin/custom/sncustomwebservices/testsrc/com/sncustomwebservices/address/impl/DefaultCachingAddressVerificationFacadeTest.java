@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.address.impl;
+
+import static org.mockito.BDDMockito.given;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.address.data.AddressVerificationResult;
+import de.hybris.platform.commercefacades.user.data.AddressData;
+import de.hybris.platform.commercefacades.user.data.CountryData;
+import de.hybris.platform.commerceservices.address.AddressVerificationDecision;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.servicelayer.i18n.CommonI18NService;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultCachingAddressVerificationFacadeTest
+{
+	@Mock
+	private CommonI18NService commonI18NService;
+	@Mock
+	private LanguageModel language;
+
+	private final LocalAddressVerificationFacade delegate = new LocalAddressVerificationFacade();
+	private DefaultCachingAddressVerificationFacade facade;
+
+	@Before
+	public void setUp()
+	{
+		given(language.getIsocode()).willReturn("en");
+		given(commonI18NService.getCurrentLanguage()).willReturn(language);
+
+		facade = new DefaultCachingAddressVerificationFacade();
+		facade.setAddressVerificationFacade(delegate);
+		facade.setCommonI18NService(commonI18NService);
+		facade.setTimeToLive(60);
+	}
+
+	@Test
+	public void testSameNormalizedAddressIsVerifiedOnce()
+	{
+		final AddressData first = address("10115", "Berlin", "Friedrichstrasse 1");
+		first.setFirstName("Max");
+		final AddressData edited = address("10 115", " BERLIN", "friedrichstrasse   1");
+		edited.setFirstName("Moritz");
+
+		final AddressVerificationResult<AddressVerificationDecision> result = facade.verifyAddressData(first);
+		final AddressVerificationResult<AddressVerificationDecision> cached = facade.verifyAddressData(edited);
+
+		Assert.assertNotSame(result, cached);
+		Assert.assertEquals(AddressVerificationDecision.ACCEPT, result.getDecision());
+		Assert.assertEquals(AddressVerificationDecision.ACCEPT, cached.getDecision());
+		Assert.assertEquals(1, delegate.getVerificationCount());
+		Assert.assertEquals(1, facade.getHitCount());
+		Assert.assertEquals(1, facade.getMissCount());
+	}
+
+	@Test
+	public void testCachedSuggestionsKeepTheCallersPersonalData()
+	{
+		final AddressData suggestion = address("10117", "Berlin", "Friedrichstrasse 1");
+		suggestion.setFirstName("Max");
+		suggestion.setPhone("+49 30 1234");
+		facade.setAddressVerificationFacade(new LocalAddressVerificationFacade()
+		{
+			@Override
+			public AddressVerificationResult<AddressVerificationDecision> verifyAddressData(final AddressData addressData)
+			{
+				final AddressVerificationResult<AddressVerificationDecision> result = super.verifyAddressData(addressData);
+				result.setDecision(AddressVerificationDecision.REVIEW);
+				result.setSuggestedAddresses(Collections.singletonList(suggestion));
+				return result;
+			}
+		});
+		final AddressData first = address("10115", "Berlin", "Friedrichstrasse 1");
+		first.setFirstName("Max");
+		final AddressData second = address("10115", "Berlin", "Friedrichstrasse 1");
+		second.setFirstName("Moritz");
+
+		facade.verifyAddressData(first);
+		final AddressData cachedSuggestion = facade.verifyAddressData(second).getSuggestedAddresses().get(0);
+
+		Assert.assertEquals(1, facade.getHitCount());
+		Assert.assertEquals("Moritz", cachedSuggestion.getFirstName());
+		Assert.assertNull(cachedSuggestion.getPhone());
+		Assert.assertEquals("10117", cachedSuggestion.getPostalCode());
+	}
+
+	@Test
+	public void testDifferentAddressIsVerifiedAgain()
+	{
+		facade.verifyAddressData(address("10115", "Berlin", "Friedrichstrasse 1"));
+		final AddressVerificationResult<AddressVerificationDecision> result = facade.verifyAddressData(
+				address("", "Berlin", "Friedrichstrasse 1"));
+
+		Assert.assertEquals(AddressVerificationDecision.REJECT, result.getDecision());
+		Assert.assertTrue(result.getErrors().containsKey("postalCode"));
+		Assert.assertEquals(2, delegate.getVerificationCount());
+		Assert.assertEquals(0, facade.getHitCount());
+	}
+
+	@Test
+	public void testExpiredResultIsVerifiedAgain()
+	{
+		facade.setTimeToLive(0);
+
+		facade.verifyAddressData(address("10115", "Berlin", "Friedrichstrasse 1"));
+		facade.verifyAddressData(address("10115", "Berlin", "Friedrichstrasse 1"));
+
+		Assert.assertEquals(2, delegate.getVerificationCount());
+	}
+
+	@Test
+	public void testCacheIsClearedWhenFull()
+	{
+		facade.setMaxEntries(1);
+
+		facade.verifyAddressData(address("10115", "Berlin", "Friedrichstrasse 1"));
+		facade.verifyAddressData(address("80331", "Munich", "Marienplatz 1"));
+		facade.verifyAddressData(address("10115", "Berlin", "Friedrichstrasse 1"));
+
+		Assert.assertEquals(3, delegate.getVerificationCount());
+	}
+
+	private static AddressData address(final String postalCode, final String town, final String line1)
+	{
+		final CountryData country = new CountryData();
+		country.setIsocode("DE");
+		final AddressData address = new AddressData();
+		address.setCountry(country);
+		address.setPostalCode(postalCode);
+		address.setTown(town);
+		address.setLine1(line1);
+		return address;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.catalog.data.CategoryHierarchyData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+@UnitTest
+public class CategoryTreeSnapshotTest
+{
+	private CategoryTreeSnapshot snapshot;
+
+	@Before
+	public void setUp()
+	{
+		// cameras -> (digital -> (compact, dslr), film), accessories
+		final CategoryHierarchyData digital = category("digital", category("compact"), category("dslr"));
+		final CategoryHierarchyData cameras = category("cameras", digital, category("film"));
+		snapshot = CategoryTreeSnapshot.create(Arrays.asList(cameras, category("accessories")));
+	}
+
+	@Test
+	public void testStructure()
+	{
+		Assert.assertEquals(7, snapshot.size());
+		Assert.assertEquals(2, snapshot.getRootCount());
+		Assert.assertEquals(CategoryTreeSnapshot.NOT_FOUND, snapshot.getParent(snapshot.indexOf("cameras")));
+		Assert.assertEquals(snapshot.indexOf("digital"), snapshot.getParent(snapshot.indexOf("dslr")));
+		Assert.assertEquals(CategoryTreeSnapshot.NOT_FOUND, snapshot.indexOf("unknown"));
+		Assert.assertEquals(3, snapshot.getHeight(snapshot.indexOf("cameras")));
+		Assert.assertEquals(1, snapshot.getHeight(snapshot.indexOf("accessories")));
+	}
+
+	@Test
+	public void testRenderUnlimited()
+	{
+		final CategoryHierarchyData cameras = snapshot.render(snapshot.indexOf("cameras"), CategoryTreeSnapshot.UNLIMITED_DEPTH);
+
+		Assert.assertEquals("cameras", cameras.getId());
+		Assert.assertEquals("cameras name", cameras.getName());
+		Assert.assertEquals(2, cameras.getSubcategories().size());
+		final CategoryHierarchyData digital = cameras.getSubcategories().get(0);
+		Assert.assertEquals("digital", digital.getId());
+		Assert.assertEquals("compact", digital.getSubcategories().get(0).getId());
+		Assert.assertEquals("dslr", digital.getSubcategories().get(1).getId());
+		Assert.assertTrue(digital.getSubcategories().get(0).getSubcategories().isEmpty());
+		Assert.assertEquals(4, snapshot.getRecurrencyLevel(snapshot.indexOf("cameras"), CategoryTreeSnapshot.UNLIMITED_DEPTH));
+	}
+
+	@Test
+	public void testRenderLimitedDepth()
+	{
+		final int index = snapshot.indexOf("cameras");
+		final CategoryHierarchyData cameras = snapshot.render(index, 1);
+
+		Assert.assertEquals(2, cameras.getSubcategories().size());
+		Assert.assertTrue(cameras.getSubcategories().get(0).getSubcategories().isEmpty());
+		Assert.assertEquals(3, snapshot.getRecurrencyLevel(index, 1));
+
+		Assert.assertTrue(snapshot.render(index, 0).getSubcategories().isEmpty());
+		Assert.assertEquals(2, snapshot.getRecurrencyLevel(index, 0));
+	}
+
+	@Test
+	public void testRenderRoots()
+	{
+		final List<CategoryHierarchyData> roots = snapshot.renderRoots(CategoryTreeSnapshot.UNLIMITED_DEPTH);
+
+		Assert.assertEquals(2, roots.size());
+		Assert.assertEquals("accessories", roots.get(1).getId());
+		Assert.assertEquals(4, snapshot.getRootsRecurrencyLevel(CategoryTreeSnapshot.UNLIMITED_DEPTH));
+		Assert.assertEquals(1, CategoryTreeSnapshot.create(null).getRootsRecurrencyLevel(CategoryTreeSnapshot.UNLIMITED_DEPTH));
+	}
+
+	protected static CategoryHierarchyData category(final String id, final CategoryHierarchyData... subcategories)
+	{
+		final CategoryHierarchyData category = new CategoryHierarchyData();
+		category.setId(id);
+		category.setName(id + " name");
+		category.setUrl("/electronics/catalogs/electronicsProductCatalog/Online/categories/" + id);
+		category.setSubcategories(new ArrayList<>(Arrays.asList(subcategories)));
+		return category;
+	}
+}
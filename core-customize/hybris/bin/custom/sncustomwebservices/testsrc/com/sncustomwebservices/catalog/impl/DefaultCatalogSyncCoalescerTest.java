@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.catalog.model.SyncItemJobModel;
+import de.hybris.platform.catalog.synchronization.CatalogSynchronizationService;
+import de.hybris.platform.catalog.synchronization.SyncResult;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.cronjob.model.CronJobModel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
+import com.sncustomwebservices.catalog.CatalogSyncBatchStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultCatalogSyncCoalescerTest
+{
+	@Mock
+	private CatalogSynchronizationService catalogSynchronizationService;
+	@Mock
+	private ModelService modelService;
+	@Mock
+	private SyncItemJobModel syncJob;
+	@Mock
+	private SyncResult syncResult;
+	@Mock
+	private CronJobModel cronJob;
+
+	private DefaultCatalogSyncCoalescer coalescer;
+
+	@Before
+	public void setUp()
+	{
+		given(syncJob.getPk()).willReturn(PK.fromLong(100));
+		given(syncJob.getCode()).willReturn("sync productCatalog:Staged->Online");
+		given(modelService.get(PK.fromLong(100))).willReturn(syncJob);
+		given(cronJob.getCode()).willReturn("cronJob1");
+		given(syncResult.getCronJob()).willReturn(cronJob);
+		given(syncResult.isSuccessful()).willReturn(Boolean.TRUE);
+		given(catalogSynchronizationService.performSynchronization(anyList(), eq(syncJob), any())).willReturn(syncResult);
+
+		// batches run on the worker without a session
+		coalescer = new DefaultCatalogSyncCoalescer()
+		{
+			@Override
+			protected ScheduledThreadPoolExecutor createExecutor()
+			{
+				final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+				executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+				return executor;
+			}
+
+			@Override
+			protected void runInSession(final CatalogSyncBatch batch)
+			{
+				run(batch);
+			}
+		};
+		coalescer.setCatalogSynchronizationService(catalogSynchronizationService);
+		coalescer.setModelService(modelService);
+		coalescer.setBatchSize(3);
+		coalescer.setBatchWindow(60000);
+		coalescer.setTimeToLive(60);
+		coalescer.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException
+	{
+		coalescer.destroy();
+	}
+
+	@Test
+	public void testFullBatchIsSynchronizedOnce() throws InterruptedException
+	{
+		final CatalogSyncBatch first = coalescer.enqueue(syncJob, Collections.singletonList(product(1)));
+		coalescer.enqueue(syncJob, Collections.singletonList(product(1)));
+		coalescer.enqueue(syncJob, Collections.singletonList(product(2)));
+		Assert.assertEquals(CatalogSyncBatchStatus.OPEN, first.getStatus());
+		verify(catalogSynchronizationService, never()).performSynchronization(anyList(), any(), any());
+
+		final CatalogSyncBatch last = coalescer.enqueue(syncJob, Collections.singletonList(product(3)));
+		final CatalogSyncBatch next = coalescer.enqueue(syncJob, Collections.singletonList(product(4)));
+		awaitFinished(first);
+
+		Assert.assertSame(first, last);
+		Assert.assertNotSame(first, next);
+		Assert.assertEquals(CatalogSyncBatchStatus.COMPLETED, first.getStatus());
+		Assert.assertEquals("cronJob1", first.getCronJobCode());
+		Assert.assertEquals(3, first.getItemCount());
+		Assert.assertSame(first, coalescer.getBatch(first.getBatchId()));
+		Assert.assertSame(first, coalescer.getLatestBatch(PK.fromLong(2)));
+		Assert.assertSame(next, coalescer.getLatestBatch(PK.fromLong(4)));
+
+		final ArgumentCaptor<List> items = ArgumentCaptor.forClass(List.class);
+		verify(catalogSynchronizationService, times(1)).performSynchronization(items.capture(), eq(syncJob), any());
+		Assert.assertEquals(3, items.getValue().size());
+	}
+
+	@Test
+	public void testOnlyProductsCountTowardsBatchSize() throws InterruptedException
+	{
+		final CatalogSyncBatch batch = coalescer.enqueue(syncJob, Arrays.asList(media(11), media(12), product(1)));
+		coalescer.enqueue(syncJob, Collections.singletonList(product(2)));
+		Assert.assertEquals(CatalogSyncBatchStatus.OPEN, batch.getStatus());
+		Assert.assertEquals(4, batch.getItemCount());
+		Assert.assertEquals(2, batch.getProductCount());
+
+		coalescer.enqueue(syncJob, Arrays.asList(media(13), product(3)));
+		awaitFinished(batch);
+
+		Assert.assertEquals(CatalogSyncBatchStatus.COMPLETED, batch.getStatus());
+		Assert.assertEquals(6, batch.getItemCount());
+		Assert.assertEquals(3, batch.getProductCount());
+		verify(catalogSynchronizationService, times(1)).performSynchronization(anyList(), eq(syncJob), any());
+	}
+
+	@Test
+	public void testBatchIsSynchronizedAfterWindow() throws InterruptedException
+	{
+		coalescer.setBatchWindow(0);
+
+		final CatalogSyncBatch batch = coalescer.enqueue(syncJob, Arrays.asList(product(1), product(2)));
+		awaitFinished(batch);
+
+		Assert.assertEquals(CatalogSyncBatchStatus.COMPLETED, batch.getStatus());
+		verify(catalogSynchronizationService, times(1)).performSynchronization(anyList(), eq(syncJob), any());
+	}
+
+	@Test
+	public void testFailedSynchronizationIsReported() throws InterruptedException
+	{
+		coalescer.setBatchWindow(0);
+		given(syncResult.isSuccessful()).willReturn(Boolean.FALSE);
+
+		final CatalogSyncBatch batch = coalescer.enqueue(syncJob, Collections.singletonList(product(1)));
+		awaitFinished(batch);
+
+		Assert.assertEquals(CatalogSyncBatchStatus.FAILED, batch.getStatus());
+		Assert.assertEquals("SynchronizationError", batch.getErrorType());
+	}
+
+	private ProductModel product(final long pk)
+	{
+		final ProductModel product = mock(ProductModel.class);
+		given(product.getPk()).willReturn(PK.fromLong(pk));
+		given(modelService.get(PK.fromLong(pk))).willReturn(product);
+		return product;
+	}
+
+	private MediaModel media(final long pk)
+	{
+		final MediaModel media = mock(MediaModel.class);
+		given(media.getPk()).willReturn(PK.fromLong(pk));
+		given(modelService.get(PK.fromLong(pk))).willReturn(media);
+		return media;
+	}
+
+	private static void awaitFinished(final CatalogSyncBatch batch) throws InterruptedException
+	{
+		final long timeout = System.currentTimeMillis() + 10000;
+		while (!batch.isFinished() && System.currentTimeMillis() < timeout)
+		{
+			Thread.sleep(10);
+		}
+	}
+}
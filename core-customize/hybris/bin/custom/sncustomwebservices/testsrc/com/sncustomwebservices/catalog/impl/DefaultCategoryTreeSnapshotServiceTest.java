@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.catalog.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.catalog.CatalogFacade;
+import de.hybris.platform.commercefacades.catalog.data.CatalogVersionData;
+import de.hybris.platform.commercefacades.catalog.data.CategoryHierarchyData;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.user.CustomerModel;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.servicelayer.i18n.CommonI18NService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCategoryTreeSnapshotServiceTest
+{
+	private static final String CATALOG_ID = "electronicsProductCatalog";
+	private static final String CATALOG_VERSION_ID = "Online";
+
+	@Mock
+	private CatalogFacade catalogFacade;
+	@Mock
+	private BaseSiteService baseSiteService;
+	@Mock
+	private CommonI18NService commonI18NService;
+	@Mock
+	private BaseSiteModel baseSite;
+	@Mock
+	private LanguageModel language;
+	@Mock
+	private UserService userService;
+	@Mock
+	private CustomerModel customer;
+	@Mock
+	private CustomerModel employee;
+
+	private DefaultCategoryTreeSnapshotService service;
+
+	@Before
+	public void setUp()
+	{
+		final CategoryHierarchyData root = new CategoryHierarchyData();
+		root.setId("cameras");
+		root.setSubcategories(new ArrayList<>());
+		final CatalogVersionData catalogVersion = new CatalogVersionData();
+		catalogVersion.setCategoriesHierarchyData(Collections.singletonList(root));
+
+		given(catalogFacade.getProductCatalogVersionForTheCurrentSite(eq(CATALOG_ID), eq(CATALOG_VERSION_ID), any()))
+				.willReturn(catalogVersion);
+		given(baseSiteService.getCurrentBaseSite()).willReturn(baseSite);
+		given(baseSite.getUid()).willReturn("electronics");
+		given(commonI18NService.getCurrentLanguage()).willReturn(language);
+		given(language.getIsocode()).willReturn("en");
+		given(userService.getCurrentUser()).willReturn(customer);
+		given(userService.getAllUserGroupsForUser(customer)).willReturn(userGroups("customergroup"));
+		given(userService.getAllUserGroupsForUser(employee)).willReturn(userGroups("customergroup", "employeegroup"));
+
+		service = new DefaultCategoryTreeSnapshotService();
+		service.setCatalogFacade(catalogFacade);
+		service.setBaseSiteService(baseSiteService);
+		service.setCommonI18NService(commonI18NService);
+		service.setUserService(userService);
+	}
+
+	@Test
+	public void testSnapshotIsReused()
+	{
+		final CategoryTreeSnapshot snapshot = service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID);
+
+		Assert.assertSame(snapshot, service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID));
+		Assert.assertEquals(0, snapshot.indexOf("cameras"));
+		verify(catalogFacade, times(1)).getProductCatalogVersionForTheCurrentSite(eq(CATALOG_ID), eq(CATALOG_VERSION_ID), any());
+	}
+
+	@Test
+	public void testSnapshotIsRebuiltAfterInvalidation()
+	{
+		final CategoryTreeSnapshot snapshot = service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID);
+		service.invalidate(CATALOG_ID, "Staged");
+
+		Assert.assertSame(snapshot, service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID));
+
+		service.invalidate(CATALOG_ID, CATALOG_VERSION_ID);
+
+		Assert.assertNotSame(snapshot, service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID));
+		verify(catalogFacade, times(2)).getProductCatalogVersionForTheCurrentSite(eq(CATALOG_ID), eq(CATALOG_VERSION_ID), any());
+	}
+
+	@Test
+	public void testSnapshotsAreKeptPerUserGroups()
+	{
+		final CategoryTreeSnapshot snapshot = service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID);
+		given(userService.getCurrentUser()).willReturn(employee);
+
+		Assert.assertNotSame(snapshot, service.getSnapshot(CATALOG_ID, CATALOG_VERSION_ID));
+		verify(catalogFacade, times(2)).getProductCatalogVersionForTheCurrentSite(eq(CATALOG_ID), eq(CATALOG_VERSION_ID), any());
+	}
+
+	private static HashSet<UserGroupModel> userGroups(final String... uids)
+	{
+		final HashSet<UserGroupModel> userGroups = new HashSet<>();
+		for (final String uid : uids)
+		{
+			final UserGroupModel userGroup = new UserGroupModel();
+			userGroup.setUid(uid);
+			userGroups.add(userGroup);
+		}
+		return userGroups;
+	}
+}
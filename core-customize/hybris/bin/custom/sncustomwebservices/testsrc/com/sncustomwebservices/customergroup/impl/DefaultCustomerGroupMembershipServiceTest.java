@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.customergroup.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.security.PrincipalGroupModel;
+import de.hybris.platform.core.model.user.UserGroupModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.user.UserService;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipDiff;
+import com.sncustomwebservices.dao.CustomerGroupMembershipDao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultCustomerGroupMembershipServiceTest
+{
+	private static final String GROUP_UID = "CustomerForSiteA";
+
+	@Mock
+	private CustomerGroupMembershipDao customerGroupMembershipDao;
+	@Mock
+	private UserService userService;
+	@Mock
+	private ModelService modelService;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	@Mock
+	private UserGroupModel group;
+
+	private final Map<PK, UserModel> users = new HashMap<>();
+	private DefaultCustomerGroupMembershipService service;
+
+	@Before
+	public void setUp()
+	{
+		given(userService.getUserGroupForUID(GROUP_UID)).willReturn(group);
+		given(customerGroupMembershipDao.findUsers(anyCollection())).willAnswer(invocation -> {
+			final List<UserModel> found = new ArrayList<>();
+			invocation.<Collection<PK>> getArgument(0).forEach(pk -> found.add(users.get(pk)));
+			return found;
+		});
+
+		service = new DefaultCustomerGroupMembershipService();
+		service.setCustomerGroupMembershipDao(customerGroupMembershipDao);
+		service.setUserService(userService);
+		service.setModelService(modelService);
+		service.setTransactionTemplate(new TransactionTemplate(transactionManager));
+		service.setBatchSize(2);
+	}
+
+	@Test
+	public void testDiffContainsChangedUsersOnly()
+	{
+		given(customerGroupMembershipDao.findMemberPks(group)).willReturn(new HashSet<>(Arrays.asList(pk(1), pk(2))));
+
+		final CustomerGroupMembershipDiff diff = service.computeDiff(GROUP_UID, Arrays.asList(pk(2), pk(3)));
+
+		Assert.assertEquals(Collections.singleton(pk(3)), diff.getUsersToAdd());
+		Assert.assertEquals(Collections.singleton(pk(1)), diff.getUsersToRemove());
+		Assert.assertEquals(2, diff.size());
+	}
+
+	@Test
+	public void testDiffIsAppliedInBatches()
+	{
+		final UserModel removed = user(1, group);
+		final Set<PK> usersToAdd = new HashSet<>(Arrays.asList(pk(2), pk(3), pk(4)));
+		usersToAdd.forEach(pk -> user(pk.getLongValue()));
+		final List<Integer> progress = new ArrayList<>();
+
+		service.applyDiff(new CustomerGroupMembershipDiff(GROUP_UID, usersToAdd, Collections.singleton(pk(1))), progress::add);
+
+		Assert.assertEquals(Arrays.asList(1, 3, 4), progress);
+		verify(transactionManager, times(3)).commit(any());
+		verify(modelService, times(3)).saveAll(anyCollection());
+		Assert.assertTrue(removed.getGroups().isEmpty());
+		for (final PK pk : usersToAdd)
+		{
+			Assert.assertEquals(Collections.singleton(group), users.get(pk).getGroups());
+		}
+	}
+
+	@Test
+	public void testReplacementIsOnlyAppliedIfAccepted()
+	{
+		given(customerGroupMembershipDao.findMemberPks(group)).willReturn(new HashSet<>(Collections.singleton(pk(1))));
+		final UserModel added = user(2);
+
+		final CustomerGroupMembershipDiff rejected = service.replaceMembers(GROUP_UID, Arrays.asList(pk(1), pk(2)),
+				diff -> false, progress -> Assert.fail("not applied"));
+		Assert.assertEquals(1, rejected.size());
+		Assert.assertTrue(added.getGroups().isEmpty());
+
+		final List<Integer> progress = new ArrayList<>();
+		service.replaceMembers(GROUP_UID, Arrays.asList(pk(1), pk(2)), diff -> diff.size() == 1, progress::add);
+		Assert.assertEquals(Collections.singletonList(1), progress);
+		Assert.assertEquals(Collections.singleton(group), added.getGroups());
+	}
+
+	private UserModel user(final long pk, final PrincipalGroupModel... groups)
+	{
+		final UserModel user = new UserModel();
+		user.setGroups(new HashSet<>(Arrays.asList(groups)));
+		users.put(pk(pk), user);
+		return user;
+	}
+
+	private static PK pk(final long value)
+	{
+		return PK.fromLong(value);
+	}
+}
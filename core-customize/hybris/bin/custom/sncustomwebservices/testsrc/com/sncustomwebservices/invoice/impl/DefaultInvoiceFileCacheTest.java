@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.invoice.InvoiceDocument;
+import com.sncustomwebservices.invoice.InvoiceFileCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+@UnitTest
+public class DefaultInvoiceFileCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger loads = new AtomicInteger();
+	private DefaultInvoiceFileCache cache;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		cache = new DefaultInvoiceFileCache();
+		cache.setDirectory(folder.getRoot().getAbsolutePath());
+		cache.setMaxBytes(20);
+		cache.setTimeToLive(60);
+		cache.afterPropertiesSet();
+	}
+
+	@Test
+	public void testDocumentIsLoadedOnce() throws IOException
+	{
+		Assert.assertEquals("first invoice", read(cache.getDocument("a", loader("first invoice"))));
+		Assert.assertEquals("first invoice", read(cache.getDocument("a", loader("changed"))));
+		Assert.assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void testExpiredKeyIsLoadedAgain() throws IOException
+	{
+		cache.setTimeToLive(0);
+
+		Assert.assertEquals("first invoice", read(cache.getDocument("a", loader("first invoice"))));
+		Assert.assertEquals("reissued", read(cache.getDocument("a", loader("reissued"))));
+		Assert.assertEquals(2, loads.get());
+		Assert.assertEquals(1, countDocuments());
+	}
+
+	@Test
+	public void testSameContentIsStoredOnce() throws IOException
+	{
+		try (final InvoiceDocument first = cache.getDocument("a", loader("invoice"));
+				final InvoiceDocument second = cache.getDocument("b", loader("invoice")))
+		{
+			Assert.assertEquals(first.getContentHash(), second.getContentHash());
+		}
+		Assert.assertEquals(1, countDocuments());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedDocumentIsEvicted() throws IOException
+	{
+		cache.getDocument("a", loader("0123456789")).close();
+		cache.getDocument("b", loader("abcdefghij")).close();
+		cache.getDocument("a", loader("0123456789")).close();
+		cache.getDocument("c", loader("ABCDEFGHIJ")).close();
+
+		Assert.assertEquals(3, loads.get());
+		Assert.assertEquals("0123456789", read(cache.getDocument("a", loader("reloaded"))));
+		Assert.assertEquals("reloaded", read(cache.getDocument("b", loader("reloaded"))));
+		Assert.assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void testOversizedDocumentIsNotCached() throws IOException
+	{
+		Assert.assertEquals("a document larger than the cache",
+				read(cache.getDocument("a", loader("a document larger than the cache"))));
+		Assert.assertEquals(0, countDocuments());
+		Assert.assertEquals(0, folder.getRoot().listFiles().length);
+	}
+
+	@Test
+	public void testMissingDocumentIsNotCached() throws IOException
+	{
+		final InvoiceFileCache.InvoiceLoader missing = () -> null;
+
+		Assert.assertNull(cache.getDocument("a", missing));
+		Assert.assertNull(cache.getDocument("b", loader("")));
+	}
+
+	private InvoiceFileCache.InvoiceLoader loader(final String content)
+	{
+		return () -> {
+			loads.incrementAndGet();
+			return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private long countDocuments() throws IOException
+	{
+		try (final Stream<Path> files = Files.walk(folder.getRoot().toPath()))
+		{
+			return files.filter(file -> file.toString().endsWith(".pdf")).count();
+		}
+	}
+
+	private static String read(final InvoiceDocument document) throws IOException
+	{
+		try (document)
+		{
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			document.transferTo(0, document.getLength(), Channels.newChannel(out));
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.invoice.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.invoice.InvoiceFacade;
+import de.hybris.platform.commercefacades.invoice.data.SAPInvoiceData;
+import de.hybris.platform.commercefacades.product.data.PriceData;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.core.servicelayer.data.PaginationData;
+import de.hybris.platform.core.servicelayer.data.SearchPageData;
+import de.hybris.platform.core.servicelayer.data.SortData;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultInvoiceListCacheTest
+{
+	private static final String ORDER_CODE = "00001000";
+
+	@Mock
+	private InvoiceFacade invoiceFacade;
+	@Mock
+	private UserService userService;
+	@Mock
+	private BaseSiteService baseSiteService;
+	@Mock
+	private UserModel user;
+	@Mock
+	private BaseSiteModel baseSite;
+
+	private DefaultInvoiceListCache cache;
+
+	@Before
+	public void setUp()
+	{
+		given(user.getUid()).willReturn("keenreviewer1@hybris.com");
+		given(baseSite.getUid()).willReturn("powertools");
+		given(userService.getCurrentUser()).willReturn(user);
+		given(baseSiteService.getCurrentBaseSite()).willReturn(baseSite);
+
+		final SearchPageData<SAPInvoiceData> invoices = new SearchPageData<>();
+		invoices.setResults(Arrays.asList(createInvoice("B", 20), createInvoice("A", 30), createInvoice("C", 10)));
+		given(invoiceFacade.getInvoices(anyString(), any(), anyString())).willReturn(invoices);
+
+		// prefetches run on a plain executor
+		cache = new DefaultInvoiceListCache()
+		{
+			@Override
+			protected ThreadPoolExecutor createExecutor()
+			{
+				return new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1));
+			}
+		};
+		cache.setInvoiceFacade(invoiceFacade);
+		cache.setUserService(userService);
+		cache.setBaseSiteService(baseSiteService);
+		cache.setFetchSize(1000);
+		cache.setFetchFields("FULL");
+		cache.setTimeToLive(60);
+		cache.setMaxOrders(1000);
+		cache.setWaitTimeout(1);
+		cache.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown()
+	{
+		cache.destroy();
+	}
+
+	@Test
+	public void testInvoicesAreSortedAndPagedInMemory()
+	{
+		final SearchPageData<SAPInvoiceData> firstPage = cache.getInvoices(ORDER_CODE, createRequest(0, 2, "invoiceId", false));
+		final SearchPageData<SAPInvoiceData> secondPage = cache.getInvoices(ORDER_CODE, createRequest(1, 2, "invoiceId", false));
+
+		Assert.assertEquals(Arrays.asList("C", "B"), getIds(firstPage));
+		Assert.assertEquals(Collections.singletonList("A"), getIds(secondPage));
+		Assert.assertEquals(3, secondPage.getPagination().getTotalNumberOfResults());
+		Assert.assertEquals(2, secondPage.getPagination().getNumberOfPages());
+		verify(invoiceFacade, times(1)).getInvoices(eq(ORDER_CODE), any(), eq("FULL"));
+	}
+
+	@Test
+	public void testPricesAreSortedByValue()
+	{
+		final SearchPageData<SAPInvoiceData> page = cache.getInvoices(ORDER_CODE, createRequest(0, 10, "totalAmount", true));
+
+		Assert.assertEquals(Arrays.asList("C", "B", "A"), getIds(page));
+	}
+
+	@Test
+	public void testUnknownSortKeepsBackendOrder()
+	{
+		final SearchPageData<SAPInvoiceData> page = cache.getInvoices(ORDER_CODE, createRequest(0, 10, "unknown", true));
+
+		Assert.assertEquals(Arrays.asList("B", "A", "C"), getIds(page));
+	}
+
+	@Test
+	public void testInvalidatedOrderIsFetchedAgain()
+	{
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+		cache.invalidate(ORDER_CODE);
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+
+		verify(invoiceFacade, times(2)).getInvoices(eq(ORDER_CODE), any(), eq("FULL"));
+	}
+
+	@Test
+	public void testInvoicesAreCachedPerUser()
+	{
+		final UserModel anotherUser = mock(UserModel.class);
+		given(anotherUser.getUid()).willReturn("another@hybris.com");
+
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+		given(userService.getCurrentUser()).willReturn(anotherUser);
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+
+		verify(invoiceFacade, times(2)).getInvoices(eq(ORDER_CODE), any(), eq("FULL"));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedOrderIsDroppedWhenFull()
+	{
+		cache.destroy();
+		cache.setMaxOrders(1);
+		cache.afterPropertiesSet();
+
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+		cache.getInvoices("00001001", createRequest(0, 10, null, true));
+		cache.getInvoices(ORDER_CODE, createRequest(0, 10, null, true));
+
+		verify(invoiceFacade, times(2)).getInvoices(eq(ORDER_CODE), any(), eq("FULL"));
+	}
+
+	private static SearchPageData<SAPInvoiceData> createRequest(final int currentPage, final int pageSize, final String sort,
+			final boolean asc)
+	{
+		final PaginationData pagination = new PaginationData();
+		pagination.setCurrentPage(currentPage);
+		pagination.setPageSize(pageSize);
+		pagination.setNeedsTotal(true);
+		final SearchPageData<SAPInvoiceData> request = new SearchPageData<>();
+		request.setPagination(pagination);
+		if (sort != null)
+		{
+			final SortData sortData = new SortData();
+			sortData.setCode(sort);
+			sortData.setAsc(asc);
+			request.setSorts(Collections.singletonList(sortData));
+		}
+		return request;
+	}
+
+	private static SAPInvoiceData createInvoice(final String invoiceId, final int total)
+	{
+		final PriceData totalAmount = new PriceData();
+		totalAmount.setValue(BigDecimal.valueOf(total));
+		final SAPInvoiceData invoice = new SAPInvoiceData();
+		invoice.setInvoiceId(invoiceId);
+		invoice.setTotalAmount(totalAmount);
+		return invoice;
+	}
+
+	private static List<String> getIds(final SearchPageData<SAPInvoiceData> page)
+	{
+		return page.getResults().stream().map(SAPInvoiceData::getInvoiceId).collect(Collectors.toList());
+	}
+}
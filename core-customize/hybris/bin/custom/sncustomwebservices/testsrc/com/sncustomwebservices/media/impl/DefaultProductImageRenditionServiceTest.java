@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.media.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.product.ImageFormatMapping;
+import de.hybris.platform.core.model.media.MediaContainerModel;
+import de.hybris.platform.core.model.media.MediaFormatModel;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.servicelayer.media.MediaService;
+import de.hybris.platform.servicelayer.model.ModelService;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultProductImageRenditionServiceTest
+{
+	@Mock
+	private ImageFormatMapping imageFormatMapping;
+	@Mock
+	private MediaService mediaService;
+	@Mock
+	private ModelService modelService;
+
+	private final DefaultProductImageRenditionService service = new DefaultProductImageRenditionService();
+
+	@Before
+	public void setUp()
+	{
+		final Map<String, Integer> renditionSizes = new LinkedHashMap<>();
+		renditionSizes.put("thumbnail", Integer.valueOf(96));
+		renditionSizes.put("product", Integer.valueOf(300));
+		given(imageFormatMapping.getMediaFormatQualifierForImageFormat("thumbnail")).willReturn("96Wx96H");
+		given(imageFormatMapping.getMediaFormatQualifierForImageFormat("product")).willReturn("300Wx300H");
+
+		service.setImageFormatMapping(imageFormatMapping);
+		service.setMediaService(mediaService);
+		service.setModelService(modelService);
+		service.setRenditionSizes(renditionSizes);
+		service.setMaxPixels(10000);
+	}
+
+	@Test
+	public void testImageIsScaledDownKeepingAspectRatio()
+	{
+		final BufferedImage scaled = service.scale(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), 300);
+
+		Assert.assertEquals(300, scaled.getWidth());
+		Assert.assertEquals(225, scaled.getHeight());
+	}
+
+	@Test
+	public void testImageIsNotScaledUp()
+	{
+		final BufferedImage scaled = service.scale(new BufferedImage(80, 40, BufferedImage.TYPE_INT_ARGB), 300);
+
+		Assert.assertEquals(80, scaled.getWidth());
+		Assert.assertEquals(40, scaled.getHeight());
+		Assert.assertTrue(scaled.getColorModel().hasAlpha());
+	}
+
+	@Test
+	public void testExistingRenditionsAreReused()
+	{
+		final MediaModel original = new MediaModel();
+		final MediaModel thumbnail = rendition("96Wx96H");
+		final MediaModel picture = rendition("300Wx300H");
+		final MediaContainerModel mediaContainer = mock(MediaContainerModel.class);
+		given(mediaContainer.getMedias()).willReturn(Arrays.asList(original, thumbnail, picture));
+
+		final Map<String, MediaModel> renditions = service.createRenditions(mediaContainer);
+
+		Assert.assertSame(thumbnail, renditions.get("thumbnail"));
+		Assert.assertSame(picture, renditions.get("product"));
+		Assert.assertEquals(2, service.getReusedCount());
+		verify(mediaService, never()).getStreamFromMedia(any());
+		verify(modelService, never()).save(any());
+	}
+
+	@Test
+	public void testImageAboveMaxPixelsIsNotDecoded() throws IOException
+	{
+		final MediaModel small = new MediaModel();
+		final MediaModel large = new MediaModel();
+		given(mediaService.getStreamFromMedia(small)).willReturn(png(100, 100));
+		given(mediaService.getStreamFromMedia(large)).willReturn(png(101, 100));
+
+		Assert.assertEquals(100, service.read(small).getWidth());
+		Assert.assertNull(service.read(large));
+	}
+
+	private static ByteArrayInputStream png(final int width, final int height) throws IOException
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+
+	private static MediaModel rendition(final String formatQualifier)
+	{
+		final MediaFormatModel mediaFormat = new MediaFormatModel();
+		mediaFormat.setQualifier(formatQualifier);
+		final MediaModel media = new MediaModel();
+		media.setMediaFormat(mediaFormat);
+		return media;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.order.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.product.PriceDataFactory;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.enums.OrderStatus;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.enumeration.EnumerationService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.dao.OrderSummaryDao;
+import com.sncustomwebservices.order.OrderSummary;
+import com.sncustomwebservices.order.data.OrderSummaryPageData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultOrderSummaryFacadeTest
+{
+	@Mock
+	private OrderSummaryDao orderSummaryDao;
+	@Mock
+	private UserService userService;
+	@Mock
+	private BaseStoreService baseStoreService;
+	@Mock
+	private PriceDataFactory priceDataFactory;
+	@Mock
+	private EnumerationService enumerationService;
+	@Mock
+	private UserModel user;
+	@Mock
+	private BaseStoreModel baseStore;
+
+	private DefaultOrderSummaryFacade facade;
+
+	@Before
+	public void setUp()
+	{
+		given(userService.getCurrentUser()).willReturn(user);
+		given(baseStoreService.getCurrentBaseStore()).willReturn(baseStore);
+
+		facade = new DefaultOrderSummaryFacade();
+		facade.setOrderSummaryDao(orderSummaryDao);
+		facade.setUserService(userService);
+		facade.setBaseStoreService(baseStoreService);
+		facade.setPriceDataFactory(priceDataFactory);
+		facade.setEnumerationService(enumerationService);
+		facade.setMaxPageSize(100);
+	}
+
+	@Test
+	public void testNextPageStartsAfterLastOrderOfPage()
+	{
+		given(orderSummaryDao.findOrderSummaries(eq(user), eq(baseStore), any(), isNull(), isNull(), eq(3))).willReturn(
+				Arrays.asList(createSummary(30, 3000), createSummary(20, 2000), createSummary(10, 1000)));
+
+		final OrderSummaryPageData firstPage = facade.getOrderSummaries(Collections.emptySet(), "", 2);
+
+		Assert.assertEquals(2, firstPage.getOrders().size());
+		Assert.assertEquals("order30", firstPage.getOrders().get(0).getCode());
+		Assert.assertEquals(OrderStatus.COMPLETED, firstPage.getOrders().get(0).getStatus());
+		Assert.assertNotNull(firstPage.getNextPageToken());
+
+		facade.getOrderSummaries(Collections.emptySet(), firstPage.getNextPageToken(), 2);
+
+		verify(orderSummaryDao).findOrderSummaries(user, baseStore, Collections.emptySet(), new Date(2000), PK.fromLong(20), 3);
+	}
+
+	@Test
+	public void testLastPageHasNoNextPageToken()
+	{
+		given(orderSummaryDao.findOrderSummaries(eq(user), eq(baseStore), any(), isNull(), isNull(), eq(3))).willReturn(
+				Arrays.asList(createSummary(30, 3000), createSummary(20, 2000)));
+
+		final OrderSummaryPageData page = facade.getOrderSummaries(Collections.emptySet(), null, 2);
+
+		Assert.assertEquals(2, page.getOrders().size());
+		Assert.assertNull(page.getNextPageToken());
+	}
+
+	@Test
+	public void testPageSizeIsLimited()
+	{
+		facade.getOrderSummaries(Collections.emptySet(), null, 1000);
+
+		verify(orderSummaryDao).findOrderSummaries(user, baseStore, Collections.emptySet(), null, null, 101);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMalformedPageTokenIsRejected()
+	{
+		facade.getOrderSummaries(Collections.emptySet(), "bm90LWEtdG9rZW4", 2);
+	}
+
+	private static OrderSummary createSummary(final long pk, final long date)
+	{
+		return new OrderSummary(PK.fromLong(pk), "order" + pk, "guid" + pk, OrderStatus.COMPLETED.getCode(), null, "USD",
+				new Date(date));
+	}
+}
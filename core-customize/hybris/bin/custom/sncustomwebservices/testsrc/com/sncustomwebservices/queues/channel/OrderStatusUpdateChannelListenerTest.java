@@ -4,10 +4,12 @@
 package com.sncustomwebservices.queues.channel;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.core.model.order.OrderModel;
 import de.hybris.platform.servicelayer.dto.converter.Converter;
+import com.sncustomwebservices.invoice.InvoiceListCache;
 import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
 import com.sncustomwebservices.queues.impl.OrderStatusUpdateQueue;
 
@@ -37,6 +39,8 @@ public class OrderStatusUpdateChannelListenerTest
 	private OrderStatusUpdateQueue orderStatusUpdateQueue;
 	@Mock
 	private Converter<OrderModel, OrderStatusUpdateElementData> orderStatusUpdateElementConverter;
+	@Mock
+	private InvoiceListCache invoiceListCache;
 
 	@Before
 	public void setUp() throws Exception
@@ -45,6 +49,7 @@ public class OrderStatusUpdateChannelListenerTest
 		listener = new OrderStatusUpdateChannelListener();
 		listener.setOrderStatusUpdateElementConverter(orderStatusUpdateElementConverter);
 		listener.setOrderStatusUpdateQueue(orderStatusUpdateQueue);
+		listener.setInvoiceListCache(invoiceListCache);
 
 		orderElementData = new OrderStatusUpdateElementData();
 		orderElementData.setCode(ORDER_CODE);
@@ -72,6 +77,7 @@ public class OrderStatusUpdateChannelListenerTest
 		listener.onMessage(order);
 		final OrderStatusUpdateElementData queueElement = orderStatusUpdateQueue.getLastItem();
 		Assert.assertEquals(orderElementData, queueElement);
+		verify(invoiceListCache).invalidate(ORDER_CODE);
 	}
 
 	@Test
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+
+@UnitTest
+public class CompactProductExpressUpdateQueueTest
+{
+	private static final String CATALOG_ID = "productCatalog";
+	private static final String CATALOG_VERSION = "Online";
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	private final Date tick = new Date();
+	private CompactProductExpressUpdateQueue queue;
+
+	@Before
+	public void setUp()
+	{
+		queue = Mockito.spy(new CompactProductExpressUpdateQueue());
+		queue.setMaxCapacity(10);
+	}
+
+	@Test
+	public void testItemsAreOrderedByTimeKey()
+	{
+		queue.addItem(element("product2", 25));
+		queue.addItem(element("product0", 27));
+		queue.addItem(element("product1", 26));
+		queue.addItem(element("product3", 10));
+
+		assertCodes(queue.getItems(), "product0", "product1", "product2", "product3");
+		assertCodes(queue.getItems(new Date(tick.getTime() - 26 * HOUR)), "product1", "product2", "product3");
+		Assert.assertEquals("product3", queue.getLastItem().getCode());
+	}
+
+	@Test
+	public void testAttributesAreRestored()
+	{
+		final ProductExpressUpdateElementData withoutCatalog = element("product1", 1);
+		withoutCatalog.setCatalogId(null);
+		queue.addItem(element("product0", 2));
+		queue.addItem(withoutCatalog);
+
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(CATALOG_ID, items.get(0).getCatalogId());
+		Assert.assertEquals(CATALOG_VERSION, items.get(0).getCatalogVersion());
+		Assert.assertNull(items.get(1).getCatalogId());
+		Assert.assertEquals(CATALOG_VERSION, items.get(1).getCatalogVersion());
+
+		items.get(0).setCode("changed");
+		Assert.assertEquals("product0", queue.getItems().get(0).getCode());
+	}
+
+	@Test
+	public void testMaxCapacity()
+	{
+		queue.setMaxCapacity(2);
+		queue.addItem(element("product0", 3));
+		queue.addItem(element("product1", 2));
+		queue.addItem(element("product2", 1));
+
+		assertCodes(queue.getItems(), "product0", "product1");
+	}
+
+	@Test
+	public void testRemoveItems()
+	{
+		queue.addItem(element("product0", 27));
+		queue.addItem(element("product1", 26));
+		queue.addItem(element("product2", 25));
+		queue.addItem(element("product3", 10));
+
+		queue.removeItems(new Date(tick.getTime() - 11 * HOUR));
+		assertCodes(queue.getItems(), "product3");
+
+		queue.addItem(element("product4", 0));
+		queue.removeItems(item -> "product3".equals(item.getCode()));
+		assertCodes(queue.getItems(), "product4");
+
+		queue.removeItems();
+		Assert.assertEquals(0, queue.size());
+		Assert.assertNull(queue.getLastItem());
+	}
+
+	@Test
+	public void testRemoveItemsByKeyComparesColumns()
+	{
+		final ProductExpressUpdateElementData staged = element("product1", 3);
+		staged.setCatalogVersion("Staged");
+		queue.addItem(element("product0", 4));
+		queue.addItem(staged);
+		queue.addItem(element("product1", 2));
+		queue.addItem(element("product2", 1));
+
+		queue.removeItemsByKey(Arrays.asList(Arrays.asList("product1", CATALOG_ID, CATALOG_VERSION),
+				Arrays.asList("product2", CATALOG_ID, "Staged"), Arrays.asList("product3", CATALOG_ID, CATALOG_VERSION)));
+
+		Mockito.verify(queue, Mockito.never()).createItem();
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		assertCodes(items, "product0", "product1", "product2");
+		Assert.assertEquals("Staged", items.get(1).getCatalogVersion());
+	}
+
+	@Test
+	public void testQueueGrowsAndReusesRemovedRows()
+	{
+		queue.setMaxCapacity(5000);
+		for (int round = 0; round < 3; round++)
+		{
+			for (int i = 0; i < 1500; i++)
+			{
+				queue.addItem(element("product" + i));
+			}
+			queue.removeItems(new Date(Long.MAX_VALUE));
+			Assert.assertEquals(0, queue.size());
+		}
+		for (int i = 0; i < 1500; i++)
+		{
+			queue.addItem(element("product" + i));
+		}
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(1500, items.size());
+		Assert.assertEquals("product0", items.get(0).getCode());
+		Assert.assertEquals("product1499", items.get(1499).getCode());
+		Assert.assertEquals(CATALOG_VERSION, items.get(1499).getCatalogVersion());
+	}
+
+	private ProductExpressUpdateElementData element(final String code, final int hoursAgo)
+	{
+		final ProductExpressUpdateElementData element = element(code);
+		Mockito.doReturn(Long.valueOf(tick.getTime() - hoursAgo * HOUR)).when(queue).getTimeKey(element);
+		return element;
+	}
+
+	private static ProductExpressUpdateElementData element(final String code)
+	{
+		final ProductExpressUpdateElementData element = new ProductExpressUpdateElementData();
+		element.setCode(code);
+		element.setCatalogId(CATALOG_ID);
+		element.setCatalogVersion(CATALOG_VERSION);
+		return element;
+	}
+
+	private static void assertCodes(final List<ProductExpressUpdateElementData> items, final String... codes)
+	{
+		Assert.assertEquals(codes.length, items.size());
+		for (int i = 0; i < codes.length; i++)
+		{
+			Assert.assertEquals(codes[i], items.get(i).getCode());
+		}
+	}
+}
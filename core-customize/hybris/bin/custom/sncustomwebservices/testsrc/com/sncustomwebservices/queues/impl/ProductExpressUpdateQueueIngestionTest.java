@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.queues.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.queues.UpdateQueueIngestion.OverflowPolicy;
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+@UnitTest
+public class ProductExpressUpdateQueueIngestionTest
+{
+	private static final String CATALOG_ID = "productCatalog";
+	private static final String CATALOG_VERSION = "Online";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private ProductExpressUpdateQueue queue;
+	private ProductExpressUpdateQueueIngestion ingestion;
+
+	@Before
+	public void setUp()
+	{
+		queue = new ProductExpressUpdateQueue();
+		ingestion = new ProductExpressUpdateQueueIngestion();
+		ingestion.setUpdateQueue(queue);
+		ingestion.setCapacity(2);
+		ingestion.setBatchSize(10);
+		ingestion.setBatchWindow(0);
+		ingestion.setSpillDirectory(temporaryFolder.getRoot().getAbsolutePath());
+	}
+
+	@Test
+	public void testRepeatedElementsAreCoalesced()
+	{
+		queue.addItem(element("product1"));
+		ingestion.setCapacity(10);
+
+		ingestion.submit(element("product1"));
+		ingestion.submit(element("product2"));
+		ingestion.submit(element("product1"));
+		Assert.assertEquals(3, ingestion.getPendingCount());
+		ingestion.processPending();
+
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(2, items.size());
+		Assert.assertEquals("product2", items.get(0).getCode());
+		Assert.assertEquals("product1", items.get(1).getCode());
+		Assert.assertEquals(1, ingestion.getCoalescedCount());
+		Assert.assertEquals(0, ingestion.getPendingCount());
+	}
+
+	@Test
+	public void testElementsOfCompactQueueAreReplaced()
+	{
+		final CompactProductExpressUpdateQueue compactQueue = new CompactProductExpressUpdateQueue();
+		compactQueue.addItem(element("product1"));
+		compactQueue.addItem(element("product2"));
+		ingestion.setUpdateQueue(compactQueue);
+
+		ingestion.submit(element("product1"));
+		ingestion.processPending();
+
+		final List<ProductExpressUpdateElementData> items = compactQueue.getItems();
+		Assert.assertEquals(2, items.size());
+		Assert.assertEquals(1, items.stream().filter(item -> "product1".equals(item.getCode())).count());
+		Assert.assertEquals(1, items.stream().filter(item -> "product2".equals(item.getCode())).count());
+	}
+
+	@Test
+	public void testOldestElementIsDroppedWhenBufferIsFull()
+	{
+		ingestion.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+
+		ingestion.submit(element("product1"));
+		ingestion.submit(element("product2"));
+		ingestion.submit(element("product3"));
+		ingestion.processPending();
+
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(2, items.size());
+		Assert.assertEquals("product2", items.get(0).getCode());
+		Assert.assertEquals(1, ingestion.getDroppedCount());
+	}
+
+	@Test
+	public void testSpilledElementsAreWrittenInOrder()
+	{
+		ingestion.setOverflowPolicy(OverflowPolicy.SPILL_TO_DISK);
+
+		for (int i = 1; i <= 5; i++)
+		{
+			ingestion.submit(element("product" + i));
+		}
+		Assert.assertEquals(3, ingestion.getSpilledCount());
+		Assert.assertEquals(5, ingestion.getPendingCount());
+		ingestion.processPending();
+
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(5, items.size());
+		for (int i = 0; i < 5; i++)
+		{
+			Assert.assertEquals("product" + (i + 1), items.get(i).getCode());
+		}
+		Assert.assertEquals(0, temporaryFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void testPendingElementsAreWrittenOnShutdown() throws InterruptedException
+	{
+		ingestion.setOverflowPolicy(OverflowPolicy.SPILL_TO_DISK);
+
+		for (int i = 1; i <= 3; i++)
+		{
+			ingestion.submit(element("product" + i));
+		}
+		ingestion.destroy();
+		ingestion.submit(element("product4"));
+
+		final List<ProductExpressUpdateElementData> items = queue.getItems();
+		Assert.assertEquals(4, items.size());
+		Assert.assertEquals("product3", items.get(2).getCode());
+		Assert.assertEquals(0, ingestion.getPendingCount());
+		Assert.assertEquals(0, temporaryFolder.getRoot().list().length);
+	}
+
+	private static ProductExpressUpdateElementData element(final String code)
+	{
+		final ProductExpressUpdateElementData element = new ProductExpressUpdateElementData();
+		element.setCode(code);
+		element.setCatalogId(CATALOG_ID);
+		element.setCatalogVersion(CATALOG_VERSION);
+		return element;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.enums.StockLevelStatus;
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.commerceservices.stock.CommerceStockService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import com.sncustomwebservices.dao.BatchStockLevelDao;
+import com.sncustomwebservices.dao.impl.DefaultPrefetchingStockLevelDao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultBatchStockServiceTest
+{
+	@Mock
+	private BatchStockLevelDao batchStockLevelDao;
+	@Mock
+	private CommerceStockService commerceStockService;
+	@Mock
+	private ProductModel camera;
+	@Mock
+	private ProductModel tripod;
+	@Mock
+	private WarehouseModel tokyoWarehouse;
+	@Mock
+	private WarehouseModel osakaWarehouse;
+	@Mock
+	private PointOfServiceModel tokyo;
+	@Mock
+	private PointOfServiceModel osaka;
+
+	private final AtomicInteger databaseLookups = new AtomicInteger();
+	private DefaultPrefetchingStockLevelDao stockLevelDao;
+	private DefaultBatchStockService service;
+
+	@Before
+	public void setUp()
+	{
+		given(camera.getCode()).willReturn("camera");
+		given(tripod.getCode()).willReturn("tripod");
+		given(tokyoWarehouse.getPk()).willReturn(PK.fromLong(1L));
+		given(osakaWarehouse.getPk()).willReturn(PK.fromLong(2L));
+		given(tokyo.getName()).willReturn("Tokyo");
+		given(tokyo.getWarehouses()).willReturn(Collections.singletonList(tokyoWarehouse));
+		given(osaka.getName()).willReturn("Osaka");
+		given(osaka.getWarehouses()).willReturn(Collections.singletonList(osakaWarehouse));
+
+		// lookups that are not prefetched would query the database
+		stockLevelDao = new DefaultPrefetchingStockLevelDao()
+		{
+			@Override
+			protected Collection<StockLevelModel> loadStockLevels(final String productCode,
+					final Collection<WarehouseModel> warehouses)
+			{
+				databaseLookups.incrementAndGet();
+				return Collections.emptyList();
+			}
+		};
+		stockLevelDao.setBatchStockLevelDao(batchStockLevelDao);
+
+		// the commerce stock service sums the available amount of the stock levels, none is out of stock
+		given(commerceStockService.getStockLevelForProductAndPointOfService(any(), any())).willAnswer(
+				invocation -> Long.valueOf(sum(invocation.getArgument(0), invocation.getArgument(1))));
+		given(commerceStockService.getStockLevelStatusForProductAndPointOfService(any(), any())).willAnswer(
+				invocation -> sum(invocation.getArgument(0), invocation.getArgument(1)) > 0 ? StockLevelStatus.INSTOCK
+						: StockLevelStatus.OUTOFSTOCK);
+
+		service = new DefaultBatchStockService();
+		service.setBatchStockLevelDao(batchStockLevelDao);
+		service.setPrefetchingStockLevelDao(stockLevelDao);
+		service.setCommerceStockService(commerceStockService);
+	}
+
+	@Test
+	public void testStockOfPointsOfServiceIsCalculatedFromOneQuery()
+	{
+		final List<StockLevelModel> stockLevels = Arrays.asList(stockLevel("camera", tokyoWarehouse, 5),
+				stockLevel("camera", tokyoWarehouse, 2));
+		given(batchStockLevelDao.findStockLevels(anyCollection(), anyCollection())).willReturn(stockLevels);
+
+		final Map<String, StockData> stockData = service.getStockDataForProductAndPointsOfService(camera,
+				Arrays.asList(tokyo, osaka));
+
+		Assert.assertEquals(Arrays.asList("Tokyo", "Osaka"), Arrays.asList(stockData.keySet().toArray()));
+		Assert.assertEquals(Long.valueOf(7), stockData.get("Tokyo").getStockLevel());
+		Assert.assertEquals(StockLevelStatus.INSTOCK, stockData.get("Tokyo").getStockLevelStatus());
+		Assert.assertEquals(StockLevelStatus.OUTOFSTOCK, stockData.get("Osaka").getStockLevelStatus());
+		verify(batchStockLevelDao, times(1)).findStockLevels(anyCollection(), anyCollection());
+		Assert.assertEquals(0, databaseLookups.get());
+	}
+
+	@Test
+	public void testStockOfProductsIsCalculatedFromOneQuery()
+	{
+		final List<StockLevelModel> stockLevels = Arrays.asList(stockLevel("tripod", osakaWarehouse, 3),
+				stockLevel("camera", osakaWarehouse, 1));
+		given(batchStockLevelDao.findStockLevels(anyCollection(), anyCollection())).willReturn(stockLevels);
+
+		final Map<String, StockData> stockData = service.getStockDataForProductsAndPointOfService(
+				Arrays.asList(camera, tripod), osaka);
+
+		Assert.assertEquals(Arrays.asList("camera", "tripod"), Arrays.asList(stockData.keySet().toArray()));
+		Assert.assertEquals(Long.valueOf(1), stockData.get("camera").getStockLevel());
+		Assert.assertEquals(Long.valueOf(3), stockData.get("tripod").getStockLevel());
+		verify(batchStockLevelDao, times(1)).findStockLevels(anyCollection(), anyCollection());
+		Assert.assertEquals(0, databaseLookups.get());
+	}
+
+	@Test
+	public void testLookupOutsideOfPrefetchQueriesTheDatabase()
+	{
+		given(batchStockLevelDao.findStockLevels(anyCollection(), anyCollection())).willReturn(Collections.emptyList());
+
+		service.getStockDataForProductsAndPointOfService(Collections.singletonList(camera), osaka);
+		stockLevelDao.findStockLevels("camera", Collections.singletonList(osakaWarehouse));
+		Assert.assertEquals(1, databaseLookups.get());
+
+		// tokyo was not prefetched
+		stockLevelDao.executeWithPrefetch(Collections.singleton("camera"), Collections.singletonList(osakaWarehouse),
+				() -> stockLevelDao.findStockLevels("camera", Collections.singletonList(tokyoWarehouse)));
+		Assert.assertEquals(2, databaseLookups.get());
+	}
+
+	@Test
+	public void testPointsOfServiceKeepRequestedOrderAndSkipUnknownNames()
+	{
+		given(batchStockLevelDao.findPointsOfService(anyCollection())).willReturn(Arrays.asList(tokyo, osaka));
+
+		final List<PointOfServiceModel> pointsOfService = service.getPointsOfServiceForNames(
+				Arrays.asList("Osaka", "Kyoto", "Tokyo"));
+
+		Assert.assertEquals(Arrays.asList(osaka, tokyo), pointsOfService);
+	}
+
+	private long sum(final ProductModel product, final PointOfServiceModel pointOfService)
+	{
+		return stockLevelDao.findStockLevels(product.getCode(), pointOfService.getWarehouses()).stream()
+				.mapToLong(StockLevelModel::getAvailable).sum();
+	}
+
+	private static StockLevelModel stockLevel(final String productCode, final WarehouseModel warehouse, final int available)
+	{
+		final StockLevelModel stockLevel = mock(StockLevelModel.class);
+		given(stockLevel.getProductCode()).willReturn(productCode);
+		given(stockLevel.getWarehouse()).willReturn(warehouse);
+		given(Integer.valueOf(stockLevel.getAvailable())).willReturn(Integer.valueOf(available));
+		return stockLevel;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.enums.StockLevelStatus;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.commerceservices.stock.CommerceStockService;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.product.ProductService;
+import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import de.hybris.platform.storelocator.pos.PointOfServiceService;
+import com.sncustomwebservices.stock.BatchStockService;
+import com.sncustomwebservices.stock.StockSnapshotCache;
+import com.sncustomwebservices.strategies.BaseStoreForSiteSelectorStrategy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultCommerceStockFacadeTest
+{
+	@Mock
+	private BaseSiteService baseSiteService;
+	@Mock
+	private BaseStoreForSiteSelectorStrategy baseStoreForSiteSelectorStrategy;
+	@Mock
+	private CommerceStockService commerceStockService;
+	@Mock
+	private ProductService productService;
+	@Mock
+	private PointOfServiceService pointOfServiceService;
+	@Mock
+	private BatchStockService batchStockService;
+	@Mock
+	private StockSnapshotCache stockSnapshotCache;
+	@Mock
+	private BaseSiteModel baseSite;
+	@Mock
+	private BaseStoreModel baseStore;
+	@Mock
+	private PointOfServiceModel tokyo;
+	@Mock
+	private ProductModel camera;
+	@Mock
+	private ProductModel tripod;
+
+	private final DefaultCommerceStockFacade facade = new DefaultCommerceStockFacade();
+
+	@Before
+	public void setUp()
+	{
+		given(baseSiteService.getBaseSiteForUID("electronics")).willReturn(baseSite);
+		given(baseStoreForSiteSelectorStrategy.getBaseStore(baseSite)).willReturn(baseStore);
+		given(camera.getCode()).willReturn("camera");
+		given(tripod.getCode()).willReturn("tripod");
+		given(productService.getProductForCode("camera")).willReturn(camera);
+		given(productService.getProductForCode("tripod")).willReturn(tripod);
+		given(tokyo.getName()).willReturn("Tokyo");
+		given(pointOfServiceService.getPointOfServiceForName("Tokyo")).willReturn(tokyo);
+
+		facade.setBaseSiteService(baseSiteService);
+		facade.setBaseStoreForSiteSelectorStrategy(baseStoreForSiteSelectorStrategy);
+		facade.setCommerceStockService(commerceStockService);
+		facade.setProductService(productService);
+		facade.setPointOfServiceService(pointOfServiceService);
+		facade.setBatchStockService(batchStockService);
+		facade.setStockSnapshotCache(stockSnapshotCache);
+	}
+
+	@Test
+	public void testStockOfProductsIsServedBySnapshotCache()
+	{
+		final Map<String, StockData> cached = new LinkedHashMap<>();
+		cached.put("camera", stockData(StockLevelStatus.INSTOCK, 7));
+		cached.put("tripod", stockData(StockLevelStatus.OUTOFSTOCK, 0));
+		given(stockSnapshotCache.getStockDataForProductsAndBaseStore(Arrays.asList(camera, tripod), baseStore))
+				.willReturn(cached);
+
+		Assert.assertSame(cached, facade.getStockData(Arrays.asList("camera", "tripod"), "electronics"));
+		verify(commerceStockService, never()).getStockLevelForProductAndBaseStore(any(), any());
+	}
+
+	@Test
+	public void testStockOfPointOfServiceIsServedBySnapshotCache()
+	{
+		final StockData stockData = stockData(StockLevelStatus.LOWSTOCK, 2);
+		given(stockSnapshotCache.getStockDataForProductAndPointsOfService(camera, Collections.singletonList(tokyo)))
+				.willReturn(Collections.singletonMap("Tokyo", stockData));
+
+		Assert.assertSame(stockData, facade.getStockDataForProductAndPointOfService("camera", "Tokyo"));
+		verify(stockSnapshotCache).getStockDataForProductAndPointsOfService(camera, Collections.singletonList(tokyo));
+	}
+
+	private static StockData stockData(final StockLevelStatus status, final long level)
+	{
+		final StockData stockData = new StockData();
+		stockData.setStockLevelStatus(status);
+		stockData.setStockLevel(Long.valueOf(level));
+		return stockData;
+	}
+}
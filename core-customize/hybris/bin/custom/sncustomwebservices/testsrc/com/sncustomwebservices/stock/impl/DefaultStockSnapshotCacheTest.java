@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.stock.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.enums.StockLevelStatus;
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.store.BaseStoreModel;
+import com.sncustomwebservices.stock.BatchStockService;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultStockSnapshotCacheTest
+{
+	@Mock
+	private BatchStockService batchStockService;
+	@Mock
+	private BaseStoreModel baseStore;
+	@Mock
+	private ProductModel camera;
+	@Mock
+	private ProductModel tripod;
+
+	private DefaultStockSnapshotCache cache;
+
+	@Before
+	public void setUp()
+	{
+		given(baseStore.getUid()).willReturn("electronics");
+		given(camera.getCode()).willReturn("camera");
+		given(tripod.getCode()).willReturn("tripod");
+		given(batchStockService.getStockDataForProductsAndBaseStore(any(), eq(baseStore))).willAnswer(invocation -> {
+			final Map<String, StockData> stockData = new LinkedHashMap<>();
+			for (final ProductModel product : (Collection<ProductModel>) invocation.getArgument(0))
+			{
+				stockData.put(product.getCode(), createStockData(5L));
+			}
+			return stockData;
+		});
+
+		cache = new DefaultStockSnapshotCache();
+		cache.setBatchStockService(batchStockService);
+		cache.setTimeToLive(60);
+	}
+
+	@Test
+	public void testOnlyMissingProductsAreLoaded()
+	{
+		cache.getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+		final Map<String, StockData> stockData = cache.getStockDataForProductsAndBaseStore(Arrays.asList(camera, tripod),
+				baseStore);
+
+		Assert.assertEquals(Arrays.asList("camera", "tripod"), Arrays.asList(stockData.keySet().toArray()));
+		Assert.assertEquals(Long.valueOf(5), stockData.get("camera").getStockLevel());
+		Assert.assertEquals(StockLevelStatus.INSTOCK, stockData.get("tripod").getStockLevelStatus());
+		verify(batchStockService).getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+		verify(batchStockService).getStockDataForProductsAndBaseStore(Collections.singletonList(tripod), baseStore);
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testInvalidatedProductIsReloaded()
+	{
+		cache.getStockDataForProductsAndBaseStore(Arrays.asList(camera, tripod), baseStore);
+		cache.invalidate("camera");
+		cache.getStockDataForProductsAndBaseStore(Arrays.asList(camera, tripod), baseStore);
+
+		verify(batchStockService, times(1)).getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void testCachedSnapshotIsNotChangedByCallers()
+	{
+		cache.getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore).get("camera")
+				.setStockLevel(Long.valueOf(0));
+
+		final StockData stockData = cache.getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore)
+				.get("camera");
+
+		Assert.assertEquals(Long.valueOf(5), stockData.getStockLevel());
+	}
+
+	@Test
+	public void testDisabledCacheAlwaysLoads()
+	{
+		cache.setEnabled(false);
+		cache.getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+		cache.getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+
+		verify(batchStockService, times(2)).getStockDataForProductsAndBaseStore(Collections.singletonList(camera), baseStore);
+		Assert.assertEquals(0, cache.getHitCount() + cache.getMissCount());
+	}
+
+	private static StockData createStockData(final long level)
+	{
+		final StockData stockData = new StockData();
+		stockData.setStockLevel(Long.valueOf(level));
+		stockData.setStockLevelStatus(StockLevelStatus.INSTOCK);
+		return stockData;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+@UnitTest
+public class PointOfServiceIndexTest
+{
+	private static final double DELTA = 0.0001;
+
+	// Tokyo area stores, one in Osaka
+	private static final double[] LATITUDES = { 35.6586, 35.6654, 35.6938, 35.7101, 34.6937 };
+	private static final double[] LONGITUDES = { 139.7454, 139.7596, 139.7034, 139.8107, 135.5023 };
+
+	private PointOfServiceIndex index;
+	private PK[] pks;
+
+	@Before
+	public void setUp()
+	{
+		pks = new PK[LATITUDES.length];
+		for (int i = 0; i < pks.length; i++)
+		{
+			pks[i] = PK.fromLong(1000L + i);
+		}
+		index = new PointOfServiceIndex(pks, LATITUDES, LONGITUDES, 4);
+	}
+
+	@Test
+	public void testGeoHash()
+	{
+		Assert.assertEquals("u4pru", GeoHash.encode(57.64911, 10.40744, 5));
+		final double[] center = GeoHash.decodeCenter("u4pru");
+		Assert.assertEquals("u4pru", GeoHash.encode(center[0], center[1], 5));
+		Assert.assertEquals(57.64911, center[0], GeoHash.getCellHeight(5));
+		Assert.assertEquals(10.40744, center[1], GeoHash.getCellWidth(5));
+	}
+
+	@Test
+	public void testFindWithinRadiusMatchesLinearScan()
+	{
+		for (final double radius : new double[] { 0.5, 2, 10, 50, 500, 20000 })
+		{
+			final List<PointOfServiceIndex.Hit> hits = index.findWithinRadius(35.6812, 139.7671, radius);
+
+			int expected = 0;
+			for (int i = 0; i < pks.length; i++)
+			{
+				if (PointOfServiceIndex.distanceKm(35.6812, 139.7671, LATITUDES[i], LONGITUDES[i]) <= radius)
+				{
+					expected++;
+				}
+			}
+			Assert.assertEquals("radius " + radius, expected, hits.size());
+			for (int i = 1; i < hits.size(); i++)
+			{
+				Assert.assertTrue(hits.get(i - 1).getDistanceKm() <= hits.get(i).getDistanceKm());
+			}
+		}
+	}
+
+	@Test
+	public void testFindNearest()
+	{
+		final List<PointOfServiceIndex.Hit> hits = index.findNearest(34.70, 135.50, 2);
+
+		Assert.assertEquals(2, hits.size());
+		Assert.assertEquals(pks[4], hits.get(0).getPk());
+		Assert.assertEquals(PointOfServiceIndex.distanceKm(34.70, 135.50, LATITUDES[4], LONGITUDES[4]),
+				hits.get(0).getDistanceKm(), DELTA);
+		Assert.assertEquals(pks.length, index.findNearest(34.70, 135.50, 100).size());
+	}
+}
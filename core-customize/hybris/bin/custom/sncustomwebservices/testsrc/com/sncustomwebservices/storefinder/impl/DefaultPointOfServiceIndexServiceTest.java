@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.storefinder.impl;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commerceservices.search.pagedata.PageableData;
+import de.hybris.platform.commerceservices.store.data.GeoPoint;
+import de.hybris.platform.commerceservices.storefinder.data.PointOfServiceDistanceData;
+import de.hybris.platform.commerceservices.storefinder.data.StoreFinderSearchPageData;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultPointOfServiceIndexServiceTest
+{
+	// Tokyo area stores, one in Osaka
+	private static final double[] LATITUDES = { 35.6586, 35.6654, 35.6938, 35.7101, 34.6937 };
+	private static final double[] LONGITUDES = { 139.7454, 139.7596, 139.7034, 139.8107, 135.5023 };
+
+	@Mock
+	private ModelService modelService;
+	@Mock
+	private BaseStoreModel baseStore;
+
+	private final List<PointOfServiceModel> pointsOfService = new ArrayList<>();
+	private DefaultPointOfServiceIndexService service;
+
+	@Before
+	public void setUp()
+	{
+		for (int i = 0; i < LATITUDES.length; i++)
+		{
+			final PointOfServiceModel pointOfService = mock(PointOfServiceModel.class);
+			final PK pk = PK.fromLong(1000L + i);
+			given(pointOfService.getPk()).willReturn(pk);
+			given(pointOfService.getLatitude()).willReturn(Double.valueOf(LATITUDES[i]));
+			given(pointOfService.getLongitude()).willReturn(Double.valueOf(LONGITUDES[i]));
+			given(modelService.get(pk)).willReturn(pointOfService);
+			pointsOfService.add(pointOfService);
+		}
+		// a store without coordinates is not indexed
+		pointsOfService.add(mock(PointOfServiceModel.class));
+		given(baseStore.getUid()).willReturn("electronics");
+		given(baseStore.getPointsOfService()).willReturn(pointsOfService);
+
+		service = spy(new DefaultPointOfServiceIndexService());
+		service.setModelService(modelService);
+		service.setBucketPrecision(4);
+		service.setTimeToLive(600);
+	}
+
+	@Test
+	public void testNearestSearchReturnsPageOfNearestStores()
+	{
+		final StoreFinderSearchPageData<PointOfServiceDistanceData> result = service.nearestSearch(baseStore,
+				geoPoint(35.6812, 139.7671), pageableData(1, 2));
+
+		Assert.assertEquals(2, result.getResults().size());
+		Assert.assertEquals(LATITUDES.length, result.getPagination().getTotalNumberOfResults());
+		Assert.assertEquals(3, result.getPagination().getNumberOfPages());
+		// stores 1 and 0 are nearest to Tokyo station, followed by stores 3 and 2
+		Assert.assertSame(pointsOfService.get(3), result.getResults().get(0).getPointOfService());
+		Assert.assertSame(pointsOfService.get(2), result.getResults().get(1).getPointOfService());
+		Assert.assertTrue(result.getResults().get(0).getDistanceKm() <= result.getResults().get(1).getDistanceKm());
+	}
+
+	@Test
+	public void testIndexIsBuiltOnceUntilInvalidated()
+	{
+		service.nearestSearch(baseStore, geoPoint(34.70, 135.50), pageableData(0, 1));
+		final StoreFinderSearchPageData<PointOfServiceDistanceData> result = service.nearestSearch(baseStore,
+				geoPoint(34.70, 135.50), pageableData(0, 1));
+		Assert.assertSame(pointsOfService.get(4), result.getResults().get(0).getPointOfService());
+		verify(service, times(1)).buildIndex(baseStore);
+
+		service.invalidate();
+		service.nearestSearch(baseStore, geoPoint(34.70, 135.50), pageableData(0, 1));
+		verify(service, times(2)).buildIndex(baseStore);
+	}
+
+	@Test
+	public void testFailedBuildIsRetried()
+	{
+		given(baseStore.getPointsOfService()).willThrow(new IllegalStateException("not loaded"))
+				.willReturn(pointsOfService);
+		try
+		{
+			service.nearestSearch(baseStore, geoPoint(34.70, 135.50), pageableData(0, 1));
+			Assert.fail("expected the build failure");
+		}
+		catch (final IllegalStateException e)
+		{
+			// expected
+		}
+
+		final StoreFinderSearchPageData<PointOfServiceDistanceData> result = service.nearestSearch(baseStore,
+				geoPoint(34.70, 135.50), pageableData(0, 1));
+		Assert.assertSame(pointsOfService.get(4), result.getResults().get(0).getPointOfService());
+	}
+
+	private static GeoPoint geoPoint(final double latitude, final double longitude)
+	{
+		final GeoPoint geoPoint = new GeoPoint();
+		geoPoint.setLatitude(latitude);
+		geoPoint.setLongitude(longitude);
+		return geoPoint;
+	}
+
+	private static PageableData pageableData(final int currentPage, final int pageSize)
+	{
+		final PageableData pageableData = new PageableData();
+		pageableData.setCurrentPage(currentPage);
+		pageableData.setPageSize(pageSize);
+		return pageableData;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.user.impl;
+
+import static org.mockito.BDDMockito.given;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.CustomerModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.exceptions.UnknownIdentifierException;
+import de.hybris.platform.servicelayer.model.ModelService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultUserResolutionCacheTest
+{
+	private static final String PRINCIPAL = "keenreviewer1@hybris.com";
+	private static final PK USER_PK = PK.fromLong(1);
+
+	@Mock
+	private ModelService modelService;
+	@Mock
+	private CustomerModel customer;
+
+	private final AtomicInteger resolutions = new AtomicInteger();
+	private final Function<String, UserModel> resolver = property -> {
+		resolutions.incrementAndGet();
+		if (PRINCIPAL.equals(property) || "customer-id".equals(property))
+		{
+			return customer;
+		}
+		throw new UnknownIdentifierException("Cannot find user with propertyValue '" + property + "'");
+	};
+	private DefaultUserResolutionCache cache;
+
+	@Before
+	public void setUp()
+	{
+		given(customer.getPk()).willReturn(USER_PK);
+		given(customer.getUid()).willReturn(PRINCIPAL);
+		given(customer.getCustomerID()).willReturn("customer-id");
+		given(modelService.get(USER_PK)).willReturn(customer);
+
+		cache = new DefaultUserResolutionCache();
+		cache.setModelService(modelService);
+		cache.setTimeToLive(60);
+	}
+
+	@Test
+	public void testUserIsResolvedOncePerPrincipalAndProperty()
+	{
+		Assert.assertSame(customer, cache.getUser(PRINCIPAL, PRINCIPAL, resolver));
+		Assert.assertSame(customer, cache.getUser(PRINCIPAL, PRINCIPAL, resolver));
+		Assert.assertSame(customer, cache.getUser(PRINCIPAL, "customer-id", resolver));
+		Assert.assertSame(customer, cache.getUser("another@hybris.com", PRINCIPAL, resolver));
+
+		Assert.assertEquals(3, resolutions.get());
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void testUnknownUsersAreNotCached()
+	{
+		for (int i = 0; i < 2; i++)
+		{
+			try
+			{
+				cache.getUser(PRINCIPAL, "unknown", resolver);
+				Assert.fail("Expected UnknownIdentifierException");
+			}
+			catch (final UnknownIdentifierException e)
+			{
+				// expected
+			}
+		}
+		Assert.assertEquals(2, resolutions.get());
+	}
+
+	@Test
+	public void testChangedLoginIsResolvedAgain()
+	{
+		cache.getUser(PRINCIPAL, PRINCIPAL, resolver);
+		given(customer.getUid()).willReturn("renamed@hybris.com");
+
+		Assert.assertSame(customer, cache.getUser(PRINCIPAL, PRINCIPAL, resolver));
+		Assert.assertEquals(2, resolutions.get());
+	}
+
+	@Test
+	public void testDeactivatedUserIsResolvedAgain()
+	{
+		cache.getUser(PRINCIPAL, PRINCIPAL, resolver);
+		given(Boolean.valueOf(customer.isLoginDisabled())).willReturn(Boolean.TRUE);
+
+		cache.getUser(PRINCIPAL, PRINCIPAL, resolver);
+		Assert.assertEquals(2, resolutions.get());
+	}
+
+	@Test
+	public void testInvalidatedUserIsResolvedAgain()
+	{
+		cache.getUser(PRINCIPAL, PRINCIPAL, resolver);
+		cache.invalidate(USER_PK);
+
+		cache.getUser(PRINCIPAL, PRINCIPAL, resolver);
+		Assert.assertEquals(2, resolutions.get());
+	}
+}
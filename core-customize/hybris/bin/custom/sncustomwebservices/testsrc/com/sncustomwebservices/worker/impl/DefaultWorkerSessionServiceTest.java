@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.worker.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionExecutionBody;
+import de.hybris.platform.servicelayer.session.SessionService;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultWorkerSessionServiceTest
+{
+	@Mock
+	private SessionService sessionService;
+	@Mock
+	private Session session;
+	@Mock
+	private UserModel user;
+
+	private final DefaultWorkerSessionService service = new DefaultWorkerSessionService();
+
+	@Before
+	public void setUp()
+	{
+		given(sessionService.createNewSession()).willReturn(session);
+		given(sessionService.executeInLocalView(any(SessionExecutionBody.class), eq(user)))
+				.willAnswer(invocation -> ((SessionExecutionBody) invocation.getArgument(0)).execute());
+		service.setSessionService(sessionService);
+	}
+
+	@Test
+	public void testBodyRunsAsUserAndSessionIsClosed()
+	{
+		Assert.assertEquals("result", service.callInNewSession(user, () -> "result"));
+
+		verify(sessionService).executeInLocalView(any(SessionExecutionBody.class), eq(user));
+		verify(sessionService).closeSession(session);
+	}
+
+	@Test
+	public void testSessionIsClosedWhenBodyFails()
+	{
+		try
+		{
+			service.runInNewSession(user, () -> {
+				throw new IllegalStateException("failed");
+			});
+			Assert.fail("IllegalStateException expected");
+		}
+		catch (final IllegalStateException e)
+		{
+			Assert.assertEquals("failed", e.getMessage());
+		}
+
+		verify(sessionService).closeSession(session);
+	}
+}
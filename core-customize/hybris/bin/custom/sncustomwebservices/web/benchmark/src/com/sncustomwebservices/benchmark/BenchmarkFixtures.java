@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.commercewebservicescommons.dto.product.PriceWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductListWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.StockWsDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Offline input data for the benchmarks. Text fixtures are read from {@code fixtures/} on the benchmark classpath, one
+ * value per line, with lines starting with {@code #} treated as comments.
+ */
+public final class BenchmarkFixtures
+{
+	private static final String FIXTURES_PATH = "/fixtures/";
+	private static final String COMMENT = "#";
+
+	private BenchmarkFixtures()
+	{
+		//empty
+	}
+
+	public static String[] lines(final String fixtureName)
+	{
+		final InputStream stream = BenchmarkFixtures.class.getResourceAsStream(FIXTURES_PATH + fixtureName);
+		if (stream == null)
+		{
+			throw new IllegalArgumentException("Benchmark fixture not found: " + fixtureName);
+		}
+
+		final List<String> lines = new ArrayList<>();
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (!line.isEmpty() && !line.startsWith(COMMENT))
+				{
+					lines.add(line);
+				}
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new IllegalStateException("Cannot read benchmark fixture: " + fixtureName, e);
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	public static ProductListWsDTO productList(final int size)
+	{
+		final List<ProductWsDTO> products = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+		{
+			final PriceWsDTO price = new PriceWsDTO();
+			price.setCurrencyIso("USD");
+			price.setValue(BigDecimal.valueOf(10000 + i, 2));
+			price.setFormattedValue("$" + price.getValue());
+
+			final StockWsDTO stock = new StockWsDTO();
+			stock.setStockLevelStatus(i % 3 == 0 ? "lowStock" : "inStock");
+			stock.setStockLevel(Long.valueOf(i));
+
+			final ProductWsDTO product = new ProductWsDTO();
+			product.setCode("product-" + i);
+			product.setName("Benchmark product " + i);
+			product.setDescription("Long description of benchmark product " + i + " used to produce a realistic payload size.");
+			product.setPurchasable(Boolean.TRUE);
+			product.setPrice(price);
+			product.setStock(stock);
+			products.add(product);
+		}
+
+		final ProductListWsDTO productList = new ProductListWsDTO();
+		productList.setProducts(products);
+		productList.setCatalog("electronicsProductCatalog");
+		productList.setVersion("Online");
+		productList.setTotalProductCount(Integer.valueOf(size));
+		productList.setTotalPageCount(Integer.valueOf(1));
+		productList.setCurrentPage(Integer.valueOf(0));
+		return productList;
+	}
+}
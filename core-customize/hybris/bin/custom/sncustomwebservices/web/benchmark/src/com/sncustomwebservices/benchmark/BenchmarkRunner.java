@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the sncustomwebservices benchmarks and writes the JMH results as JSON, so that runs on different commits can be
+ * compared with any JMH result viewer or a diff of the scores.
+ * <p>
+ * Arguments: {@code <result file> [include regexp] [profiler]}. The include expression defaults to every benchmark of
+ * this package; the optional profiler (e.g. {@code gc}) adds allocation figures to the report.
+ */
+public final class BenchmarkRunner
+{
+	private static final String DEFAULT_INCLUDE = BenchmarkRunner.class.getPackage().getName() + ".*Benchmark.*";
+
+	private BenchmarkRunner()
+	{
+		//empty
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		if (args.length < 1)
+		{
+			throw new IllegalArgumentException("Usage: BenchmarkRunner <result file> [include regexp] [profiler]");
+		}
+
+		final File resultFile = new File(args[0]);
+		final File resultDir = resultFile.getAbsoluteFile().getParentFile();
+		if (resultDir != null && !resultDir.isDirectory() && !resultDir.mkdirs())
+		{
+			throw new IllegalStateException("Cannot create benchmark result directory: " + resultDir);
+		}
+
+		final ChainedOptionsBuilder options = new OptionsBuilder() //
+				.include(args.length > 1 && !args[1].isEmpty() ? args[1] : DEFAULT_INCLUDE) //
+				.resultFormat(ResultFormatType.JSON) //
+				.result(resultFile.getAbsolutePath());
+		if (args.length > 2 && !args[2].isEmpty())
+		{
+			options.addProfiler(args[2]);
+		}
+
+		new Runner(options.build()).run();
+	}
+}
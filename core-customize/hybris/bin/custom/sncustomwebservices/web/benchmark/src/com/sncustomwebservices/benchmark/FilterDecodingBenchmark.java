@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.commerceservices.search.solrfacetsearch.data.SolrSearchFilterQueryData;
+import com.sncustomwebservices.v2.helper.ProductsHelper;
+import com.sncustomwebservices.validator.SapProductAvailabilityFilterValidator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Parses the product search filters from {@code fixtures/product-filters.txt} with
+ * {@link ProductsHelper#decodeFilters(String)} and the availability filters from
+ * {@code fixtures/availability-filters.txt} with
+ * {@link SapProductAvailabilityFilterValidator#decodeAndValidateFilters(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterDecodingBenchmark
+{
+	private final FilterDecodingProductsHelper productsHelper = new FilterDecodingProductsHelper();
+	private final SapProductAvailabilityFilterValidator availabilityFilterValidator = new SapProductAvailabilityFilterValidator();
+
+	private String[] productFilters;
+	private String[] availabilityFilters;
+
+	@Setup
+	public void setUp()
+	{
+		productFilters = BenchmarkFixtures.lines("product-filters.txt");
+		availabilityFilters = BenchmarkFixtures.lines("availability-filters.txt");
+	}
+
+	@Benchmark
+	public void decodeProductFilters(final Blackhole blackhole)
+	{
+		for (final String filters : productFilters)
+		{
+			blackhole.consume(productsHelper.decodeFilters(filters));
+		}
+	}
+
+	@Benchmark
+	public void decodeAvailabilityFilters(final Blackhole blackhole)
+	{
+		for (final String filters : availabilityFilters)
+		{
+			blackhole.consume(availabilityFilterValidator.decodeAndValidateFilters(filters));
+		}
+	}
+
+	/**
+	 * Exposes the filter parsing of {@link ProductsHelper}. The search facades are not needed for it.
+	 */
+	protected static class FilterDecodingProductsHelper extends ProductsHelper
+	{
+		@Override
+		public List<SolrSearchFilterQueryData> decodeFilters(final String filters)
+		{
+			return super.decodeFilters(filters);
+		}
+	}
+}
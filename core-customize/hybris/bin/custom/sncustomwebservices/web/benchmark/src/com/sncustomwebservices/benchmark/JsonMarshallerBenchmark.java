@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductListWsDTO;
+import com.sncustomwebservices.jackson.StreamingJsonSerializerFactory;
+import com.sncustomwebservices.xstream.JsonXStreamFactory;
+import com.sncustomwebservices.xstream.JsonXStreamMarshallerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.stream.StreamResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.oxm.xstream.XStreamMarshaller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.thoughtworks.xstream.XStream;
+
+
+/**
+ * Compares the XStream JSON marshaller with the Jackson streaming serializer on large {@link ProductListWsDTO}
+ * payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMarshallerBenchmark
+{
+	@Param({ "20", "500" })
+	private int productCount;
+
+	private ProductListWsDTO payload;
+	private XStreamMarshaller xStreamMarshaller;
+	private StreamingJsonSerializerFactory streamingSerializerFactory;
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		final GenericApplicationContext ctx = new GenericApplicationContext();
+		ctx.refresh();
+
+		final JsonXStreamFactory xStreamFactory = new JsonXStreamFactory();
+		xStreamFactory.afterPropertiesSet();
+		final JsonXStreamMarshallerFactory marshallerFactory = new JsonXStreamMarshallerFactory();
+		marshallerFactory.setApplicationContext(ctx);
+		marshallerFactory.setXStream((XStream) xStreamFactory.getObject());
+		marshallerFactory.afterPropertiesSet();
+		xStreamMarshaller = (XStreamMarshaller) marshallerFactory.getObject();
+
+		streamingSerializerFactory = new StreamingJsonSerializerFactory();
+		streamingSerializerFactory.setApplicationContext(ctx);
+		streamingSerializerFactory.afterPropertiesSet();
+
+		payload = BenchmarkFixtures.productList(productCount);
+	}
+
+	@Benchmark
+	public byte[] xStream() throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8))
+		{
+			xStreamMarshaller.marshal(payload, new StreamResult(writer));
+		}
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] jacksonStreaming() throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final JsonGenerator generator = jsonFactory.createGenerator(out))
+		{
+			streamingSerializerFactory.write(payload, generator);
+		}
+		return out.toByteArray();
+	}
+}
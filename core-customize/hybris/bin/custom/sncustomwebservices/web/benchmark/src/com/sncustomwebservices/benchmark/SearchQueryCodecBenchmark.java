@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.commerceservices.search.solrfacetsearch.data.SolrSearchQueryData;
+import com.sncustomwebservices.util.ws.impl.DefaultSearchQueryCodec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Decodes and encodes the search queries from {@code fixtures/search-queries.txt} with {@link DefaultSearchQueryCodec}.
+ * One operation processes every fixture line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryCodecBenchmark
+{
+	private final DefaultSearchQueryCodec codec = new DefaultSearchQueryCodec();
+
+	private String[] queries;
+	private SolrSearchQueryData[] decodedQueries;
+
+	@Setup
+	public void setUp()
+	{
+		queries = BenchmarkFixtures.lines("search-queries.txt");
+		decodedQueries = new SolrSearchQueryData[queries.length];
+		for (int i = 0; i < queries.length; i++)
+		{
+			decodedQueries[i] = codec.decodeQuery(queries[i]);
+		}
+	}
+
+	@Benchmark
+	public void decodeQuery(final Blackhole blackhole)
+	{
+		for (final String query : queries)
+		{
+			blackhole.consume(codec.decodeQuery(query));
+		}
+	}
+
+	@Benchmark
+	public void encodeQuery(final Blackhole blackhole)
+	{
+		for (final SolrSearchQueryData query : decodedQueries)
+		{
+			blackhole.consume(codec.encodeQuery(query));
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.consent.AnonymousConsentFacade;
+import de.hybris.platform.commercefacades.consent.CustomerConsentDataStrategy;
+import de.hybris.platform.commercefacades.user.UserFacade;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.commerceservices.user.UserMatchingService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.order.CartService;
+import de.hybris.platform.servicelayer.i18n.I18NService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.auth.GuestRoleFilter;
+import com.sncustomwebservices.context.ContextInformationLoader;
+import com.sncustomwebservices.filter.ConsentFilter;
+import com.sncustomwebservices.filter.Europe1AttributesFilter;
+import com.sncustomwebservices.filter.SessionCurrencyFilter;
+import com.sncustomwebservices.filter.SessionLanguageFilter;
+import com.sncustomwebservices.v2.filter.StatelessReadBypassFilter;
+import com.sncustomwebservices.v2.filter.StatelessReadFilter;
+import com.sncustomwebservices.v2.filter.UserMatchingFilter;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+
+/**
+ * Requests per second of an anonymous product detail request through the session filters of the v2 filter chain, once
+ * through the user, consent, Europe1, language, currency and guest filters and once on the stateless read path that
+ * skips them. The services are stubs that burn a fixed amount of CPU per call to stand in for the session and database
+ * work, so the result shows the cost of the calls the stateless path saves rather than of the platform itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatelessReadBenchmark
+{
+	private static final String PRODUCT_PATH = "/electronics/products/1934793";
+
+	@Param({ "200" })
+	private long serviceTokens;
+
+	private List<Filter> sessionFilters;
+	private List<Filter> statelessFilters;
+
+	@Setup
+	public void setUp()
+	{
+		final BaseSiteModel baseSite = new BaseSiteModel();
+		baseSite.setUid("electronics");
+		final LanguageModel language = new LanguageModel()
+		{
+			@Override
+			public PK getPk()
+			{
+				return PK.fromLong(1);
+			}
+		};
+		final CurrencyModel currency = new CurrencyModel()
+		{
+			@Override
+			public PK getPk()
+			{
+				return PK.fromLong(2);
+			}
+		};
+		final UserModel anonymous = new UserModel();
+
+		final BaseSiteService baseSiteService = stub(BaseSiteService.class, answer("getCurrentBaseSite", baseSite));
+		final SessionService sessionService = stub(SessionService.class, Collections.emptyMap());
+		final UserService userService = stub(UserService.class, answer("getAnonymousUser", anonymous));
+		final UserFacade userFacade = stub(UserFacade.class, answer("isAnonymousUser", Boolean.TRUE));
+		final CartService cartService = stub(CartService.class, Collections.emptyMap());
+		final BaseStoreService baseStoreService = stub(BaseStoreService.class, Collections.emptyMap());
+		final I18NService i18nService = stub(I18NService.class, Collections.emptyMap());
+		final Map<String, Function<Object[], Object>> loaderAnswers = new HashMap<>();
+		loaderAnswers.put("setLanguageFromRequest", args -> language);
+		loaderAnswers.put("setCurrencyFromRequest", args -> currency);
+		final ContextInformationLoader contextInformationLoader = stub(ContextInformationLoader.class, loaderAnswers);
+		final ModelService modelService = stub(ModelService.class,
+				Collections.singletonMap("get", args -> language.getPk().equals(args[0]) ? language : currency));
+		final CommerceCommonI18NService commerceCommonI18NService = stub(CommerceCommonI18NService.class,
+				Collections.emptyMap());
+
+		final UserMatchingFilter userMatchingFilter = new UserMatchingFilter();
+		userMatchingFilter.setRegexp("^/[^/]+/(?:users|orgUsers)/([^/]+)");
+		userMatchingFilter.setBaseSiteService(baseSiteService);
+		userMatchingFilter.setUserService(userService);
+		userMatchingFilter.setSessionService(sessionService);
+		userMatchingFilter.setUserMatchingService(stub(UserMatchingService.class, Collections.emptyMap()));
+
+		final ConsentFilter consentFilter = new ConsentFilter();
+		consentFilter.setUserFacade(userFacade);
+		consentFilter.setBaseSiteService(baseSiteService);
+		consentFilter.setAnonymousConsentFacade(stub(AnonymousConsentFacade.class, Collections.emptyMap()));
+		consentFilter.setCustomerConsentDataStrategy(stub(CustomerConsentDataStrategy.class, Collections.emptyMap()));
+		consentFilter.setPopulatingConsentsEnabled(true);
+
+		final Europe1AttributesFilter europe1AttributesFilter = new Europe1AttributesFilter();
+		europe1AttributesFilter.setBaseStoreService(baseStoreService);
+		europe1AttributesFilter.setSessionService(sessionService);
+
+		final SessionLanguageFilter sessionLanguageFilter = new SessionLanguageFilter();
+		sessionLanguageFilter.setContextInformationLoader(contextInformationLoader);
+		sessionLanguageFilter.setI18nService(i18nService);
+		sessionLanguageFilter.setEnableLanguageFallback(true);
+
+		final SessionCurrencyFilter sessionCurrencyFilter = new SessionCurrencyFilter();
+		sessionCurrencyFilter.setContextInformationLoader(contextInformationLoader);
+
+		final GuestRoleFilter guestRoleFilter = new GuestRoleFilter();
+		guestRoleFilter.setUserFacade(userFacade);
+		guestRoleFilter.setCartService(cartService);
+		guestRoleFilter.setAuthenticationEventPublisher(new DefaultAuthenticationEventPublisher());
+		guestRoleFilter.setGuestRole("ROLE_GUEST");
+
+		final StatelessReadFilter statelessReadFilter = new StatelessReadFilter();
+		statelessReadFilter.setPaths("^/[^/]+/products/search$,^/[^/]+/products/(?!search$|suggestions$)[^/]+$");
+		statelessReadFilter.setContextInformationLoader(contextInformationLoader);
+		statelessReadFilter.setCommerceCommonI18NService(commerceCommonI18NService);
+		statelessReadFilter.setI18nService(i18nService);
+		statelessReadFilter.setBaseSiteService(baseSiteService);
+		statelessReadFilter.setBaseStoreService(baseStoreService);
+		statelessReadFilter.setSessionService(sessionService);
+		statelessReadFilter.setUserService(userService);
+		statelessReadFilter.setModelService(modelService);
+		statelessReadFilter.setTimeToLive(3600);
+
+		sessionFilters = Arrays.asList(userMatchingFilter, consentFilter, europe1AttributesFilter, sessionLanguageFilter,
+				sessionCurrencyFilter, guestRoleFilter);
+		statelessFilters = Arrays.asList(statelessReadFilter, new StatelessReadBypassFilter(userMatchingFilter),
+				new StatelessReadBypassFilter(consentFilter), new StatelessReadBypassFilter(europe1AttributesFilter),
+				new StatelessReadBypassFilter(sessionLanguageFilter), new StatelessReadBypassFilter(sessionCurrencyFilter),
+				new StatelessReadBypassFilter(guestRoleFilter));
+
+		SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymous",
+				Collections.singletonList(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+	}
+
+	@Benchmark
+	public void sessionFilters(final Blackhole blackhole) throws IOException, ServletException
+	{
+		execute(sessionFilters, blackhole);
+	}
+
+	@Benchmark
+	public void statelessRead(final Blackhole blackhole) throws IOException, ServletException
+	{
+		execute(statelessFilters, blackhole);
+	}
+
+	private static void execute(final List<Filter> filters, final Blackhole blackhole) throws IOException, ServletException
+	{
+		// a new request per invocation, the filters only run once per request
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sncustomwebservices/v2" + PRODUCT_PATH);
+		request.setServletPath("/v2");
+		request.setPathInfo(PRODUCT_PATH);
+		new ListFilterChain(filters, blackhole).doFilter(request, new MockHttpServletResponse());
+	}
+
+	private static Map<String, Function<Object[], Object>> answer(final String methodName, final Object value)
+	{
+		return Collections.singletonMap(methodName, args -> value);
+	}
+
+	/**
+	 * Creates a service stub that burns {@link #serviceTokens} per call and answers the given methods by name. Other
+	 * methods return {@code null}, {@code false} or {@code 0}.
+	 */
+	private <T> T stub(final Class<T> type, final Map<String, Function<Object[], Object>> answers)
+	{
+		final long tokens = serviceTokens;
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class)
+			{
+				return "equals".equals(method.getName()) ? Boolean.valueOf(proxy == args[0]) : method.invoke(this, args);
+			}
+			Blackhole.consumeCPU(tokens);
+			final Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer != null)
+			{
+				return answer.apply(args);
+			}
+			final Class<?> returnType = method.getReturnType();
+			if (returnType == boolean.class)
+			{
+				return Boolean.FALSE;
+			}
+			if (returnType.isPrimitive() && returnType != void.class)
+			{
+				return returnType == long.class ? Long.valueOf(0) : Integer.valueOf(0);
+			}
+			return null;
+		}));
+	}
+
+	private static class ListFilterChain implements FilterChain
+	{
+		private final List<Filter> filters;
+		private final Blackhole blackhole;
+		private int position;
+
+		ListFilterChain(final List<Filter> filters, final Blackhole blackhole)
+		{
+			this.filters = filters;
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void doFilter(final ServletRequest request, final ServletResponse response) throws IOException, ServletException
+		{
+			if (position < filters.size())
+			{
+				filters.get(position++).doFilter(request, response, this);
+			}
+			else
+			{
+				blackhole.consume(request);
+			}
+		}
+	}
+}
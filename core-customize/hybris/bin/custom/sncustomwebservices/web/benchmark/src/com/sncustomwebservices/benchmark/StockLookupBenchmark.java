@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.basecommerce.enums.StockLevelStatus;
+import de.hybris.platform.commercefacades.product.data.StockData;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.product.ProductModel;
+import de.hybris.platform.ordersplitting.model.StockLevelModel;
+import de.hybris.platform.ordersplitting.model.WarehouseModel;
+import de.hybris.platform.storelocator.model.PointOfServiceModel;
+import com.sncustomwebservices.dao.BatchStockLevelDao;
+import com.sncustomwebservices.dao.impl.DefaultPrefetchingStockLevelDao;
+import com.sncustomwebservices.stock.impl.DefaultBatchStockService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Compares resolving the stock of one product in many stores one store at a time, as the store finder stock facade
+ * does, with a single batched lookup. Both ask the commerce stock service for status and level of every store, the
+ * batched lookup prefetches the stock levels they read. The DAOs are stubs that burn a fixed amount of CPU per query to
+ * stand in for the database round trip, so the result shows the cost of the query count rather than of the database
+ * itself. The commerce stock service is modelled by reading the stock levels once for the status and once for the level,
+ * as the default implementation does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockLookupBenchmark
+{
+	@Param({ "50", "500" })
+	private int storeCount;
+
+	@Param({ "2000" })
+	private long queryTokens;
+
+	private ModelledBatchStockService batchStockService;
+	private ProductModel product;
+	private List<PointOfServiceModel> pointsOfService;
+
+	@Setup
+	public void setUp()
+	{
+		product = new ProductModel();
+		product.setCode("camera");
+
+		final Map<PK, List<StockLevelModel>> stockLevels = new HashMap<>();
+		pointsOfService = new ArrayList<>(storeCount);
+		for (int i = 0; i < storeCount; i++)
+		{
+			final WarehouseModel warehouse = createWarehouse(i + 1L);
+			final StockLevelModel stockLevel = new StockLevelModel();
+			stockLevel.setProductCode(product.getCode());
+			stockLevel.setWarehouse(warehouse);
+			stockLevel.setAvailable(i % 7);
+			stockLevels.put(warehouse.getPk(), Collections.singletonList(stockLevel));
+
+			final PointOfServiceModel pointOfService = new PointOfServiceModel();
+			pointOfService.setName("store-" + i);
+			pointOfService.setWarehouses(Collections.singletonList(warehouse));
+			pointsOfService.add(pointOfService);
+		}
+
+		final StubBatchStockLevelDao batchStockLevelDao = new StubBatchStockLevelDao(stockLevels, queryTokens);
+		final StubStockLevelDao stockLevelDao = new StubStockLevelDao(stockLevels, queryTokens);
+		stockLevelDao.setBatchStockLevelDao(batchStockLevelDao);
+		batchStockService = new ModelledBatchStockService(stockLevelDao);
+		batchStockService.setBatchStockLevelDao(batchStockLevelDao);
+		batchStockService.setPrefetchingStockLevelDao(stockLevelDao);
+	}
+
+	@Benchmark
+	public void perStoreLookup(final Blackhole blackhole)
+	{
+		for (final PointOfServiceModel pointOfService : pointsOfService)
+		{
+			blackhole.consume(batchStockService.createStockData(product, pointOfService));
+		}
+	}
+
+	@Benchmark
+	public Map<String, StockData> batchedLookup()
+	{
+		return batchStockService.getStockDataForProductAndPointsOfService(product, pointsOfService);
+	}
+
+	private static WarehouseModel createWarehouse(final long pk)
+	{
+		final PK warehousePk = PK.fromLong(pk);
+		return new WarehouseModel()
+		{
+			@Override
+			public PK getPk()
+			{
+				return warehousePk;
+			}
+		};
+	}
+
+	private static class ModelledBatchStockService extends DefaultBatchStockService
+	{
+		private final DefaultPrefetchingStockLevelDao stockLevelDao;
+
+		ModelledBatchStockService(final DefaultPrefetchingStockLevelDao stockLevelDao)
+		{
+			this.stockLevelDao = stockLevelDao;
+		}
+
+		@Override
+		public StockData createStockData(final ProductModel product, final PointOfServiceModel pointOfService)
+		{
+			// status and level are resolved with a stock level lookup each
+			final boolean inStock = stockLevelDao.findStockLevels(product.getCode(), pointOfService.getWarehouses()).stream()
+					.anyMatch(level -> level.getAvailable() > 0);
+			final long available = stockLevelDao.findStockLevels(product.getCode(), pointOfService.getWarehouses()).stream()
+					.mapToLong(StockLevelModel::getAvailable).sum();
+			final StockData stockData = new StockData();
+			stockData.setStockLevelStatus(inStock ? StockLevelStatus.INSTOCK : StockLevelStatus.OUTOFSTOCK);
+			stockData.setStockLevel(Long.valueOf(available));
+			return stockData;
+		}
+	}
+
+	private static class StubStockLevelDao extends DefaultPrefetchingStockLevelDao
+	{
+		private final Map<PK, List<StockLevelModel>> stockLevels;
+		private final long queryTokens;
+
+		StubStockLevelDao(final Map<PK, List<StockLevelModel>> stockLevels, final long queryTokens)
+		{
+			this.stockLevels = stockLevels;
+			this.queryTokens = queryTokens;
+		}
+
+		@Override
+		protected Collection<StockLevelModel> loadStockLevels(final String productCode,
+				final Collection<WarehouseModel> warehouses)
+		{
+			Blackhole.consumeCPU(queryTokens);
+			final List<StockLevelModel> result = new ArrayList<>();
+			for (final WarehouseModel warehouse : warehouses)
+			{
+				result.addAll(stockLevels.getOrDefault(warehouse.getPk(), Collections.emptyList()));
+			}
+			return result;
+		}
+	}
+
+	private static class StubBatchStockLevelDao implements BatchStockLevelDao
+	{
+		private final Map<PK, List<StockLevelModel>> stockLevels;
+		private final long queryTokens;
+
+		StubBatchStockLevelDao(final Map<PK, List<StockLevelModel>> stockLevels, final long queryTokens)
+		{
+			this.stockLevels = stockLevels;
+			this.queryTokens = queryTokens;
+		}
+
+		@Override
+		public List<StockLevelModel> findStockLevels(final Collection<String> productCodes,
+				final Collection<WarehouseModel> warehouses)
+		{
+			Blackhole.consumeCPU(queryTokens);
+			final List<StockLevelModel> result = new ArrayList<>();
+			for (final WarehouseModel warehouse : warehouses)
+			{
+				result.addAll(stockLevels.getOrDefault(warehouse.getPk(), Collections.emptyList()));
+			}
+			return result;
+		}
+
+		@Override
+		public List<PointOfServiceModel> findPointsOfService(final Collection<String> names)
+		{
+			Blackhole.consumeCPU(queryTokens);
+			return Collections.emptyList();
+		}
+	}
+}
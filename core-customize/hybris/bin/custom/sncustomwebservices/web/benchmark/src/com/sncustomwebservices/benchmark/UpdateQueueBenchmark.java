@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+import com.sncustomwebservices.queues.impl.ProductExpressUpdateQueue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the {@link com.sncustomwebservices.queues.impl.AbstractUpdateQueue} operations used by the express update
+ * channel and the queue cleaner: bulk insertion, reading items newer than a date and removing items older than a date.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateQueueBenchmark
+{
+	@Param({ "100", "1000" })
+	private int queueSize;
+
+	private List<ProductExpressUpdateElementData> items;
+	private ProductExpressUpdateQueue filledQueue;
+	private Date middle;
+
+	@Setup(Level.Trial)
+	public void setUpItems()
+	{
+		items = new ArrayList<>(queueSize);
+		for (int i = 0; i < queueSize; i++)
+		{
+			final ProductExpressUpdateElementData item = new ProductExpressUpdateElementData();
+			item.setCode("product-" + i);
+			item.setCatalogId("electronicsProductCatalog");
+			item.setCatalogVersion("Online");
+			items.add(item);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpQueue()
+	{
+		filledQueue = createQueue();
+		filledQueue.addItems(items);
+		middle = new Date(filledQueue.firstKey().longValue() + (queueSize / 2));
+	}
+
+	@Benchmark
+	public ProductExpressUpdateQueue addItems()
+	{
+		final ProductExpressUpdateQueue queue = createQueue();
+		queue.addItems(items);
+		return queue;
+	}
+
+	@Benchmark
+	public List<ProductExpressUpdateElementData> getItemsNewerThan()
+	{
+		return filledQueue.getItems(middle);
+	}
+
+	@Benchmark
+	public ProductExpressUpdateQueue removeItemsOlderThan()
+	{
+		filledQueue.removeItems(middle);
+		return filledQueue;
+	}
+
+	protected ProductExpressUpdateQueue createQueue()
+	{
+		final ProductExpressUpdateQueue queue = new ProductExpressUpdateQueue();
+		queue.setMaxCapacity(queueSize);
+		return queue;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import com.sncustomwebservices.queues.UpdateQueue;
+import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
+import com.sncustomwebservices.queues.impl.CompactProductExpressUpdateQueue;
+import com.sncustomwebservices.queues.impl.ProductExpressUpdateQueue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the heap retained by the object based {@link com.sncustomwebservices.queues.impl.ProductExpressUpdateQueue}
+ * with the column based {@link com.sncustomwebservices.queues.impl.CompactProductExpressUpdateQueue} once filled with
+ * the given number of elements. Catalog ids and versions are new strings for every element, like the ones read from
+ * the product models by the converter. The retained heap is reported as the {@code retainedBytes} counter, the time of
+ * filling the queue as the primary result.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class UpdateQueueFootprintBenchmark
+{
+	@Param({ "100000", "1000000" })
+	private int queueSize;
+
+	@Param({ "objects", "compact" })
+	private String layout;
+
+	public long retainedBytes;
+
+	private UpdateQueue<ProductExpressUpdateElementData> queue;
+
+	@Setup(Level.Iteration)
+	public void clear()
+	{
+		queue = null;
+		retainedBytes = 0;
+	}
+
+	@Benchmark
+	public UpdateQueue<ProductExpressUpdateElementData> fill()
+	{
+		final long before = usedHeap();
+		queue = createQueue();
+		for (int i = 0; i < queueSize; i++)
+		{
+			final ProductExpressUpdateElementData item = new ProductExpressUpdateElementData();
+			item.setCode("product-" + i);
+			item.setCatalogId(new String("electronicsProductCatalog"));
+			item.setCatalogVersion(new String("Online"));
+			queue.addItem(item);
+		}
+		retainedBytes = usedHeap() - before;
+		return queue;
+	}
+
+	protected UpdateQueue<ProductExpressUpdateElementData> createQueue()
+	{
+		if ("compact".equals(layout))
+		{
+			final CompactProductExpressUpdateQueue compactQueue = new CompactProductExpressUpdateQueue();
+			compactQueue.setMaxCapacity(queueSize);
+			return compactQueue;
+		}
+		final ProductExpressUpdateQueue objectQueue = new ProductExpressUpdateQueue();
+		objectQueue.setMaxCapacity(queueSize);
+		return objectQueue;
+	}
+
+	private static long usedHeap()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+		{
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import com.sncustomwebservices.v2.filter.AbstractUrlMatchingFilter;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+
+/**
+ * Matches the request paths from {@code fixtures/request-paths.txt} the way the base site, user and cart matching
+ * filters do, using the expressions configured in {@code filter-config-v2-spring.xml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlMatchingFilterBenchmark
+{
+	private static final String BASE_SITE_REGEXP = "^/(?!(swagger)|(.*api-docs)|(csrf)|(webjars))([^/]+)";
+	private static final String USER_REGEXP = "^/[^/]+/(?:users|orgUsers)/([^/]+)";
+	private static final String CART_REGEXP = "^/[^/]+/(?:users|orgUsers)/[^/]+/carts/([^/]+)";
+
+	private final MatchingFilter filter = new MatchingFilter();
+
+	private HttpServletRequest[] requests;
+
+	@Setup
+	public void setUp()
+	{
+		final String[] paths = BenchmarkFixtures.lines("request-paths.txt");
+		requests = new HttpServletRequest[paths.length];
+		for (int i = 0; i < paths.length; i++)
+		{
+			final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sncustomwebservices/v2" + paths[i]);
+			request.setServletPath("/v2");
+			request.setPathInfo(paths[i]);
+			requests[i] = request;
+		}
+	}
+
+	@Benchmark
+	public void baseSiteValue(final Blackhole blackhole)
+	{
+		for (final HttpServletRequest request : requests)
+		{
+			blackhole.consume(filter.getBaseSiteValue(request, BASE_SITE_REGEXP));
+		}
+	}
+
+	@Benchmark
+	public void userAndCartValue(final Blackhole blackhole)
+	{
+		for (final HttpServletRequest request : requests)
+		{
+			if (filter.matchesUrl(request, USER_REGEXP))
+			{
+				blackhole.consume(filter.getValue(request, USER_REGEXP));
+			}
+			if (filter.matchesUrl(request, CART_REGEXP))
+			{
+				blackhole.consume(filter.getValue(request, CART_REGEXP));
+			}
+		}
+	}
+
+	/**
+	 * Exposes the matching methods of {@link AbstractUrlMatchingFilter} without any filtering logic.
+	 */
+	protected static class MatchingFilter extends AbstractUrlMatchingFilter
+	{
+		@Override
+		public boolean matchesUrl(final HttpServletRequest request, final String regexp)
+		{
+			return super.matchesUrl(request, regexp);
+		}
+
+		@Override
+		public String getBaseSiteValue(final HttpServletRequest request, final String regexp)
+		{
+			return super.getBaseSiteValue(request, regexp);
+		}
+
+		@Override
+		public String getValue(final HttpServletRequest request, final String regexp)
+		{
+			return super.getValue(request, regexp);
+		}
+
+		@Override
+		protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+				final FilterChain filterChain)
+		{
+			//not used by the benchmark
+		}
+	}
+}
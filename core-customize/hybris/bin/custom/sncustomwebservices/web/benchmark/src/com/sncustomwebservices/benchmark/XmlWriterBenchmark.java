@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.benchmark;
+
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductListWsDTO;
+import com.sncustomwebservices.xstream.XmlXStreamFactory;
+import com.sncustomwebservices.xstream.XmlXStreamMarshallerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.stream.StreamResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.oxm.xstream.XStreamMarshaller;
+
+import com.thoughtworks.xstream.XStream;
+
+
+/**
+ * Compares the indenting XML writer with the compact writer used when
+ * {@link XmlXStreamMarshallerFactory#setIndentOutput(boolean)} is disabled. Run with {@code -prof gc} to report the
+ * allocation rate per operation next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlWriterBenchmark
+{
+	@Param({ "20", "500" })
+	private int productCount;
+
+	private ProductListWsDTO payload;
+	private XStreamMarshaller indentingMarshaller;
+	private XStreamMarshaller compactMarshaller;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		final GenericApplicationContext ctx = new GenericApplicationContext();
+		ctx.refresh();
+
+		indentingMarshaller = createMarshaller(ctx, true);
+		compactMarshaller = createMarshaller(ctx, false);
+		payload = BenchmarkFixtures.productList(productCount);
+	}
+
+	@Benchmark
+	public byte[] indenting() throws Exception
+	{
+		return marshal(indentingMarshaller);
+	}
+
+	@Benchmark
+	public byte[] compact() throws Exception
+	{
+		return marshal(compactMarshaller);
+	}
+
+	protected byte[] marshal(final XStreamMarshaller marshaller) throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		marshaller.marshal(payload, new StreamResult(out));
+		return out.toByteArray();
+	}
+
+	protected static XStreamMarshaller createMarshaller(final GenericApplicationContext ctx, final boolean indentOutput)
+			throws Exception
+	{
+		final XmlXStreamFactory xStreamFactory = new XmlXStreamFactory();
+		xStreamFactory.afterPropertiesSet();
+
+		final XmlXStreamMarshallerFactory marshallerFactory = new XmlXStreamMarshallerFactory();
+		marshallerFactory.setApplicationContext(ctx);
+		marshallerFactory.setXStream((XStream) xStreamFactory.getObject());
+		marshallerFactory.setIndentOutput(indentOutput);
+		marshallerFactory.afterPropertiesSet();
+		return (XStreamMarshaller) marshallerFactory.getObject();
+	}
+}
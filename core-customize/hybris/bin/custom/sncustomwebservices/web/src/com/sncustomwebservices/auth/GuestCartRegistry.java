@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.auth;
+
+/**
+ * Remembers which guest user a cart was assigned to at guest checkout, so the guest of a cart can be recognized without
+ * loading the user of the cart again.
+ */
+public interface GuestCartRegistry
+{
+	/**
+	 * Registers the guest user of the session cart. Does nothing if there is no session cart or its user is not a guest.
+	 */
+	void registerSessionCart();
+
+	/**
+	 * Returns the guest user a cart was assigned to.
+	 *
+	 * @param cartGuid
+	 * 		guid of the cart
+	 * @return uid of the guest user, or null if the cart is not known as a guest cart
+	 */
+	String getGuestUid(String cartGuid);
+}
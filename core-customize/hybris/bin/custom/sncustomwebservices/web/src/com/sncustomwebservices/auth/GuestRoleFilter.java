@@ -17,6 +17,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.security.authentication.AuthenticationEventPublisher;
@@ -42,10 +47,23 @@ public class GuestRoleFilter extends OncePerRequestFilter
 
 	private String guestRole;
 
+	private GuestCartRegistry guestCartRegistry;
+
+	private Pattern cartPattern;
+
+	private final LongAdder cartLoads = new LongAdder();
+
+	private final LongAdder avoidedCartLoads = new LongAdder();
+
 	protected static boolean canProcessAuthentication(final CustomerModel customerModel)
+	{
+		return canProcessAuthentication(customerModel.getUid());
+	}
+
+	protected static boolean canProcessAuthentication(final String guestUid)
 	{
 		final Authentication currentAuth = SecurityContextHolder.getContext().getAuthentication();
-		return currentAuth == null || !currentAuth.getClass().equals(GuestAuthenticationToken.class) || !customerModel.getUid()
+		return currentAuth == null || !currentAuth.getClass().equals(GuestAuthenticationToken.class) || !guestUid
 				.equals(currentAuth.getName());
 	}
 
@@ -53,14 +71,56 @@ public class GuestRoleFilter extends OncePerRequestFilter
 	protected void doFilterInternal(final HttpServletRequest httpservletrequest, final HttpServletResponse httpservletresponse,
 			final FilterChain filterchain) throws ServletException, IOException
 	{
-		final Optional<CustomerModel> guest = getGuest();
-		guest.filter(GuestRoleFilter::canProcessAuthentication)//
-				.map(CustomerModel::getUid)//
+		getGuestUid(httpservletrequest).filter(GuestRoleFilter::canProcessAuthentication)//
 				.ifPresent(this::processAuthentication);
 
 		filterchain.doFilter(httpservletrequest, httpservletresponse);
 	}
 
+	/**
+	 * Returns the guest of the cart the request targets. The user of the session cart is only loaded when the URL targets
+	 * a cart that is not the session cart or is not known as a guest cart by the {@link GuestCartRegistry}.
+	 */
+	protected Optional<String> getGuestUid(final HttpServletRequest request)
+	{
+		if (!getUserFacade().isAnonymousUser())
+		{
+			return Optional.empty();
+		}
+
+		final String cartId = getCartId(request);
+		if (cartPattern != null && cartId == null)
+		{
+			// the session cart is only loaded for requests targeting a cart
+			avoidedCartLoads.increment();
+			return Optional.empty();
+		}
+		if (cartId != null && getGuestCartRegistry() != null && getCartService().hasSessionCart()
+				&& cartId.equals(getCartService().getSessionCart().getGuid()))
+		{
+			// the session cart was matched for the anonymous user, so it still belongs to the guest it was assigned to
+			final String guestUid = getGuestCartRegistry().getGuestUid(cartId);
+			if (guestUid != null)
+			{
+				avoidedCartLoads.increment();
+				return Optional.of(guestUid);
+			}
+		}
+
+		cartLoads.increment();
+		return getGuest().map(CustomerModel::getUid);
+	}
+
+	protected String getCartId(final HttpServletRequest request)
+	{
+		if (cartPattern == null)
+		{
+			return null;
+		}
+		final Matcher matcher = cartPattern.matcher(StringUtils.defaultString(request.getPathInfo()));
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
 	protected Optional<CustomerModel> getGuest()
 	{
 		if (getUserFacade().isAnonymousUser())
@@ -143,4 +203,40 @@ public class GuestRoleFilter extends OncePerRequestFilter
 		this.cartService = cartService;
 	}
 
+	public GuestCartRegistry getGuestCartRegistry()
+	{
+		return guestCartRegistry;
+	}
+
+	public void setGuestCartRegistry(final GuestCartRegistry guestCartRegistry)
+	{
+		this.guestCartRegistry = guestCartRegistry;
+	}
+
+	/**
+	 * @param cartRegexp
+	 * 		expression matching the path info of requests targeting a cart, with the cart id as first group. Without it the
+	 * 		session cart is consulted for every anonymous request.
+	 */
+	public void setCartRegexp(final String cartRegexp)
+	{
+		this.cartPattern = StringUtils.isBlank(cartRegexp) ? null : Pattern.compile(cartRegexp);
+	}
+
+	/**
+	 * @return number of anonymous requests for which the session cart was consulted since startup
+	 */
+	public long getCartLoadCount()
+	{
+		return cartLoads.sum();
+	}
+
+	/**
+	 * @return number of anonymous requests for which consulting the session cart was avoided since startup
+	 */
+	public long getAvoidedCartLoadCount()
+	{
+		return avoidedCartLoads.sum();
+	}
+
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.auth.impl;
+
+import de.hybris.platform.commerceservices.enums.CustomerType;
+import de.hybris.platform.core.model.order.CartModel;
+import de.hybris.platform.core.model.user.CustomerModel;
+import de.hybris.platform.order.CartService;
+import com.sncustomwebservices.auth.GuestCartRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link GuestCartRegistry}, held in memory of this node. Carts registered on other nodes or
+ * before a restart are not known, the caller has to fall back to the user of the cart for them. Entries expire
+ * {@link #getTimeToLive()} seconds after they were registered, the oldest are dropped when there are more than
+ * {@link #getMaxEntries()}.
+ */
+public class DefaultGuestCartRegistry implements GuestCartRegistry
+{
+	// insertion ordered, so the eldest entries expire first; guarded by this
+	private final LinkedHashMap<String, GuestCart> guestCarts = new LinkedHashMap<>();
+
+	private CartService cartService;
+	private long timeToLive;
+	private int maxEntries;
+
+	@Override
+	public void registerSessionCart()
+	{
+		if (!getCartService().hasSessionCart())
+		{
+			return;
+		}
+		final CartModel cart = getCartService().getSessionCart();
+		if (cart.getUser() instanceof CustomerModel && CustomerType.GUEST.equals(((CustomerModel) cart.getUser()).getType()))
+		{
+			register(cart.getGuid(), cart.getUser().getUid());
+		}
+	}
+
+	protected synchronized void register(final String cartGuid, final String guestUid)
+	{
+		guestCarts.remove(cartGuid);
+		guestCarts.put(cartGuid, new GuestCart(guestUid, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive())));
+		final Iterator<GuestCart> eldest = guestCarts.values().iterator();
+		while (guestCarts.size() > getMaxEntries() && eldest.hasNext())
+		{
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	@Override
+	public synchronized String getGuestUid(final String cartGuid)
+	{
+		final long now = System.currentTimeMillis();
+		final Iterator<GuestCart> eldest = guestCarts.values().iterator();
+		while (eldest.hasNext() && eldest.next().expiresAt <= now)
+		{
+			eldest.remove();
+		}
+		final GuestCart guestCart = guestCarts.get(cartGuid);
+		return guestCart == null ? null : guestCart.guestUid;
+	}
+
+	protected CartService getCartService()
+	{
+		return cartService;
+	}
+
+	@Required
+	public void setCartService(final CartService cartService)
+	{
+		this.cartService = cartService;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a guest cart is remembered after the guest was assigned
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		maximum number of remembered guest carts
+	 */
+	@Required
+	public void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+
+	protected static class GuestCart
+	{
+		private final String guestUid;
+		private final long expiresAt;
+
+		protected GuestCart(final String guestUid, final long expiresAt)
+		{
+			this.guestUid = guestUid;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
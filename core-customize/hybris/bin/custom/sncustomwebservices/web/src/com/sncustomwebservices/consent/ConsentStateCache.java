@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.consent;
+
+import de.hybris.platform.commercefacades.consent.data.AnonymousConsentData;
+
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * Caches the parsed and serialized anonymous consent headers the consent filter works with on every request.
+ */
+public interface ConsentStateCache
+{
+	/**
+	 * Returns the consents of an anonymous consent header, parsing it with the given parser only if the same header was
+	 * not parsed before.
+	 *
+	 * @param rawHeader
+	 * 		value of the header as sent by the client
+	 * @param parser
+	 * 		parser used for headers that are not cached
+	 * @return copies of the consents, which may be modified by the caller
+	 */
+	List<AnonymousConsentData> getAnonymousConsents(String rawHeader, Function<String, List<AnonymousConsentData>> parser);
+
+	/**
+	 * Returns the header value of the given consents, serializing them with the given serializer only if the same consents
+	 * were not serialized before.
+	 *
+	 * @param consents
+	 * 		consents to write
+	 * @param serializer
+	 * 		serializer used for consents that are not cached
+	 * @return the header value, or {@code null} if the consents could not be serialized
+	 */
+	String getAnonymousConsentHeader(List<AnonymousConsentData> consents,
+			Function<List<AnonymousConsentData>, String> serializer);
+}
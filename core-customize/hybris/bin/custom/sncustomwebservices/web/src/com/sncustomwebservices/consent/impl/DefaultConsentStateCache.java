@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.consent.impl;
+
+import de.hybris.platform.commercefacades.consent.data.AnonymousConsentData;
+import com.sncustomwebservices.consent.ConsentStateCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link ConsentStateCache}. Parsed and serialized anonymous consent headers are kept in two
+ * maps, each limited to {@link #getMaxEntries()} of the most recently used headers. They only depend on the header, so
+ * they never become stale.
+ */
+public class DefaultConsentStateCache implements ConsentStateCache
+{
+	// access ordered, so the least recently used headers are dropped first; guarded by this
+	private Map<String, AnonymousConsentData[]> parsedHeaders;
+	// access ordered, so the least recently used consents are dropped first; guarded by this
+	private Map<String, String> serializedHeaders;
+
+	private int maxEntries;
+
+	@Override
+	public List<AnonymousConsentData> getAnonymousConsents(final String rawHeader,
+			final Function<String, List<AnonymousConsentData>> parser)
+	{
+		AnonymousConsentData[] consents;
+		synchronized (this)
+		{
+			consents = parsedHeaders.get(rawHeader);
+		}
+		if (consents == null)
+		{
+			consents = parser.apply(rawHeader).toArray(new AnonymousConsentData[0]);
+			synchronized (this)
+			{
+				parsedHeaders.put(rawHeader, consents);
+			}
+		}
+		final List<AnonymousConsentData> copies = new ArrayList<>(consents.length);
+		for (final AnonymousConsentData consent : consents)
+		{
+			copies.add(copy(consent));
+		}
+		return copies;
+	}
+
+	@Override
+	public String getAnonymousConsentHeader(final List<AnonymousConsentData> consents,
+			final Function<List<AnonymousConsentData>, String> serializer)
+	{
+		final String key = createKey(consents);
+		String header;
+		synchronized (this)
+		{
+			header = serializedHeaders.get(key);
+		}
+		if (header == null)
+		{
+			header = serializer.apply(consents);
+			if (header != null)
+			{
+				final AnonymousConsentData[] written = new AnonymousConsentData[consents.size()];
+				for (int i = 0; i < written.length; i++)
+				{
+					written[i] = copy(consents.get(i));
+				}
+				synchronized (this)
+				{
+					serializedHeaders.put(key, header);
+					// clients send the written header with their next request
+					parsedHeaders.putIfAbsent(header, written);
+				}
+			}
+		}
+		return header;
+	}
+
+	protected static String createKey(final List<AnonymousConsentData> consents)
+	{
+		final StringBuilder key = new StringBuilder();
+		for (final AnonymousConsentData consent : consents)
+		{
+			key.append(consent.getTemplateCode()).append(':').append(consent.getTemplateVersion()).append(':')
+					.append(consent.getConsentState()).append('|');
+		}
+		return key.toString();
+	}
+
+	protected static AnonymousConsentData copy(final AnonymousConsentData consent)
+	{
+		final AnonymousConsentData copy = new AnonymousConsentData();
+		copy.setTemplateCode(consent.getTemplateCode());
+		copy.setTemplateVersion(consent.getTemplateVersion());
+		copy.setConsentState(consent.getConsentState());
+		return copy;
+	}
+
+	protected static <V> Map<String, V> createLruMap(final int maxEntries)
+	{
+		return new LinkedHashMap<String, V>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, V> eldest)
+			{
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		number of cached parsed and of cached serialized headers
+	 */
+	@Required
+	public synchronized void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.parsedHeaders = createLruMap(maxEntries);
+		this.serializedHeaders = createLruMap(maxEntries);
+	}
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.exceptions;
+
+/**
+ * Thrown when a customer group membership job cannot be queued because the queue is full.
+ */
+public class CustomerGroupMembershipJobRejectedException extends Exception
+{
+	/**
+	 * @param message
+	 * 		error message
+	 */
+	public CustomerGroupMembershipJobRejectedException(final String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.exceptions;
+
+import javax.servlet.ServletException;
+
+
+/**
+ * Thrown when a retry with an idempotency key sends another body than the request the key was first used for.
+ */
+public class IdempotencyKeyReusedException extends ServletException
+{
+	/**
+	 * @param message
+	 * 		error message
+	 */
+	public IdempotencyKeyReusedException(final String message)
+	{
+		super(message);
+	}
+}
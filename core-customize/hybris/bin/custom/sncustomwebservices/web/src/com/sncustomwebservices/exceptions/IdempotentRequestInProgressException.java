@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.exceptions;
+
+import javax.servlet.ServletException;
+
+
+/**
+ * Thrown when a request with an idempotency key is still being processed after a retry waited for it.
+ */
+public class IdempotentRequestInProgressException extends ServletException
+{
+	/**
+	 * @param message
+	 * 		error message
+	 */
+	public IdempotentRequestInProgressException(final String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.exceptions;
+
+/**
+ * Thrown when an asynchronous order placement cannot be queued because all workers are busy and the queue is full.
+ */
+public class OrderPlacementRejectedException extends Exception
+{
+	/**
+	 * @param message
+	 * 		error message
+	 */
+	public OrderPlacementRejectedException(final String message)
+	{
+		super(message);
+	}
+}
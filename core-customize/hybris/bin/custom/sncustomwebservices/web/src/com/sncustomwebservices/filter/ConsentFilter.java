@@ -8,6 +8,7 @@ import de.hybris.platform.commercefacades.consent.CustomerConsentDataStrategy;
 import de.hybris.platform.commercefacades.consent.data.AnonymousConsentData;
 import de.hybris.platform.commercefacades.user.UserFacade;
 import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.consent.ConsentStateCache;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -51,6 +52,7 @@ public class ConsentFilter extends OncePerRequestFilter
 	private AnonymousConsentFacade anonymousConsentFacade;
 	private CustomerConsentDataStrategy customerConsentDataStrategy;
 	private boolean populatingConsentsEnabled;
+	private ConsentStateCache consentStateCache;
 
 	@Override
 	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
@@ -88,31 +90,48 @@ public class ConsentFilter extends OncePerRequestFilter
 
 		if (StringUtils.isNotEmpty(rawHeader))
 		{
-			try
-			{
-				final String headerValue = URLDecoder.decode(rawHeader, UTF_8);
-				return Arrays.asList(mapper.readValue(headerValue, AnonymousConsentData[].class));
-			}
-			catch (final IOException e)
-			{
-				LOG.error("IOException occurred while reading the header", e);
-			}
+			return getConsentStateCache() == null ? parseConsentHeader(rawHeader)
+					: getConsentStateCache().getAnonymousConsents(rawHeader, this::parseConsentHeader);
 		}
 
 		return Collections.emptyList();
 	}
 
+	protected List<AnonymousConsentData> parseConsentHeader(final String rawHeader)
+	{
+		try
+		{
+			final String headerValue = URLDecoder.decode(rawHeader, UTF_8);
+			return Arrays.asList(mapper.readValue(headerValue, AnonymousConsentData[].class));
+		}
+		catch (final IOException e)
+		{
+			LOG.error("IOException occurred while reading the header", e);
+		}
+		return Collections.emptyList();
+	}
+
 	protected void writeConsentHeaders(final HttpServletResponse response, final List<AnonymousConsentData> consents)
+	{
+		final String headerValue = getConsentStateCache() == null ? serializeConsentHeader(consents)
+				: getConsentStateCache().getAnonymousConsentHeader(consents, this::serializeConsentHeader);
+		if (headerValue != null)
+		{
+			response.setHeader(ANONYMOUS_CONSENT_HEADER, headerValue);
+		}
+	}
+
+	protected String serializeConsentHeader(final List<AnonymousConsentData> consents)
 	{
 		try
 		{
-			final String headerValue = mapper.writeValueAsString(consents);
-			response.setHeader(ANONYMOUS_CONSENT_HEADER, URLEncoder.encode(headerValue, UTF_8));
+			return URLEncoder.encode(mapper.writeValueAsString(consents), UTF_8);
 		}
 		catch (final IOException e)
 		{
 			LOG.error("IOException occurred while writing the header to the Servlet Response", e);
 		}
+		return null;
 	}
 
 	protected UserFacade getUserFacade()
@@ -169,4 +188,19 @@ public class ConsentFilter extends OncePerRequestFilter
 	{
 		this.populatingConsentsEnabled = populatingConsentsEnabled;
 	}
+
+	protected ConsentStateCache getConsentStateCache()
+	{
+		return consentStateCache;
+	}
+
+	/**
+	 * @param consentStateCache
+	 * 		cache of parsed and serialized anonymous consent headers, the headers are parsed and written on every request
+	 * 		without it
+	 */
+	public void setConsentStateCache(final ConsentStateCache consentStateCache)
+	{
+		this.consentStateCache = consentStateCache;
+	}
 }
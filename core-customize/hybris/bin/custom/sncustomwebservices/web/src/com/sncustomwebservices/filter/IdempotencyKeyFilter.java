@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.filter;
+
+import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
+import com.sncustomwebservices.exceptions.IdempotencyKeyReusedException;
+import com.sncustomwebservices.exceptions.IdempotentRequestInProgressException;
+import com.sncustomwebservices.idempotency.IdempotentResponse;
+import com.sncustomwebservices.idempotency.IdempotentResponseStore;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+
+/**
+ * Answers retries of mutating requests from the response of the first request with the same Idempotency-Key header.
+ * Keys are scoped to the authenticated user, the method and the URL, so a key can only replay a response of the same
+ * operation for the same customer. Requests of anonymous callers and of clients without a user are executed without
+ * idempotency, as their principal is shared by all shoppers of the client. A retry arriving while the first request is
+ * still executed waits for its response instead of executing concurrently, a retry sending another body than the first
+ * request is rejected with 422.
+ * <p>
+ * Server errors and 429 responses are not stored, so they can be retried with the same key.
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter
+{
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	private static final Logger LOG = Logger.getLogger(IdempotencyKeyFilter.class);
+	private static final int MAX_KEY_LENGTH = 255;
+	private static final int TOO_MANY_REQUESTS = 429;
+	private static final Set<String> MUTATING_METHODS = new HashSet<>(Arrays.asList("POST", "PUT", "PATCH", "DELETE"));
+	private static final Set<String> NOT_REPLAYED_HEADERS = new HashSet<>(
+			Arrays.asList(HttpHeaders.SET_COOKIE.toLowerCase(), HttpHeaders.DATE.toLowerCase(),
+					HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+					HttpHeaders.CONTENT_TYPE.toLowerCase()));
+
+	private final AuthenticationTrustResolver authenticationTrustResolver = new AuthenticationTrustResolverImpl();
+	private IdempotentResponseStore idempotentResponseStore;
+	private boolean enabled = true;
+	private long waitTimeout;
+
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException
+	{
+		final String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+		final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (!isEnabled() || StringUtils.isBlank(idempotencyKey) || !MUTATING_METHODS.contains(request.getMethod())
+				|| !isUserAuthentication(authentication))
+		{
+			filterChain.doFilter(request, response);
+			return;
+		}
+		if (idempotencyKey.length() > MAX_KEY_LENGTH)
+		{
+			throw new RequestParameterException("Idempotency key must not be longer than " + MAX_KEY_LENGTH + " characters",
+					RequestParameterException.INVALID, IDEMPOTENCY_KEY_HEADER);
+		}
+
+		final String key = getStoreKey(request, authentication, idempotencyKey);
+		final HttpServletRequest cachedRequest = isFormRequest(request) ? request : new CachedBodyRequest(request);
+		final String requestHash = getRequestHash(cachedRequest);
+		while (true)
+		{
+			final CompletableFuture<IdempotentResponse> first = getIdempotentResponseStore().reserve(key);
+			if (first == null)
+			{
+				execute(key, requestHash, cachedRequest, response, filterChain);
+				return;
+			}
+			final IdempotentResponse stored = await(first);
+			if (stored != null)
+			{
+				if (!requestHash.equals(stored.getRequestHash()))
+				{
+					throw new IdempotencyKeyReusedException("The idempotency key was used for a request with another body");
+				}
+				replay(stored, response);
+				return;
+			}
+			// the first response was not stored, so this request is executed unless another retry reserved the key meanwhile
+		}
+	}
+
+	protected void execute(final String key, final String requestHash, final HttpServletRequest request,
+			final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException
+	{
+		final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+		try
+		{
+			filterChain.doFilter(request, responseWrapper);
+		}
+		catch (final IOException | ServletException | RuntimeException e)
+		{
+			getIdempotentResponseStore().release(key);
+			throw e;
+		}
+
+		if (isStored(responseWrapper.getStatus()))
+		{
+			getIdempotentResponseStore().store(key, createResponse(responseWrapper, requestHash));
+		}
+		else
+		{
+			getIdempotentResponseStore().release(key);
+		}
+		responseWrapper.copyBodyToResponse();
+	}
+
+	protected IdempotentResponse await(final CompletableFuture<IdempotentResponse> first) throws ServletException
+	{
+		try
+		{
+			return first.get(getWaitTimeout(), TimeUnit.SECONDS);
+		}
+		catch (final TimeoutException e)
+		{
+			throw new IdempotentRequestInProgressException("A request with the same idempotency key is still being processed");
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IdempotentRequestInProgressException("Interrupted while waiting for a request with the same idempotency key");
+		}
+		catch (final ExecutionException e)
+		{
+			// not completed exceptionally by the store, handled like a response that was not stored
+			LOG.debug("Waiting for a request with the same idempotency key failed", e);
+			return null;
+		}
+	}
+
+	protected void replay(final IdempotentResponse stored, final HttpServletResponse response) throws IOException
+	{
+		response.setStatus(stored.getStatus());
+		for (final Map.Entry<String, List<String>> header : stored.getHeaders().entrySet())
+		{
+			// the first value replaces a header the filters before this one set already
+			boolean first = true;
+			for (final String value : header.getValue())
+			{
+				if (first)
+				{
+					response.setHeader(header.getKey(), value);
+					first = false;
+				}
+				else
+				{
+					response.addHeader(header.getKey(), value);
+				}
+			}
+		}
+		response.setHeader(REPLAYED_HEADER, Boolean.TRUE.toString());
+		if (stored.getContentType() != null)
+		{
+			response.setContentType(stored.getContentType());
+		}
+		response.setContentLength(stored.getBody().length);
+		response.getOutputStream().write(stored.getBody());
+	}
+
+	protected IdempotentResponse createResponse(final ContentCachingResponseWrapper responseWrapper, final String requestHash)
+	{
+		final Map<String, List<String>> headers = new LinkedHashMap<>();
+		for (final String name : responseWrapper.getHeaderNames())
+		{
+			if (!NOT_REPLAYED_HEADERS.contains(name.toLowerCase()))
+			{
+				headers.put(name, new ArrayList<>(responseWrapper.getHeaders(name)));
+			}
+		}
+		return new IdempotentResponse(responseWrapper.getStatus(), responseWrapper.getContentType(), headers,
+				responseWrapper.getContentAsByteArray(), requestHash);
+	}
+
+	protected boolean isStored(final int status)
+	{
+		return status < HttpServletResponse.SC_INTERNAL_SERVER_ERROR && status != TOO_MANY_REQUESTS;
+	}
+
+	/**
+	 * @return true if the caller is authenticated as a user, false for anonymous callers and for client credentials
+	 * without a user, whose principal is shared by all shoppers of the client
+	 */
+	protected boolean isUserAuthentication(final Authentication authentication)
+	{
+		if (authentication == null || authenticationTrustResolver.isAnonymous(authentication))
+		{
+			return false;
+		}
+		return !(authentication instanceof OAuth2Authentication) || !((OAuth2Authentication) authentication).isClientOnly();
+	}
+
+	protected String getStoreKey(final HttpServletRequest request, final Authentication authentication,
+			final String idempotencyKey)
+	{
+		final StringBuilder key = new StringBuilder();
+		key.append(authentication.getName()).append('|').append(request.getMethod()).append(' ')
+				.append(request.getRequestURI());
+		if (request.getQueryString() != null)
+		{
+			key.append('?').append(request.getQueryString());
+		}
+		return key.append('|').append(idempotencyKey).toString();
+	}
+
+	/**
+	 * @return hash of the request body, or of the sorted parameters for form requests whose body is read as parameters
+	 */
+	protected String getRequestHash(final HttpServletRequest request)
+	{
+		if (request instanceof CachedBodyRequest)
+		{
+			return DigestUtils.sha256Hex(((CachedBodyRequest) request).body);
+		}
+		final MessageDigest digest = DigestUtils.getSha256Digest();
+		for (final Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet())
+		{
+			digest.update(parameter.getKey().getBytes(StandardCharsets.UTF_8));
+			for (final String value : parameter.getValue())
+			{
+				digest.update((byte) 0);
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+			}
+			digest.update((byte) '\n');
+		}
+		return Hex.encodeHexString(digest.digest());
+	}
+
+	protected boolean isFormRequest(final HttpServletRequest request)
+	{
+		return request.getContentType() != null
+				&& request.getContentType().startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+	}
+
+	protected IdempotentResponseStore getIdempotentResponseStore()
+	{
+		return idempotentResponseStore;
+	}
+
+	@Required
+	public void setIdempotentResponseStore(final IdempotentResponseStore idempotentResponseStore)
+	{
+		this.idempotentResponseStore = idempotentResponseStore;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected long getWaitTimeout()
+	{
+		return waitTimeout;
+	}
+
+	/**
+	 * @param waitTimeout
+	 * 		seconds a retry waits for the first request before it is answered with 409
+	 */
+	@Required
+	public void setWaitTimeout(final long waitTimeout)
+	{
+		this.waitTimeout = waitTimeout;
+	}
+
+	/**
+	 * Request whose body is read once to be hashed and is then read again from memory by the filter chain
+	 */
+	protected static class CachedBodyRequest extends HttpServletRequestWrapper
+	{
+		private final byte[] body;
+
+		protected CachedBodyRequest(final HttpServletRequest request) throws IOException
+		{
+			super(request);
+			body = IOUtils.toByteArray(request.getInputStream());
+		}
+
+		@Override
+		public ServletInputStream getInputStream()
+		{
+			final ByteArrayInputStream input = new ByteArrayInputStream(body);
+			return new ServletInputStream()
+			{
+				@Override
+				public int read()
+				{
+					return input.read();
+				}
+
+				@Override
+				public int read(final byte[] buffer, final int offset, final int length)
+				{
+					return input.read(buffer, offset, length);
+				}
+
+				@Override
+				public boolean isFinished()
+				{
+					return input.available() == 0;
+				}
+
+				@Override
+				public boolean isReady()
+				{
+					return true;
+				}
+
+				@Override
+				public void setReadListener(final ReadListener readListener)
+				{
+					throw new UnsupportedOperationException("The body is read from memory");
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader()
+		{
+			final Charset charset = getCharacterEncoding() == null ? StandardCharsets.ISO_8859_1
+					: Charset.forName(getCharacterEncoding());
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.idempotency;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Response of a request with an idempotency key, as it is sent again for retries of the request.
+ */
+public class IdempotentResponse
+{
+	private final int status;
+	private final String contentType;
+	private final Map<String, List<String>> headers;
+	private final byte[] body;
+	private final String requestHash;
+
+	public IdempotentResponse(final int status, final String contentType, final Map<String, List<String>> headers,
+			final byte[] body, final String requestHash)
+	{
+		this.status = status;
+		this.contentType = contentType;
+		this.headers = Collections.unmodifiableMap(headers);
+		this.body = body;
+		this.requestHash = requestHash;
+	}
+
+	public int getStatus()
+	{
+		return status;
+	}
+
+	public String getContentType()
+	{
+		return contentType;
+	}
+
+	public Map<String, List<String>> getHeaders()
+	{
+		return headers;
+	}
+
+	/**
+	 * @return the body, which must not be modified
+	 */
+	public byte[] getBody()
+	{
+		return body;
+	}
+
+	/**
+	 * @return hash of the body of the request the response was created for, retries must send the same body
+	 */
+	public String getRequestHash()
+	{
+		return requestHash;
+	}
+}
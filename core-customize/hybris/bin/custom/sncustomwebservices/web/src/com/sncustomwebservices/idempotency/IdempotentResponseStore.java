@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Keeps the first response of requests with an idempotency key. A key is reserved by the request executed first, later
+ * requests with the same key receive its response once it is stored.
+ */
+public interface IdempotentResponseStore
+{
+	/**
+	 * Reserves the key unless it is reserved or its response is stored already.
+	 *
+	 * @param key
+	 * 		idempotency key, including everything identifying the caller and the operation
+	 * @return null if the caller reserved the key and has to execute the request, otherwise the future response of the
+	 * request executed first. The future completes with null if the response was not stored.
+	 */
+	CompletableFuture<IdempotentResponse> reserve(String key);
+
+	/**
+	 * Stores the response of a reserved key and passes it to the requests waiting for it.
+	 *
+	 * @param key
+	 * 		reserved key
+	 * @param response
+	 * 		response to store
+	 */
+	void store(String key, IdempotentResponse response);
+
+	/**
+	 * Releases a reserved key without storing a response, so the next request with the key is executed.
+	 *
+	 * @param key
+	 * 		reserved key
+	 */
+	void release(String key);
+}
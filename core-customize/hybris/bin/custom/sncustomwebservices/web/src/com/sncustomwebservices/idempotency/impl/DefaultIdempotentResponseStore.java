@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.idempotency.impl;
+
+import com.sncustomwebservices.idempotency.IdempotentResponse;
+import com.sncustomwebservices.idempotency.IdempotentResponseStore;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Default implementation of {@link IdempotentResponseStore}, held in memory of this node. Stored responses expire
+ * {@link #getTimeToLive()} seconds after they were stored, the oldest are dropped when there are more than
+ * {@link #getMaxEntries()} or when the stored responses take more than {@link #getMaxBytes()} together. Responses with
+ * a body larger than {@link #getMaxBodySize()} are not stored.
+ */
+public class DefaultIdempotentResponseStore implements IdempotentResponseStore
+{
+	// insertion ordered, so the eldest entries expire first; guarded by this
+	private final LinkedHashMap<String, StoredResponse> responses = new LinkedHashMap<>();
+	private final Map<String, CompletableFuture<IdempotentResponse>> pending = new HashMap<>();
+	// guarded by this
+	private long storedBytes;
+
+	private long timeToLive;
+	private int maxEntries;
+	private long maxBytes;
+	private int maxBodySize;
+
+	@Override
+	public synchronized CompletableFuture<IdempotentResponse> reserve(final String key)
+	{
+		purgeExpired(System.currentTimeMillis());
+		final StoredResponse stored = responses.get(key);
+		if (stored != null)
+		{
+			return CompletableFuture.completedFuture(stored.response);
+		}
+		final CompletableFuture<IdempotentResponse> inProgress = pending.get(key);
+		if (inProgress != null)
+		{
+			return inProgress;
+		}
+		pending.put(key, new CompletableFuture<>());
+		return null;
+	}
+
+	@Override
+	public void store(final String key, final IdempotentResponse response)
+	{
+		if (response.getBody().length > getMaxBodySize())
+		{
+			release(key);
+			return;
+		}
+
+		final CompletableFuture<IdempotentResponse> inProgress;
+		synchronized (this)
+		{
+			inProgress = pending.remove(key);
+			final StoredResponse replaced = responses.remove(key);
+			if (replaced != null)
+			{
+				storedBytes -= replaced.size;
+			}
+			final StoredResponse stored = new StoredResponse(response,
+					System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()), getSize(key, response));
+			responses.put(key, stored);
+			storedBytes += stored.size;
+			final Iterator<StoredResponse> eldest = responses.values().iterator();
+			while ((responses.size() > getMaxEntries() || storedBytes > getMaxBytes()) && eldest.hasNext())
+			{
+				storedBytes -= eldest.next().size;
+				eldest.remove();
+			}
+		}
+		if (inProgress != null)
+		{
+			inProgress.complete(response);
+		}
+	}
+
+	@Override
+	public void release(final String key)
+	{
+		final CompletableFuture<IdempotentResponse> inProgress;
+		synchronized (this)
+		{
+			inProgress = pending.remove(key);
+		}
+		if (inProgress != null)
+		{
+			inProgress.complete(null);
+		}
+	}
+
+	protected void purgeExpired(final long now)
+	{
+		final Iterator<StoredResponse> eldest = responses.values().iterator();
+		while (eldest.hasNext())
+		{
+			final StoredResponse stored = eldest.next();
+			if (stored.expiresAt > now)
+			{
+				return;
+			}
+			storedBytes -= stored.size;
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * @return approximate number of bytes the stored response takes, the body plus two bytes per character of the key, the
+	 * headers and the request hash
+	 */
+	protected long getSize(final String key, final IdempotentResponse response)
+	{
+		long chars = key.length() + (response.getContentType() == null ? 0 : response.getContentType().length())
+				+ (response.getRequestHash() == null ? 0 : response.getRequestHash().length());
+		if (response.getHeaders() != null)
+		{
+			for (final Map.Entry<String, List<String>> header : response.getHeaders().entrySet())
+			{
+				chars += header.getKey().length();
+				for (final String value : header.getValue())
+				{
+					chars += value.length();
+				}
+			}
+		}
+		return response.getBody().length + 2 * chars;
+	}
+
+	/**
+	 * @return number of bytes currently taken by stored responses, as estimated by {@link #getSize(String, IdempotentResponse)}
+	 */
+	public synchronized long getStoredBytes()
+	{
+		return storedBytes;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a response is kept for retries
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		maximum number of stored responses
+	 */
+	@Required
+	public void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+
+	protected long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * @param maxBytes
+	 * 		maximum number of bytes taken by all stored responses together
+	 */
+	@Required
+	public void setMaxBytes(final long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	protected int getMaxBodySize()
+	{
+		return maxBodySize;
+	}
+
+	/**
+	 * @param maxBodySize
+	 * 		maximum number of body bytes of a stored response
+	 */
+	@Required
+	public void setMaxBodySize(final int maxBodySize)
+	{
+		this.maxBodySize = maxBodySize;
+	}
+
+	protected static class StoredResponse
+	{
+		private final IdempotentResponse response;
+		private final long expiresAt;
+		private final long size;
+
+		protected StoredResponse(final IdempotentResponse response, final long expiresAt, final long size)
+		{
+			this.response = response;
+			this.expiresAt = expiresAt;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.jackson;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+
+/**
+ * Flags requests handled by methods annotated with {@link StreamingJsonResponse}, so that
+ * {@link StreamingJsonHttpMessageConverter} can be selected per endpoint.
+ */
+public class StreamingJsonHandlerInterceptor implements HandlerInterceptor
+{
+	public static final String STREAMING_JSON_REQUEST_ATTRIBUTE = StreamingJsonHandlerInterceptor.class.getName() + ".selected";
+
+	@Override
+	public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler)
+	{
+		if (handler instanceof HandlerMethod && ((HandlerMethod) handler).hasMethodAnnotation(StreamingJsonResponse.class))
+		{
+			request.setAttribute(STREAMING_JSON_REQUEST_ATTRIBUTE, Boolean.TRUE);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the current request is handled by an endpoint annotated with {@link StreamingJsonResponse}
+	 */
+	public static boolean isSelectedForCurrentRequest()
+	{
+		final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return attributes != null
+				&& Boolean.TRUE.equals(attributes.getAttribute(STREAMING_JSON_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+	}
+}
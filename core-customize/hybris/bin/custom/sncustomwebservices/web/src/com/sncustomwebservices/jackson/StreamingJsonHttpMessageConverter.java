@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.jackson;
+
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+
+/**
+ * Write-only JSON message converter based on Jackson streaming. It produces the same structure as the XStream JSON
+ * converter, without building an intermediate node tree per response.
+ * <p>
+ * The converter is selected either globally with {@value #ENABLED_PROPERTY} or per endpoint with
+ * {@link StreamingJsonResponse}, the global selection can be switched off per instance with
+ * {@link #setGloballySelectable(boolean)}. Otherwise, or when the declared response type cannot be mirrored, it declines the write
+ * and the next converter in the list is used. Since the runtime type of a value may still reach an unsupported
+ * converter, the response is written to a buffer first and only copied to the response once complete; if it fails, the
+ * {@link #setFallbackConverter(HttpMessageConverter) fallback converter} writes the whole response instead.
+ * <p>
+ * The output mirrors XStream only. In front of the JAXB based converters, which apply their own escaping, date and map
+ * adapters, it must therefore only be selected for the endpoints annotated with {@link StreamingJsonResponse}.
+ */
+public class StreamingJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object>
+{
+	public static final String ENABLED_PROPERTY = "sncustomwebservices.json.streaming.enabled";
+
+	private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	private StreamingJsonSerializerFactory serializerFactory;
+	private ConfigurationService configurationService;
+	private HttpMessageConverter<Object> fallbackConverter;
+	private boolean globallySelectable = true;
+
+	public StreamingJsonHttpMessageConverter()
+	{
+		super(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	protected boolean supports(final Class<?> clazz)
+	{
+		return getSerializerFactory().isSupported(clazz);
+	}
+
+	@Override
+	public boolean canRead(final Class<?> clazz, final MediaType mediaType)
+	{
+		return false;
+	}
+
+	@Override
+	public boolean canWrite(final Class<?> clazz, final MediaType mediaType)
+	{
+		return isSelected() && super.canWrite(clazz, mediaType);
+	}
+
+	protected boolean isSelected()
+	{
+		return (isGloballySelectable() && getConfigurationService().getConfiguration().getBoolean(ENABLED_PROPERTY, false))
+				|| StreamingJsonHandlerInterceptor.isSelectedForCurrentRequest();
+	}
+
+	@Override
+	protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage)
+	{
+		throw new HttpMessageNotReadableException("Streaming JSON converter is write only", inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(final Object object, final HttpOutputMessage outputMessage) throws IOException
+	{
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (final JsonGenerator generator = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8))
+		{
+			getSerializerFactory().write(object, generator);
+		}
+		catch (final UnsupportedStreamingJsonException e)
+		{
+			if (getFallbackConverter() == null)
+			{
+				throw new HttpMessageNotWritableException(e.getMessage(), e);
+			}
+			getFallbackConverter().write(object, MediaType.APPLICATION_JSON, outputMessage);
+			return;
+		}
+		buffer.writeTo(outputMessage.getBody());
+	}
+
+	protected StreamingJsonSerializerFactory getSerializerFactory()
+	{
+		return serializerFactory;
+	}
+
+	@Required
+	public void setSerializerFactory(final StreamingJsonSerializerFactory serializerFactory)
+	{
+		this.serializerFactory = serializerFactory;
+	}
+
+	protected ConfigurationService getConfigurationService()
+	{
+		return configurationService;
+	}
+
+	@Required
+	public void setConfigurationService(final ConfigurationService configurationService)
+	{
+		this.configurationService = configurationService;
+	}
+
+	protected HttpMessageConverter<Object> getFallbackConverter()
+	{
+		return fallbackConverter;
+	}
+
+	/**
+	 * @param fallbackConverter
+	 * 		converter writing responses whose runtime types cannot be mirrored
+	 */
+	public void setFallbackConverter(final HttpMessageConverter<Object> fallbackConverter)
+	{
+		this.fallbackConverter = fallbackConverter;
+	}
+
+	protected boolean isGloballySelectable()
+	{
+		return globallySelectable;
+	}
+
+	/**
+	 * @param globallySelectable
+	 * 		false if {@value #ENABLED_PROPERTY} is ignored, so only endpoints annotated with {@link StreamingJsonResponse}
+	 * 		use the converter
+	 */
+	public void setGloballySelectable(final boolean globallySelectable)
+	{
+		this.globallySelectable = globallySelectable;
+	}
+}
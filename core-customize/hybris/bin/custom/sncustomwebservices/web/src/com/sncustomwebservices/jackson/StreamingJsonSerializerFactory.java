@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.jackson;
+
+import de.hybris.platform.commercefacades.xstream.alias.AttributeAliasMapping;
+import de.hybris.platform.commercefacades.xstream.alias.AttributeOmitMapping;
+import de.hybris.platform.commercefacades.xstream.alias.FieldAliasMapping;
+import de.hybris.platform.commercefacades.xstream.alias.TypeAliasMapping;
+import de.hybris.platform.commercefacades.xstream.conv.AttributeConverterMapping;
+import de.hybris.platform.commercefacades.xstream.conv.TypeConverterMapping;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.thoughtworks.xstream.converters.ConverterMatcher;
+import com.thoughtworks.xstream.converters.SingleValueConverter;
+import com.thoughtworks.xstream.converters.basic.DateConverter;
+
+
+/**
+ * Builds and caches one {@link ClassSerializer} per DTO class, writing the same JSON structure as the XStream JSON
+ * marshaller created by {@link com.sncustomwebservices.xstream.JsonXStreamMarshallerFactory}.
+ * <p>
+ * The alias, omit and converter mappings are collected from the application context the same way
+ * {@link com.sncustomwebservices.xstream.XmlXStreamMarshallerFactory} does. Field and attribute aliases rename
+ * properties, omitted fields are skipped and XStream {@link SingleValueConverter}s are reused for value formatting.
+ * Classes reaching a full XStream {@link com.thoughtworks.xstream.converters.Converter} or a {@link Map} cannot be
+ * mirrored and are reported as unsupported, so the caller can fall back to XStream.
+ */
+public class StreamingJsonSerializerFactory implements ApplicationContextAware, InitializingBean
+{
+	private static final String ATTRIBUTE_PREFIX = "@";
+	private static final SingleValueConverter XSTREAM_DATE_CONVERTER = new DateConverter();
+
+	private final Map<Class<?>, ClassSerializer> serializers = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Boolean> supportedClasses = new ConcurrentHashMap<>();
+	private final Map<String, String> propertyNames = new HashMap<>();
+	private final Set<String> omittedProperties = new HashSet<>();
+	private final Map<String, ConverterMatcher> propertyConverters = new HashMap<>();
+	private final List<ConverterMatcher> typeConverters = new ArrayList<>();
+
+	private ApplicationContext ctx;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		//same lookup as XmlXStreamMarshallerFactory, so both marshallers share a single configuration
+		for (final TypeAliasMapping alias : BeanFactoryUtils.beansOfTypeIncludingAncestors(ctx, TypeAliasMapping.class).values())
+		{
+			if (alias instanceof AttributeAliasMapping)
+			{
+				final AttributeAliasMapping attributeAlias = (AttributeAliasMapping) alias;
+				propertyNames.put(key(attributeAlias.getAliasedClass(), attributeAlias.getAttributeName()),
+						ATTRIBUTE_PREFIX + attributeAlias.getAlias());
+			}
+			else if (alias instanceof FieldAliasMapping)
+			{
+				final FieldAliasMapping fieldAlias = (FieldAliasMapping) alias;
+				propertyNames.put(key(fieldAlias.getAliasedClass(), fieldAlias.getFieldName()), fieldAlias.getAlias());
+			}
+			//plain type aliases only name root and collection item elements, which the JSON writer drops
+		}
+
+		for (final AttributeOmitMapping omit : BeanFactoryUtils.beansOfTypeIncludingAncestors(ctx, AttributeOmitMapping.class)
+				.values())
+		{
+			omittedProperties.add(key(omit.getAliasedClass(), omit.getAttributeName()));
+		}
+
+		for (final TypeConverterMapping mapping : BeanFactoryUtils.beansOfTypeIncludingAncestors(ctx, TypeConverterMapping.class)
+				.values())
+		{
+			if (mapping instanceof AttributeConverterMapping)
+			{
+				final AttributeConverterMapping attributeMapping = (AttributeConverterMapping) mapping;
+				propertyConverters.put(key(attributeMapping.getAliasedClass(), attributeMapping.getAttributeName()),
+						(ConverterMatcher) attributeMapping.getConverter());
+			}
+			else
+			{
+				//XStream gives precedence to converters registered later with the same priority
+				typeConverters.add(0, (ConverterMatcher) mapping.getConverter());
+			}
+		}
+	}
+
+	/**
+	 * Checks statically whether objects of the given class can be written without falling back to XStream.
+	 */
+	public boolean isSupported(final Class<?> clazz)
+	{
+		return supportedClasses.computeIfAbsent(clazz, c -> Boolean.valueOf(checkSupported(c, new HashSet<>()))).booleanValue();
+	}
+
+	/**
+	 * Writes the given object as the JSON root. The root element name is dropped, as in XStream's
+	 * {@code JsonWriter.DROP_ROOT_MODE}.
+	 */
+	public void write(final Object root, final JsonGenerator generator) throws IOException
+	{
+		writeValue(root, null, generator, new ArrayDeque<>());
+		generator.flush();
+	}
+
+	protected ClassSerializer getSerializer(final Class<?> clazz)
+	{
+		return serializers.computeIfAbsent(clazz, this::createSerializer);
+	}
+
+	protected ClassSerializer createSerializer(final Class<?> clazz)
+	{
+		final List<PropertyWriter> properties = new ArrayList<>();
+		for (final Field field : getSerializableFields(clazz))
+		{
+			final String key = key(field.getDeclaringClass(), field.getName());
+			if (omittedProperties.contains(key))
+			{
+				continue;
+			}
+			field.setAccessible(true);
+			try
+			{
+				properties.add(new PropertyWriter(propertyNames.getOrDefault(key, field.getName()),
+						MethodHandles.lookup().unreflectGetter(field), propertyConverters.get(key)));
+			}
+			catch (final IllegalAccessException e)
+			{
+				throw new IllegalStateException("Cannot access field " + key, e);
+			}
+		}
+		//XStream writes attributes before child nodes
+		properties.sort((a, b) -> Boolean.compare(!a.isAttribute(), !b.isAttribute()));
+		return new ClassSerializer(properties);
+	}
+
+	protected void writeValue(final Object value, final ConverterMatcher propertyConverter, final JsonGenerator generator,
+			final Deque<Object> path) throws IOException
+	{
+		final ConverterMatcher converter = propertyConverter != null ? propertyConverter : findTypeConverter(value.getClass());
+		if (converter != null)
+		{
+			if (!(converter instanceof SingleValueConverter))
+			{
+				throw new UnsupportedStreamingJsonException(value.getClass());
+			}
+			writeScalar(value, ((SingleValueConverter) converter).toString(value), generator);
+		}
+		else if (value instanceof String || value instanceof Character)
+		{
+			generator.writeString(value.toString());
+		}
+		else if (value instanceof Boolean)
+		{
+			generator.writeBoolean(((Boolean) value).booleanValue());
+		}
+		else if (value instanceof Number)
+		{
+			generator.writeNumber(value.toString());
+		}
+		else if (value instanceof Enum)
+		{
+			generator.writeString(((Enum<?>) value).name());
+		}
+		else if (value instanceof Date)
+		{
+			generator.writeString(XSTREAM_DATE_CONVERTER.toString(value));
+		}
+		else if (value instanceof Collection)
+		{
+			generator.writeStartArray();
+			for (final Object item : (Collection<?>) value)
+			{
+				writeItem(item, generator, path);
+			}
+			generator.writeEndArray();
+		}
+		else if (value.getClass().isArray())
+		{
+			generator.writeStartArray();
+			final int length = Array.getLength(value);
+			for (int i = 0; i < length; i++)
+			{
+				writeItem(Array.get(value, i), generator, path);
+			}
+			generator.writeEndArray();
+		}
+		else if (value instanceof Map)
+		{
+			throw new UnsupportedStreamingJsonException(value.getClass());
+		}
+		else
+		{
+			writeObject(value, generator, path);
+		}
+	}
+
+	protected void writeItem(final Object item, final JsonGenerator generator, final Deque<Object> path) throws IOException
+	{
+		if (item == null)
+		{
+			generator.writeNull();
+		}
+		else
+		{
+			writeValue(item, null, generator, path);
+		}
+	}
+
+	protected void writeObject(final Object value, final JsonGenerator generator, final Deque<Object> path) throws IOException
+	{
+		for (final Object parent : path)
+		{
+			if (parent == value)
+			{
+				throw new IllegalStateException("Circular reference detected for " + value.getClass().getName());
+			}
+		}
+		path.push(value);
+		generator.writeStartObject();
+		for (final PropertyWriter property : getSerializer(value.getClass()).getProperties())
+		{
+			final Object propertyValue = property.get(value);
+			if (propertyValue != null)
+			{
+				generator.writeFieldName(property.getName());
+				writeValue(propertyValue, property.getConverter(), generator, path);
+			}
+		}
+		generator.writeEndObject();
+		path.pop();
+	}
+
+	protected void writeScalar(final Object source, final String value, final JsonGenerator generator) throws IOException
+	{
+		if (value == null)
+		{
+			generator.writeNull();
+		}
+		else if (source instanceof Number || source instanceof Boolean)
+		{
+			generator.writeRawValue(value);
+		}
+		else
+		{
+			generator.writeString(value);
+		}
+	}
+
+	protected ConverterMatcher findTypeConverter(final Class<?> type)
+	{
+		for (final ConverterMatcher converter : typeConverters)
+		{
+			if (converter.canConvert(type))
+			{
+				return converter;
+			}
+		}
+		return null;
+	}
+
+	protected boolean checkSupported(final Class<?> clazz, final Set<Class<?>> visited)
+	{
+		if (!visited.add(clazz) || isLeafType(clazz))
+		{
+			return true;
+		}
+
+		final ConverterMatcher typeConverter = findTypeConverter(clazz);
+		if (typeConverter != null)
+		{
+			return typeConverter instanceof SingleValueConverter;
+		}
+		if (Map.class.isAssignableFrom(clazz) || clazz == Object.class)
+		{
+			return false;
+		}
+		if (clazz.isArray())
+		{
+			return checkSupported(clazz.getComponentType(), visited);
+		}
+
+		for (final Field field : getSerializableFields(clazz))
+		{
+			final String key = key(field.getDeclaringClass(), field.getName());
+			if (omittedProperties.contains(key))
+			{
+				continue;
+			}
+			final ConverterMatcher propertyConverter = propertyConverters.get(key);
+			if (propertyConverter != null)
+			{
+				if (!(propertyConverter instanceof SingleValueConverter))
+				{
+					return false;
+				}
+			}
+			else if (!checkSupported(field.getType(), field.getGenericType(), visited))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected boolean checkSupported(final Class<?> type, final Type genericType, final Set<Class<?>> visited)
+	{
+		if (Collection.class.isAssignableFrom(type))
+		{
+			if (genericType instanceof ParameterizedType)
+			{
+				final Type itemType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+				return itemType instanceof Class && checkSupported((Class<?>) itemType, visited);
+			}
+			return false;
+		}
+		return checkSupported(type, visited);
+	}
+
+	protected boolean isLeafType(final Class<?> clazz)
+	{
+		return clazz.isPrimitive() || clazz == String.class || clazz == Character.class || clazz == Boolean.class
+				|| Number.class.isAssignableFrom(clazz) && (clazz.getName().startsWith("java.lang.") || clazz == BigDecimal.class
+				|| clazz == BigInteger.class) || clazz.isEnum() || Date.class.isAssignableFrom(clazz);
+	}
+
+	protected List<Field> getSerializableFields(final Class<?> clazz)
+	{
+		final Deque<Class<?>> hierarchy = new ArrayDeque<>();
+		for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass())
+		{
+			hierarchy.push(current);
+		}
+
+		final List<Field> fields = new ArrayList<>();
+		for (final Class<?> current : hierarchy)
+		{
+			for (final Field field : current.getDeclaredFields())
+			{
+				final int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic())
+				{
+					fields.add(field);
+				}
+			}
+		}
+		return fields;
+	}
+
+	protected static String key(final Class<?> definedIn, final String fieldName)
+	{
+		return definedIn.getName() + '#' + fieldName;
+	}
+
+	@Override
+	public void setApplicationContext(final ApplicationContext ctx) throws BeansException
+	{
+		this.ctx = ctx;
+	}
+
+	/**
+	 * Pre-computed, ordered list of property writers for one DTO class.
+	 */
+	protected static class ClassSerializer
+	{
+		private final List<PropertyWriter> properties;
+
+		protected ClassSerializer(final List<PropertyWriter> properties)
+		{
+			this.properties = Collections.unmodifiableList(properties);
+		}
+
+		protected List<PropertyWriter> getProperties()
+		{
+			return properties;
+		}
+	}
+
+	/**
+	 * Resolved JSON name, accessor and optional property converter of a single DTO field.
+	 */
+	protected static class PropertyWriter
+	{
+		private final String name;
+		private final MethodHandle getter;
+		private final ConverterMatcher converter;
+
+		protected PropertyWriter(final String name, final MethodHandle getter, final ConverterMatcher converter)
+		{
+			this.name = name;
+			this.getter = getter;
+			this.converter = converter;
+		}
+
+		protected Object get(final Object target)
+		{
+			try
+			{
+				return getter.invoke(target);
+			}
+			catch (final Throwable e)
+			{
+				throw new IllegalStateException("Cannot read property " + name, e);
+			}
+		}
+
+		protected String getName()
+		{
+			return name;
+		}
+
+		protected ConverterMatcher getConverter()
+		{
+			return converter;
+		}
+
+		protected boolean isAttribute()
+		{
+			return name.startsWith(ATTRIBUTE_PREFIX);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.jackson;
+
+/**
+ * Thrown when an object reached during streaming JSON serialization needs a full XStream converter that cannot be
+ * mirrored by {@link StreamingJsonSerializerFactory}.
+ */
+public class UnsupportedStreamingJsonException extends RuntimeException
+{
+	public UnsupportedStreamingJsonException(final Class<?> type)
+	{
+		super("Type " + type.getName() + " is not supported by the streaming JSON serializer");
+	}
+}
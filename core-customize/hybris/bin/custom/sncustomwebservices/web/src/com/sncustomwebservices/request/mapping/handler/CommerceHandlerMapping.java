@@ -9,21 +9,27 @@ import de.hybris.platform.commerceservices.request.mapping.annotation.RequestMap
 import de.hybris.platform.util.Config;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.scope.ScopedProxyUtils;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodIntrospector.MetadataLookup;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.ReflectionUtils.MethodFilter;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -40,7 +46,16 @@ public class CommerceHandlerMapping extends RequestMappingHandlerMapping
 {
 	private static final Logger LOG = LoggerFactory.getLogger(CommerceHandlerMapping.class);
 
+	/**
+	 * Request handler methods per handler class, shared by the handler mappings of all servlet contexts
+	 */
+	private static final Map<Class<?>, List<HandlerMethodMetadata>> HANDLER_METHOD_METADATA_CACHE = new ConcurrentReferenceHashMap<>();
+
 	private final Map<RequestMappingInfo, Integer> overriddenRequestMapping = new LinkedHashMap<RequestMappingInfo, Integer>();
+	/**
+	 * Priorities of the methods resolved while the handler methods are initialized
+	 */
+	private final Map<Method, Integer> methodPriorities = new HashMap<>();
 	/**
 	 * Api version for which this request handler mapping was defined
 	 */
@@ -73,13 +88,96 @@ public class CommerceHandlerMapping extends RequestMappingHandlerMapping
 
 	/**
 	 * Scan beans in the ApplicationContext, detect and register handler methods. Additionally this method detect which
-	 * request mapping was overridden
+	 * request mapping was overridden. Handler beans and their methods are introspected in a single pass: the mappings
+	 * are created once, the overridden ones are resolved and only the remaining mappings are registered.
 	 */
 	@Override
 	protected void initHandlerMethods()
 	{
-		initOverridenRequestMappings();
-		super.initHandlerMethods();
+		final ApplicationContext applicationContext = getApplicationContext();
+		Objects.requireNonNull(applicationContext, "Application context cannot be null");
+
+		final long start = System.currentTimeMillis();
+		final List<HandlerMethodMapping> handlerMethodMappings = new ArrayList<>();
+		for (final String beanName : getHandlerCandidateBeanNames(applicationContext))
+		{
+			if (ScopedProxyUtils.isScopedTarget(beanName))
+			{
+				continue;
+			}
+			final Class<?> beanType = getBeanType(applicationContext, beanName);
+			if (beanType != null && isHandler(beanType))
+			{
+				final Class<?> userType = ClassUtils.getUserClass(beanType);
+				for (final HandlerMethodMetadata metadata : getHandlerMethodMetadata(userType))
+				{
+					final RequestMappingInfo mapping = super.getMappingForMethod(metadata.getMethod(), userType);
+					if (mapping != null)
+					{
+						if (metadata.getRequestMappingOverride() != null)
+						{
+							registerOverriddenMapping(metadata.getMethod(), mapping);
+						}
+						handlerMethodMappings.add(new HandlerMethodMapping(beanName, userType, metadata.getMethod(), mapping));
+					}
+				}
+			}
+		}
+
+		for (final HandlerMethodMapping handlerMethodMapping : handlerMethodMappings)
+		{
+			if (!isRequestMappingOverridden(handlerMethodMapping.mapping, handlerMethodMapping.method))
+			{
+				final Method invocableMethod = AopUtils.selectInvocableMethod(handlerMethodMapping.method,
+						handlerMethodMapping.userType);
+				registerHandlerMethod(handlerMethodMapping.beanName, invocableMethod, handlerMethodMapping.mapping);
+			}
+		}
+		handlerMethodsInitialized(getHandlerMethods());
+		methodPriorities.clear();
+
+		LOG.info("Registered {} request mappings for api version {} in {} ms", getHandlerMethods().size(), apiVersion,
+				System.currentTimeMillis() - start);
+	}
+
+	protected String[] getHandlerCandidateBeanNames(final ApplicationContext applicationContext)
+	{
+		return this.detectInAncestorContexts ?
+				BeanFactoryUtils.beanNamesForTypeIncludingAncestors(applicationContext, Object.class) :
+				applicationContext.getBeanNamesForType(Object.class);
+	}
+
+	protected Class<?> getBeanType(final ApplicationContext applicationContext, final String beanName)
+	{
+		try
+		{
+			return applicationContext.getType(beanName);
+		}
+		catch (final RuntimeException e)
+		{
+			// an unresolvable bean type, probably from a lazy bean - let's ignore it
+			LOG.trace("Could not resolve type for bean '{}'", beanName, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the request handler methods of the given handler class. The reflective lookup is cached per class, so the
+	 * controllers shared by the servlet contexts are introspected once.
+	 */
+	protected static List<HandlerMethodMetadata> getHandlerMethodMetadata(final Class<?> userType)
+	{
+		return HANDLER_METHOD_METADATA_CACHE.computeIfAbsent(userType, CommerceHandlerMapping::introspectHandlerMethods);
+	}
+
+	private static List<HandlerMethodMetadata> introspectHandlerMethods(final Class<?> userType)
+	{
+		final Map<Method, HandlerMethodMetadata> methods = MethodIntrospector.selectMethods(userType,
+				(MetadataLookup<HandlerMethodMetadata>) method -> AnnotatedElementUtils.hasAnnotation(method,
+						RequestMapping.class) ?
+						new HandlerMethodMetadata(method, AnnotationUtils.findAnnotation(method, RequestMappingOverride.class)) :
+						null);
+		return Collections.unmodifiableList(new ArrayList<>(methods.values()));
 	}
 
 	/**
@@ -136,6 +234,17 @@ public class CommerceHandlerMapping extends RequestMappingHandlerMapping
 	 * given name, default value = 0 will be returned.
 	 */
 	protected Integer getMethodPriorityValue(final Method method)
+	{
+		if (methodPriorities.containsKey(method))
+		{
+			return methodPriorities.get(method);
+		}
+		final Integer priority = resolveMethodPriorityValue(method);
+		methodPriorities.put(method, priority);
+		return priority;
+	}
+
+	protected Integer resolveMethodPriorityValue(final Method method)
 	{
 		final RequestMappingOverride requestMappingOverride = AnnotationUtils.findAnnotation(method, RequestMappingOverride.class);
 		if (requestMappingOverride != null)
@@ -152,72 +261,6 @@ public class CommerceHandlerMapping extends RequestMappingHandlerMapping
 		return null;
 	}
 
-	/**
-	 * Scan beans in the ApplicationContext, detect and register overridden request mappings.
-	 */
-	protected void initOverridenRequestMappings()
-	{
-		final ApplicationContext applicationContext = getApplicationContext();
-		Objects.requireNonNull(applicationContext, "Application context cannot be null");
-
-		if (LOG.isDebugEnabled())
-		{
-			LOG.debug("Looking for overridden request mappings in application context: {}", applicationContext);
-		}
-
-		final String[] beanNames = this.detectInAncestorContexts ?
-				BeanFactoryUtils.beanNamesForTypeIncludingAncestors(applicationContext, Object.class) :
-				applicationContext.getBeanNamesForType(Object.class);
-
-		for (final String beanName : beanNames)
-		{
-			final Class<?> beanType = applicationContext.getType(beanName);
-			if (beanType != null && isHandler(beanType))
-			{
-				detectOverriddenMappings(beanName);
-			}
-		}
-	}
-
-
-	/**
-	 * Looks for overridden request mapping.
-	 *
-	 * @param handler the bean name of a handler or a handler instance
-	 */
-	protected void detectOverriddenMappings(final Object handler)
-	{
-		final ApplicationContext applicationContext = getApplicationContext();
-		Objects.requireNonNull(applicationContext, "Application context cannot be null");
-
-		final Class<?> handlerType = (handler instanceof String) ?
-				applicationContext.getType((String) handler) :
-				handler.getClass();
-
-		if (handlerType != null)
-		{
-			final Class<?> userType = ClassUtils.getUserClass(handlerType);
-
-			final Set<Method> methods = MethodIntrospector.selectMethods(userType, new MethodFilter()
-			{
-				@Override
-				public boolean matches(final Method method)
-				{
-					return hasRequestMappingOverrideAnnotation(method);
-				}
-			});
-
-			for (final Method method : methods)
-			{
-				final RequestMappingInfo mapping = super.getMappingForMethod(method, userType);
-				if (mapping != null)
-				{
-					registerOverriddenMapping(method, mapping);
-				}
-			}
-		}
-	}
-
 	/**
 	 * Adds overridden request mapping to map
 	 */
@@ -267,4 +310,46 @@ public class CommerceHandlerMapping extends RequestMappingHandlerMapping
 	{
 		this.defaultRequestMappingOverridePriority = defaultRequestMappingOverridePriority;
 	}
+
+	/**
+	 * Request handler method of a handler class with its {@link RequestMappingOverride} annotation, if any
+	 */
+	protected static class HandlerMethodMetadata
+	{
+		private final Method method;
+		private final RequestMappingOverride requestMappingOverride;
+
+		protected HandlerMethodMetadata(final Method method, final RequestMappingOverride requestMappingOverride)
+		{
+			this.method = method;
+			this.requestMappingOverride = requestMappingOverride;
+		}
+
+		public Method getMethod()
+		{
+			return method;
+		}
+
+		public RequestMappingOverride getRequestMappingOverride()
+		{
+			return requestMappingOverride;
+		}
+	}
+
+	private static class HandlerMethodMapping
+	{
+		private final String beanName;
+		private final Class<?> userType;
+		private final Method method;
+		private final RequestMappingInfo mapping;
+
+		private HandlerMethodMapping(final String beanName, final Class<?> userType, final Method method,
+				final RequestMappingInfo mapping)
+		{
+			this.beanName = beanName;
+			this.userType = userType;
+			this.method = method;
+			this.mapping = mapping;
+		}
+	}
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.startup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.web.servlet.HandlerMapping;
+
+
+/**
+ * Records how long the beans of the application context it is defined in take to be created and reports the startup
+ * time per phase once the context is refreshed. The time of a bean excludes the time of the beans created while it is
+ * created, so nested beans are not counted twice. Beans are assigned to a phase by their type, see
+ * {@link #getPhase(String, Object)}.
+ * <p>
+ * The profiler is a {@link PriorityOrdered} post processor, so it is registered before the other post processors of
+ * the context and covers their creation as well. Post processors with a higher priority are not covered.
+ */
+public class WebContextStartupProfiler
+		implements InstantiationAwareBeanPostProcessor, PriorityOrdered, ApplicationContextAware,
+		ApplicationListener<ContextRefreshedEvent>
+{
+	public static final String PHASE_HANDLER_MAPPING = "handler mapping";
+	public static final String PHASE_MESSAGE_SOURCES = "message sources";
+	public static final String PHASE_XSTREAM = "xstream marshaller setup";
+	public static final String PHASE_OTHER = "other beans";
+
+	private static final Logger LOG = Logger.getLogger(WebContextStartupProfiler.class);
+	private static final String XSTREAM = "xstream";
+
+	private final ThreadLocal<Deque<BeanCreation>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+	// guarded by this
+	private final List<BeanTiming> timings = new ArrayList<>();
+	private final long startTime = System.nanoTime();
+
+	private ApplicationContext applicationContext;
+	private boolean enabled = true;
+	private int slowestBeans = 10;
+	private volatile boolean finished;
+	private volatile long refreshTime;
+
+	@Override
+	public Object postProcessBeforeInstantiation(final Class<?> beanClass, final String beanName) throws BeansException
+	{
+		if (isEnabled() && !finished)
+		{
+			creations.get().push(new BeanCreation(beanName, System.nanoTime()));
+		}
+		return null;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException
+	{
+		if (isEnabled() && !finished)
+		{
+			finishCreation(bean, beanName, System.nanoTime());
+		}
+		return bean;
+	}
+
+	protected void finishCreation(final Object bean, final String beanName, final long now)
+	{
+		final Deque<BeanCreation> stack = creations.get();
+		if (!containsCreation(stack, beanName))
+		{
+			// objects exposed by a factory bean are post processed without being instantiated
+			return;
+		}
+		BeanCreation creation = stack.pop();
+		while (!creation.beanName.equals(beanName))
+		{
+			// the creation of a nested bean failed and was handled by the bean that is created now
+			creation = stack.pop();
+		}
+
+		final long elapsed = now - creation.start;
+		final BeanCreation parent = stack.peek();
+		if (parent != null)
+		{
+			parent.nested += elapsed;
+		}
+		if (stack.isEmpty())
+		{
+			creations.remove();
+		}
+
+		final BeanTiming timing = new BeanTiming(beanName, getPhase(beanName, bean), elapsed - creation.nested);
+		synchronized (this)
+		{
+			timings.add(timing);
+		}
+	}
+
+	private static boolean containsCreation(final Deque<BeanCreation> stack, final String beanName)
+	{
+		for (final BeanCreation creation : stack)
+		{
+			if (creation.beanName.equals(beanName))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Assigns a created bean to one of the startup phases.
+	 */
+	protected String getPhase(final String beanName, final Object bean)
+	{
+		if (bean instanceof HandlerMapping)
+		{
+			return PHASE_HANDLER_MAPPING;
+		}
+		if (bean instanceof MessageSource)
+		{
+			return PHASE_MESSAGE_SOURCES;
+		}
+		if (bean.getClass().getName().toLowerCase().contains(XSTREAM) || beanName.toLowerCase().contains(XSTREAM))
+		{
+			return PHASE_XSTREAM;
+		}
+		return PHASE_OTHER;
+	}
+
+	@Override
+	public void onApplicationEvent(final ContextRefreshedEvent event)
+	{
+		// refresh events of child contexts are published to this context as well
+		if (!isEnabled() || finished || event.getApplicationContext() != applicationContext)
+		{
+			return;
+		}
+		refreshTime = System.nanoTime() - startTime;
+		finished = true;
+		if (LOG.isInfoEnabled())
+		{
+			LOG.info(createReport());
+		}
+	}
+
+	protected String createReport()
+	{
+		final StringBuilder report = new StringBuilder();
+		report.append("Startup of ").append(applicationContext.getDisplayName()).append(" took ")
+				.append(TimeUnit.NANOSECONDS.toMillis(refreshTime)).append(" ms");
+		for (final Map.Entry<String, Long> phase : getPhaseTimes().entrySet())
+		{
+			report.append(System.lineSeparator()).append("  ").append(phase.getKey()).append(": ").append(phase.getValue())
+					.append(" ms");
+		}
+		report.append(System.lineSeparator()).append("  slowest beans:");
+		for (final BeanTiming timing : getSlowestBeans())
+		{
+			report.append(System.lineSeparator()).append("    ").append(timing.getBeanName()).append(" (")
+					.append(timing.getPhase()).append("): ").append(TimeUnit.NANOSECONDS.toMillis(timing.getTime())).append(" ms");
+		}
+		return report.toString();
+	}
+
+	/**
+	 * @return milliseconds spent creating the beans of each phase, in the order of {@link #PHASE_HANDLER_MAPPING},
+	 * {@link #PHASE_MESSAGE_SOURCES}, {@link #PHASE_XSTREAM} and {@link #PHASE_OTHER}
+	 */
+	public synchronized Map<String, Long> getPhaseTimes()
+	{
+		final Map<String, Long> phaseTimes = new LinkedHashMap<>();
+		phaseTimes.put(PHASE_HANDLER_MAPPING, Long.valueOf(0));
+		phaseTimes.put(PHASE_MESSAGE_SOURCES, Long.valueOf(0));
+		phaseTimes.put(PHASE_XSTREAM, Long.valueOf(0));
+		phaseTimes.put(PHASE_OTHER, Long.valueOf(0));
+		final Map<String, Long> nanos = new LinkedHashMap<>();
+		for (final BeanTiming timing : timings)
+		{
+			nanos.merge(timing.getPhase(), Long.valueOf(timing.getTime()), Long::sum);
+		}
+		nanos.forEach((phase, time) -> phaseTimes.put(phase, Long.valueOf(TimeUnit.NANOSECONDS.toMillis(time.longValue()))));
+		return phaseTimes;
+	}
+
+	public synchronized List<BeanTiming> getSlowestBeans()
+	{
+		final List<BeanTiming> slowest = new ArrayList<>(timings);
+		slowest.sort(Comparator.comparingLong(BeanTiming::getTime).reversed());
+		return Collections.unmodifiableList(slowest.subList(0, Math.min(slowestBeans, slowest.size())));
+	}
+
+	/**
+	 * @return milliseconds from the creation of this profiler until the context was refreshed, or 0 if it was not
+	 * refreshed yet
+	 */
+	public long getRefreshTime()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(refreshTime);
+	}
+
+	@Override
+	public int getOrder()
+	{
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public void setApplicationContext(final ApplicationContext applicationContext)
+	{
+		this.applicationContext = applicationContext;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @param slowestBeans
+	 * 		number of the slowest beans listed in the report
+	 */
+	public void setSlowestBeans(final int slowestBeans)
+	{
+		this.slowestBeans = slowestBeans;
+	}
+
+	private static class BeanCreation
+	{
+		private final String beanName;
+		private final long start;
+		private long nested;
+
+		private BeanCreation(final String beanName, final long start)
+		{
+			this.beanName = beanName;
+			this.start = start;
+		}
+	}
+
+	/**
+	 * Time spent creating a bean, excluding the beans created meanwhile
+	 */
+	public static class BeanTiming
+	{
+		private final String beanName;
+		private final String phase;
+		private final long time;
+
+		public BeanTiming(final String beanName, final String phase, final long time)
+		{
+			this.beanName = beanName;
+			this.phase = phase;
+			this.time = time;
+		}
+
+		public String getBeanName()
+		{
+			return beanName;
+		}
+
+		public String getPhase()
+		{
+			return phase;
+		}
+
+		/**
+		 * @return nanoseconds spent creating the bean
+		 */
+		public long getTime()
+		{
+			return time;
+		}
+	}
+}
@@ -7,6 +7,7 @@ import javax.annotation.PostConstruct;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -27,7 +28,8 @@ import com.google.common.collect.Lists;
 
 
 /**
- * MessageSource which can be aware of installed addons and extract message bundles from them.
+ * MessageSource which can be aware of installed addons and extract message bundles from them. The bundles are read from
+ * the {@link MessageBundleManifest} written at build time, the addon directory is only scanned if there is none.
  */
 public class AddonAwareMessageSource extends ReloadableResourceBundleMessageSource implements ApplicationContextAware
 {
@@ -38,6 +40,7 @@ public class AddonAwareMessageSource extends ReloadableResourceBundleMessageSour
 	protected Predicate<String> fileFilter;
 	protected Predicate<String> dirFilter;
 	protected List<String> basenames;
+	protected String manifest;
 	private ApplicationContext applicationContext;
 
 	public AddonAwareMessageSource()
@@ -69,19 +72,30 @@ public class AddonAwareMessageSource extends ReloadableResourceBundleMessageSour
 			return;
 		}
 
-		try
+		final long start = System.currentTimeMillis();
+		final Collection<String> manifestMessages = getManifestMessages();
+		if (manifestMessages != null)
 		{
-			final String basePath = baseAddonDir.getPathWithinContext();
-
-			final Collection<String> addonsPath = getAddonsMessages();
-			final Collection<String> addonsMessages = mapAddonLocation(addonsPath, basePath);
-
-			basenameList.addAll(addonsMessages);
+			basenameList.addAll(manifestMessages);
 		}
-		catch (final Exception ex)
+		else
 		{
-			LOG.warn("Scan for addon messages failed", ex);
+			try
+			{
+				final String basePath = baseAddonDir.getPathWithinContext();
+
+				final Collection<String> addonsPath = getAddonsMessages();
+				final Collection<String> addonsMessages = mapAddonLocation(addonsPath, basePath);
+
+				basenameList.addAll(addonsMessages);
+			}
+			catch (final Exception ex)
+			{
+				LOG.warn("Scan for addon messages failed", ex);
+			}
 		}
+		LOG.info("Found {} addon message bundles by {} in {} ms", basenameList.size(),
+				manifestMessages != null ? "manifest" : "scan", System.currentTimeMillis() - start);
 
 		basenameList.addAll(basenames);
 
@@ -93,6 +107,34 @@ public class AddonAwareMessageSource extends ReloadableResourceBundleMessageSour
 		super.setBasenames(result);
 	}
 
+	/**
+	 * Reads the addon message bundles from the manifest.
+	 *
+	 * @return paths to message bundles, or null if there is no manifest and the addon directory has to be scanned
+	 */
+	protected Collection<String> getManifestMessages()
+	{
+		if (StringUtils.isBlank(manifest))
+		{
+			return null;
+		}
+		final Resource resource = applicationContext.getResource(manifest);
+		if (!resource.exists())
+		{
+			LOG.info("Addon message bundle manifest {} not found, scanning {}", manifest, baseAddonDir.getPathWithinContext());
+			return null;
+		}
+		try (final InputStream manifestStream = resource.getInputStream())
+		{
+			return MessageBundleManifest.read(manifestStream);
+		}
+		catch (final IOException ex)
+		{
+			LOG.warn("Reading addon message bundle manifest failed", ex);
+			return null;
+		}
+	}
+
 	/**
 	 * Searches for files defined by fileFilter under directories defined by dirFilter.
 	 *
@@ -224,6 +266,23 @@ public class AddonAwareMessageSource extends ReloadableResourceBundleMessageSour
 		this.baseAddonDir = baseAddonDir;
 	}
 
+	/**
+	 * @return the manifest
+	 */
+	public String getManifest()
+	{
+		return manifest;
+	}
+
+	/**
+	 * @param manifest
+	 * 		location of the addon message bundle manifest, blank to always scan the addon directory
+	 */
+	public void setManifest(final String manifest)
+	{
+		this.manifest = manifest;
+	}
+
 	/**
 	 * @return the fileFilter
 	 */
@@ -6,7 +6,9 @@ package com.sncustomwebservices.util.ws.impl;
 import javax.annotation.PostConstruct;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -19,7 +21,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.core.io.ContextResource;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 
 import static java.util.stream.Collectors.toSet;
@@ -27,7 +31,8 @@ import static org.springframework.core.io.support.ResourcePatternResolver.CLASSP
 
 
 /**
- * MessageSource which can be aware of OCC extensions and extract messages bundles from them.
+ * MessageSource which can be aware of OCC extensions and extract messages bundles from them. The bundles are read from
+ * the {@link MessageBundleManifest} written at build time, the classpath is only scanned if there is none.
  */
 public class ClasspathAwareMessageSource extends ReloadableResourceBundleMessageSource
 {
@@ -37,6 +42,8 @@ public class ClasspathAwareMessageSource extends ReloadableResourceBundleMessage
 	private static final Logger LOG = LoggerFactory.getLogger(ClasspathAwareMessageSource.class);
 	protected final ContextResource baseOccExtensionDir;
 	protected final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+	private ResourceLoader manifestLoader = new DefaultResourceLoader();
+	private String manifest;
 
 	public ClasspathAwareMessageSource(final ContextResource baseOccExtensionDir)
 	{
@@ -52,11 +59,55 @@ public class ClasspathAwareMessageSource extends ReloadableResourceBundleMessage
 		}
 		else
 		{
-			super.setBasenames(getMessagesSet().toArray(String[]::new));
+			final long start = System.currentTimeMillis();
+			Set<String> messages = getManifestMessagesSet();
+			final boolean fromManifest = messages != null;
+			if (!fromManifest)
+			{
+				messages = getMessagesSet();
+			}
+			super.setBasenames(messages.toArray(String[]::new));
+			LOG.info("Found {} OCC extension message bundles by {} in {} ms", messages.size(), fromManifest ? "manifest" : "scan",
+					System.currentTimeMillis() - start);
 			LOG.debug("Loaded message bundles: {}", getBasenameSet());
 		}
 	}
 
+	/**
+	 * Reads the OCC extension message bundles from the manifest.
+	 *
+	 * @return paths to message bundles, or null if there is no manifest and the classpath has to be scanned
+	 */
+	protected Set<String> getManifestMessagesSet()
+	{
+		if (StringUtils.isBlank(getManifest()))
+		{
+			return null;
+		}
+		final Resource resource = manifestLoader.getResource(getManifest());
+		if (!resource.exists())
+		{
+			LOG.info("OCC extension message bundle manifest {} not found, scanning the classpath", getManifest());
+			return null;
+		}
+		try (final InputStream manifestStream = resource.getInputStream())
+		{
+			return new LinkedHashSet<>(MessageBundleManifest.read(manifestStream));
+		}
+		catch (final IOException ex)
+		{
+			LOG.warn("Reading OCC extension message bundle manifest failed", ex);
+			return null;
+		}
+	}
+
+	@Override
+	public void setResourceLoader(final ResourceLoader resourceLoader)
+	{
+		super.setResourceLoader(resourceLoader);
+		this.manifestLoader = resourceLoader != null ? resourceLoader : new DefaultResourceLoader();
+	}
+
 	protected Set<String> getMessagesSet()
 	{
 		if (getBaseOccExtensionDir() != null)
@@ -118,4 +169,18 @@ public class ClasspathAwareMessageSource extends ReloadableResourceBundleMessage
 		return baseOccExtensionDir;
 	}
 
+	protected String getManifest()
+	{
+		return manifest;
+	}
+
+	/**
+	 * @param manifest
+	 * 		location of the OCC extension message bundle manifest, blank to always scan the classpath
+	 */
+	public void setManifest(final String manifest)
+	{
+		this.manifest = manifest;
+	}
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.util.ws.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+
+/**
+ * Lists message bundle basenames, so message sources do not have to scan the web application and the classpath at every
+ * start. The manifests are written at build time by the sncustomwebservices_after_build callback, after addons were
+ * copied into the web application:
+ * <ul>
+ * <li>{@value #ADDON_MANIFEST} lists the bundles in the addon directories of the web application, as
+ * {@link AddonAwareMessageSource} would find them</li>
+ * <li>{@value #OCC_MANIFEST} lists the bundles of OCC extensions under occ/v2/*occ/messages, as
+ * {@link ClasspathAwareMessageSource} would find them</li>
+ * </ul>
+ * A manifest is one basename per line, lines starting with # are comments. This class only uses the JDK, so the build
+ * can run it with the web classes on the classpath only.
+ */
+public final class MessageBundleManifest
+{
+	public static final String ADDON_MANIFEST = "addon-message-bundles.txt";
+	public static final String OCC_MANIFEST = "occ-message-bundles.txt";
+	private static final String ADDON_DIR = "WEB-INF/messages/addons/";
+	private static final String OCC_DIR = "occ/v2/";
+
+	private MessageBundleManifest()
+	{
+		// static use only
+	}
+
+	/**
+	 * Reads the basenames of a manifest.
+	 *
+	 * @param manifest
+	 * 		manifest stream, closed by this method
+	 * @return basenames in the order of the manifest
+	 * @throws IOException
+	 * 		if the manifest cannot be read
+	 */
+	public static List<String> read(final InputStream manifest) throws IOException
+	{
+		final List<String> basenames = new ArrayList<>();
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(manifest, StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				final String basename = line.trim();
+				if (!basename.isEmpty() && !basename.startsWith("#"))
+				{
+					basenames.add(basename);
+				}
+			}
+		}
+		return basenames;
+	}
+
+	/**
+	 * Writes both manifests into the messages directory of the web application.
+	 *
+	 * @param args
+	 * 		web root directory, followed by a file listing the resource directories of the OCC extensions, one per line
+	 * @throws IOException
+	 * 		if a directory cannot be scanned or a manifest cannot be written
+	 */
+	public static void main(final String[] args) throws IOException
+	{
+		if (args.length != 2)
+		{
+			throw new IllegalArgumentException("Usage: MessageBundleManifest <webroot> <file listing OCC resource directories>");
+		}
+		final Path webroot = Paths.get(args[0]);
+		final Path messagesDir = webroot.resolve("WEB-INF/messages");
+		Files.createDirectories(messagesDir);
+
+		final Set<String> addonBundles = scan(webroot.resolve(ADDON_DIR), "[^/]+/.+\\.(properties|xml)", "/" + ADDON_DIR);
+		write(messagesDir.resolve(ADDON_MANIFEST), addonBundles);
+
+		final Set<String> occBundles = new TreeSet<>();
+		final List<String> resourceDirs = Files.exists(Paths.get(args[1])) ? read(Files.newInputStream(Paths.get(args[1])))
+				: new ArrayList<>();
+		for (final String resourceDir : resourceDirs)
+		{
+			occBundles.addAll(scan(Paths.get(resourceDir).resolve(OCC_DIR), "[^/]*occ/messages/.+\\.properties",
+					"classpath:" + OCC_DIR));
+		}
+		write(messagesDir.resolve(OCC_MANIFEST), occBundles);
+	}
+
+	/**
+	 * Finds the message files below a root directory and maps them to basenames by removing the locale and the extension.
+	 * Paths are matched relative to the root, the prefix replaces the root in the basenames.
+	 */
+	static Set<String> scan(final Path root, final String pathPattern, final String prefix) throws IOException
+	{
+		final Set<String> basenames = new TreeSet<>();
+		if (!Files.isDirectory(root))
+		{
+			return basenames;
+		}
+		try (final Stream<Path> files = Files.walk(root))
+		{
+			files.filter(Files::isRegularFile).map(file -> root.relativize(file).toString().replace('\\', '/'))
+					.filter(path -> path.matches(pathPattern)).map(path -> prefix + toBasename(path)).forEach(basenames::add);
+		}
+		catch (final UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+		return basenames;
+	}
+
+	static String toBasename(final String path)
+	{
+		final int slash = path.lastIndexOf('/');
+		final String filename = path.substring(slash + 1);
+		final int underscore = filename.indexOf('_');
+		final int dot = filename.lastIndexOf('.');
+		final int end = underscore == -1 ? dot : Math.min(underscore, dot == -1 ? underscore : dot);
+		return path.substring(0, slash + 1) + (end == -1 ? filename : filename.substring(0, end));
+	}
+
+	private static void write(final Path manifest, final Set<String> basenames) throws IOException
+	{
+		final List<String> lines = new ArrayList<>();
+		lines.add("# Generated by the sncustomwebservices build, do not edit");
+		lines.addAll(basenames);
+		Files.write(manifest, lines, StandardCharsets.UTF_8);
+	}
+}
@@ -68,7 +68,7 @@ public class AddressController extends BaseCommerceController
 	private static final String OBJECT_NAME_ADDRESS_ID = "addressId";
 	private static final String OBJECT_NAME_ADDRESS_DATA = "addressData";
 
-	@Resource(name = "addressVerificationFacade")
+	@Resource(name = "wsAddressVerificationFacade")
 	private AddressVerificationFacade addressVerificationFacade;
 	@Resource(name = "addressDataErrorsPopulator")
 	private Populator<AddressVerificationResult<AddressVerificationDecision>, Errors> addressDataErrorsPopulator;
@@ -3,11 +3,16 @@
  */
 package com.sncustomwebservices.v2.controller;
 
+import de.hybris.platform.commercefacades.address.AddressVerificationFacade;
+import de.hybris.platform.commercefacades.address.data.AddressVerificationResult;
 import de.hybris.platform.commercefacades.order.CheckoutPaymentFacade;
 import de.hybris.platform.commercefacades.user.data.AddressData;
+import de.hybris.platform.commerceservices.address.AddressVerificationDecision;
 import de.hybris.platform.commercewebservicescommons.annotation.SiteChannelRestriction;
 import de.hybris.platform.commercewebservicescommons.dto.user.AddressWsDTO;
 import de.hybris.platform.commercewebservicescommons.errors.exceptions.CartException;
+import de.hybris.platform.converters.Populator;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
 import de.hybris.platform.webservicescommons.cache.CacheControl;
 import de.hybris.platform.webservicescommons.cache.CacheControlDirective;
 import de.hybris.platform.webservicescommons.errors.exceptions.WebserviceValidationException;
@@ -51,12 +56,23 @@ public class CartAddressesController extends BaseCommerceController
 
 	private static final String OBJECT_NAME_ADDRESS = "address";
 
+	private static final String DELIVERY_VERIFICATION_KEY = "sncustomwebservices.address.verification.delivery.enabled";
+
 	@Resource(name = "sapCheckoutPaymentFacade")
 	private CheckoutPaymentFacade checkoutPaymentFacade;
 
 	@Resource(name = "sapBillingAddressValidator")
 	private Validator billingAddressValidator;
 
+	@Resource(name = "wsAddressVerificationFacade")
+	private AddressVerificationFacade addressVerificationFacade;
+
+	@Resource(name = "addressDataErrorsPopulator")
+	private Populator<AddressVerificationResult<AddressVerificationDecision>, Errors> addressDataErrorsPopulator;
+
+	@Resource(name = "configurationService")
+	private ConfigurationService configurationService;
+
 	@Secured({ "ROLE_CUSTOMERGROUP", "ROLE_CUSTOMERMANAGERGROUP", "ROLE_GUEST", "ROLE_TRUSTED_CLIENT" })
 	@PostMapping(value = "/{cartId}/addresses/delivery", consumes = { MediaType.APPLICATION_JSON_VALUE,
 			MediaType.APPLICATION_XML_VALUE })
@@ -72,11 +88,39 @@ public class CartAddressesController extends BaseCommerceController
 		LOG.debug("createCartDeliveryAddress");
 		validate(address, OBJECT_NAME_ADDRESS, getAddressDTOValidator());
 		AddressData addressData = getDataMapper().map(address, AddressData.class, ADDRESS_MAPPING);
+		verifyDeliveryAddress(addressData);
 		addressData = createAddressInternal(addressData);
 		setCartDeliveryAddressInternal(addressData.getId());
 		return getDataMapper().map(addressData, AddressWsDTO.class, fields);
 	}
 
+	/**
+	 * Rejects a new delivery address the address verification rejects. Addresses verified before through
+	 * /addresses/verification are answered from the verification cache.
+	 */
+	protected void verifyDeliveryAddress(final AddressData addressData)
+	{
+		if (!configurationService.getConfiguration().getBoolean(DELIVERY_VERIFICATION_KEY, false))
+		{
+			return;
+		}
+		final AddressVerificationResult<AddressVerificationDecision> result = addressVerificationFacade.verifyAddressData(
+				addressData);
+		if (result.getDecision() == AddressVerificationDecision.REJECT)
+		{
+			final Errors errors = new BeanPropertyBindingResult(addressData, OBJECT_NAME_ADDRESS);
+			if (result.getErrors() != null)
+			{
+				addressDataErrorsPopulator.populate(result, errors);
+			}
+			if (!errors.hasErrors())
+			{
+				errors.reject("address.invalid", "Address was rejected by the address verification");
+			}
+			throw new WebserviceValidationException(errors);
+		}
+	}
+
 	@Secured({ "ROLE_CUSTOMERGROUP", "ROLE_GUEST", "ROLE_CUSTOMERMANAGERGROUP", "ROLE_TRUSTED_CLIENT" })
 	@PutMapping(value = "/{cartId}/addresses/delivery")
 	@ResponseStatus(HttpStatus.OK)
@@ -29,6 +29,7 @@ import de.hybris.platform.webservicescommons.dto.error.ErrorListWsDTO;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdAndUserIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdUserIdAndCartIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
+import com.sncustomwebservices.auth.GuestCartRegistry;
 import com.sncustomwebservices.cart.impl.CommerceWebServicesCartFacade;
 import com.sncustomwebservices.order.data.CartDataList;
 import com.sncustomwebservices.requestfrom.RequestFromValueSetter;
@@ -106,6 +107,8 @@ public class CartsController extends BaseCommerceController
 	CartAccessCodeFacade cartAccessCodeFacade;
 	@Resource(name = "requestFromValueSetter")
 	private RequestFromValueSetter requestFromValueSetter;
+	@Resource(name = "guestCartRegistry")
+	private GuestCartRegistry guestCartRegistry;
 
 	@GetMapping
 	@ResponseBody
@@ -263,6 +266,7 @@ public class CartsController extends BaseCommerceController
 		}
 
 		customerFacade.createGuestUserForAnonymousCheckout(email, GUEST_USER_NAME);
+		guestCartRegistry.registerSessionCart();
 	}
 
 	@Secured({ "ROLE_CLIENT", "ROLE_TRUSTED_CLIENT" })
@@ -283,6 +287,7 @@ public class CartsController extends BaseCommerceController
 		}
 
 		customerFacade.createGuestUserForAnonymousCheckout(guest.getEmail(), GUEST_USER_NAME);
+		guestCartRegistry.registerSessionCart();
 	}
 
 	@Secured({ "ROLE_CLIENT", "ROLE_TRUSTED_CLIENT" })
@@ -309,6 +314,7 @@ public class CartsController extends BaseCommerceController
 			guestCustomerData = getDataMapper().map(guestUser, CustomerData.class, GUEST_USER_MAPPER_CONFIG);
 		}
 		guestCustomerData = customerFacade.createGuestUserForCheckout(guestCustomerData, GUEST_USER_NAME);
+		guestCartRegistry.registerSessionCart();
 		return getDataMapper().map(guestCustomerData, SAPGuestUserRequestWsDTO.class, fields);
 	}
 
@@ -14,14 +14,18 @@ import de.hybris.platform.commercewebservicescommons.dto.catalog.CatalogListWsDT
 import de.hybris.platform.commercewebservicescommons.dto.catalog.CatalogVersionWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.catalog.CatalogWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.catalog.CategoryHierarchyWsDTO;
+import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
 import de.hybris.platform.webservicescommons.mapping.DataMapper;
 import de.hybris.platform.webservicescommons.mapping.FieldSetBuilder;
 import de.hybris.platform.webservicescommons.mapping.impl.FieldSetBuilderContext;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshot;
+import com.sncustomwebservices.catalog.CategoryTreeSnapshotService;
 
 import javax.annotation.Resource;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -45,24 +49,36 @@ public class CatalogsController extends BaseController
 {
 	private static final Set<CatalogOption> OPTIONS = EnumSet.of(CatalogOption.BASIC, CatalogOption.CATEGORIES,
 			CatalogOption.SUBCATEGORIES);
+	private static final Set<CatalogOption> BASIC_OPTIONS = EnumSet.of(CatalogOption.BASIC);
+	private static final String DEPTH_PARAMETER = "depth";
+	private static final String DEPTH_DESCRIPTION = "Number of subcategory levels returned below each category. All levels are returned if not specified.";
 
 	@Resource(name = "cwsCatalogFacade")
 	private CatalogFacade catalogFacade;
 	@Resource(name = "fieldSetBuilder")
 	private FieldSetBuilder fieldSetBuilder;
+	@Resource(name = "categoryTreeSnapshotService")
+	private CategoryTreeSnapshotService categoryTreeSnapshotService;
 
 	@RequestMapping(method = RequestMethod.GET)
 	@ResponseBody
 	@Operation(operationId = "getCatalogs", summary = "Retrieves a list of catalogs.", description = "")
 	@ApiBaseSiteIdParam
-	public CatalogListWsDTO getCatalogs(@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+	public CatalogListWsDTO getCatalogs(@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields,
+			@Parameter(description = DEPTH_DESCRIPTION) @RequestParam(required = false) final Integer depth)
 	{
-		final List<CatalogData> catalogDataList = catalogFacade.getAllProductCatalogsForCurrentSite(OPTIONS);
+		final int categoryDepth = getCategoryDepth(depth);
+		final List<CatalogData> catalogDataList = catalogFacade.getAllProductCatalogsForCurrentSite(BASIC_OPTIONS);
+		int recurrencyLevel = 1;
+		for (final CatalogData catalog : catalogDataList)
+		{
+			recurrencyLevel = Math.max(recurrencyLevel, populateCategories(catalog, categoryDepth));
+		}
 		final CatalogsData catalogsData = new CatalogsData();
 		catalogsData.setCatalogs(catalogDataList);
 
 		final FieldSetBuilderContext context = new FieldSetBuilderContext();
-		context.setRecurrencyLevel(countRecurrecyLevel(catalogDataList));
+		context.setRecurrencyLevel(recurrencyLevel);
 		final Set<String> fieldSet = fieldSetBuilder.createFieldSet(CatalogListWsDTO.class, DataMapper.FIELD_PREFIX, fields,
 				context);
 
@@ -75,12 +91,14 @@ public class CatalogsController extends BaseController
 	@ApiBaseSiteIdParam
 	public CatalogWsDTO getCatalog(
 			@Parameter(description = "Catalog identifier.", required = true) @PathVariable final String catalogId,
-			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields,
+			@Parameter(description = DEPTH_DESCRIPTION) @RequestParam(required = false) final Integer depth)
 	{
-		final CatalogData catalogData = catalogFacade.getProductCatalogForCurrentSite(catalogId, OPTIONS);
+		final int categoryDepth = getCategoryDepth(depth);
+		final CatalogData catalogData = catalogFacade.getProductCatalogForCurrentSite(catalogId, BASIC_OPTIONS);
 
 		final FieldSetBuilderContext context = new FieldSetBuilderContext();
-		context.setRecurrencyLevel(countRecurrencyForCatalogData(catalogData));
+		context.setRecurrencyLevel(populateCategories(catalogData, categoryDepth));
 		final Set<String> fieldSet = fieldSetBuilder.createFieldSet(CatalogWsDTO.class, DataMapper.FIELD_PREFIX, fields, context);
 
 		return getDataMapper().map(catalogData, CatalogWsDTO.class, fieldSet);
@@ -93,13 +111,15 @@ public class CatalogsController extends BaseController
 	public CatalogVersionWsDTO getCatalogVersion(
 			@Parameter(description = "Catalog identifier.", required = true) @PathVariable final String catalogId,
 			@Parameter(description = "Catalog version identifier.", required = true) @PathVariable final String catalogVersionId,
-			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields,
+			@Parameter(description = DEPTH_DESCRIPTION) @RequestParam(required = false) final Integer depth)
 	{
+		final int categoryDepth = getCategoryDepth(depth);
 		final CatalogVersionData catalogVersionData = catalogFacade.getProductCatalogVersionForTheCurrentSite(catalogId,
-				catalogVersionId, OPTIONS);
+				catalogVersionId, BASIC_OPTIONS);
 
 		final FieldSetBuilderContext context = new FieldSetBuilderContext();
-		context.setRecurrencyLevel(countRecurrencyForCatalogVersionData(catalogVersionData));
+		context.setRecurrencyLevel(populateCategories(catalogId, catalogVersionData, categoryDepth));
 		final Set<String> fieldSet = fieldSetBuilder.createFieldSet(CatalogVersionWsDTO.class, DataMapper.FIELD_PREFIX, fields,
 				context);
 
@@ -114,77 +134,71 @@ public class CatalogsController extends BaseController
 			@Parameter(description = "Catalog identifier.", required = true) @PathVariable final String catalogId,
 			@Parameter(description = "Catalog version identifier.", required = true) @PathVariable final String catalogVersionId,
 			@Parameter(description = "Category identifier.", required = true) @PathVariable final String categoryId,
-			@ApiFieldsParam @RequestParam(defaultValue = "DEFAULT") final String fields)
+			@ApiFieldsParam @RequestParam(defaultValue = "DEFAULT") final String fields,
+			@Parameter(description = DEPTH_DESCRIPTION) @RequestParam(required = false) final Integer depth)
 	{
-		final PageOption page = PageOption.createForPageNumberAndPageSize(0, 10);
-		final CategoryHierarchyData categoryHierarchyData = catalogFacade.getCategoryById(catalogId, catalogVersionId, categoryId,
-				page, OPTIONS);
+		final int categoryDepth = getCategoryDepth(depth);
+		CategoryTreeSnapshot snapshot = categoryTreeSnapshotService.getSnapshot(catalogId, catalogVersionId);
+		int index = snapshot.indexOf(categoryId);
+		if (index == CategoryTreeSnapshot.NOT_FOUND)
+		{
+			// categories outside of the root category hierarchy are not part of the snapshot
+			final PageOption page = PageOption.createForPageNumberAndPageSize(0, 10);
+			snapshot = CategoryTreeSnapshot.create(Collections.singletonList(
+					catalogFacade.getCategoryById(catalogId, catalogVersionId, categoryId, page, OPTIONS)));
+			index = 0;
+		}
+		final CategoryHierarchyData categoryHierarchyData = snapshot.render(index, categoryDepth);
 
 		final FieldSetBuilderContext context = new FieldSetBuilderContext();
-		context.setRecurrencyLevel(countRecurrencyForCategoryHierarchyData(1, categoryHierarchyData));
+		context.setRecurrencyLevel(snapshot.getRecurrencyLevel(index, categoryDepth));
 		final Set<String> fieldSet = fieldSetBuilder.createFieldSet(CategoryHierarchyWsDTO.class, DataMapper.FIELD_PREFIX, fields,
 				context);
 
 		return getDataMapper().map(categoryHierarchyData, CategoryHierarchyWsDTO.class, fieldSet);
 	}
 
-	protected int countRecurrecyLevel(final List<CatalogData> catalogDataList)
+	protected int getCategoryDepth(final Integer depth)
 	{
-		int recurrencyLevel = 1;
-		int value;
-		for (final CatalogData catalog : catalogDataList)
+		if (depth == null)
 		{
-			value = countRecurrencyForCatalogData(catalog);
-			if (value > recurrencyLevel)
-			{
-				recurrencyLevel = value;
-			}
+			return CategoryTreeSnapshot.UNLIMITED_DEPTH;
 		}
-		return recurrencyLevel;
-	}
-
-	protected int countRecurrencyForCatalogData(final CatalogData catalog)
-	{
-		int retValue = 1;
-		int value;
-		for (final CatalogVersionData version : catalog.getCatalogVersions())
+		if (depth.intValue() < 0)
 		{
-			value = countRecurrencyForCatalogVersionData(version);
-			if (value > retValue)
-			{
-				retValue = value;
-			}
+			throw new RequestParameterException("Depth must not be negative", RequestParameterException.INVALID,
+					DEPTH_PARAMETER);
 		}
-		return retValue;
+		return depth.intValue();
 	}
 
-	protected int countRecurrencyForCatalogVersionData(final CatalogVersionData catalogVersion)
+	/**
+	 * Fills the category hierarchy of all versions of the catalog from the cached snapshots.
+	 *
+	 * @return recursion level needed to render the catalog
+	 */
+	protected int populateCategories(final CatalogData catalog, final int depth)
 	{
-		int retValue = 1;
-		int value;
-		for (final CategoryHierarchyData hierarchy : catalogVersion.getCategoriesHierarchyData())
+		int recurrencyLevel = 1;
+		if (catalog.getCatalogVersions() != null)
 		{
-			value = countRecurrencyForCategoryHierarchyData(1, hierarchy);
-			if (value > retValue)
+			for (final CatalogVersionData version : catalog.getCatalogVersions())
 			{
-				retValue = value;
+				recurrencyLevel = Math.max(recurrencyLevel, populateCategories(catalog.getId(), version, depth));
 			}
 		}
-		return retValue;
+		return recurrencyLevel;
 	}
 
-	protected int countRecurrencyForCategoryHierarchyData(final int currentValue, final CategoryHierarchyData hierarchy)
+	/**
+	 * Fills the category hierarchy of the catalog version from the cached snapshot.
+	 *
+	 * @return recursion level needed to render the catalog version
+	 */
+	protected int populateCategories(final String catalogId, final CatalogVersionData catalogVersion, final int depth)
 	{
-		int calculatedValue = currentValue + 1;
-		int subcategoryRecurrencyValue;
-		for (final CategoryHierarchyData subcategory : hierarchy.getSubcategories())
-		{
-			subcategoryRecurrencyValue = countRecurrencyForCategoryHierarchyData(calculatedValue, subcategory);
-			if (subcategoryRecurrencyValue > calculatedValue)
-			{
-				calculatedValue = subcategoryRecurrencyValue;
-			}
-		}
-		return calculatedValue;
+		final CategoryTreeSnapshot snapshot = categoryTreeSnapshotService.getSnapshot(catalogId, catalogVersion.getId());
+		catalogVersion.setCategoriesHierarchyData(snapshot.renderRoots(depth));
+		return snapshot.getRootsRecurrencyLevel(depth);
 	}
 }
@@ -7,7 +7,6 @@ import de.hybris.platform.commercefacades.catalog.PageOption;
 import de.hybris.platform.commercefacades.customergroups.CustomerGroupFacade;
 import de.hybris.platform.commercefacades.user.UserFacade;
 import de.hybris.platform.commercefacades.user.UserGroupOption;
-import de.hybris.platform.commercefacades.user.data.PrincipalData;
 import de.hybris.platform.commercefacades.user.data.UserGroupData;
 import de.hybris.platform.commercefacades.user.data.UserGroupDataList;
 import de.hybris.platform.commercewebservicescommons.dto.user.MemberListWsDTO;
@@ -15,11 +14,21 @@ import de.hybris.platform.commercewebservicescommons.dto.user.PrincipalWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.user.UserGroupListWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.user.UserGroupWsDTO;
 import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
 import de.hybris.platform.servicelayer.exceptions.UnknownIdentifierException;
+import de.hybris.platform.webservicescommons.errors.exceptions.NotFoundException;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipDiff;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipJob;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipJobService;
+import com.sncustomwebservices.customergroup.CustomerGroupMembershipService;
+import com.sncustomwebservices.exceptions.CustomerGroupMembershipJobRejectedException;
+import com.sncustomwebservices.v2.data.CustomerGroupMembershipJobWsDTO;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,12 +36,15 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.annotation.Secured;
@@ -45,6 +57,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -65,6 +78,7 @@ public class CustomerGroupsController extends BaseController
 	private static final Set<UserGroupOption> OPTIONS = EnumSet.allOf(UserGroupOption.class);
 	private static final String REMOVE_OPERATION_MESSAGE = "You cannot remove user from group: ";
 	private static final String ADD_OPERATION_MESSAGE = "You cannot add user to group: ";
+	private static final String ASYNC_THRESHOLD_KEY = "sncustomwebservices.customergroup.membership.async.threshold";
 
 	@Resource(name = "wsCustomerGroupFacade")
 	private CustomerGroupFacade customerGroupFacade;
@@ -74,6 +88,12 @@ public class CustomerGroupsController extends BaseController
 	private Validator principalListDTOValidator;
 	@Resource(name = "wsUserGroupDTOValidator")
 	private Validator userGroupDTOValidator;
+	@Resource(name = "customerGroupMembershipService")
+	private CustomerGroupMembershipService customerGroupMembershipService;
+	@Resource(name = "customerGroupMembershipJobService")
+	private CustomerGroupMembershipJobService customerGroupMembershipJobService;
+	@Resource(name = "configurationService")
+	private ConfigurationService configurationService;
 
 	/**
 	 * @deprecated since 2005. Please use {@link CustomerGroupsController#createCustomerGroup(UserGroupWsDTO)} instead.
@@ -166,25 +186,37 @@ public class CustomerGroupsController extends BaseController
 
 	protected void setUserListForCustomerGroupInternal(final String groupId, final List<String> members)
 	{
-		final UserGroupData userGroup = customerGroupFacade.getCustomerGroup(groupId,
-				Collections.singleton(UserGroupOption.MEMBERS));
-		final Set<String> oldMembers = userGroup.getMembers().stream().map(PrincipalData::getUid).collect(toSet());
-		final Set<String> newMembers = Stream.ofNullable(members).flatMap(List::stream).distinct()
-				.map(id -> this.toUid(id, userId -> createOperationErrorMessage(ADD_OPERATION_MESSAGE, groupId, userId)))
-				.collect(toSet());
-
-		final Set<String> oldRetained = new HashSet<>(oldMembers);
-		oldRetained.retainAll(newMembers);
-		// to remove
-		oldMembers.removeAll(newMembers);
-		// to add
-		newMembers.removeAll(oldRetained);
+		// fails for unknown groups and for groups that are not customer groups
+		customerGroupFacade.getCustomerGroup(groupId, Collections.emptySet());
+		final Set<PK> newMembers = resolveMembers(groupId, members);
+		customerGroupMembershipService.replaceMembers(groupId, newMembers, diff -> true,
+				processed -> LOG.debug("Updated {} members of group {}", processed, groupId));
+	}
 
-		checkIfAllUsersExist(oldMembers, userId -> createOperationErrorMessage(REMOVE_OPERATION_MESSAGE, groupId, userId));
-		checkIfAllUsersExist(newMembers, userId -> createOperationErrorMessage(ADD_OPERATION_MESSAGE, groupId, userId));
+	/*
+	 * Resolves user ids in bulk. Ids that are not uids, like customer ids, are matched one by one.
+	 * If a user doesn't exist throw RequestParameterException
+	 */
+	protected Set<PK> resolveMembers(final String groupId, final List<String> members)
+	{
+		final Set<String> ids = Stream.ofNullable(members).flatMap(List::stream).collect(toSet());
+		final Map<String, PK> users = customerGroupMembershipService.findUsers(ids);
+		final Set<PK> resolved = new HashSet<>(users.values());
 
-		oldMembers.forEach(id -> customerGroupFacade.removeUserFromCustomerGroup(groupId, id));
-		newMembers.forEach(id -> customerGroupFacade.addUserToCustomerGroup(groupId, id));
+		final Set<String> matchedUids = ids.stream().filter(id -> !users.containsKey(id))
+				.map(id -> this.toUid(id, userId -> createOperationErrorMessage(ADD_OPERATION_MESSAGE, groupId, userId)))
+				.collect(toSet());
+		final Map<String, PK> matchedUsers = customerGroupMembershipService.findUsers(matchedUids);
+		for (final String uid : matchedUids)
+		{
+			final PK user = matchedUsers.get(uid);
+			if (user == null)
+			{
+				throw new RequestParameterException(createOperationErrorMessage(ADD_OPERATION_MESSAGE, groupId, uid));
+			}
+			resolved.add(user);
+		}
+		return resolved;
 	}
 
 	protected String toUid(final String userId, final Function<String, String> messageSupport)
@@ -221,14 +253,18 @@ public class CustomerGroupsController extends BaseController
 	@RequestMapping(value = "/{groupId}/members", method = RequestMethod.PUT, consumes = { MediaType.APPLICATION_JSON_VALUE,
 			MediaType.APPLICATION_XML_VALUE })
 	@Secured("ROLE_CUSTOMERMANAGERGROUP")
-	@ResponseStatus(value = HttpStatus.OK)
+	@ResponseBody
 	@Operation(operationId = "replaceUsersForCustomerGroup", summary = "Sets members for a user group.", description =
-			"Sets members for a user group. The list of existing members is overwritten with a new one.\n\nTo try out the methods "
+			"Sets members for a user group. The list of existing members is overwritten with a new one.\n\nIf many members change, "
+					+ "the request is answered with status 202 and the changes are applied in the background. The response then "
+					+ "contains a job, which can be looked up at the URL returned in the Location header.\n\nTo try out the methods "
 					+ "of the Customer Groups controller, you must authorize a user who belongs to the “customermanagergroup”.")
 	@ApiBaseSiteIdParam
-	public void replaceUsersForCustomerGroup(
+	public CustomerGroupMembershipJobWsDTO replaceUsersForCustomerGroup(
 			@Parameter(description = "Group identifier. ", example = "CustomerForSiteA", required = true) @PathVariable final String groupId,
-			@Parameter(description = "List of users to set for customer group.", required = true) @RequestBody final MemberListWsDTO members)
+			@Parameter(description = "List of users to set for customer group.", required = true) @RequestBody final MemberListWsDTO members,
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields, final HttpServletResponse response)
+			throws CustomerGroupMembershipJobRejectedException
 	{
 		final List<String> membersIds = new ArrayList<>();
 		if (members.getMembers() != null)
@@ -243,7 +279,57 @@ public class CustomerGroupsController extends BaseController
 				membersIds.add(member.getUid());
 			}
 		}
-		setUserListForCustomerGroupInternal(groupId, membersIds);
+
+		customerGroupFacade.getCustomerGroup(groupId, Collections.emptySet());
+		final Set<PK> newMembers = resolveMembers(groupId, membersIds);
+		// a replacement following a queued job is queued as well, so the members of the last request are kept
+		if (!customerGroupMembershipJobService.hasUnfinishedJob(groupId))
+		{
+			final int asyncThreshold = configurationService.getConfiguration().getInt(ASYNC_THRESHOLD_KEY, Integer.MAX_VALUE);
+			final CustomerGroupMembershipDiff diff = customerGroupMembershipService.replaceMembers(groupId, newMembers,
+					changes -> changes.size() <= asyncThreshold,
+					processed -> LOG.debug("Updated {} members of group {}", processed, groupId));
+			if (diff.size() <= asyncThreshold)
+			{
+				return null;
+			}
+		}
+
+		final CustomerGroupMembershipJob job;
+		try
+		{
+			// the job computes the changes again when it starts, after the jobs queued before it
+			job = customerGroupMembershipJobService.submit(groupId, newMembers);
+		}
+		catch (final RejectedExecutionException e)
+		{
+			throw new CustomerGroupMembershipJobRejectedException("Too many customer group updates are queued, please try again later");
+		}
+		response.setStatus(HttpServletResponse.SC_ACCEPTED);
+		response.setHeader(HttpHeaders.LOCATION, ServletUriComponentsBuilder.fromCurrentRequestUri().path("/jobs/{jobId}")
+				.buildAndExpand(job.getJobId()).toUriString());
+		return getDataMapper().map(job, CustomerGroupMembershipJobWsDTO.class, fields);
+	}
+
+	@RequestMapping(value = "/{groupId}/members/jobs/{jobId}", method = RequestMethod.GET)
+	@Secured("ROLE_CUSTOMERMANAGERGROUP")
+	@ResponseStatus(value = HttpStatus.OK)
+	@ResponseBody
+	@Operation(operationId = "getCustomerGroupMembershipJob", summary = "Retrieves a customer group membership job.", description =
+			"Retrieves the progress of setting many members for a customer group in the background. Jobs can be looked up by the "
+					+ "user who started them for some time after they finished.")
+	@ApiBaseSiteIdParam
+	public CustomerGroupMembershipJobWsDTO getCustomerGroupMembershipJob(
+			@Parameter(description = "Group identifier.", example = "CustomerForSiteA", required = true) @PathVariable final String groupId,
+			@Parameter(description = "Job identifier, as returned when the members were set.", required = true) @PathVariable final String jobId,
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+	{
+		final CustomerGroupMembershipJob job = customerGroupMembershipJobService.getJob(jobId);
+		if (job == null || !job.getGroupUid().equals(groupId))
+		{
+			throw new NotFoundException("Customer group membership job not found");
+		}
+		return getDataMapper().map(job, CustomerGroupMembershipJobWsDTO.class, fields);
 	}
 
 	@RequestMapping(value = "/{groupId}/members/{userId:.*}", method = RequestMethod.DELETE)
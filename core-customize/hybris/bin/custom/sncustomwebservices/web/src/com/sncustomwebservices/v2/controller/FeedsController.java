@@ -6,9 +6,9 @@ package com.sncustomwebservices.v2.controller;
 import de.hybris.platform.commercewebservicescommons.dto.queues.OrderStatusUpdateElementListWsDTO;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
 import com.sncustomwebservices.formatters.WsDateFormatter;
+import com.sncustomwebservices.queues.UpdateQueue;
 import com.sncustomwebservices.queues.data.OrderStatusUpdateElementData;
 import com.sncustomwebservices.queues.data.OrderStatusUpdateElementDataList;
-import com.sncustomwebservices.queues.impl.OrderStatusUpdateQueue;
 
 import javax.annotation.Resource;
 
@@ -37,7 +37,7 @@ public class FeedsController extends BaseController
 	@Resource(name = "wsDateFormatter")
 	private WsDateFormatter wsDateFormatter;
 	@Resource(name = "orderStatusUpdateQueue")
-	private OrderStatusUpdateQueue orderStatusUpdateQueue;
+	private UpdateQueue<OrderStatusUpdateElementData> orderStatusUpdateQueue;
 
 	@Secured("ROLE_TRUSTED_CLIENT")
 	@GetMapping(value = "/orders/statusfeed")
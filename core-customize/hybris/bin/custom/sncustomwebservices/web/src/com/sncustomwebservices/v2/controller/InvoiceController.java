@@ -9,19 +9,20 @@ import de.hybris.platform.commercewebservicescommons.dto.order.SAPInvoicesWsDTO;
 import de.hybris.platform.core.servicelayer.data.SearchPageData;
 import de.hybris.platform.webservicescommons.cache.CacheControl;
 import de.hybris.platform.webservicescommons.cache.CacheControlDirective;
-import de.hybris.platform.webservicescommons.errors.exceptions.NotFoundException;
 import de.hybris.platform.webservicescommons.pagination.WebPaginationUtils;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdAndUserIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
+import com.sncustomwebservices.invoice.InvoiceListCache;
 import com.sncustomwebservices.mapping.mappers.SapInvoiceSortMapper;
+import com.sncustomwebservices.v2.helper.InvoicesHelper;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -51,6 +52,12 @@ public class InvoiceController extends BaseCommerceController
 	@Resource(name = "sapInvoiceSortMapper")
 	private SapInvoiceSortMapper sapInvoiceSortMapper;
 
+	@Resource(name = "invoicesHelper")
+	private InvoicesHelper invoicesHelper;
+
+	@Resource(name = "invoiceListCache")
+	private InvoiceListCache invoiceListCache;
+
 
 	@Secured(
 	{ "ROLE_CUSTOMERGROUP", "ROLE_CLIENT", "ROLE_TRUSTED_CLIENT", "ROLE_CUSTOMERMANAGERGROUP" })
@@ -80,8 +87,9 @@ public class InvoiceController extends BaseCommerceController
 		}
 		final SearchPageData<SAPInvoiceData> searchPageDataInput = webPaginationUtils.buildSearchPageData(sort, currentPage,
 				pageSize, true);
-		final SearchPageData<SAPInvoiceData> invoices = sapInvoiceFacade.getInvoices(sanitize(code), searchPageDataInput,
-				addPaginationField(fields));
+		final SearchPageData<SAPInvoiceData> invoices = invoiceListCache.isEnabled()
+				? invoiceListCache.getInvoices(sanitize(code), searchPageDataInput)
+				: sapInvoiceFacade.getInvoices(sanitize(code), searchPageDataInput, addPaginationField(fields));
 		return getDataMapper().map(invoices, SAPInvoicesWsDTO.class, fields);
 
 	}
@@ -89,30 +97,18 @@ public class InvoiceController extends BaseCommerceController
 	@Secured(
 	{ "ROLE_CUSTOMERGROUP", "ROLE_CLIENT", "ROLE_TRUSTED_CLIENT", "ROLE_CUSTOMERMANAGERGROUP" })
 	@GetMapping(value = "/{code}/invoices/{invoiceId}/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-	@ResponseBody
-	@Operation(operationId = "getUserOrderInvoiceBinary", summary = "Get binary invoice of an order", description = "Get invoice of an order in encoded byte array")
+	@CacheControl(directive = CacheControlDirective.PRIVATE)
+	@Operation(operationId = "getUserOrderInvoiceBinary", summary = "Get binary invoice of an order", description = "Get invoice of an order as a binary stream. Supports a single byte range and ETag validation.")
 	@ApiBaseSiteIdAndUserIdParam
-	public ResponseEntity<byte[]> getUserOrderInvoiceBinary(@Parameter(description = "Order Code", required = true)
+	public void getUserOrderInvoiceBinary(@Parameter(description = "Order Code", required = true)
 	@PathVariable
 	final String code, @Parameter(description = "Invoice ID", required = true)
 	@PathVariable
 	final String invoiceId, @Parameter(description = "External system identifier where the invoice resides.", example = "S4SALES")
 	@RequestParam(required = false)
-	final String externalSystemId)
+	final String externalSystemId, final HttpServletRequest request, final HttpServletResponse response) throws IOException
 	{
-		final byte[] byteArray = sapInvoiceFacade.getInvoiceBinary(sanitize(code), sanitize(invoiceId), sanitize(externalSystemId));
-		if (byteArray.length <= 0)
-		{
-			throw new NotFoundException("Invoice with id = %s of order %s is not found.".formatted(invoiceId, code),
-					"The invoice with the given id does not have any data", invoiceId);
-		}
-		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(new MediaType("application", "octet-stream"));
-
-		headers.setContentDispositionFormData("attachment", invoiceId + ".pdf");
-		headers.setContentLength(byteArray.length);
-		return new ResponseEntity<>(byteArray, headers, HttpStatus.OK);
-
+		invoicesHelper.writeInvoice(sanitize(code), sanitize(invoiceId), sanitize(externalSystemId), request, response);
 	}
 
 	/**
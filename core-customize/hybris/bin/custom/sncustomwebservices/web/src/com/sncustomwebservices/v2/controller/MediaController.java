@@ -11,20 +11,24 @@ import de.hybris.platform.cmswebservices.data.MediaData;
 import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
 import de.hybris.platform.webservicescommons.cache.CacheControl;
 import de.hybris.platform.webservicescommons.cache.CacheControlDirective;
+import de.hybris.platform.webservicescommons.errors.exceptions.NotFoundException;
 import de.hybris.platform.webservicescommons.errors.exceptions.WebserviceValidationException;
 import de.hybris.platform.webservicescommons.mapping.DataMapper;
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdParam;
+import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
 
 import java.io.IOException;
 import java.io.InputStream;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -32,7 +36,11 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.sncustomwebservices.catalog.CatalogSyncBatch;
 import com.sncustomwebservices.facades.CustomProductFacade;
+import com.sncustomwebservices.facades.ProductImageUploadFacade;
+import com.sncustomwebservices.media.data.ProductImageUploadData;
+import com.sncustomwebservices.v2.data.CatalogSyncBatchWsDTO;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -50,18 +58,28 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class MediaController extends BaseController {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MediaController.class);
 
+	/** Response header holding the identifier of the batch synchronizing the product to the online catalog. */
+	public static final String CATALOG_SYNC_BATCH_HEADER = "Catalog-Sync-Batch-Id";
+
 	@Resource
 	private MediaFacade mediaFacade;
 	@Resource
 	private DataMapper dataMapper;
 	@Resource
 	private CustomProductFacade oicProductFacade;
+	@Resource
+	private ProductImageUploadFacade productImageUploadFacade;
 
 
 	@RequestMapping(value = "/uploadImage", method = RequestMethod.POST/*, consumes = MediaType.MULTIPART_FORM_DATA_VALUE*/)
 	@ResponseStatus(value = HttpStatus.CREATED)
 	@ResponseBody
-	@Operation(operationId = "uploadImage", summary = "upload an Image")
+	@Operation(operationId = "uploadImage", summary = "upload an Image", description = "Stores the image and makes it the "
+			+ "picture of the product. If an image with the same content is already stored in the catalog version, no new media "
+			+ "is created and the stored media is linked and returned instead, so the code of the returned media can differ "
+			+ "from the requested code. The product is synchronized to the online catalog in a batch, whose identifier is "
+			+ "returned in the " + CATALOG_SYNC_BATCH_HEADER + " header and whose status can be looked up at "
+			+ "/media/syncBatches/{batchId} on the node that accepted the upload.")
 	@ApiBaseSiteIdParam
 	public MediaWsDTO uploadMediaImage(
 			@Parameter(description = "The MediaData containing the data for the associated media item to be created.", required = true)
@@ -70,8 +88,8 @@ public class MediaController extends BaseController {
 			@RequestParam("productId")	final String productId,
 			@Parameter(description = "The file representing the actual binary contents of the media to be created.", required = true)
 			@RequestParam(required = true, value = "file_field_1")
-			final MultipartFile multiPart
-	/* final HttpServletRequest httpRequest, final HttpServletResponse httpResponse */) throws IOException
+			final MultipartFile multiPart,
+			final HttpServletResponse httpResponse) throws IOException
 	{
 
 		if (media.getAltText() == null || media.getAltText().isEmpty()){
@@ -81,8 +99,6 @@ public class MediaController extends BaseController {
 			media.setDescription(media.getCode() + media.getMime());
 		}
 
-		de.hybris.platform.cmsfacades.data.MediaData newMedia = null;
-
 		try{
 			final de.hybris.platform.cmsfacades.data.MediaData convertedMediaData =
 					getDataMapper().map(media, de.hybris.platform.cmsfacades.data.MediaData.class);
@@ -96,11 +112,13 @@ public class MediaController extends BaseController {
 				}else {
 					LOGGER.info("Uploading Image..");
 
-					newMedia = getMediaFacade().addMedia(convertedMediaData, getFile(multiPart, multiPart.getInputStream()));
+					final ProductImageUploadData upload = productImageUploadFacade.uploadImage(productId, convertedMediaData,
+							getFile(multiPart, multiPart.getInputStream()));
+					if (upload.getCatalogSyncBatchId() != null){
+						httpResponse.setHeader(CATALOG_SYNC_BATCH_HEADER, upload.getCatalogSyncBatchId());
+					}
 
-					oicProductFacade.updateImageForProduct(productId, newMedia);
-
-					return getDataMapper().map(newMedia, MediaWsDTO.class);
+					return getDataMapper().map(upload.getMedia(), MediaWsDTO.class);
 				}
 
 			}else {
@@ -113,6 +131,26 @@ public class MediaController extends BaseController {
 		}
 	}
 
+	@RequestMapping(value = "/syncBatches/{batchId}", method = RequestMethod.GET)
+	@ResponseStatus(value = HttpStatus.OK)
+	@ResponseBody
+	@Operation(operationId = "getCatalogSyncBatch", summary = "Retrieves a catalog synchronization batch.", description =
+			"Retrieves the status of the batch synchronizing an uploaded product image to the online catalog. Batches can be "
+					+ "looked up on the node that accepted the upload for some time after they finished.")
+	@ApiBaseSiteIdParam
+	public CatalogSyncBatchWsDTO getCatalogSyncBatch(
+			@Parameter(description = "Batch identifier, as returned in the " + CATALOG_SYNC_BATCH_HEADER
+					+ " header of the upload.", required = true) @PathVariable final String batchId,
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+	{
+		final CatalogSyncBatch batch = productImageUploadFacade.getCatalogSyncBatch(batchId);
+		if (batch == null)
+		{
+			throw new NotFoundException("Catalog synchronization batch not found");
+		}
+		return getDataMapper().map(batch, CatalogSyncBatchWsDTO.class, fields);
+	}
+
 	public MediaFileDto getFile(final MultipartFile file, final InputStream inputStream){
 
 		final MediaFileDto mediaFile = new MediaFileDto();
@@ -167,6 +205,20 @@ public class MediaController extends BaseController {
 		this.oicProductFacade = oicProductFacade;
 	}
 
+	/**
+	 * @return the productImageUploadFacade
+	 */
+	public ProductImageUploadFacade getProductImageUploadFacade(){
+		return productImageUploadFacade;
+	}
+
+	/**
+	 * @param productImageUploadFacade the productImageUploadFacade to set
+	 */
+	public void setProductImageUploadFacade(final ProductImageUploadFacade productImageUploadFacade){
+		this.productImageUploadFacade = productImageUploadFacade;
+	}
+
 
 
 
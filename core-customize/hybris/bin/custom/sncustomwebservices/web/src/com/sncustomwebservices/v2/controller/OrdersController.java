@@ -7,7 +7,6 @@ import de.hybris.platform.basecommerce.enums.CancelReason;
 import de.hybris.platform.commercefacades.customer.CustomerFacade;
 import de.hybris.platform.commercefacades.order.OrderFacade;
 import de.hybris.platform.commercefacades.order.data.OrderData;
-import de.hybris.platform.commercefacades.order.data.OrderHistoriesData;
 import de.hybris.platform.commercewebservicescommons.annotation.SiteChannelRestriction;
 import de.hybris.platform.commercewebservicescommons.dto.order.CancellationRequestEntryInputListWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.order.CancellationRequestEntryInputWsDTO;
@@ -29,9 +28,15 @@ import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdAndUserIdParam
 import de.hybris.platform.webservicescommons.swagger.ApiBaseSiteIdParam;
 import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
 import com.sncustomwebservices.exceptions.NoCheckoutCartException;
+import com.sncustomwebservices.exceptions.OrderPlacementRejectedException;
+import com.sncustomwebservices.invoice.InvoiceListCache;
+import com.sncustomwebservices.order.data.OrderSummaryPageData;
 import com.sncustomwebservices.requestfrom.RequestFromValueSetter;
 import com.sncustomwebservices.strategies.OrderCodeIdentificationStrategy;
+import com.sncustomwebservices.v2.data.OrderPlacementWsDTO;
 import com.sncustomwebservices.v2.helper.OrdersHelper;
+import com.sncustomwebservices.v2.placement.AsyncOrderPlacementService;
+import com.sncustomwebservices.v2.placement.OrderPlacement;
 import com.sncustomwebservices.skipfield.SkipOrderFieldValueSetter;
 
 import javax.annotation.Resource;
@@ -39,14 +44,17 @@ import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.MediaType;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.Validator;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -55,6 +63,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -78,6 +87,7 @@ public class OrdersController extends BaseCommerceController
 {
 	private static final Logger LOG = LoggerFactory.getLogger(OrdersController.class);
 	public static final String TOGGLE_GET_ORDER_BY_CODE_OR_GUID_ENABLED= "toggle.getOrderByCodeOrGuid.enabled";
+	private static final String HEADER_NEXT_PAGE_TOKEN = "X-Next-Page-Token";
 
 	@Resource(name = "orderFacade")
 	private OrderFacade orderFacade;
@@ -89,6 +99,10 @@ public class OrdersController extends BaseCommerceController
 	private OrdersHelper ordersHelper;
 	@Resource(name = "omsOrderFacade")
 	private OmsOrderFacade omsOrderFacade;
+	@Resource(name = "invoiceListCache")
+	private InvoiceListCache invoiceListCache;
+	@Resource(name = "asyncOrderPlacementService")
+	private AsyncOrderPlacementService asyncOrderPlacementService;
 	@Resource(name = "cancellationRequestEntryInputListDTOValidator")
 	private Validator cancellationRequestEntryInputListDTOValidator;
 	@Resource(name = "wsCustomerFacade")
@@ -147,6 +161,8 @@ public class OrdersController extends BaseCommerceController
 			// get order only by code
 			orderData = orderFacade.getOrderDetailsForCode(code);
 		}
+		// order details are usually followed by the invoice listing
+		invoiceListCache.prefetch(orderData.getCode());
 		return getDataMapper().map(orderData, OrderWsDTO.class, fields);
 	}
 
@@ -172,10 +188,23 @@ public class OrdersController extends BaseCommerceController
 			@Parameter(description = "Current result page. Default value is 0.") @RequestParam(defaultValue = DEFAULT_CURRENT_PAGE) final int currentPage,
 			@Parameter(description = "The number of results returned per page.") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) final int pageSize,
 			@Parameter(description = "Sorting method applied to the return results.") @RequestParam(required = false) final String sort,
+			@Parameter(description = "Token of the page to return, as received in the X-Next-Page-Token header of the previous page. "
+					+ "If present, orders are listed newest first with code, status, total and placement date only, the currentPage "
+					+ "and sort parameters are ignored and the total count is not returned. Use an empty value for the first page.") @RequestParam(required = false) final String pageToken,
 			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields, final HttpServletResponse response)
 	{
 		validateStatusesEnumValue(statuses);
 
+		if (pageToken != null)
+		{
+			final OrderSummaryPageData orderSummaryPage = ordersHelper.searchOrderSummaries(statuses, pageToken, pageSize);
+			if (orderSummaryPage.getNextPageToken() != null)
+			{
+				response.setHeader(HEADER_NEXT_PAGE_TOKEN, orderSummaryPage.getNextPageToken());
+			}
+			return ordersHelper.mapOrderSummaries(orderSummaryPage, addPaginationField(fields));
+		}
+
 		final OrderHistoryListWsDTO orderHistoryList = ordersHelper.searchOrderHistory(statuses, currentPage, pageSize, sort,
 				addPaginationField(fields));
 
@@ -194,9 +223,7 @@ public class OrdersController extends BaseCommerceController
 			@Parameter(description = "Filters only certain order statuses. For example, statuses=CANCELLED,CHECKED_VALID would only return orders with status CANCELLED or CHECKED_VALID.") @RequestParam(required = false) final String statuses,
 			final HttpServletResponse response)
 	{
-		final OrderHistoriesData orderHistoriesData = ordersHelper.searchOrderHistory(statuses, 0, 1, null);
-
-		setTotalCountHeader(response, orderHistoriesData.getPagination());
+		response.setHeader(HEADER_TOTAL_COUNT, String.valueOf(ordersHelper.countOrders(statuses)));
 	}
 
 
@@ -254,6 +281,65 @@ public class OrdersController extends BaseCommerceController
 		throw new CartException("Cart without SapGenericPaymentInfo is not allowed to place an order!");
 	}
 
+	@Secured({ "ROLE_CUSTOMERGROUP", "ROLE_CLIENT", "ROLE_CUSTOMERMANAGERGROUP", "ROLE_TRUSTED_CLIENT" })
+	@CacheControl(directive = CacheControlDirective.NO_CACHE)
+	@PostMapping(value = "/users/{userId}/orders/placements", produces = MediaType.APPLICATION_JSON)
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	@ResponseBody
+	@SiteChannelRestriction(allowedSiteChannelsProperty = API_COMPATIBILITY_B2C_CHANNELS)
+	@Operation(operationId = "submitOrderPlacement", summary = "Submits an order placement.", description = "Validates the cart and places the order in the background. The response contains the placement id, "
+			+ "the placement can be looked up at the URL returned in the Location header until the order is placed or the placement failed. Submitting a cart again returns its placement, unless the placement failed. "
+			+ "If too many orders are being placed, the request is rejected with status 503 and a Retry-After header.")
+	@ApiBaseSiteIdAndUserIdParam
+	public OrderPlacementWsDTO submitOrderPlacement(
+			@Parameter(description = "Cart code for logged in user, cart GUID for guest checkout", required = true) @RequestParam final String cartId,
+			@Parameter(description = "Set to true if the payment was authorized independently of the order placement, as for paymentAuthorizedOrderPlacement.") @RequestParam(defaultValue = "false") final boolean paymentAuthorized,
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields, final HttpServletResponse response)
+			throws InvalidCartException, NoCheckoutCartException, OrderPlacementRejectedException
+	{
+		OrderPlacement placement = asyncOrderPlacementService.findPlacementForCart(cartId);
+		if (placement == null)
+		{
+			requestFromValueSetter.setRequestFrom(ORDERS_CONTROLLER);
+			cartLoaderStrategy.loadCart(cartId);
+			validateCartForPlaceOrder();
+			if (paymentAuthorized && getSessionCart().getSapGenericPaymentInfo() == null)
+			{
+				throw new CartException("Cart without SapGenericPaymentInfo is not allowed to place an order!");
+			}
+			try
+			{
+				placement = asyncOrderPlacementService.submit(cartId, !paymentAuthorized);
+			}
+			catch (final RejectedExecutionException e)
+			{
+				response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(asyncOrderPlacementService.getRetryAfter()));
+				throw new OrderPlacementRejectedException("Too many orders are being placed, please try again later");
+			}
+		}
+		response.setHeader(HttpHeaders.LOCATION, ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{placementId}")
+				.buildAndExpand(placement.getPlacementId()).toUriString());
+		return getDataMapper().map(placement, OrderPlacementWsDTO.class, fields);
+	}
+
+	@Secured({ "ROLE_CUSTOMERGROUP", "ROLE_CLIENT", "ROLE_CUSTOMERMANAGERGROUP", "ROLE_TRUSTED_CLIENT" })
+	@CacheControl(directive = CacheControlDirective.NO_CACHE)
+	@GetMapping(value = "/users/{userId}/orders/placements/{placementId}", produces = MediaType.APPLICATION_JSON)
+	@ResponseBody
+	@Operation(operationId = "getOrderPlacement", summary = "Retrieves an order placement.", description = "Retrieves the status of an order placement submitted by the user. Once the status is PLACED, the response contains the order code and GUID.")
+	@ApiBaseSiteIdAndUserIdParam
+	public OrderPlacementWsDTO getOrderPlacement(
+			@Parameter(description = "Placement id, as returned when the placement was submitted.", required = true) @PathVariable final String placementId,
+			@ApiFieldsParam @RequestParam(defaultValue = DEFAULT_FIELD_SET) final String fields)
+	{
+		final OrderPlacement placement = asyncOrderPlacementService.getPlacement(placementId);
+		if (placement == null)
+		{
+			throw new NotFoundException("Order placement not found");
+		}
+		return getDataMapper().map(placement, OrderPlacementWsDTO.class, fields);
+	}
+
 	@Secured({ "ROLE_CUSTOMERGROUP", "ROLE_TRUSTED_CLIENT", "ROLE_CUSTOMERMANAGERGROUP" })
 	@PostMapping(value = "/users/{userId}/orders/{code}/cancellation", produces = MediaType.APPLICATION_JSON, consumes = MediaType.APPLICATION_JSON)
 	@ResponseStatus(HttpStatus.OK)
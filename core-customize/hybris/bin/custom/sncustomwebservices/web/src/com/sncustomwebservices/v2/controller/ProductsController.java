@@ -21,11 +21,14 @@ import de.hybris.platform.commercefacades.product.data.SuggestionData;
 import de.hybris.platform.commercefacades.search.ProductSearchFacade;
 import de.hybris.platform.commercefacades.search.data.AutocompleteSuggestionData;
 import de.hybris.platform.commercefacades.search.data.SearchStateData;
-import de.hybris.platform.commercefacades.storefinder.StoreFinderStockFacade;
+import de.hybris.platform.commercefacades.storefinder.StoreFinderFacade;
+import de.hybris.platform.commercefacades.storefinder.data.PointOfServiceStockData;
 import de.hybris.platform.commercefacades.storefinder.data.StoreFinderStockSearchPageData;
+import de.hybris.platform.commercefacades.storelocator.data.PointOfServiceData;
 import de.hybris.platform.commerceservices.search.facetdata.ProductSearchPageData;
 import de.hybris.platform.commerceservices.search.pagedata.PageableData;
 import de.hybris.platform.commerceservices.store.data.GeoPoint;
+import de.hybris.platform.commerceservices.storefinder.data.StoreFinderSearchPageData;
 import de.hybris.platform.commercewebservicescommons.dto.product.ProductReferenceListWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.product.ProductWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.product.ReviewListWsDTO;
@@ -46,9 +49,9 @@ import de.hybris.platform.webservicescommons.swagger.ApiFieldsParam;
 import com.sncustomwebservices.formatters.WsDateFormatter;
 import com.sncustomwebservices.product.data.ReviewDataList;
 import com.sncustomwebservices.product.data.SuggestionDataList;
+import com.sncustomwebservices.queues.UpdateQueue;
 import com.sncustomwebservices.queues.data.ProductExpressUpdateElementData;
 import com.sncustomwebservices.queues.data.ProductExpressUpdateElementDataList;
-import com.sncustomwebservices.queues.impl.ProductExpressUpdateQueue;
 import com.sncustomwebservices.stock.CommerceStockFacade;
 import com.sncustomwebservices.v2.helper.ProductsHelper;
 import com.sncustomwebservices.validator.PointOfServiceValidator;
@@ -64,6 +67,7 @@ import java.util.Date;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -78,6 +82,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -112,8 +117,8 @@ public class ProductsController extends BaseController
 	private static final Logger LOG = LoggerFactory.getLogger(ProductsController.class);
 	private static final String CONSIDER_FIELDS_KEY = "toggle.occ.retrieving.product.performance.improvement.enabled";
 
-	@Resource(name = "storeFinderStockFacade")
-	private StoreFinderStockFacade storeFinderStockFacade;
+	@Resource(name = "storeFinderFacade")
+	private StoreFinderFacade storeFinderFacade;
 	@Resource(name = "cwsProductFacade")
 	private ProductFacade productFacade;
 	@Resource(name = "wsDateFormatter")
@@ -131,7 +136,7 @@ public class ProductsController extends BaseController
 	@Resource(name = "pointOfServiceValidator")
 	private PointOfServiceValidator pointOfServiceValidator;
 	@Resource(name = "productExpressUpdateQueue")
-	private ProductExpressUpdateQueue productExpressUpdateQueue;
+	private UpdateQueue<ProductExpressUpdateElementData> productExpressUpdateQueue;
 	@Resource(name = "catalogFacade")
 	private CatalogFacade catalogFacade;
 	@Resource(name = "productsHelper")
@@ -321,22 +326,49 @@ public class ProductsController extends BaseController
 			final Double latitude, final Double longitude, final int currentPage, final int pageSize)
 	{
 		final Set<ProductOption> opts = EnumSet.of(ProductOption.BASIC);
-		final StoreFinderStockSearchPageData result;
+		final StoreFinderSearchPageData<PointOfServiceData> stores;
 		if (latitude != null && longitude != null)
 		{
-			result = storeFinderStockFacade.productSearch(createGeoPoint(latitude, longitude),
-					productFacade.getProductForCodeAndOptions(productCode, opts), createPageableData(currentPage, pageSize, null));
+			stores = storeFinderFacade.positionSearch(createGeoPoint(latitude, longitude),
+					createPageableData(currentPage, pageSize, null));
 		}
 		else if (location != null)
 		{
-			result = storeFinderStockFacade.productSearch(location, productFacade.getProductForCodeAndOptions(productCode, opts),
-					createPageableData(currentPage, pageSize, null));
+			stores = storeFinderFacade.locationSearch(location, createPageableData(currentPage, pageSize, null));
 		}
 		else
 		{
 			throw new RequestParameterException("You need to provide location or longitute and latitute parameters",
 					RequestParameterException.MISSING, "location or longitute and latitute");
 		}
+		return createStockSearchPageData(productFacade.getProductForCodeAndOptions(productCode, opts), stores);
+	}
+
+	/**
+	 * Attaches the stock of the product to every store on the page. The stock of all stores is loaded with one query
+	 * instead of the per store lookups done by the store finder stock facade.
+	 */
+	protected StoreFinderStockSearchPageData createStockSearchPageData(final ProductData product,
+			final StoreFinderSearchPageData<PointOfServiceData> stores)
+	{
+		final List<String> storeNames = stores.getResults().stream().map(PointOfServiceData::getName)
+				.collect(Collectors.toList());
+		final Map<String, StockData> stockByStore = commerceStockFacade.getStockDataForProductAndPointsOfService(
+				product.getCode(), storeNames);
+
+		final List<PointOfServiceStockData> results = new ArrayList<>(stores.getResults().size());
+		for (final PointOfServiceData store : stores.getResults())
+		{
+			final PointOfServiceStockData storeStock = new PointOfServiceStockData();
+			BeanUtils.copyProperties(store, storeStock);
+			storeStock.setStockData(stockByStore.get(store.getName()));
+			results.add(storeStock);
+		}
+
+		final StoreFinderStockSearchPageData result = new StoreFinderStockSearchPageData();
+		BeanUtils.copyProperties(stores, result, "results");
+		result.setResults(results);
+		result.setProduct(product);
 		return result;
 	}
 
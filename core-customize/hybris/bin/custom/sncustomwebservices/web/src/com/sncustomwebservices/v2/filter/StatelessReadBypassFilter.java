@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * Wraps a filter of the v2 filter chain that is skipped for requests the {@link StatelessReadFilter} put on the
+ * stateless path. Other requests are passed to the wrapped filter.
+ */
+public class StatelessReadBypassFilter implements Filter
+{
+	private final Filter filter;
+
+	public StatelessReadBypassFilter(final Filter filter)
+	{
+		this.filter = filter;
+	}
+
+	@Override
+	public void init(final FilterConfig filterConfig) throws ServletException
+	{
+		filter.init(filterConfig);
+	}
+
+	@Override
+	public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+			throws IOException, ServletException
+	{
+		if (StatelessReadFilter.isStatelessRead(request))
+		{
+			chain.doFilter(request, response);
+		}
+		else
+		{
+			filter.doFilter(request, response, chain);
+		}
+	}
+
+	@Override
+	public void destroy()
+	{
+		filter.destroy();
+	}
+
+	protected Filter getFilter()
+	{
+		return filter;
+	}
+}
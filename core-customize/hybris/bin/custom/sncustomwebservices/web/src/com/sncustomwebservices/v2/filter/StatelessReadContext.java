@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.filter;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.europe1.enums.UserTaxGroup;
+
+
+/**
+ * Immutable request context of an anonymous read: the site, language, currency and tax group the session filters
+ * resolved for a combination of site, {@code lang} and {@code curr} parameter. It only holds keys, so it can be shared
+ * by concurrent requests.
+ */
+public final class StatelessReadContext
+{
+	private final String baseSiteUid;
+	private final PK languagePk;
+	private final PK currencyPk;
+	private final UserTaxGroup taxGroup;
+	private final long expiresAt;
+
+	public StatelessReadContext(final String baseSiteUid, final PK languagePk, final PK currencyPk, final UserTaxGroup taxGroup,
+			final long expiresAt)
+	{
+		this.baseSiteUid = baseSiteUid;
+		this.languagePk = languagePk;
+		this.currencyPk = currencyPk;
+		this.taxGroup = taxGroup;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getBaseSiteUid()
+	{
+		return baseSiteUid;
+	}
+
+	public PK getLanguagePk()
+	{
+		return languagePk;
+	}
+
+	public PK getCurrencyPk()
+	{
+		return currencyPk;
+	}
+
+	/**
+	 * @return tax group of the base store, or {@code null} if the store has none
+	 */
+	public UserTaxGroup getTaxGroup()
+	{
+		return taxGroup;
+	}
+
+	public long getExpiresAt()
+	{
+		return expiresAt;
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.filter;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.europe1.constants.Europe1Constants;
+import de.hybris.platform.europe1.enums.UserTaxGroup;
+import de.hybris.platform.servicelayer.exceptions.ModelLoadingException;
+import de.hybris.platform.servicelayer.i18n.I18NService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.store.BaseStoreModel;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.constants.YcommercewebservicesConstants;
+import com.sncustomwebservices.context.ContextInformationLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+
+/**
+ * Puts anonymous GET requests to the configured read-only endpoints, such as product details and product search, on a
+ * stateless path. The language, currency and tax group such a request needs are taken from a {@link StatelessReadContext}
+ * cached per site, {@code lang} and {@code curr} parameter, and the request is marked, so the filters wrapped in a
+ * {@link StatelessReadBypassFilter} (user, consent, cart and guest matching, session language, currency and Europe1
+ * attributes) are skipped.
+ * <p>
+ * The first request of a combination resolves the context through the {@link ContextInformationLoader} like the session
+ * filters do, so unsupported languages or currencies fail the same way. Requests that are authenticated, that are not
+ * GET or HEAD, or that address other endpoints take the usual path.
+ */
+public class StatelessReadFilter extends AbstractUrlMatchingFilter
+{
+	public static final String STATELESS_READ_CONTEXT = StatelessReadFilter.class.getName() + ".context";
+	private static final Logger LOG = Logger.getLogger(StatelessReadFilter.class);
+	private static final String GET = "GET";
+	private static final String HEAD = "HEAD";
+
+	private final ConcurrentMap<String, StatelessReadContext> contexts = new ConcurrentHashMap<>();
+
+	private List<Pattern> pathPatterns = Collections.emptyList();
+	private ContextInformationLoader contextInformationLoader;
+	private CommerceCommonI18NService commerceCommonI18NService;
+	private I18NService i18nService;
+	private BaseSiteService baseSiteService;
+	private BaseStoreService baseStoreService;
+	private SessionService sessionService;
+	private UserService userService;
+	private ModelService modelService;
+	private boolean enabled = true;
+	private boolean enableLanguageFallback = true;
+	private long timeToLive;
+	private int maxEntries;
+
+	/**
+	 * @return true if the request was put on the stateless path by this filter
+	 */
+	public static boolean isStatelessRead(final ServletRequest request)
+	{
+		return request.getAttribute(STATELESS_READ_CONTEXT) != null;
+	}
+
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException
+	{
+		if (isStatelessReadRequest(request))
+		{
+			final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+			if (baseSite != null)
+			{
+				request.setAttribute(STATELESS_READ_CONTEXT, applyContext(request, baseSite));
+			}
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	protected boolean isStatelessReadRequest(final HttpServletRequest request)
+	{
+		if (!isEnabled() || !(GET.equals(request.getMethod()) || HEAD.equals(request.getMethod())) || !isAnonymous())
+		{
+			return false;
+		}
+		final String path = getPath(request);
+		for (final Pattern pathPattern : pathPatterns)
+		{
+			if (pathPattern.matcher(path).find())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	protected boolean isAnonymous()
+	{
+		final Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		return auth == null || auth instanceof AnonymousAuthenticationToken;
+	}
+
+	protected StatelessReadContext applyContext(final HttpServletRequest request, final BaseSiteModel baseSite)
+	{
+		final String key = baseSite.getUid() + '|'
+				+ StringUtils.defaultString(request.getParameter(YcommercewebservicesConstants.HTTP_REQUEST_PARAM_LANGUAGE)) + '|'
+				+ StringUtils.defaultString(request.getParameter(YcommercewebservicesConstants.HTTP_REQUEST_PARAM_CURRENCY));
+		final StatelessReadContext cached = contexts.get(key);
+		if (cached != null && cached.getExpiresAt() > System.currentTimeMillis())
+		{
+			try
+			{
+				applyCachedContext(cached);
+				return cached;
+			}
+			catch (final ModelLoadingException e)
+			{
+				LOG.debug("Language or currency of cached context " + key + " could not be loaded", e);
+				contexts.remove(key, cached);
+			}
+		}
+
+		final StatelessReadContext context = resolveContext(request, baseSite);
+		if (getMaxEntries() > 0 && contexts.size() >= getMaxEntries() && !contexts.containsKey(key))
+		{
+			LOG.info("Stateless read context cache reached " + getMaxEntries() + " entries, clearing it");
+			contexts.clear();
+		}
+		contexts.put(key, context);
+		return context;
+	}
+
+	/**
+	 * Sets the anonymous user, language, currency and tax group of a cached context in the session of the request.
+	 */
+	protected void applyCachedContext(final StatelessReadContext context)
+	{
+		final LanguageModel language = getModelService().get(context.getLanguagePk());
+		final CurrencyModel currency = getModelService().get(context.getCurrencyPk());
+		getUserService().setCurrentUser(getUserService().getAnonymousUser());
+		if (!language.equals(getCommerceCommonI18NService().getCurrentLanguage()))
+		{
+			getCommerceCommonI18NService().setCurrentLanguage(language);
+		}
+		getI18nService().setLocalizationFallbackEnabled(isEnableLanguageFallback());
+		if (!currency.equals(getCommerceCommonI18NService().getCurrentCurrency()))
+		{
+			getCommerceCommonI18NService().setCurrentCurrency(currency);
+		}
+		if (context.getTaxGroup() != null)
+		{
+			getSessionService().setAttribute(Europe1Constants.PARAMS.UTG, context.getTaxGroup());
+		}
+	}
+
+	/**
+	 * Resolves the context of a request the way the session filters do, setting it in the session on the way.
+	 */
+	protected StatelessReadContext resolveContext(final HttpServletRequest request, final BaseSiteModel baseSite)
+	{
+		getUserService().setCurrentUser(getUserService().getAnonymousUser());
+		final LanguageModel language = getContextInformationLoader().setLanguageFromRequest(request);
+		getI18nService().setLocalizationFallbackEnabled(isEnableLanguageFallback());
+		final CurrencyModel currency = getContextInformationLoader().setCurrencyFromRequest(request);
+
+		UserTaxGroup taxGroup = null;
+		final BaseStoreModel currentBaseStore = getBaseStoreService().getCurrentBaseStore();
+		if (currentBaseStore != null && currentBaseStore.getTaxGroup() != null)
+		{
+			taxGroup = currentBaseStore.getTaxGroup();
+			getSessionService().setAttribute(Europe1Constants.PARAMS.UTG, taxGroup);
+		}
+		return new StatelessReadContext(baseSite.getUid(), language.getPk(), currency.getPk(), taxGroup,
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getTimeToLive()));
+	}
+
+	/**
+	 * Drops all cached contexts.
+	 */
+	public void invalidateAll()
+	{
+		contexts.clear();
+	}
+
+	/**
+	 * @param paths
+	 * 		comma separated regular expressions matched against the path info of a request, e.g.
+	 * 		{@code ^/[^/]+/products/search$}
+	 */
+	@Required
+	public void setPaths(final String paths)
+	{
+		final List<Pattern> patterns = new ArrayList<>();
+		for (final String path : StringUtils.split(paths, ','))
+		{
+			if (StringUtils.isNotBlank(path))
+			{
+				patterns.add(Pattern.compile(path.trim()));
+			}
+		}
+		this.pathPatterns = Collections.unmodifiableList(patterns);
+	}
+
+	protected ContextInformationLoader getContextInformationLoader()
+	{
+		return contextInformationLoader;
+	}
+
+	@Required
+	public void setContextInformationLoader(final ContextInformationLoader contextInformationLoader)
+	{
+		this.contextInformationLoader = contextInformationLoader;
+	}
+
+	protected CommerceCommonI18NService getCommerceCommonI18NService()
+	{
+		return commerceCommonI18NService;
+	}
+
+	@Required
+	public void setCommerceCommonI18NService(final CommerceCommonI18NService commerceCommonI18NService)
+	{
+		this.commerceCommonI18NService = commerceCommonI18NService;
+	}
+
+	protected I18NService getI18nService()
+	{
+		return i18nService;
+	}
+
+	@Required
+	public void setI18nService(final I18NService i18nService)
+	{
+		this.i18nService = i18nService;
+	}
+
+	protected BaseSiteService getBaseSiteService()
+	{
+		return baseSiteService;
+	}
+
+	@Required
+	public void setBaseSiteService(final BaseSiteService baseSiteService)
+	{
+		this.baseSiteService = baseSiteService;
+	}
+
+	protected BaseStoreService getBaseStoreService()
+	{
+		return baseStoreService;
+	}
+
+	@Required
+	public void setBaseStoreService(final BaseStoreService baseStoreService)
+	{
+		this.baseStoreService = baseStoreService;
+	}
+
+	protected SessionService getSessionService()
+	{
+		return sessionService;
+	}
+
+	@Required
+	public void setSessionService(final SessionService sessionService)
+	{
+		this.sessionService = sessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	protected boolean isEnableLanguageFallback()
+	{
+		return enableLanguageFallback;
+	}
+
+	public void setEnableLanguageFallback(final boolean enableLanguageFallback)
+	{
+		this.enableLanguageFallback = enableLanguageFallback;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds after which the context of a site, language and currency is resolved again
+	 */
+	@Required
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	protected int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		number of cached contexts after which the cache is cleared, 0 or less for no limit
+	 */
+	public void setMaxEntries(final int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+}
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import de.hybris.platform.site.BaseSiteService;
 import de.hybris.platform.util.Sanitizer;
+import com.sncustomwebservices.user.UserResolutionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Required;
@@ -50,6 +51,7 @@ public class UserMatchingFilter extends AbstractUrlMatchingFilter
 	private SessionService sessionService;
 	private UserMatchingService userMatchingService;
 	private BaseSiteService baseSiteService;
+	private UserResolutionCache userResolutionCache;
 
 	@Override
 	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
@@ -161,7 +163,8 @@ public class UserMatchingFilter extends AbstractUrlMatchingFilter
 	{
 		try
 		{
-			final UserModel user = userMatchingService.getUserByProperty(id, UserModel.class);
+			final Authentication auth = getAuth();
+			final UserModel user = getUserByProperty(auth == null ? null : auth.getName(), id);
 			setCurrentUser(user);
 		}
 		catch (final UnknownIdentifierException ex)
@@ -197,7 +200,7 @@ public class UserMatchingFilter extends AbstractUrlMatchingFilter
 	{
 		try
 		{
-			final UserModel user = userMatchingService.getUserByProperty(propertyValue, UserModel.class);
+			final UserModel user = getUserByProperty(principal, propertyValue);
 			if (principal.equals(user.getUid()))
 			{
 				return Optional.of(user);
@@ -210,6 +213,20 @@ public class UserMatchingFilter extends AbstractUrlMatchingFilter
 		return Optional.empty();
 	}
 
+	/**
+	 * Resolves the user addressed by the given property, reusing the user resolved for the same principal and property
+	 * by an earlier request when it is still valid.
+	 */
+	protected UserModel getUserByProperty(final String principal, final String propertyValue)
+	{
+		if (userResolutionCache == null)
+		{
+			return userMatchingService.getUserByProperty(propertyValue, UserModel.class);
+		}
+		return userResolutionCache.getUser(principal, propertyValue,
+				property -> userMatchingService.getUserByProperty(property, UserModel.class));
+	}
+
 	protected Authentication getAuth()
 	{
 		return SecurityContextHolder.getContext().getAuthentication();
@@ -287,4 +304,14 @@ public class UserMatchingFilter extends AbstractUrlMatchingFilter
 		this.baseSiteService = baseSiteService;
 	}
 
+	protected UserResolutionCache getUserResolutionCache()
+	{
+		return userResolutionCache;
+	}
+
+	public void setUserResolutionCache(final UserResolutionCache userResolutionCache)
+	{
+		this.userResolutionCache = userResolutionCache;
+	}
+
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.helper;
+
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.webservicescommons.errors.exceptions.NotFoundException;
+import com.sncustomwebservices.invoice.InvoiceDocument;
+import com.sncustomwebservices.invoice.InvoiceFileCache;
+import com.sncustomwebservices.invoice.StreamingInvoiceFacade;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+
+@Component
+public class InvoicesHelper extends AbstractHelper
+{
+	private static final String CACHE_ENABLED_KEY = "sncustomwebservices.invoice.cache.enabled";
+	private static final String BYTES = "bytes";
+
+	@Resource(name = "streamingInvoiceFacade")
+	private StreamingInvoiceFacade streamingInvoiceFacade;
+	@Resource(name = "invoiceFileCache")
+	private InvoiceFileCache invoiceFileCache;
+	@Resource(name = "userService")
+	private UserService userService;
+	@Resource(name = "baseSiteService")
+	private BaseSiteService baseSiteService;
+	@Resource(name = "configurationService")
+	private ConfigurationService configurationService;
+
+	/**
+	 * Writes the document of an invoice to the response. With the cache enabled the document is served from a local file
+	 * with ETag and single byte range support, otherwise it is piped from the backend.
+	 */
+	public void writeInvoice(final String orderCode, final String invoiceId, final String externalSystemId,
+			final HttpServletRequest request, final HttpServletResponse response) throws IOException
+	{
+		if (!isCacheEnabled())
+		{
+			try (final InputStream document = streamingInvoiceFacade.getInvoiceStream(orderCode, invoiceId, externalSystemId))
+			{
+				if (document == null)
+				{
+					throw createNotFoundException(orderCode, invoiceId);
+				}
+				setDocumentHeaders(response, invoiceId);
+				IOUtils.copyLarge(document, response.getOutputStream());
+			}
+			return;
+		}
+
+		final String key = StringUtils.join(new String[] { baseSiteService.getCurrentBaseSite().getUid(),
+				userService.getCurrentUser().getUid(), orderCode, invoiceId, externalSystemId }, '|');
+		try (final InvoiceDocument document = invoiceFileCache.getDocument(key,
+				() -> streamingInvoiceFacade.getInvoiceStream(orderCode, invoiceId, externalSystemId)))
+		{
+			if (document == null)
+			{
+				throw createNotFoundException(orderCode, invoiceId);
+			}
+			setDocumentHeaders(response, invoiceId);
+			writeDocument(document, request, response);
+		}
+	}
+
+	protected void writeDocument(final InvoiceDocument document, final HttpServletRequest request,
+			final HttpServletResponse response) throws IOException
+	{
+		final String etag = "\"" + document.getContentHash() + "\"";
+		final long length = document.getLength();
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+
+		if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag))
+		{
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		long start = 0;
+		long end = length - 1;
+		final HttpRange range = getRange(request, etag);
+		if (range != null)
+		{
+			try
+			{
+				start = range.getRangeStart(length);
+				end = range.getRangeEnd(length);
+			}
+			catch (final IllegalArgumentException e)
+			{
+				start = length;
+			}
+			if (start >= length || start > end)
+			{
+				response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+				response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " " + start + "-" + end + "/" + length);
+		}
+
+		final long count = end - start + 1;
+		response.setContentLengthLong(count);
+		document.transferTo(start, count, Channels.newChannel(response.getOutputStream()));
+	}
+
+	/**
+	 * @return the single range requested, or null to send the whole document. Malformed, multiple and outdated ranges
+	 * are answered with the whole document.
+	 */
+	protected HttpRange getRange(final HttpServletRequest request, final String etag)
+	{
+		final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+		final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (StringUtils.isBlank(rangeHeader) || (ifRange != null && !ifRange.equals(etag)))
+		{
+			return null;
+		}
+		try
+		{
+			final List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+			return ranges.size() == 1 ? ranges.get(0) : null;
+		}
+		catch (final IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	protected boolean matches(final String ifNoneMatch, final String etag)
+	{
+		if (ifNoneMatch == null)
+		{
+			return false;
+		}
+		for (final String candidate : ifNoneMatch.split(","))
+		{
+			final String tag = StringUtils.removeStart(candidate.trim(), "W/");
+			if ("*".equals(tag) || etag.equals(tag))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	protected void setDocumentHeaders(final HttpServletResponse response, final String invoiceId)
+	{
+		response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.builder("form-data").name("attachment").filename(invoiceId + ".pdf").build()
+						.toString());
+	}
+
+	protected NotFoundException createNotFoundException(final String orderCode, final String invoiceId)
+	{
+		return new NotFoundException("Invoice with id = %s of order %s is not found.".formatted(invoiceId, orderCode),
+				"The invoice with the given id does not have any data", invoiceId);
+	}
+
+	protected boolean isCacheEnabled()
+	{
+		return configurationService.getConfiguration().getBoolean(CACHE_ENABLED_KEY, true);
+	}
+}
@@ -9,10 +9,15 @@ import de.hybris.platform.commercefacades.order.data.OrderHistoryData;
 import de.hybris.platform.commerceservices.search.pagedata.PageableData;
 import de.hybris.platform.commerceservices.search.pagedata.SearchPageData;
 import de.hybris.platform.commercewebservicescommons.dto.order.OrderHistoryListWsDTO;
+import de.hybris.platform.commerceservices.search.pagedata.PaginationData;
+import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
 import de.hybris.platform.core.enums.OrderStatus;
+import com.sncustomwebservices.order.OrderSummaryFacade;
+import com.sncustomwebservices.order.data.OrderSummaryPageData;
 
 import javax.annotation.Resource;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,6 +32,8 @@ public class OrdersHelper extends AbstractHelper
 {
 	@Resource(name = "orderFacade")
 	private OrderFacade orderFacade;
+	@Resource(name = "orderSummaryFacade")
+	private OrderSummaryFacade orderSummaryFacade;
 
 	@Cacheable(value = "orderCache", key = "T(de.hybris.platform.commercewebservicescommons.cache.CommerceCacheKeyGenerator).generateKey(true,true,'DTO',#statuses,#currentPage,#pageSize,#sort,#fields)")
 	public OrderHistoryListWsDTO searchOrderHistory(final String statuses, final int currentPage, final int pageSize,
@@ -56,6 +63,46 @@ public class OrdersHelper extends AbstractHelper
 		return orderHistoriesData;
 	}
 
+	/**
+	 * Lists order summaries page by page. The token of the next page is returned with the page instead of the total
+	 * number of results, which is not computed.
+	 */
+	public OrderSummaryPageData searchOrderSummaries(final String statuses, final String pageToken, final int pageSize)
+	{
+		try
+		{
+			return orderSummaryFacade.getOrderSummaries(getOrderStatuses(statuses), pageToken, pageSize);
+		}
+		catch (final IllegalArgumentException e)
+		{
+			throw new RequestParameterException("Page token is invalid", RequestParameterException.INVALID, "pageToken", e);
+		}
+	}
+
+	public OrderHistoryListWsDTO mapOrderSummaries(final OrderSummaryPageData orderSummaryPageData, final String fields)
+	{
+		final PaginationData pagination = new PaginationData();
+		pagination.setPageSize(orderSummaryPageData.getPageSize());
+
+		final OrderHistoriesData orderHistoriesData = new OrderHistoriesData();
+		orderHistoriesData.setOrders(orderSummaryPageData.getOrders());
+		orderHistoriesData.setPagination(pagination);
+		return getDataMapper().map(orderHistoriesData, OrderHistoryListWsDTO.class, fields);
+	}
+
+	/**
+	 * Counts the orders with a count query, no orders are read or converted.
+	 */
+	public long countOrders(final String statuses)
+	{
+		return orderSummaryFacade.countOrders(getOrderStatuses(statuses));
+	}
+
+	protected Set<OrderStatus> getOrderStatuses(final String statuses)
+	{
+		return statuses == null ? Collections.emptySet() : extractOrderStatuses(statuses);
+	}
+
 	protected Set<OrderStatus> extractOrderStatuses(final String statuses)
 	{
 		final String[] statusesStrings = statuses.split(ENUM_VALUES_SEPARATOR);
@@ -7,10 +7,17 @@ import de.hybris.platform.commercefacades.storefinder.StoreFinderFacade;
 import de.hybris.platform.commercefacades.storelocator.data.PointOfServiceData;
 import de.hybris.platform.commerceservices.search.pagedata.PageableData;
 import de.hybris.platform.commerceservices.store.data.GeoPoint;
+import de.hybris.platform.commerceservices.storefinder.data.PointOfServiceDistanceData;
 import de.hybris.platform.commerceservices.storefinder.data.StoreFinderSearchPageData;
 import de.hybris.platform.commercewebservicescommons.dto.store.PointOfServiceWsDTO;
 import de.hybris.platform.commercewebservicescommons.dto.store.StoreFinderSearchPageWsDTO;
 import de.hybris.platform.commercewebservicescommons.errors.exceptions.RequestParameterException;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.dto.converter.Converter;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.storefinder.GeoHash;
+import com.sncustomwebservices.storefinder.PointOfServiceIndex;
+import com.sncustomwebservices.storefinder.PointOfServiceIndexService;
 
 import javax.annotation.Resource;
 
@@ -23,10 +30,21 @@ import org.springframework.stereotype.Component;
 public class StoresHelper extends AbstractHelper
 {
 	private static final double EARTH_PERIMETER = 40075000.0;
+	private static final double MAX_DISTANCE_KM = Math.PI * PointOfServiceIndex.EARTH_RADIUS_KM;
+	private static final String INDEX_ENABLED_KEY = "sncustomwebservices.storefinder.index.enabled";
+	private static final String CACHE_PRECISION_KEY = "sncustomwebservices.storefinder.cache.geohash.precision";
 	@Resource(name = "storeFinderFacade")
 	private StoreFinderFacade storeFinderFacade;
+	@Resource(name = "pointOfServiceIndexService")
+	private PointOfServiceIndexService pointOfServiceIndexService;
+	@Resource(name = "searchPagePointOfServiceDistanceConverter")
+	private Converter<StoreFinderSearchPageData<PointOfServiceDistanceData>, StoreFinderSearchPageData<PointOfServiceData>> searchPagePointOfServiceDistanceConverter;
+	@Resource(name = "baseStoreService")
+	private BaseStoreService baseStoreService;
+	@Resource(name = "configurationService")
+	private ConfigurationService configurationService;
 
-	@Cacheable(value = "storeCache", key = "T(de.hybris.platform.commercewebservicescommons.cache.CommerceCacheKeyGenerator).generateKey(false,false,'DTO',#query,#latitude,#longitude,#currentPage,#pageSize,#sort,#radius,#accuracy,#fields)")
+	@Cacheable(value = "storeCache", key = "T(de.hybris.platform.commercewebservicescommons.cache.CommerceCacheKeyGenerator).generateKey(false,false,'DTO',#query,@storesHelper.getPositionKey(#latitude,#longitude),#currentPage,#pageSize,#sort,#radius,#accuracy,#fields)")
 	public StoreFinderSearchPageWsDTO locationSearch(final String query, final Double latitude, final Double longitude,
 			final int currentPage, final int pageSize, final String sort, final double radius, final double accuracy,
 			final String fields)
@@ -36,7 +54,7 @@ public class StoresHelper extends AbstractHelper
 		return getDataMapper().map(result, StoreFinderSearchPageWsDTO.class, fields);
 	}
 
-	@Cacheable(value = "storeCache", key = "T(de.hybris.platform.commercewebservicescommons.cache.CommerceCacheKeyGenerator).generateKey(false,false,'Data',#query,#latitude,#longitude,#currentPage,#pageSize,#sort,#radius,#accuracy)")
+	@Cacheable(value = "storeCache", key = "T(de.hybris.platform.commercewebservicescommons.cache.CommerceCacheKeyGenerator).generateKey(false,false,'Data',#query,@storesHelper.getPositionKey(#latitude,#longitude),#currentPage,#pageSize,#sort,#radius,#accuracy)")
 	public StoreFinderSearchPageData<PointOfServiceData> locationSearch(final String query, final Double latitude,
 			final Double longitude, final int currentPage, final int pageSize, final String sort, final double radius,
 			final double accuracy)
@@ -56,10 +74,8 @@ public class StoresHelper extends AbstractHelper
 		}
 		else if (latitude != null && longitude != null)
 		{
-			final GeoPoint geoPoint = new GeoPoint();
-			geoPoint.setLatitude(latitude.doubleValue());
-			geoPoint.setLongitude(longitude.doubleValue());
-			result = storeFinderFacade.positionSearch(geoPoint, pageableData, radiusToSearch);
+			final GeoPoint geoPoint = createGeoPoint(latitude.doubleValue(), longitude.doubleValue());
+			result = positionSearch(geoPoint, pageableData, radiusToSearch);
 		}
 		else
 		{
@@ -75,6 +91,56 @@ public class StoresHelper extends AbstractHelper
 		return getDataMapper().map(pointOfServiceData, PointOfServiceWsDTO.class, fields);
 	}
 
+	/**
+	 * Returns the part of the cache key identifying the search position. Positions are snapped to a geohash cell, so
+	 * that nearby users share cache entries.
+	 */
+	public String getPositionKey(final Double latitude, final Double longitude)
+	{
+		if (latitude == null || longitude == null)
+		{
+			return null;
+		}
+		final int precision = getCachePrecision();
+		return precision > 0 ? GeoHash.encode(latitude.doubleValue(), longitude.doubleValue(), precision)
+				: latitude + "," + longitude;
+	}
+
+	/**
+	 * Creates the search position. When positions are snapped for caching, the center of the geohash cell is used, so
+	 * that the cached result is the same for every position in the cell.
+	 */
+	protected GeoPoint createGeoPoint(final double latitude, final double longitude)
+	{
+		final int precision = getCachePrecision();
+		final double[] position = precision > 0 ? GeoHash.decodeCenter(GeoHash.encode(latitude, longitude, precision))
+				: new double[] { latitude, longitude };
+		final GeoPoint geoPoint = new GeoPoint();
+		geoPoint.setLatitude(position[0]);
+		geoPoint.setLongitude(position[1]);
+		return geoPoint;
+	}
+
+	protected StoreFinderSearchPageData<PointOfServiceData> positionSearch(final GeoPoint geoPoint,
+			final PageableData pageableData, final double radiusToSearch)
+	{
+		if (!configurationService.getConfiguration().getBoolean(INDEX_ENABLED_KEY, true))
+		{
+			return storeFinderFacade.positionSearch(geoPoint, pageableData, radiusToSearch);
+		}
+
+		final StoreFinderSearchPageData<PointOfServiceDistanceData> result = radiusToSearch >= MAX_DISTANCE_KM
+				? pointOfServiceIndexService.nearestSearch(baseStoreService.getCurrentBaseStore(), geoPoint, pageableData)
+				: pointOfServiceIndexService.positionSearch(baseStoreService.getCurrentBaseStore(), geoPoint, pageableData,
+						radiusToSearch);
+		return searchPagePointOfServiceDistanceConverter.convert(result);
+	}
+
+	protected int getCachePrecision()
+	{
+		return Math.min(GeoHash.MAX_PRECISION, configurationService.getConfiguration().getInt(CACHE_PRECISION_KEY, 0));
+	}
+
 	protected double getInKilometres(final double radius, final double accuracy)
 	{
 		if ( accuracy < Double.MAX_VALUE - radius )
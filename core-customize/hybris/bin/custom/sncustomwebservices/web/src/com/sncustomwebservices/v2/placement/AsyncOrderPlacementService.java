@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.placement;
+
+import static de.hybris.platform.commercefacades.order.constants.OrderOccControllerRequestFromConstants.ORDERS_CONTROLLER;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commercefacades.order.CheckoutFacade;
+import de.hybris.platform.commercefacades.order.data.OrderData;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.order.CartModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.order.CartService;
+import de.hybris.platform.order.InvalidCartException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.requestfrom.RequestFromValueSetter;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Places orders on a bounded worker pool, so the request thread only validates the cart. Each worker places the order in
+ * its own session as the user of the request, with the site, language, currency and cart of the request.
+ * <p>
+ * A cart is placed only once: submitting a cart again while its placement is queued, in progress or done returns that
+ * placement, only a failed placement can be retried. The placement id stays resolvable for {@link #getTimeToLive()}
+ * seconds after the placement finished, long enough for a polling client to pick up the order code. Placements live in
+ * the pool of the accepting node only, another node answers a placement id with not found.
+ */
+public class AsyncOrderPlacementService implements InitializingBean, DisposableBean
+{
+	private static final Logger LOG = Logger.getLogger(AsyncOrderPlacementService.class);
+	private static final String PAYMENT_AUTHORIZATION_ERROR = "PaymentAuthorizationError";
+
+	private final ConcurrentMap<String, OrderPlacement> placementsById = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, OrderPlacement> placementsByCart = new ConcurrentHashMap<>();
+	private final AtomicLong nextPurge = new AtomicLong();
+	private ThreadPoolExecutor executor;
+
+	private CheckoutFacade checkoutFacade;
+	private CartService cartService;
+	private ModelService modelService;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private BaseSiteService baseSiteService;
+	private CommerceCommonI18NService commerceCommonI18NService;
+	private RequestFromValueSetter requestFromValueSetter;
+	private int poolSize;
+	private int queueSize;
+	private long timeToLive;
+
+	@Override
+	public void afterPropertiesSet()
+	{
+		executor = createExecutor();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException
+	{
+		// let queued placements finish, they were already accepted
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+		{
+			LOG.warn(executor.getQueue().size() + " queued order placements were not processed before shutdown");
+		}
+	}
+
+	/**
+	 * Returns the placement of a cart submitted before by the current user, unless it failed.
+	 *
+	 * @param cartId
+	 * 		cart identifier as passed by the client
+	 * @return the placement, or null if the cart was not submitted or its placement failed
+	 */
+	public OrderPlacement findPlacementForCart(final String cartId)
+	{
+		final OrderPlacement placement = placementsByCart.get(getCartKey(cartId));
+		return placement == null || placement.getStatus() == OrderPlacementStatus.FAILED ? null : placement;
+	}
+
+	/**
+	 * Queues the placement of the session cart, which has to be validated by the caller.
+	 *
+	 * @param cartId
+	 * 		cart identifier as passed by the client
+	 * @param authorizePayment
+	 * 		true to authorize the payment before placing the order, false if it was authorized already
+	 * @return the new placement, or the placement of an earlier submission of the cart
+	 * @throws RejectedExecutionException
+	 * 		if the queue is full
+	 */
+	public OrderPlacement submit(final String cartId, final boolean authorizePayment)
+	{
+		purgeExpired();
+
+		final UserModel user = getUserService().getCurrentUser();
+		final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+		final String cartKey = getCartKey(cartId);
+		final OrderPlacement created = new OrderPlacement(UUID.randomUUID().toString(), getOwnerKey(), cartKey);
+		final OrderPlacement placement = placementsByCart.compute(cartKey,
+				(key, current) -> current == null || current.getStatus() == OrderPlacementStatus.FAILED ? created : current);
+		if (placement != created)
+		{
+			return placement;
+		}
+		placementsById.put(created.getPlacementId(), created);
+
+		final PK cartPk = getCartService().getSessionCart().getPk();
+		final LanguageModel language = getCommerceCommonI18NService().getCurrentLanguage();
+		final CurrencyModel currency = getCommerceCommonI18NService().getCurrentCurrency();
+		try
+		{
+			executor.execute(() -> placeInSession(created, cartPk, authorizePayment, user, baseSite, language, currency));
+		}
+		catch (final RejectedExecutionException e)
+		{
+			placementsById.remove(created.getPlacementId());
+			placementsByCart.remove(cartKey, created);
+			throw e;
+		}
+		return created;
+	}
+
+	/**
+	 * @param placementId
+	 * 		placement identifier
+	 * @return the placement if it was submitted by the current user on this node and did not expire, null otherwise
+	 */
+	public OrderPlacement getPlacement(final String placementId)
+	{
+		final OrderPlacement placement = placementsById.get(placementId);
+		return placement != null && placement.getOwnerKey().equals(getOwnerKey()) ? placement : null;
+	}
+
+	/**
+	 * @return seconds a client should wait before submitting again when the queue is full
+	 */
+	public long getRetryAfter()
+	{
+		return Math.max(1, executor.getQueue().size() / getPoolSize());
+	}
+
+	protected ThreadPoolExecutor createExecutor()
+	{
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(getPoolSize(), getPoolSize(), 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(getQueueSize()), getWorkerSessionService().createThreadFactory());
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+
+	protected void placeInSession(final OrderPlacement placement, final PK cartPk, final boolean authorizePayment,
+			final UserModel user, final BaseSiteModel baseSite, final LanguageModel language, final CurrencyModel currency)
+	{
+		placement.start();
+		try
+		{
+			getWorkerSessionService().runInNewSession(user, () -> {
+				getBaseSiteService().setCurrentBaseSite(baseSite, true);
+				getCommerceCommonI18NService().setCurrentLanguage(language);
+				getCommerceCommonI18NService().setCurrentCurrency(currency);
+				getCartService().setSessionCart(getModelService().<CartModel> get(cartPk));
+				getRequestFromValueSetter().setRequestFrom(ORDERS_CONTROLLER);
+				place(placement, authorizePayment);
+			});
+		}
+		catch (final RuntimeException e)
+		{
+			LOG.warn("Placing the order of placement " + placement.getPlacementId() + " failed", e);
+			placement.fail(getErrorType(e));
+		}
+	}
+
+	protected void place(final OrderPlacement placement, final boolean authorizePayment)
+	{
+		if (authorizePayment && !getCheckoutFacade().authorizePayment(null))
+		{
+			placement.fail(PAYMENT_AUTHORIZATION_ERROR);
+			return;
+		}
+		try
+		{
+			final OrderData order = getCheckoutFacade().placeOrder();
+			placement.complete(order.getCode(), order.getGuid());
+		}
+		catch (final InvalidCartException e)
+		{
+			LOG.info("Cart of placement " + placement.getPlacementId() + " is invalid: " + e.getMessage());
+			placement.fail(getErrorType(e));
+		}
+	}
+
+	/**
+	 * Drops finished placements older than the time to live, at most once per minute.
+	 */
+	protected void purgeExpired()
+	{
+		final long now = System.currentTimeMillis();
+		final long scheduled = nextPurge.get();
+		if (now < scheduled || !nextPurge.compareAndSet(scheduled, now + TimeUnit.MINUTES.toMillis(1)))
+		{
+			return;
+		}
+		final long expiredBefore = now - TimeUnit.SECONDS.toMillis(getTimeToLive());
+		placementsById.values().removeIf(placement -> {
+			if (placement.isFinished() && placement.getFinishedAt() < expiredBefore)
+			{
+				placementsByCart.remove(placement.getCartKey(), placement);
+				return true;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * @return error type in the format of web service errors, for example InvalidCartError for an InvalidCartException
+	 */
+	protected String getErrorType(final Exception e)
+	{
+		return StringUtils.removeEnd(e.getClass().getSimpleName(), "Exception") + "Error";
+	}
+
+	protected String getOwnerKey()
+	{
+		final BaseSiteModel baseSite = getBaseSiteService().getCurrentBaseSite();
+		return (baseSite == null ? "" : baseSite.getUid()) + "|" + getUserService().getCurrentUser().getUid();
+	}
+
+	protected String getCartKey(final String cartId)
+	{
+		return getOwnerKey() + "|" + cartId;
+	}
+
+	protected CheckoutFacade getCheckoutFacade()
+	{
+		return checkoutFacade;
+	}
+
+	@Required
+	public void setCheckoutFacade(final CheckoutFacade checkoutFacade)
+	{
+		this.checkoutFacade = checkoutFacade;
+	}
+
+	protected CartService getCartService()
+	{
+		return cartService;
+	}
+
+	@Required
+	public void setCartService(final CartService cartService)
+	{
+		this.cartService = cartService;
+	}
+
+	protected ModelService getModelService()
+	{
+		return modelService;
+	}
+
+	@Required
+	public void setModelService(final ModelService modelService)
+	{
+		this.modelService = modelService;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected BaseSiteService getBaseSiteService()
+	{
+		return baseSiteService;
+	}
+
+	@Required
+	public void setBaseSiteService(final BaseSiteService baseSiteService)
+	{
+		this.baseSiteService = baseSiteService;
+	}
+
+	protected CommerceCommonI18NService getCommerceCommonI18NService()
+	{
+		return commerceCommonI18NService;
+	}
+
+	@Required
+	public void setCommerceCommonI18NService(final CommerceCommonI18NService commerceCommonI18NService)
+	{
+		this.commerceCommonI18NService = commerceCommonI18NService;
+	}
+
+	protected RequestFromValueSetter getRequestFromValueSetter()
+	{
+		return requestFromValueSetter;
+	}
+
+	@Required
+	public void setRequestFromValueSetter(final RequestFromValueSetter requestFromValueSetter)
+	{
+		this.requestFromValueSetter = requestFromValueSetter;
+	}
+
+	protected int getPoolSize()
+	{
+		return Math.max(1, poolSize);
+	}
+
+	/**
+	 * @param poolSize
+	 * 		number of orders placed in parallel
+	 */
+	public void setPoolSize(final int poolSize)
+	{
+		this.poolSize = poolSize;
+	}
+
+	protected int getQueueSize()
+	{
+		return Math.max(1, queueSize);
+	}
+
+	/**
+	 * @param queueSize
+	 * 		number of placements waiting for a worker before submissions are rejected
+	 */
+	public void setQueueSize(final int queueSize)
+	{
+		this.queueSize = queueSize;
+	}
+
+	protected long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 * 		seconds a finished placement can be looked up
+	 */
+	public void setTimeToLive(final long timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.placement;
+
+/**
+ * State of an asynchronous order placement. It is updated by the worker placing the order and read by status requests.
+ */
+public class OrderPlacement
+{
+	private final String placementId;
+	private final String ownerKey;
+	private final String cartKey;
+	private volatile OrderPlacementStatus status = OrderPlacementStatus.QUEUED;
+	private volatile String orderCode;
+	private volatile String orderGuid;
+	private volatile String errorType;
+	private volatile long finishedAt;
+
+	public OrderPlacement(final String placementId, final String ownerKey, final String cartKey)
+	{
+		this.placementId = placementId;
+		this.ownerKey = ownerKey;
+		this.cartKey = cartKey;
+	}
+
+	protected void start()
+	{
+		status = OrderPlacementStatus.PROCESSING;
+	}
+
+	protected void complete(final String orderCode, final String orderGuid)
+	{
+		this.orderCode = orderCode;
+		this.orderGuid = orderGuid;
+		finish(OrderPlacementStatus.PLACED);
+	}
+
+	protected void fail(final String errorType)
+	{
+		this.errorType = errorType;
+		finish(OrderPlacementStatus.FAILED);
+	}
+
+	protected void finish(final OrderPlacementStatus finalStatus)
+	{
+		finishedAt = System.currentTimeMillis();
+		status = finalStatus;
+	}
+
+	public boolean isFinished()
+	{
+		return finishedAt > 0;
+	}
+
+	public String getPlacementId()
+	{
+		return placementId;
+	}
+
+	public String getOwnerKey()
+	{
+		return ownerKey;
+	}
+
+	public String getCartKey()
+	{
+		return cartKey;
+	}
+
+	public OrderPlacementStatus getStatus()
+	{
+		return status;
+	}
+
+	public String getOrderCode()
+	{
+		return orderCode;
+	}
+
+	public String getOrderGuid()
+	{
+		return orderGuid;
+	}
+
+	public String getErrorType()
+	{
+		return errorType;
+	}
+
+	public long getFinishedAt()
+	{
+		return finishedAt;
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.placement;
+
+/**
+ * Progress of an asynchronous order placement.
+ */
+public enum OrderPlacementStatus
+{
+	/**
+	 * waiting for a worker
+	 */
+	QUEUED,
+	/**
+	 * payment is authorized and the order is placed
+	 */
+	PROCESSING,
+	/**
+	 * the order was placed
+	 */
+	PLACED,
+	/**
+	 * the order was not placed, the cart can be submitted again
+	 */
+	FAILED
+}
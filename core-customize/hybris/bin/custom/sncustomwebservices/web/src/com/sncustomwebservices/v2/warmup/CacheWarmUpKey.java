@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup;
+
+import java.util.Objects;
+
+
+/**
+ * Single entry of the cache warm-up key set, e.g. a product code, a category code or a point of service name.
+ */
+public class CacheWarmUpKey
+{
+	/**
+	 * Kind of resource a key refers to. Each type is replayed through a different web layer code path.
+	 */
+	public enum Type
+	{
+		PRODUCT, CATEGORY, STORE
+	}
+
+	private final Type type;
+	private final String value;
+
+	public CacheWarmUpKey(final Type type, final String value)
+	{
+		this.type = Objects.requireNonNull(type, "type must not be null");
+		this.value = Objects.requireNonNull(value, "value must not be null");
+	}
+
+	public Type getType()
+	{
+		return type;
+	}
+
+	public String getValue()
+	{
+		return value;
+	}
+
+	@Override
+	public boolean equals(final Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+		final CacheWarmUpKey that = (CacheWarmUpKey) o;
+		return type == that.type && value.equals(that.value);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(type, value);
+	}
+
+	@Override
+	public String toString()
+	{
+		return type.name().toLowerCase() + ":" + value;
+	}
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup;
+
+import java.util.Collection;
+
+
+/**
+ * Provides the set of keys which should be replayed by {@link CacheWarmUpService} for a base site.
+ */
+public interface CacheWarmUpKeySource
+{
+	/**
+	 * Returns the keys to warm up for the given base site, ordered from the most to the least important one.
+	 *
+	 * @param baseSiteId
+	 * 		base site identifier
+	 * @return keys to warm up, never {@code null}
+	 */
+	Collection<CacheWarmUpKey> getKeys(String baseSiteId);
+}
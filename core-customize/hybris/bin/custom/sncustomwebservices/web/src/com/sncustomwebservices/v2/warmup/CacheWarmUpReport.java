@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Outcome of a single cache warm-up run. Counters are updated concurrently by the warm-up workers.
+ */
+public class CacheWarmUpReport
+{
+	private final String baseSiteId;
+	private final Map<CacheWarmUpKey.Type, AtomicInteger> requested = new EnumMap<>(CacheWarmUpKey.Type.class);
+	private final Map<CacheWarmUpKey.Type, AtomicInteger> warmed = new EnumMap<>(CacheWarmUpKey.Type.class);
+	private final Map<CacheWarmUpKey.Type, AtomicInteger> failed = new EnumMap<>(CacheWarmUpKey.Type.class);
+	private volatile long durationMillis;
+
+	public CacheWarmUpReport(final String baseSiteId)
+	{
+		this.baseSiteId = baseSiteId;
+		for (final CacheWarmUpKey.Type type : CacheWarmUpKey.Type.values())
+		{
+			requested.put(type, new AtomicInteger());
+			warmed.put(type, new AtomicInteger());
+			failed.put(type, new AtomicInteger());
+		}
+	}
+
+	public void markRequested(final CacheWarmUpKey.Type type)
+	{
+		requested.get(type).incrementAndGet();
+	}
+
+	public void markWarmed(final CacheWarmUpKey.Type type)
+	{
+		warmed.get(type).incrementAndGet();
+	}
+
+	public void markFailed(final CacheWarmUpKey.Type type)
+	{
+		failed.get(type).incrementAndGet();
+	}
+
+	public String getBaseSiteId()
+	{
+		return baseSiteId;
+	}
+
+	public int getRequested(final CacheWarmUpKey.Type type)
+	{
+		return requested.get(type).get();
+	}
+
+	public int getWarmed(final CacheWarmUpKey.Type type)
+	{
+		return warmed.get(type).get();
+	}
+
+	public int getFailed(final CacheWarmUpKey.Type type)
+	{
+		return failed.get(type).get();
+	}
+
+	public int getTotalRequested()
+	{
+		return requested.values().stream().mapToInt(AtomicInteger::get).sum();
+	}
+
+	public int getTotalWarmed()
+	{
+		return warmed.values().stream().mapToInt(AtomicInteger::get).sum();
+	}
+
+	/**
+	 * @return share of requested keys that were replayed successfully, between 0 and 1
+	 */
+	public double getCoverage()
+	{
+		final int total = getTotalRequested();
+		return total == 0 ? 1.0d : (double) getTotalWarmed() / total;
+	}
+
+	public long getDurationMillis()
+	{
+		return durationMillis;
+	}
+
+	public void setDurationMillis(final long durationMillis)
+	{
+		this.durationMillis = durationMillis;
+	}
+
+	@Override
+	public String toString()
+	{
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Cache warm-up for site '").append(baseSiteId).append("' finished in ").append(durationMillis).append(" ms, coverage ")
+				.append(String.format("%.1f", Double.valueOf(getCoverage() * 100))).append('%');
+		for (final CacheWarmUpKey.Type type : CacheWarmUpKey.Type.values())
+		{
+			sb.append(", ").append(type.name().toLowerCase()).append('=').append(getWarmed(type)).append('/')
+					.append(getRequested(type));
+		}
+		return sb.toString();
+	}
+}
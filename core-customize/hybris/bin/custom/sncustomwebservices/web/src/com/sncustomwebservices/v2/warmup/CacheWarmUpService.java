@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup;
+
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import com.sncustomwebservices.v2.controller.ProductsController;
+import com.sncustomwebservices.v2.helper.ProductsHelper;
+import com.sncustomwebservices.v2.helper.StoresHelper;
+import com.sncustomwebservices.worker.WorkerSessionService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Replays a configurable key set through the same web layer code paths as regular OCC calls, so that the
+ * <code>productCache</code>, <code>storeCache</code> and the underlying entity caches are populated before real traffic
+ * arrives. Keys are replayed in parallel by a bounded number of workers, each running in its own anonymous session with
+ * the site defaults activated.
+ */
+public class CacheWarmUpService
+{
+	public static final String POOL_SIZE_PROPERTY = "sncustomwebservices.cache.warmup.poolsize";
+	public static final String TIMEOUT_PROPERTY = "sncustomwebservices.cache.warmup.timeout.seconds";
+	public static final String FIELDS_PROPERTY = "sncustomwebservices.cache.warmup.fields";
+	public static final String CATEGORY_PAGE_SIZE_PROPERTY = "sncustomwebservices.cache.warmup.category.pagesize";
+	private static final int DEFAULT_POOL_SIZE = 4;
+	private static final int DEFAULT_TIMEOUT_SECONDS = 600;
+	private static final String DEFAULT_FIELDS = "DEFAULT";
+	private static final int DEFAULT_CATEGORY_PAGE_SIZE = 20;
+	private static final String CATEGORY_QUERY_PREFIX = ":relevance:allCategories:";
+
+	private static final Logger LOG = Logger.getLogger(CacheWarmUpService.class);
+
+	private CacheWarmUpKeySource cacheWarmUpKeySource;
+	private ProductsController productsController;
+	private ProductsHelper productsHelper;
+	private StoresHelper storesHelper;
+	private BaseSiteService baseSiteService;
+	private CommerceCommonI18NService commerceCommonI18NService;
+	private WorkerSessionService workerSessionService;
+	private UserService userService;
+	private ConfigurationService configurationService;
+
+	/**
+	 * Warms up the caches for the given base site and blocks until all keys are replayed or the configured timeout
+	 * elapses.
+	 *
+	 * @param baseSiteId
+	 * 		base site identifier
+	 * @return report with the warm-up duration and coverage
+	 */
+	public CacheWarmUpReport warmUp(final String baseSiteId)
+	{
+		final CacheWarmUpReport report = new CacheWarmUpReport(baseSiteId);
+		final long start = System.currentTimeMillis();
+
+		final Collection<CacheWarmUpKey> keys = getCacheWarmUpKeySource().getKeys(baseSiteId);
+		final BaseSiteModel baseSite = getBaseSiteService().getBaseSiteForUID(baseSiteId);
+		if (baseSite == null || keys.isEmpty())
+		{
+			LOG.info("Nothing to warm up for site " + baseSiteId);
+			report.setDurationMillis(System.currentTimeMillis() - start);
+			return report;
+		}
+
+		final String fields = getConfigurationService().getConfiguration().getString(FIELDS_PROPERTY, DEFAULT_FIELDS);
+		final List<Callable<Void>> tasks = new ArrayList<>(keys.size());
+		for (final CacheWarmUpKey key : keys)
+		{
+			report.markRequested(key.getType());
+			tasks.add(() -> {
+				replayInSession(baseSite, key, fields, report);
+				return null;
+			});
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(getPoolSize(),
+				getWorkerSessionService().createThreadFactory());
+		try
+		{
+			executor.invokeAll(tasks,
+					getConfigurationService().getConfiguration().getInt(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS), TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			LOG.warn("Cache warm-up for site " + baseSiteId + " was interrupted");
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		report.setDurationMillis(System.currentTimeMillis() - start);
+		LOG.info(report);
+		return report;
+	}
+
+	protected void replayInSession(final BaseSiteModel baseSite, final CacheWarmUpKey key, final String fields,
+			final CacheWarmUpReport report)
+	{
+		try
+		{
+			getWorkerSessionService().runInNewSession(getUserService().getAnonymousUser(), () -> {
+				activateSite(baseSite);
+				replay(baseSite.getUid(), key, fields);
+			});
+			report.markWarmed(key.getType());
+		}
+		catch (final RuntimeException e)
+		{
+			report.markFailed(key.getType());
+			LOG.debug("Cache warm-up failed for " + key, e);
+		}
+	}
+
+	protected void activateSite(final BaseSiteModel baseSite)
+	{
+		getBaseSiteService().setCurrentBaseSite(baseSite, true);
+		getCommerceCommonI18NService().setCurrentLanguage(getCommerceCommonI18NService().getDefaultLanguage());
+		getCommerceCommonI18NService().setCurrentCurrency(getCommerceCommonI18NService().getDefaultCurrency());
+	}
+
+	protected void replay(final String baseSiteId, final CacheWarmUpKey key, final String fields)
+	{
+		switch (key.getType())
+		{
+			case PRODUCT:
+				getProductsController().getProduct(key.getValue(), fields);
+				break;
+			case CATEGORY:
+				getProductsHelper().searchProducts(null, CATEGORY_QUERY_PREFIX + key.getValue(), 0,
+						getConfigurationService().getConfiguration().getInt(CATEGORY_PAGE_SIZE_PROPERTY, DEFAULT_CATEGORY_PAGE_SIZE),
+						null, fields, null);
+				break;
+			case STORE:
+				getStoresHelper().locationDetails(key.getValue(), fields);
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported cache warm-up key type " + key.getType() + " for site " + baseSiteId);
+		}
+	}
+
+	protected int getPoolSize()
+	{
+		return Math.max(1, getConfigurationService().getConfiguration().getInt(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE));
+	}
+
+	protected CacheWarmUpKeySource getCacheWarmUpKeySource()
+	{
+		return cacheWarmUpKeySource;
+	}
+
+	@Required
+	public void setCacheWarmUpKeySource(final CacheWarmUpKeySource cacheWarmUpKeySource)
+	{
+		this.cacheWarmUpKeySource = cacheWarmUpKeySource;
+	}
+
+	protected ProductsController getProductsController()
+	{
+		return productsController;
+	}
+
+	@Required
+	public void setProductsController(final ProductsController productsController)
+	{
+		this.productsController = productsController;
+	}
+
+	protected ProductsHelper getProductsHelper()
+	{
+		return productsHelper;
+	}
+
+	@Required
+	public void setProductsHelper(final ProductsHelper productsHelper)
+	{
+		this.productsHelper = productsHelper;
+	}
+
+	protected StoresHelper getStoresHelper()
+	{
+		return storesHelper;
+	}
+
+	@Required
+	public void setStoresHelper(final StoresHelper storesHelper)
+	{
+		this.storesHelper = storesHelper;
+	}
+
+	protected BaseSiteService getBaseSiteService()
+	{
+		return baseSiteService;
+	}
+
+	@Required
+	public void setBaseSiteService(final BaseSiteService baseSiteService)
+	{
+		this.baseSiteService = baseSiteService;
+	}
+
+	protected CommerceCommonI18NService getCommerceCommonI18NService()
+	{
+		return commerceCommonI18NService;
+	}
+
+	@Required
+	public void setCommerceCommonI18NService(final CommerceCommonI18NService commerceCommonI18NService)
+	{
+		this.commerceCommonI18NService = commerceCommonI18NService;
+	}
+
+	protected WorkerSessionService getWorkerSessionService()
+	{
+		return workerSessionService;
+	}
+
+	@Required
+	public void setWorkerSessionService(final WorkerSessionService workerSessionService)
+	{
+		this.workerSessionService = workerSessionService;
+	}
+
+	protected UserService getUserService()
+	{
+		return userService;
+	}
+
+	@Required
+	public void setUserService(final UserService userService)
+	{
+		this.userService = userService;
+	}
+
+	protected ConfigurationService getConfigurationService()
+	{
+		return configurationService;
+	}
+
+	@Required
+	public void setConfigurationService(final ConfigurationService configurationService)
+	{
+		this.configurationService = configurationService;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup;
+
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+
+/**
+ * Starts the cache warm-up in the background once the v2 web context is refreshed, so the deployment is not blocked
+ * while caches are being populated. Sites to warm up are read from {@value #SITES_PROPERTY} (comma separated).
+ */
+public class CacheWarmUpStartupListener implements ApplicationListener<ContextRefreshedEvent>, ApplicationContextAware
+{
+	public static final String ENABLED_PROPERTY = "sncustomwebservices.cache.warmup.enabled";
+	public static final String SITES_PROPERTY = "sncustomwebservices.cache.warmup.sites";
+
+	private static final Logger LOG = Logger.getLogger(CacheWarmUpStartupListener.class);
+
+	private CacheWarmUpService cacheWarmUpService;
+	private ConfigurationService configurationService;
+	private ApplicationContext applicationContext;
+
+	@Override
+	public void onApplicationEvent(final ContextRefreshedEvent event)
+	{
+		if (event.getApplicationContext() != applicationContext
+				|| !getConfigurationService().getConfiguration().getBoolean(ENABLED_PROPERTY, false))
+		{
+			return;
+		}
+
+		final String[] sites = StringUtils.split(getConfigurationService().getConfiguration().getString(SITES_PROPERTY, ""), ',');
+		if (sites == null || sites.length == 0)
+		{
+			LOG.info("Cache warm-up is enabled but no sites are configured in " + SITES_PROPERTY);
+			return;
+		}
+
+		final ThreadFactory threadFactory = new TenantAwareThreadFactory(Registry.getCurrentTenant());
+		final Thread thread = threadFactory.newThread(() -> {
+			for (final String site : sites)
+			{
+				getCacheWarmUpService().warmUp(site.trim());
+			}
+		});
+		thread.setName("occ-cache-warmup");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void setApplicationContext(final ApplicationContext applicationContext)
+	{
+		this.applicationContext = applicationContext;
+	}
+
+	protected CacheWarmUpService getCacheWarmUpService()
+	{
+		return cacheWarmUpService;
+	}
+
+	@Required
+	public void setCacheWarmUpService(final CacheWarmUpService cacheWarmUpService)
+	{
+		this.cacheWarmUpService = cacheWarmUpService;
+	}
+
+	protected ConfigurationService getConfigurationService()
+	{
+		return configurationService;
+	}
+
+	@Required
+	public void setConfigurationService(final ConfigurationService configurationService)
+	{
+		this.configurationService = configurationService;
+	}
+}
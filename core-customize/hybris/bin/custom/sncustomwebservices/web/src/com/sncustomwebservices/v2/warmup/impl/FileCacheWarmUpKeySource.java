@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup.impl;
+
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import com.sncustomwebservices.v2.warmup.CacheWarmUpKey;
+import com.sncustomwebservices.v2.warmup.CacheWarmUpKeySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+
+/**
+ * Reads warm-up keys from a plain text file. The file location is resolved from the
+ * {@value #KEY_FILE_PROPERTY} property, where <code>{baseSiteId}</code> is replaced by the site being warmed up.
+ * <p>
+ * Each line holds one key in the format <code>&lt;type&gt;:&lt;value&gt;</code>, where type is one of
+ * <code>product</code>, <code>category</code> or <code>store</code>. Blank lines and lines starting with <code>#</code>
+ * are ignored. The file is typically exported from access metrics, most requested resources first.
+ */
+public class FileCacheWarmUpKeySource implements CacheWarmUpKeySource
+{
+	public static final String KEY_FILE_PROPERTY = "sncustomwebservices.cache.warmup.keyfile";
+	public static final String MAX_KEYS_PROPERTY = "sncustomwebservices.cache.warmup.maxkeys";
+	private static final String BASE_SITE_PLACEHOLDER = "{baseSiteId}";
+	private static final String COMMENT_PREFIX = "#";
+	private static final char SEPARATOR = ':';
+	private static final int DEFAULT_MAX_KEYS = 1000;
+
+	private static final Logger LOG = Logger.getLogger(FileCacheWarmUpKeySource.class);
+
+	private ConfigurationService configurationService;
+
+	@Override
+	public Collection<CacheWarmUpKey> getKeys(final String baseSiteId)
+	{
+		final String location = getConfigurationService().getConfiguration().getString(KEY_FILE_PROPERTY);
+		if (StringUtils.isBlank(location))
+		{
+			return Collections.emptyList();
+		}
+
+		final Path path = Paths.get(location.replace(BASE_SITE_PLACEHOLDER, baseSiteId));
+		if (!Files.isReadable(path))
+		{
+			LOG.info("Cache warm-up key file " + path + " not found for site " + baseSiteId);
+			return Collections.emptyList();
+		}
+
+		try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+		{
+			return readKeys(reader, getConfigurationService().getConfiguration().getInt(MAX_KEYS_PROPERTY, DEFAULT_MAX_KEYS));
+		}
+		catch (final IOException e)
+		{
+			LOG.warn("Unable to read cache warm-up key file " + path, e);
+			return Collections.emptyList();
+		}
+	}
+
+	protected Collection<CacheWarmUpKey> readKeys(final Reader reader, final int maxKeys) throws IOException
+	{
+		final Set<CacheWarmUpKey> keys = new LinkedHashSet<>();
+		final BufferedReader bufferedReader = new BufferedReader(reader);
+		String line;
+		while (keys.size() < maxKeys && (line = bufferedReader.readLine()) != null)
+		{
+			final CacheWarmUpKey key = parseKey(line.trim());
+			if (key != null)
+			{
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+
+	protected CacheWarmUpKey parseKey(final String line)
+	{
+		if (line.isEmpty() || line.startsWith(COMMENT_PREFIX))
+		{
+			return null;
+		}
+
+		final int separator = line.indexOf(SEPARATOR);
+		if (separator <= 0 || separator == line.length() - 1)
+		{
+			LOG.debug("Skipping malformed cache warm-up key: " + line);
+			return null;
+		}
+
+		try
+		{
+			final CacheWarmUpKey.Type type = CacheWarmUpKey.Type.valueOf(line.substring(0, separator).trim().toUpperCase());
+			return new CacheWarmUpKey(type, line.substring(separator + 1).trim());
+		}
+		catch (final IllegalArgumentException e)
+		{
+			LOG.debug("Skipping cache warm-up key with unknown type: " + line);
+			return null;
+		}
+	}
+
+	protected ConfigurationService getConfigurationService()
+	{
+		return configurationService;
+	}
+
+	@Required
+	public void setConfigurationService(final ConfigurationService configurationService)
+	{
+		this.configurationService = configurationService;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.xstream;
+
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+import com.thoughtworks.xstream.io.xml.StaxWriter;
+
+
+/**
+ * Production {@link StaxDriver} which writes XML without indentation. All instances share one configured
+ * {@link XMLOutputFactory}, which is thread safe once configured, so no factory lookup happens per response. StAX writers
+ * cannot be reset, so each response gets its own lightweight writer bound directly to the response output stream.
+ */
+public class CompactStaxDriver extends StaxDriver
+{
+	private static final String ENCODING = "UTF-8";
+	private static final String XML_VERSION = "1.0";
+	private static final XMLOutputFactory SHARED_OUTPUT_FACTORY = createSharedOutputFactory();
+
+	@Override
+	protected XMLOutputFactory createOutputFactory()
+	{
+		return SHARED_OUTPUT_FACTORY;
+	}
+
+	@Override
+	public HierarchicalStreamWriter createWriter(final OutputStream out)
+	{
+		try
+		{
+			return createStaxWriter(getOutputFactory().createXMLStreamWriter(out, ENCODING));
+		}
+		catch (final XMLStreamException e)
+		{
+			throw new StreamException(e);
+		}
+	}
+
+	@Override
+	public StaxWriter createStaxWriter(final XMLStreamWriter out) throws XMLStreamException
+	{
+		out.writeStartDocument(ENCODING, XML_VERSION);
+		return createStaxWriter(out, false);
+	}
+
+	private static XMLOutputFactory createSharedOutputFactory()
+	{
+		final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+		factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.FALSE);
+		return factory;
+	}
+}
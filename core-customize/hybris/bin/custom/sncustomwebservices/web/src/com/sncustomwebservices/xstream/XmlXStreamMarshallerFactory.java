@@ -55,6 +55,8 @@ public class XmlXStreamMarshallerFactory implements FactoryBean, ApplicationCont
 
 	private List<Class<?>> excludeClasses = new ArrayList<>();
 
+	private boolean indentOutput = true;
+
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
@@ -112,16 +114,7 @@ public class XmlXStreamMarshallerFactory implements FactoryBean, ApplicationCont
 
 	protected XStreamMarshaller createMarshaller()
 	{
-		final StaxDriver driver = new StaxDriver()
-		{
-			@Override
-			public StaxWriter createStaxWriter(final XMLStreamWriter out) throws XMLStreamException
-			{
-				out.writeStartDocument("UTF-8", "1.0");
-				final IndentingXMLStreamWriter isw = new IndentingXMLStreamWriter(out);
-				return createStaxWriter(isw, false);
-			}
-		};
+		final StaxDriver driver = isIndentOutput() ? createIndentingStaxDriver() : new CompactStaxDriver();
 
 		final XStreamMarshaller marshaller = new XStreamMarshaller()
 		{
@@ -150,6 +143,24 @@ public class XmlXStreamMarshallerFactory implements FactoryBean, ApplicationCont
 		return marshaller;
 	}
 
+	/**
+	 * Creates the driver used when {@link #isIndentOutput()} is enabled. Indentation is convenient for debugging, but
+	 * tracks state per element and writes additional whitespace.
+	 */
+	protected StaxDriver createIndentingStaxDriver()
+	{
+		return new StaxDriver()
+		{
+			@Override
+			public StaxWriter createStaxWriter(final XMLStreamWriter out) throws XMLStreamException
+			{
+				out.writeStartDocument("UTF-8", "1.0");
+				final IndentingXMLStreamWriter isw = new IndentingXMLStreamWriter(out);
+				return createStaxWriter(isw, false);
+			}
+		};
+	}
+
 	@Required
 	public void setXStream(final XStream xStream)
 	{
@@ -311,4 +322,18 @@ public class XmlXStreamMarshallerFactory implements FactoryBean, ApplicationCont
 		this.excludeClasses = excludeClasses;
 	}
 
+	public boolean isIndentOutput()
+	{
+		return indentOutput;
+	}
+
+	/**
+	 * @param indentOutput
+	 * 		false to write compact XML through {@link CompactStaxDriver}
+	 */
+	public void setIndentOutput(final boolean indentOutput)
+	{
+		this.indentOutput = indentOutput;
+	}
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.auth;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.user.UserFacade;
+import de.hybris.platform.commerceservices.enums.CustomerType;
+import de.hybris.platform.core.model.order.CartModel;
+import de.hybris.platform.core.model.user.CustomerModel;
+import de.hybris.platform.order.CartService;
+
+import javax.servlet.FilterChain;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class GuestRoleFilterTest
+{
+	private static final String CART_GUID = "a1b2c3";
+	private static final String GUEST_UID = "guid|guest@example.com";
+
+	@Mock
+	private UserFacade userFacade;
+	@Mock
+	private CartService cartService;
+	@Mock
+	private GuestCartRegistry guestCartRegistry;
+	@Mock
+	private AuthenticationEventPublisher authenticationEventPublisher;
+	@Mock
+	private FilterChain filterChain;
+
+	private GuestRoleFilter filter;
+
+	@Before
+	public void setUp()
+	{
+		filter = new GuestRoleFilter();
+		filter.setUserFacade(userFacade);
+		filter.setCartService(cartService);
+		filter.setGuestCartRegistry(guestCartRegistry);
+		filter.setAuthenticationEventPublisher(authenticationEventPublisher);
+		filter.setGuestRole("ROLE_GUEST");
+		filter.setCartRegexp("^/[^/]+/(?:users|orgUsers)/[^/]+/carts/([^/]+)");
+		when(userFacade.isAnonymousUser()).thenReturn(Boolean.TRUE);
+	}
+
+	@After
+	public void tearDown()
+	{
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void testSessionCartIsNotLoadedWhenNoCartIsTargeted() throws Exception
+	{
+		filter.doFilter(request("/electronics/products/1934793"), new MockHttpServletResponse(), filterChain);
+
+		verify(cartService, never()).hasSessionCart();
+		Assert.assertNull(SecurityContextHolder.getContext().getAuthentication());
+		Assert.assertEquals(1, filter.getAvoidedCartLoadCount());
+		Assert.assertEquals(0, filter.getCartLoadCount());
+	}
+
+	@Test
+	public void testRegisteredGuestCartIsAuthenticatedWithoutLoadingItsUser() throws Exception
+	{
+		final CartModel cart = mock(CartModel.class);
+		when(cart.getGuid()).thenReturn(CART_GUID);
+		when(cartService.hasSessionCart()).thenReturn(Boolean.TRUE);
+		when(cartService.getSessionCart()).thenReturn(cart);
+		when(guestCartRegistry.getGuestUid(CART_GUID)).thenReturn(GUEST_UID);
+
+		filter.doFilter(request("/electronics/users/anonymous/carts/" + CART_GUID + "/entries"), new MockHttpServletResponse(),
+				filterChain);
+
+		verify(cart, never()).getUser();
+		Assert.assertEquals(GUEST_UID, SecurityContextHolder.getContext().getAuthentication().getName());
+		Assert.assertEquals(1, filter.getAvoidedCartLoadCount());
+	}
+
+	@Test
+	public void testRegisteredGuestCartIsIgnoredWhenItIsNotTheSessionCart() throws Exception
+	{
+		final CustomerModel anonymous = new CustomerModel();
+		anonymous.setUid("anonymous");
+		final CartModel cart = mock(CartModel.class);
+		when(cart.getGuid()).thenReturn("d4e5f6");
+		when(cart.getUser()).thenReturn(anonymous);
+		when(cartService.hasSessionCart()).thenReturn(Boolean.TRUE);
+		when(cartService.getSessionCart()).thenReturn(cart);
+		when(guestCartRegistry.getGuestUid(CART_GUID)).thenReturn(GUEST_UID);
+
+		filter.doFilter(request("/electronics/users/anonymous/carts/" + CART_GUID), new MockHttpServletResponse(),
+				filterChain);
+
+		Assert.assertNull(SecurityContextHolder.getContext().getAuthentication());
+		Assert.assertEquals(1, filter.getCartLoadCount());
+		Assert.assertEquals(0, filter.getAvoidedCartLoadCount());
+	}
+
+	@Test
+	public void testUnknownCartFallsBackToTheUserOfTheSessionCart() throws Exception
+	{
+		final CustomerModel guest = new CustomerModel();
+		guest.setUid(GUEST_UID);
+		guest.setType(CustomerType.GUEST);
+		final CartModel cart = mock(CartModel.class);
+		when(cart.getUser()).thenReturn(guest);
+		when(cartService.hasSessionCart()).thenReturn(Boolean.TRUE);
+		when(cartService.getSessionCart()).thenReturn(cart);
+
+		filter.doFilter(request("/electronics/users/anonymous/carts/" + CART_GUID), new MockHttpServletResponse(),
+				filterChain);
+
+		Assert.assertEquals(GUEST_UID, SecurityContextHolder.getContext().getAuthentication().getName());
+		Assert.assertEquals(1, filter.getCartLoadCount());
+		Assert.assertEquals(0, filter.getAvoidedCartLoadCount());
+	}
+
+	private static MockHttpServletRequest request(final String pathInfo)
+	{
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sncustomwebservices/v2" + pathInfo);
+		request.setServletPath("/v2");
+		request.setPathInfo(pathInfo);
+		return request;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.consent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.consent.data.AnonymousConsentData;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+@UnitTest
+public class DefaultConsentStateCacheTest
+{
+	private static final String HEADER = "%5B%7B%22templateCode%22%3A%22MARKETING%22%7D%5D";
+
+	private DefaultConsentStateCache cache;
+
+	@Before
+	public void setUp()
+	{
+		cache = new DefaultConsentStateCache();
+		cache.setMaxEntries(100);
+	}
+
+	@Test
+	public void testHeaderIsParsedOnce()
+	{
+		final AtomicInteger parsed = new AtomicInteger();
+
+		final List<AnonymousConsentData> first = cache.getAnonymousConsents(HEADER, header -> {
+			parsed.incrementAndGet();
+			return Collections.singletonList(consent("MARKETING"));
+		});
+		first.get(0).setConsentState("GIVEN");
+		final List<AnonymousConsentData> second = cache.getAnonymousConsents(HEADER, header -> {
+			parsed.incrementAndGet();
+			return Collections.emptyList();
+		});
+
+		Assert.assertEquals(1, parsed.get());
+		Assert.assertEquals("MARKETING", second.get(0).getTemplateCode());
+		Assert.assertNull(second.get(0).getConsentState());
+	}
+
+	@Test
+	public void testWrittenHeaderIsNotParsedAgain()
+	{
+		final List<AnonymousConsentData> consents = Collections.singletonList(consent("MARKETING"));
+		final AtomicInteger serialized = new AtomicInteger();
+
+		Assert.assertEquals(HEADER, cache.getAnonymousConsentHeader(consents, written -> {
+			serialized.incrementAndGet();
+			return HEADER;
+		}));
+		Assert.assertEquals(HEADER, cache.getAnonymousConsentHeader(consents, written -> {
+			serialized.incrementAndGet();
+			return "other";
+		}));
+		final List<AnonymousConsentData> read = cache.getAnonymousConsents(HEADER, header -> {
+			throw new AssertionError("header written before must not be parsed");
+		});
+
+		Assert.assertEquals(1, serialized.get());
+		Assert.assertEquals("MARKETING", read.get(0).getTemplateCode());
+	}
+
+	private static AnonymousConsentData consent(final String templateCode)
+	{
+		final AnonymousConsentData consent = new AnonymousConsentData();
+		consent.setTemplateCode(templateCode);
+		consent.setTemplateVersion(0);
+		return consent;
+	}
+}
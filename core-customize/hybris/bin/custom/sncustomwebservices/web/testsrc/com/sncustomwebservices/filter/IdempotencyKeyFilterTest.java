@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.filter;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.exceptions.IdempotencyKeyReusedException;
+import com.sncustomwebservices.idempotency.impl.DefaultIdempotentResponseStore;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+
+@UnitTest
+public class IdempotencyKeyFilterTest
+{
+	private static final String URI = "/electronics/users/current/carts/00001000/entries";
+	private static final String BODY = "{\"product\":{\"code\":\"1934793\"},\"quantity\":1}";
+
+	private final AtomicInteger executions = new AtomicInteger();
+	private int status = HttpServletResponse.SC_OK;
+	private String requestBody = BODY;
+	private final FilterChain filterChain = (request, response) -> {
+		executions.incrementAndGet();
+		// the body is read again by the filter chain after it was hashed
+		Assert.assertEquals(requestBody, IOUtils.toString(request.getInputStream(), StandardCharsets.UTF_8));
+		final HttpServletResponse httpResponse = (HttpServletResponse) response;
+		httpResponse.setStatus(status);
+		httpResponse.setContentType("application/json");
+		httpResponse.setHeader("Location", "/entries/" + executions.get());
+		httpResponse.getOutputStream().write(("{\"execution\":" + executions.get() + "}").getBytes(StandardCharsets.UTF_8));
+	};
+
+	private IdempotencyKeyFilter filter;
+
+	@Before
+	public void setUp()
+	{
+		final DefaultIdempotentResponseStore store = new DefaultIdempotentResponseStore();
+		store.setTimeToLive(60);
+		store.setMaxEntries(10);
+		store.setMaxBytes(1024 * 1024);
+		store.setMaxBodySize(1024);
+
+		filter = new IdempotencyKeyFilter();
+		filter.setIdempotentResponseStore(store);
+		filter.setWaitTimeout(1);
+		authenticate("keenreviewer1@hybris.com");
+	}
+
+	@After
+	public void tearDown()
+	{
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void testRetryIsAnsweredWithFirstResponse() throws ServletException, IOException
+	{
+		final MockHttpServletResponse first = execute("POST", "key1");
+		final MockHttpServletResponse retry = execute("POST", "key1");
+
+		Assert.assertEquals(1, executions.get());
+		Assert.assertEquals(first.getContentAsString(), retry.getContentAsString());
+		Assert.assertEquals("/entries/1", retry.getHeader("Location"));
+		Assert.assertEquals("application/json", retry.getContentType());
+		Assert.assertEquals("true", retry.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	public void testKeysAreScopedToUserAndMethod() throws ServletException, IOException
+	{
+		execute("POST", "key1");
+		execute("PUT", "key1");
+		authenticate("another@hybris.com");
+		execute("POST", "key1");
+
+		Assert.assertEquals(3, executions.get());
+	}
+
+	@Test
+	public void testServerErrorsAreNotStored() throws ServletException, IOException
+	{
+		status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+		execute("POST", "key1");
+		status = HttpServletResponse.SC_CREATED;
+		final MockHttpServletResponse retry = execute("POST", "key1");
+
+		Assert.assertEquals(2, executions.get());
+		Assert.assertEquals(HttpServletResponse.SC_CREATED, retry.getStatus());
+	}
+
+	@Test(expected = IdempotencyKeyReusedException.class)
+	public void testRetryWithAnotherBodyIsRejected() throws ServletException, IOException
+	{
+		execute("POST", "key1");
+		requestBody = "{\"product\":{\"code\":\"1934793\"},\"quantity\":2}";
+		execute("POST", "key1");
+	}
+
+	@Test
+	public void testRequestsWithoutUserAreNotStored() throws ServletException, IOException
+	{
+		SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+				Collections.singletonList(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+		execute("POST", "key1");
+		execute("POST", "key1");
+
+		final OAuth2Authentication clientOnly = Mockito.mock(OAuth2Authentication.class);
+		Mockito.when(clientOnly.getName()).thenReturn("trusted_client");
+		Mockito.when(clientOnly.isClientOnly()).thenReturn(true);
+		SecurityContextHolder.getContext().setAuthentication(clientOnly);
+		execute("POST", "key1");
+		execute("POST", "key1");
+
+		Assert.assertEquals(4, executions.get());
+	}
+
+	@Test
+	public void testRequestsWithoutKeyAreNotStored() throws ServletException, IOException
+	{
+		execute("POST", null);
+		execute("POST", null);
+		execute("GET", "key1");
+		execute("GET", "key1");
+
+		Assert.assertEquals(4, executions.get());
+	}
+
+	private MockHttpServletResponse execute(final String method, final String idempotencyKey)
+			throws ServletException, IOException
+	{
+		final MockHttpServletRequest request = new MockHttpServletRequest(method, URI);
+		request.setContentType("application/json");
+		request.setContent(requestBody.getBytes(StandardCharsets.UTF_8));
+		if (idempotencyKey != null)
+		{
+			request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+		}
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, filterChain);
+		return response;
+	}
+
+	private static void authenticate(final String name)
+	{
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null));
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.idempotency.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.idempotency.IdempotentResponse;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+@UnitTest
+public class DefaultIdempotentResponseStoreTest
+{
+	private final DefaultIdempotentResponseStore store = new DefaultIdempotentResponseStore();
+
+	@Before
+	public void setUp()
+	{
+		store.setTimeToLive(60);
+		store.setMaxEntries(10);
+		store.setMaxBytes(2500);
+		store.setMaxBodySize(2000);
+	}
+
+	@Test
+	public void testOldestResponsesAreDroppedAboveMaxBytes()
+	{
+		store.store("key1", response(1000));
+		store.store("key2", response(1000));
+		store.store("key3", response(1000));
+
+		// the oldest response was dropped, so the caller reserves its key
+		Assert.assertNull(store.reserve("key1"));
+		Assert.assertNotNull(store.reserve("key2"));
+		Assert.assertNotNull(store.reserve("key3"));
+		Assert.assertTrue(store.getStoredBytes() <= 2500);
+	}
+
+	@Test
+	public void testReplacedResponseIsNotCountedTwice()
+	{
+		store.store("key1", response(1000));
+		store.store("key1", response(1000));
+		store.store("key2", response(1000));
+
+		Assert.assertNotNull(store.reserve("key1"));
+		Assert.assertEquals(2 * (1000 + 2 * ("key1".length() + "application/json".length())), store.getStoredBytes());
+	}
+
+	private static IdempotentResponse response(final int bodySize)
+	{
+		return new IdempotentResponse(200, "application/json", Collections.emptyMap(), new byte[bodySize], null);
+	}
+}
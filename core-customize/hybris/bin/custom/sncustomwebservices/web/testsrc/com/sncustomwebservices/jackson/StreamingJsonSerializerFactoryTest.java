@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.jackson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.commercefacades.xstream.alias.AttributeOmitMapping;
+import de.hybris.platform.commercefacades.xstream.alias.FieldAliasMapping;
+import de.hybris.platform.commercewebservicescommons.dto.product.PriceWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductListWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.ProductWsDTO;
+import de.hybris.platform.commercewebservicescommons.dto.product.StockWsDTO;
+import com.sncustomwebservices.xstream.JsonXStreamFactory;
+import com.sncustomwebservices.xstream.JsonXStreamMarshallerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.oxm.xstream.XStreamMarshaller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thoughtworks.xstream.XStream;
+
+
+/**
+ * Golden-file compatibility suite for {@link StreamingJsonSerializerFactory}. Every payload is written by both the
+ * streaming serializer and the XStream JSON marshaller, and both outputs must match.
+ */
+@UnitTest
+public class StreamingJsonSerializerFactoryTest
+{
+	private static final String GOLDEN_PRODUCT_LIST = "golden/productList.json";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private GenericApplicationContext ctx;
+
+	@Before
+	public void setUp()
+	{
+		ctx = new GenericApplicationContext();
+	}
+
+	@Test
+	public void testProductListMatchesGoldenFileAndXStream() throws Exception
+	{
+		ctx.refresh();
+		final ProductListWsDTO productList = createProductList();
+
+		final JsonNode streaming = mapper.readTree(writeStreaming(productList));
+
+		assertEquals(readGolden(GOLDEN_PRODUCT_LIST), streaming);
+		assertEquals(mapper.readTree(writeXStream(productList)), streaming);
+	}
+
+	@Test
+	public void testAliasAndOmitMappingsAreHonored() throws Exception
+	{
+		final FieldAliasMapping alias = new FieldAliasMapping();
+		alias.setAliasedClass(TestDTO.class);
+		alias.setFieldName("label");
+		alias.setAlias("title");
+		final AttributeOmitMapping omit = new AttributeOmitMapping();
+		omit.setAliasedClass(TestDTO.class);
+		omit.setAttributeName("secret");
+		ctx.getBeanFactory().registerSingleton("alias", alias);
+		ctx.getBeanFactory().registerSingleton("omit", omit);
+		ctx.refresh();
+
+		final TestDTO dto = new TestDTO();
+		dto.label = "label";
+		dto.secret = "secret";
+		dto.values = Arrays.asList("a", "b");
+		dto.count = 3;
+
+		final JsonNode streaming = mapper.readTree(writeStreaming(dto));
+
+		assertEquals(mapper.readTree("{\"title\":\"label\",\"values\":[\"a\",\"b\"],\"count\":3}"), streaming);
+		assertEquals(mapper.readTree(writeXStream(dto)), streaming);
+	}
+
+	@Test
+	public void testMapsAreNotSupported()
+	{
+		ctx.refresh();
+		final StreamingJsonSerializerFactory factory = createFactory();
+
+		assertTrue(factory.isSupported(TestDTO.class));
+		assertFalse(factory.isSupported(MapHolderDTO.class));
+	}
+
+	protected ProductListWsDTO createProductList()
+	{
+		final PriceWsDTO price = new PriceWsDTO();
+		price.setCurrencyIso("USD");
+		price.setValue(new BigDecimal("114.12"));
+		price.setFormattedValue("$114.12");
+
+		final StockWsDTO stock = new StockWsDTO();
+		stock.setStockLevelStatus("inStock");
+		stock.setStockLevel(Long.valueOf(25));
+
+		final ProductWsDTO camera = new ProductWsDTO();
+		camera.setCode("300938");
+		camera.setName("Photosmart E317 Digital Camera");
+		camera.setPurchasable(Boolean.TRUE);
+		camera.setPrice(price);
+		camera.setStock(stock);
+
+		final ProductWsDTO powerShot = new ProductWsDTO();
+		powerShot.setCode("1934793");
+		powerShot.setName("PowerShot A480");
+		powerShot.setPurchasable(Boolean.FALSE);
+
+		final ProductListWsDTO productList = new ProductListWsDTO();
+		productList.setProducts(Arrays.asList(camera, powerShot));
+		productList.setCatalog("electronicsProductCatalog");
+		productList.setVersion("Online");
+		productList.setTotalProductCount(Integer.valueOf(2));
+		productList.setTotalPageCount(Integer.valueOf(1));
+		productList.setCurrentPage(Integer.valueOf(0));
+		return productList;
+	}
+
+	protected StreamingJsonSerializerFactory createFactory()
+	{
+		final StreamingJsonSerializerFactory factory = new StreamingJsonSerializerFactory();
+		factory.setApplicationContext(ctx);
+		factory.afterPropertiesSet();
+		return factory;
+	}
+
+	protected String writeStreaming(final Object object) throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final JsonGenerator generator = new JsonFactory().createGenerator(out))
+		{
+			createFactory().write(object, generator);
+		}
+		return out.toString(StandardCharsets.UTF_8.name());
+	}
+
+	protected String writeXStream(final Object object) throws Exception
+	{
+		final JsonXStreamFactory xStreamFactory = new JsonXStreamFactory();
+		xStreamFactory.afterPropertiesSet();
+		final JsonXStreamMarshallerFactory marshallerFactory = new JsonXStreamMarshallerFactory();
+		marshallerFactory.setApplicationContext(ctx);
+		marshallerFactory.setXStream((XStream) xStreamFactory.getObject());
+		marshallerFactory.afterPropertiesSet();
+
+		final StringWriter writer = new StringWriter();
+		((XStreamMarshaller) marshallerFactory.getObject()).marshal(object, new StreamResult(writer));
+		return writer.toString();
+	}
+
+	protected JsonNode readGolden(final String name) throws Exception
+	{
+		try (final InputStream in = getClass().getResourceAsStream(name))
+		{
+			return mapper.readTree(in);
+		}
+	}
+
+	static class TestDTO
+	{
+		private String label;
+		private String secret;
+		private List<String> values;
+		private int count;
+	}
+
+	static class MapHolderDTO
+	{
+		private Map<String, String> attributes;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.startup;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+
+@UnitTest
+public class WebContextStartupProfilerTest
+{
+	private WebContextStartupProfiler profiler;
+
+	@Before
+	public void setUp()
+	{
+		profiler = new WebContextStartupProfiler();
+	}
+
+	@Test
+	public void testNestedBeansAreNotCountedTwice()
+	{
+		profiler.postProcessBeforeInstantiation(Object.class, "outer");
+		profiler.postProcessBeforeInstantiation(Object.class, "inner");
+		sleep(20);
+		profiler.postProcessAfterInitialization(new Object(), "inner");
+		profiler.postProcessAfterInitialization(new Object(), "outer");
+
+		final List<WebContextStartupProfiler.BeanTiming> slowest = profiler.getSlowestBeans();
+		Assert.assertEquals(2, slowest.size());
+		Assert.assertEquals("inner", slowest.get(0).getBeanName());
+		Assert.assertTrue(slowest.get(1).getTime() < slowest.get(0).getTime());
+	}
+
+	@Test
+	public void testBeansAreAssignedToPhases()
+	{
+		create("handlerMapping", new SimpleUrlHandlerMapping());
+		create("messageSource", new StaticMessageSource());
+		create("jsonXStreamFactory", new Object());
+		create("other", new Object());
+
+		final List<WebContextStartupProfiler.BeanTiming> timings = profiler.getSlowestBeans();
+		Assert.assertEquals(4, timings.size());
+		for (final WebContextStartupProfiler.BeanTiming timing : timings)
+		{
+			switch (timing.getBeanName())
+			{
+				case "handlerMapping":
+					Assert.assertEquals(WebContextStartupProfiler.PHASE_HANDLER_MAPPING, timing.getPhase());
+					break;
+				case "messageSource":
+					Assert.assertEquals(WebContextStartupProfiler.PHASE_MESSAGE_SOURCES, timing.getPhase());
+					break;
+				case "jsonXStreamFactory":
+					Assert.assertEquals(WebContextStartupProfiler.PHASE_XSTREAM, timing.getPhase());
+					break;
+				default:
+					Assert.assertEquals(WebContextStartupProfiler.PHASE_OTHER, timing.getPhase());
+			}
+		}
+		Assert.assertEquals(4, profiler.getPhaseTimes().size());
+	}
+
+	@Test
+	public void testFactoryBeanObjectsAndFailedCreationsAreHandled()
+	{
+		profiler.postProcessBeforeInstantiation(Object.class, "outer");
+		profiler.postProcessBeforeInstantiation(Object.class, "failed");
+		profiler.postProcessAfterInitialization(new Object(), "factoryBeanObject");
+		profiler.postProcessAfterInitialization(new Object(), "outer");
+
+		final List<WebContextStartupProfiler.BeanTiming> timings = profiler.getSlowestBeans();
+		Assert.assertEquals(1, timings.size());
+		Assert.assertEquals("outer", timings.get(0).getBeanName());
+	}
+
+	private void create(final String beanName, final Object bean)
+	{
+		profiler.postProcessBeforeInstantiation(bean.getClass(), beanName);
+		profiler.postProcessAfterInitialization(bean, beanName);
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.util.ws.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+@UnitTest
+public class MessageBundleManifestTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testManifestsListBundlesOnce() throws IOException
+	{
+		final Path webroot = folder.newFolder("webroot").toPath();
+		touch(webroot, "WEB-INF/messages/messages_en.properties");
+		touch(webroot, "WEB-INF/messages/addons/testaddon/web/base.properties");
+		touch(webroot, "WEB-INF/messages/addons/testaddon/web/base_en_US.properties");
+		touch(webroot, "WEB-INF/messages/addons/testaddon/web/errors_de.xml");
+		touch(webroot, "WEB-INF/messages/addons/readme.properties");
+
+		final Path resources = folder.newFolder("testocc", "resources").toPath();
+		touch(resources, "occ/v2/testocc/messages/base_en.properties");
+		touch(resources, "occ/v2/testocc/messages/base_de.properties");
+		touch(resources, "occ/v2/testocc/config/base.properties");
+		final Path occDirs = folder.newFile("occ-dirs.txt").toPath();
+		Files.write(occDirs, Collections.singletonList(resources.toString()), StandardCharsets.UTF_8);
+
+		MessageBundleManifest.main(new String[] { webroot.toString(), occDirs.toString() });
+
+		Assert.assertEquals(
+				Arrays.asList("/WEB-INF/messages/addons/testaddon/web/base", "/WEB-INF/messages/addons/testaddon/web/errors"),
+				read(webroot, MessageBundleManifest.ADDON_MANIFEST));
+		Assert.assertEquals(Collections.singletonList("classpath:occ/v2/testocc/messages/base"),
+				read(webroot, MessageBundleManifest.OCC_MANIFEST));
+	}
+
+	@Test
+	public void testBasenameDropsLocaleAndExtension()
+	{
+		Assert.assertEquals("a/b/base", MessageBundleManifest.toBasename("a/b/base_message_en_US.properties"));
+		Assert.assertEquals("a/b/base", MessageBundleManifest.toBasename("a/b/base.xml"));
+	}
+
+	private static void touch(final Path root, final String path) throws IOException
+	{
+		final Path file = root.resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.createFile(file);
+	}
+
+	private static Object read(final Path webroot, final String manifest) throws IOException
+	{
+		return MessageBundleManifest.read(Files.newInputStream(webroot.resolve("WEB-INF/messages").resolve(manifest)));
+	}
+}
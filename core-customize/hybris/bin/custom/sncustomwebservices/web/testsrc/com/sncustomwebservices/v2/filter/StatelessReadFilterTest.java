@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.filter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.servicelayer.i18n.I18NService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import de.hybris.platform.store.services.BaseStoreService;
+import com.sncustomwebservices.context.ContextInformationLoader;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class StatelessReadFilterTest
+{
+	private static final String PRODUCT_PATH = "/electronics/products/1934793";
+
+	@Mock
+	private ContextInformationLoader contextInformationLoader;
+	@Mock
+	private CommerceCommonI18NService commerceCommonI18NService;
+	@Mock
+	private I18NService i18nService;
+	@Mock
+	private BaseSiteService baseSiteService;
+	@Mock
+	private BaseStoreService baseStoreService;
+	@Mock
+	private SessionService sessionService;
+	@Mock
+	private UserService userService;
+	@Mock
+	private ModelService modelService;
+	@Mock
+	private BaseSiteModel baseSite;
+	@Mock
+	private LanguageModel language;
+	@Mock
+	private CurrencyModel currency;
+	@Mock
+	private Filter consentFilter;
+
+	private StatelessReadFilter filter;
+
+	@Before
+	public void setUp()
+	{
+		given(baseSite.getUid()).willReturn("electronics");
+		given(baseSiteService.getCurrentBaseSite()).willReturn(baseSite);
+		given(language.getPk()).willReturn(PK.fromLong(1));
+		given(currency.getPk()).willReturn(PK.fromLong(2));
+		given(modelService.get(PK.fromLong(1))).willReturn(language);
+		given(modelService.get(PK.fromLong(2))).willReturn(currency);
+		given(contextInformationLoader.setLanguageFromRequest(any())).willReturn(language);
+		given(contextInformationLoader.setCurrencyFromRequest(any())).willReturn(currency);
+
+		filter = new StatelessReadFilter();
+		filter.setPaths("^/[^/]+/products/search$,^/[^/]+/products/(?!search$)[^/]+$");
+		filter.setContextInformationLoader(contextInformationLoader);
+		filter.setCommerceCommonI18NService(commerceCommonI18NService);
+		filter.setI18nService(i18nService);
+		filter.setBaseSiteService(baseSiteService);
+		filter.setBaseStoreService(baseStoreService);
+		filter.setSessionService(sessionService);
+		filter.setUserService(userService);
+		filter.setModelService(modelService);
+		filter.setTimeToLive(60);
+		setAnonymous();
+	}
+
+	@After
+	public void tearDown()
+	{
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void testContextIsResolvedOncePerSiteLanguageAndCurrency() throws ServletException, IOException
+	{
+		Assert.assertTrue(execute("GET", PRODUCT_PATH));
+		Assert.assertTrue(execute("GET", PRODUCT_PATH));
+		Assert.assertTrue(execute("GET", "/electronics/products/search"));
+
+		verify(contextInformationLoader).setLanguageFromRequest(any());
+		verify(contextInformationLoader).setCurrencyFromRequest(any());
+		verify(commerceCommonI18NService, times(2)).setCurrentLanguage(language);
+		verify(commerceCommonI18NService, times(2)).setCurrentCurrency(currency);
+		verify(consentFilter, never()).doFilter(any(), any(), any());
+	}
+
+	@Test
+	public void testAuthenticatedRequestsTakeTheUsualPath() throws ServletException, IOException
+	{
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("keenreviewer1@hybris.com", null));
+
+		Assert.assertFalse(execute("GET", PRODUCT_PATH));
+		verify(contextInformationLoader, never()).setLanguageFromRequest(any());
+		verify(consentFilter).doFilter(any(), any(), any());
+	}
+
+	@Test
+	public void testOtherRequestsTakeTheUsualPath() throws ServletException, IOException
+	{
+		Assert.assertFalse(execute("POST", PRODUCT_PATH));
+		Assert.assertFalse(execute("GET", PRODUCT_PATH + "/reviews"));
+		Assert.assertFalse(execute("GET", "/electronics/users/anonymous/carts/00001000"));
+
+		verify(contextInformationLoader, never()).setLanguageFromRequest(any());
+		verify(consentFilter, times(3)).doFilter(any(), any(), any());
+	}
+
+	private boolean execute(final String method, final String path) throws ServletException, IOException
+	{
+		final MockHttpServletRequest request = new MockHttpServletRequest(method, "/sncustomwebservices/v2" + path);
+		request.setServletPath("/v2");
+		request.setPathInfo(path);
+		final StatelessReadBypassFilter bypassFilter = new StatelessReadBypassFilter(consentFilter);
+		final FilterChain bypassChain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, filteredResponse) -> bypassFilter
+				.doFilter(filteredRequest, filteredResponse, bypassChain));
+		return StatelessReadFilter.isStatelessRead(request);
+	}
+
+	private static void setAnonymous()
+	{
+		SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymous",
+				Collections.singletonList(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.helper;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.invoice.InvoiceDocument;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+
+@UnitTest
+public class InvoicesHelperTest
+{
+	private static final String CONTENT = "0123456789";
+	private static final String ETAG = "\"hash\"";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final InvoicesHelper invoicesHelper = new InvoicesHelper();
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+	private InvoiceDocument document;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		final Path file = folder.newFile().toPath();
+		Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+		document = new InvoiceDocument(FileChannel.open(file, StandardOpenOption.READ), CONTENT.length(), "hash", null);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		document.close();
+	}
+
+	@Test
+	public void testWholeDocumentIsWrittenWithEtag() throws IOException
+	{
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+	}
+
+	@Test
+	public void testMatchingEtagIsNotModified() throws IOException
+	{
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(304, response.getStatus());
+		Assert.assertEquals(0, response.getContentLength());
+	}
+
+	@Test
+	public void testSingleRangeIsPartialContent() throws IOException
+	{
+		request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(206, response.getStatus());
+		Assert.assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+		Assert.assertEquals("2345", response.getContentAsString());
+	}
+
+	@Test
+	public void testSuffixRangeIsPartialContent() throws IOException
+	{
+		request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(206, response.getStatus());
+		Assert.assertEquals("789", response.getContentAsString());
+	}
+
+	@Test
+	public void testRangeBeyondDocumentIsNotSatisfiable() throws IOException
+	{
+		request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(416, response.getStatus());
+		Assert.assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+	}
+
+	@Test
+	public void testOutdatedIfRangeSendsWholeDocument() throws IOException
+	{
+		request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+		invoicesHelper.writeDocument(document, request, response);
+
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+	}
+}
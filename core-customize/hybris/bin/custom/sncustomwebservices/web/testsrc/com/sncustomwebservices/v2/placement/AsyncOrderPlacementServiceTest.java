@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.placement;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.commerceservices.i18n.CommerceCommonI18NService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.c2l.LanguageModel;
+import de.hybris.platform.core.model.order.CartModel;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.order.CartService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AsyncOrderPlacementServiceTest
+{
+	@Mock
+	private CartService cartService;
+	@Mock
+	private UserService userService;
+	@Mock
+	private BaseSiteService baseSiteService;
+	@Mock
+	private CommerceCommonI18NService commerceCommonI18NService;
+	@Mock
+	private UserModel user;
+	@Mock
+	private BaseSiteModel baseSite;
+	@Mock
+	private CartModel cart;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private AsyncOrderPlacementService service;
+
+	@Before
+	public void setUp()
+	{
+		given(user.getUid()).willReturn("keenreviewer1@hybris.com");
+		given(baseSite.getUid()).willReturn("electronics");
+		given(cart.getPk()).willReturn(PK.fromLong(1));
+		given(userService.getCurrentUser()).willReturn(user);
+		given(baseSiteService.getCurrentBaseSite()).willReturn(baseSite);
+		given(cartService.getSessionCart()).willReturn(cart);
+
+		// one worker and one queued placement, the worker places orders once released
+		service = new AsyncOrderPlacementService()
+		{
+			@Override
+			protected ThreadPoolExecutor createExecutor()
+			{
+				return new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+			}
+
+			@Override
+			protected void placeInSession(final OrderPlacement placement, final PK cartPk, final boolean authorizePayment,
+					final UserModel user, final BaseSiteModel baseSite, final LanguageModel language, final CurrencyModel currency)
+			{
+				placement.start();
+				try
+				{
+					release.await();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				placement.complete("order" + cartPk.getLongValue(), "guid");
+			}
+		};
+		service.setCartService(cartService);
+		service.setUserService(userService);
+		service.setBaseSiteService(baseSiteService);
+		service.setCommerceCommonI18NService(commerceCommonI18NService);
+		service.setTimeToLive(60);
+		service.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException
+	{
+		release.countDown();
+		service.destroy();
+	}
+
+	@Test
+	public void testCartIsPlacedOnlyOnce()
+	{
+		final OrderPlacement placement = service.submit("cart1", true);
+
+		Assert.assertSame(placement, service.submit("cart1", true));
+		Assert.assertSame(placement, service.findPlacementForCart("cart1"));
+		Assert.assertNull(service.findPlacementForCart("cart2"));
+	}
+
+	@Test
+	public void testPlacementIsVisibleToItsOwnerOnly()
+	{
+		final OrderPlacement placement = service.submit("cart1", true);
+		Assert.assertSame(placement, service.getPlacement(placement.getPlacementId()));
+
+		final UserModel anotherUser = mock(UserModel.class);
+		given(anotherUser.getUid()).willReturn("another@hybris.com");
+		given(userService.getCurrentUser()).willReturn(anotherUser);
+
+		Assert.assertNull(service.getPlacement(placement.getPlacementId()));
+		Assert.assertNull(service.findPlacementForCart("cart1"));
+	}
+
+	@Test
+	public void testSubmissionIsRejectedWhenQueueIsFull()
+	{
+		service.submit("cart1", true);
+		service.submit("cart2", true);
+		try
+		{
+			service.submit("cart3", true);
+			Assert.fail("Expected the third placement to be rejected");
+		}
+		catch (final RejectedExecutionException e)
+		{
+			Assert.assertNull(service.findPlacementForCart("cart3"));
+		}
+	}
+
+	@Test
+	public void testPlacedOrderIsReported() throws InterruptedException
+	{
+		final OrderPlacement placement = service.submit("cart1", true);
+		release.countDown();
+
+		for (int i = 0; i < 100 && !placement.isFinished(); i++)
+		{
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(OrderPlacementStatus.PLACED, placement.getStatus());
+		Assert.assertEquals("order1", placement.getOrderCode());
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sncustomwebservices.v2.warmup.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import com.sncustomwebservices.v2.warmup.CacheWarmUpKey;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Test suite for {@link FileCacheWarmUpKeySource}
+ */
+@UnitTest
+public class FileCacheWarmUpKeySourceTest
+{
+	private static final String KEY_FILE = "# top resources\n" //
+			+ "product:300938\n" //
+			+ "\n" //
+			+ "category:576\n" //
+			+ "store: Nakano \n" //
+			+ "product:300938\n" //
+			+ "unknown:1\n" //
+			+ "product:\n" //
+			+ "product:1934793\n";
+
+	private final FileCacheWarmUpKeySource keySource = new FileCacheWarmUpKeySource();
+
+	@Test
+	public void testReadKeys() throws IOException
+	{
+		final List<CacheWarmUpKey> keys = new ArrayList<>(keySource.readKeys(new StringReader(KEY_FILE), 100));
+
+		assertEquals(4, keys.size());
+		assertEquals(new CacheWarmUpKey(CacheWarmUpKey.Type.PRODUCT, "300938"), keys.get(0));
+		assertEquals(new CacheWarmUpKey(CacheWarmUpKey.Type.CATEGORY, "576"), keys.get(1));
+		assertEquals(new CacheWarmUpKey(CacheWarmUpKey.Type.STORE, "Nakano"), keys.get(2));
+		assertEquals(new CacheWarmUpKey(CacheWarmUpKey.Type.PRODUCT, "1934793"), keys.get(3));
+	}
+
+	@Test
+	public void testReadKeysRespectsLimit() throws IOException
+	{
+		final List<CacheWarmUpKey> keys = new ArrayList<>(keySource.readKeys(new StringReader(KEY_FILE), 2));
+
+		assertEquals(2, keys.size());
+		assertTrue(keys.contains(new CacheWarmUpKey(CacheWarmUpKey.Type.CATEGORY, "576")));
+	}
+
+	@Test
+	public void testParseMalformedKey()
+	{
+		assertNull(keySource.parseKey(":value"));
+		assertNull(keySource.parseKey("product"));
+		assertNull(keySource.parseKey("# comment"));
+	}
+}
@@ -11,9 +11,13 @@ import de.hybris.platform.commercefacades.xstream.alias.TypeAliasMapping;
 import de.hybris.platform.commercefacades.xstream.conv.AttributeConverterMapping;
 import de.hybris.platform.commercefacades.xstream.conv.TypeConverterMapping;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.xml.transform.stream.StreamResult;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -203,4 +207,49 @@ public class XmlXStreamMarshallerFactoryTest
 
 		Assert.assertSame("Factory should produce same instance ", instanceOneXStream, instanceTwoXStream);
 	}
+
+	@Test
+	public void testCompactOutputWritesNoIndentation() throws Exception
+	{
+		final String indented = marshal(true);
+		final String compact = marshal(false);
+
+		Assert.assertTrue(indented.contains("\n"));
+		Assert.assertFalse(compact.contains("\n"));
+		Assert.assertTrue(compact.endsWith("?><sample><code>p1</code><name>Product</name></sample>"));
+		Assert.assertEquals(compact, indented.replaceAll(">\\s+<", "><"));
+	}
+
+	protected String marshal(final boolean indentOutput) throws Exception
+	{
+		final GenericApplicationContext applicationContext = new GenericApplicationContext();
+		applicationContext.refresh();
+
+		final XmlXStreamFactory xStreamFactory = new XmlXStreamFactory();
+		xStreamFactory.afterPropertiesSet();
+		final XStream realXStream = (XStream) xStreamFactory.getObject();
+		realXStream.alias("sample", Sample.class);
+
+		final XmlXStreamMarshallerFactory factory = new XmlXStreamMarshallerFactory();
+		factory.setApplicationContext(applicationContext);
+		factory.setXStream(realXStream);
+		factory.setIndentOutput(indentOutput);
+		factory.afterPropertiesSet();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((XStreamMarshaller) factory.getObject()).marshal(new Sample("p1", "Product"), new StreamResult(out));
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	protected static class Sample
+	{
+		private final String code;
+		private final String name;
+
+		Sample(final String code, final String name)
+		{
+			this.code = code;
+			this.name = name;
+		}
+	}
 }